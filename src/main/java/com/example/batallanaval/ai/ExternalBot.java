@@ -0,0 +1,286 @@
+package com.example.batallanaval.ai;
+
+import com.example.batallanaval.models.Ship;
+import com.example.batallanaval.models.ShotResult;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Un bot externo: un proceso aparte que juega por líneas de texto en su entrada y su
+ * salida estándar, al estilo de UCI en ajedrez. Muchas partidas comparten el mismo
+ * proceso, cada una con su número.
+ * <p>
+ * Protocolo (versión {@value #PROTOCOL}), una orden por línea:
+ * <pre>
+ *   → protocol 1                         ← ready [nombre]
+ *   → new &lt;partida&gt; &lt;lado&gt; &lt;semilla&gt;
+ *   → move &lt;petición&gt; &lt;partida&gt;        ← shot &lt;petición&gt; &lt;fila&gt; &lt;columna&gt;
+ *                                        ← error &lt;petición&gt; &lt;mensaje&gt;
+ *   → result &lt;partida&gt; &lt;fila&gt; &lt;columna&gt; miss|hit
+ *   → result &lt;partida&gt; &lt;fila&gt; &lt;columna&gt; sunk &lt;fila&gt; &lt;columna&gt; &lt;longitud&gt; h|v
+ *   → end &lt;partida&gt;
+ *   → quit
+ * </pre>
+ * El bot puede olvidar una partida al recibir {@code end}; un {@code new} con un número
+ * ya usado vuelve a empezarla.
+ * Las respuestas llevan el número de petición, así que el bot puede contestarlas en
+ * cualquier orden y hay muchas en vuelo a la vez: la latencia de ida y vuelta al proceso
+ * no limita el número de partidas por segundo, solo la duración de cada una. Las
+ * líneas que empiezan por {@code #} o {@code info} se ignoran.
+ * <p>
+ * Las órdenes se encolan y un único hilo escritor las vuelca por lotes: todo lo que se
+ * encoló mientras escribía el lote anterior sale en la siguiente escritura, con un solo
+ * vaciado. Un hilo lector reparte las respuestas. Las esperas usan
+ * {@link ReentrantLock} y futuros en lugar de monitores, así que las partidas pueden
+ * correr en hilos virtuales sin fijarlos.
+ */
+public final class ExternalBot implements AutoCloseable {
+
+    /** Versión del protocolo que se anuncia al arrancar. */
+    public static final int PROTOCOL = 1;
+    /** Propiedad del sistema con la espera máxima de una respuesta, en milisegundos. */
+    public static final String TIMEOUT_PROPERTY = "batallanaval.bot.timeout";
+
+    private static final long DEFAULT_TIMEOUT_MILLIS = 10_000;
+
+    private final Process process;
+    private final BufferedWriter input;
+    private final BufferedReader output;
+    private final long timeoutMillis;
+    private final CompletableFuture<String> ready = new CompletableFuture<>();
+    private final Map<Integer, CompletableFuture<int[]>> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger nextRequest = new AtomicInteger();
+    private final AtomicInteger nextGame = new AtomicInteger();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition hasLines = lock.newCondition();
+    /** Órdenes pendientes de escribir (doble búfer con las del escritor). */
+    private List<String> queued = new ArrayList<>();
+    private List<String> writing = new ArrayList<>();
+    private volatile boolean closed;
+    private volatile String failure;
+
+    /**
+     * Arranca el bot y espera a que confirme el protocolo.
+     * @param command Programa y argumentos.
+     * @throws IOException si no se puede arrancar el proceso.
+     * @throws IllegalStateException si no responde {@code ready} a tiempo.
+     */
+    public ExternalBot(List<String> command) throws IOException {
+        this.timeoutMillis = Long.getLong(TIMEOUT_PROPERTY, DEFAULT_TIMEOUT_MILLIS);
+        this.process = new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        this.input = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+        this.output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        startDaemon(this::writeLoop, "batallanaval-bot-writer");
+        startDaemon(this::readLoop, "batallanaval-bot-reader");
+        send("protocol " + PROTOCOL);
+        try {
+            ready.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException | ExecutionException | TimeoutException e) {
+            close();
+            throw new IllegalStateException("El bot " + command + " no respondió al protocolo", e);
+        }
+    }
+
+    /**
+     * @return El nombre con el que se presentó el bot (puede estar vacío).
+     */
+    public String getName() {
+        return ready.getNow("");
+    }
+
+    /**
+     * Crea una estrategia que juega una partida nueva con este bot.
+     * @param seed Semilla que se le pasa al bot.
+     * @return La estrategia.
+     */
+    public ShotStrategy newGame(long seed) {
+        return new ExternalBotStrategy(this, nextGame.incrementAndGet(), seed);
+    }
+
+    // ========= ÓRDENES =========
+
+    void startGame(int game, int boardSize, long seed) {
+        send("new " + game + " " + boardSize + " " + seed);
+    }
+
+    /**
+     * Pide un disparo y espera la respuesta; en un hilo virtual la espera lo desmonta.
+     * @return {fila, columna}.
+     * @throws IllegalStateException si el bot falla, se cierra o no contesta a tiempo.
+     */
+    int[] move(int game) {
+        int request = nextRequest.incrementAndGet();
+        CompletableFuture<int[]> answer = new CompletableFuture<>();
+        pending.put(request, answer);
+        // Si el bot ya falló, nadie completará la respuesta
+        if (failure != null) answer.completeExceptionally(new IllegalStateException(failure));
+        send("move " + request + " " + game);
+        try {
+            return answer.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando al bot", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("El bot no respondió a la petición " + request, e);
+        } finally {
+            pending.remove(request);
+        }
+    }
+
+    void result(int game, int row, int col, ShotResult result, Ship sunkShip) {
+        StringBuilder line = new StringBuilder(48).append("result ").append(game).append(' ')
+                .append(row).append(' ').append(col).append(' ');
+        switch (result) {
+            case MISS -> line.append("miss");
+            case HIT -> line.append("hit");
+            case SUNK -> {
+                line.append("sunk");
+                if (sunkShip != null) {
+                    line.append(' ').append(sunkShip.getRow()).append(' ').append(sunkShip.getCol())
+                            .append(' ').append(sunkShip.getLength()).append(sunkShip.isHorizontal() ? " h" : " v");
+                }
+            }
+        }
+        send(line.toString());
+    }
+
+    void endGame(int game) {
+        send("end " + game);
+    }
+
+    /**
+     * Despide al bot y libera el proceso. Las peticiones en vuelo fallan.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        send("quit");
+        lock.lock();
+        try {
+            closed = true;
+            hasLines.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        fail("El bot se cerró");
+        try {
+            if (!process.waitFor(1, TimeUnit.SECONDS)) process.destroy();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroy();
+        }
+    }
+
+    private void send(String line) {
+        lock.lock();
+        try {
+            if (closed) return;
+            queued.add(line);
+            if (queued.size() == 1) hasLines.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ========= HILOS =========
+
+    private void writeLoop() {
+        try {
+            while (true) {
+                List<String> batch;
+                lock.lock();
+                try {
+                    while (queued.isEmpty() && !closed) hasLines.awaitUninterruptibly();
+                    if (queued.isEmpty()) break;
+                    batch = queued;
+                    queued = writing;
+                    writing = batch;
+                } finally {
+                    lock.unlock();
+                }
+                for (String line : batch) {
+                    input.write(line);
+                    input.write('\n');
+                }
+                // Un vaciado por lote: lo encolado mientras tanto sale en el siguiente
+                input.flush();
+                batch.clear();
+            }
+            input.close();
+        } catch (IOException e) {
+            fail("No se pudo escribir al bot: " + e.getMessage());
+        }
+    }
+
+    private void readLoop() {
+        try {
+            String line;
+            while ((line = output.readLine()) != null) {
+                dispatch(line);
+            }
+            fail("El bot terminó");
+        } catch (IOException e) {
+            fail("No se pudo leer del bot: " + e.getMessage());
+        }
+    }
+
+    private void dispatch(String line) {
+        if (line.isEmpty() || line.startsWith("#") || line.startsWith("info")) return;
+        String[] parts = line.trim().split("\\s+");
+        try {
+            switch (parts[0]) {
+                case "ready" -> ready.complete(line.trim().substring(parts[0].length()).trim());
+                case "shot" -> {
+                    CompletableFuture<int[]> answer = pending.get(Integer.parseInt(parts[1]));
+                    if (answer != null) {
+                        answer.complete(new int[]{Integer.parseInt(parts[2]), Integer.parseInt(parts[3])});
+                    }
+                }
+                case "error" -> {
+                    CompletableFuture<int[]> answer = pending.get(Integer.parseInt(parts[1]));
+                    // El mensaje es el resto de la línea tal cual, aunque repita el número de turno
+                    String[] fields = line.trim().split("\\s+", 3);
+                    String message = fields.length > 2 ? fields[2] : "sin detalle";
+                    if (answer != null) answer.completeExceptionally(new IllegalStateException("El bot falló: " + message));
+                }
+                default -> System.err.println("Línea desconocida del bot: " + line);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Línea mal formada del bot: " + line);
+        }
+    }
+
+    private void fail(String message) {
+        if (failure == null) failure = message;
+        IllegalStateException error = new IllegalStateException(failure);
+        ready.completeExceptionally(error);
+        for (CompletableFuture<int[]> answer : pending.values()) answer.completeExceptionally(error);
+    }
+
+    private static void startDaemon(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.batallanaval.ai;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Publica como estrategia {@value #NAME} un bot externo que habla el protocolo de
+ * {@link ExternalBot}. El programa se indica con la propiedad del sistema
+ * {@value #COMMAND_PROPERTY} (programa y argumentos separados por espacios); se arranca
+ * con la primera partida y todas las partidas del proceso lo comparten.
+ */
+public class ExternalBotProvider implements ShotStrategyProvider {
+
+    static final String NAME = "external";
+    /** Propiedad del sistema con la línea de órdenes del bot. */
+    public static final String COMMAND_PROPERTY = "batallanaval.bot";
+
+    private static final ReentrantLock STARTING = new ReentrantLock();
+    private static volatile ExternalBot shared;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    /**
+     * @throws IllegalStateException si no se configuró el programa o no arranca.
+     */
+    @Override
+    public ShotStrategy create(long seed) {
+        return bot().newGame(seed);
+    }
+
+    private static ExternalBot bot() {
+        // Se arranca una sola vez; las partidas siguientes no pasan por el candado, y el
+        // arranque espera con un ReentrantLock para no fijar hilos virtuales
+        ExternalBot bot = shared;
+        if (bot != null) return bot;
+        STARTING.lock();
+        try {
+            if (shared != null) return shared;
+            String command = System.getProperty(COMMAND_PROPERTY);
+            if (command == null || command.isBlank()) {
+                throw new IllegalStateException("Falta la propiedad " + COMMAND_PROPERTY + " con el programa del bot");
+            }
+            try {
+                shared = new ExternalBot(List.of(command.trim().split("\\s+")));
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo arrancar el bot: " + command, e);
+            }
+            return shared;
+        } finally {
+            STARTING.unlock();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.batallanaval.ai;
+
+import com.example.batallanaval.models.Board;
+import com.example.batallanaval.models.Ship;
+import com.example.batallanaval.models.ShotResult;
+
+/**
+ * Una partida jugada por un {@link ExternalBot}. Cumple el mismo papel que
+ * {@link com.example.batallanaval.models.MachineAI}: {@link #nextShot(Board)} pide el
+ * disparo al proceso y espera su respuesta, y los resultados se le reenvían sin esperar.
+ */
+final class ExternalBotStrategy implements ShotStrategy {
+
+    private final ExternalBot bot;
+    private final int game;
+    private final long seed;
+    /** Lado del tablero anunciado al bot (0 = aún no se anunció la partida). */
+    private int announcedSize;
+
+    ExternalBotStrategy(ExternalBot bot, int game, long seed) {
+        this.bot = bot;
+        this.game = game;
+        this.seed = seed;
+    }
+
+    @Override
+    public int nextShot(Board opponentBoard) {
+        int size = opponentBoard.getSize();
+        if (announcedSize != size) reset(size);
+        int[] shot = bot.move(game);
+        int row = shot[0];
+        int col = shot[1];
+        if (row < 0 || col < 0 || row >= size || col >= size || opponentBoard.isShotAt(row, col)) {
+            throw new IllegalStateException("El bot " + bot.getName() + " eligió una casilla no válida: ("
+                    + row + ", " + col + ")");
+        }
+        return row * size + col;
+    }
+
+    @Override
+    public void onShotResult(int row, int col, ShotResult result, Ship sunkShip) {
+        bot.result(game, row, col, result, sunkShip);
+    }
+
+    @Override
+    public void reset(int boardSize) {
+        // Para el bot es una partida nueva con el mismo número
+        if (announcedSize != 0) bot.endGame(game);
+        bot.startGame(game, boardSize, seed);
+        announcedSize = boardSize;
+    }
+
+    @Override
+    public void gameOver() {
+        if (announcedSize != 0) bot.endGame(game);
+        announcedSize = 0;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.batallanaval.ai;
+
+import com.example.batallanaval.models.FleetSampler;
+
+/**
+ * Colocación rápida por búsqueda con retroceso, publicada como {@value #NAME}.
+ */
+public class FastPlacerProvider implements FleetPlacerProvider {
+
+    static final String NAME = "fast";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public FleetPlacer create() {
+        return (board, random) -> board.randomizeShips(random, FleetSampler.Mode.FAST);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.batallanaval.ai;
+
+import com.example.batallanaval.models.Board;
+
+import java.util.Random;
+
+/**
+ * Estrategia de colocación de la flota de un jugador automático.
+ * Las implementaciones se publican mediante un {@link FleetPlacerProvider}.
+ */
+public interface FleetPlacer {
+
+    /**
+     * Coloca la flota completa en el tablero.
+     * @param board Tablero vacío (o con barcos que deben respetarse).
+     * @param random Fuente de aleatoriedad, para poder reproducir la colocación.
+     * @throws IllegalStateException si la flota no cabe.
+     */
+    void place(Board board, Random random);
+}
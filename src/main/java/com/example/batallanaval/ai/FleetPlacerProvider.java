@@ -0,0 +1,16 @@
+package com.example.batallanaval.ai;
+
+/**
+ * Servicio que crea estrategias de colocación. Se descubre con {@link java.util.ServiceLoader}.
+ */
+public interface FleetPlacerProvider {
+
+    /** @return Nombre único de la estrategia (p. ej. {@code "uniform"}). */
+    String name();
+
+    /**
+     * Crea una estrategia de colocación.
+     * @return La estrategia.
+     */
+    FleetPlacer create();
+}
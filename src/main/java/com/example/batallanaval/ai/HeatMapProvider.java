@@ -0,0 +1,22 @@
+package com.example.batallanaval.ai;
+
+import com.example.batallanaval.models.HeatMapAI;
+
+/**
+ * Publica {@link HeatMapAI} (densidad de probabilidad) como estrategia {@value #NAME}.
+ * Es determinista, así que ignora la semilla.
+ */
+public class HeatMapProvider implements ShotStrategyProvider {
+
+    static final String NAME = "heat-map";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public ShotStrategy create(long seed) {
+        return new HeatMapAI();
+    }
+}
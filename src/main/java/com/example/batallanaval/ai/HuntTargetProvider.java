@@ -0,0 +1,23 @@
+package com.example.batallanaval.ai;
+
+import com.example.batallanaval.models.MachineAI;
+
+import java.util.Random;
+
+/**
+ * Publica {@link MachineAI} (caza y objetivo) como estrategia {@value #NAME}.
+ */
+public class HuntTargetProvider implements ShotStrategyProvider {
+
+    static final String NAME = "hunt-target";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public ShotStrategy create(long seed) {
+        return new MachineAI(new Random(seed));
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.batallanaval.ai;
+
+import com.example.batallanaval.models.MonteCarloAI;
+
+/**
+ * Publica {@link MonteCarloAI} (nivel experto) como estrategia {@value #NAME}.
+ */
+public class MonteCarloProvider implements ShotStrategyProvider {
+
+    static final String NAME = "monte-carlo";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public ShotStrategy create(long seed) {
+        return new MonteCarloAI(seed);
+    }
+}
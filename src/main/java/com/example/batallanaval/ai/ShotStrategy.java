@@ -0,0 +1,102 @@
+package com.example.batallanaval.ai;
+
+import com.example.batallanaval.models.Board;
+import com.example.batallanaval.models.Ship;
+import com.example.batallanaval.models.ShotResult;
+
+/**
+ * Estrategia de disparo de un jugador automático.
+ * <p>
+ * Una instancia juega una sola partida contra un único tablero rival y no es segura
+ * entre hilos. Las implementaciones se publican mediante un {@link ShotStrategyProvider}.
+ */
+public interface ShotStrategy {
+
+    /**
+     * Elige el siguiente disparo.
+     * @param opponentBoard Tablero rival.
+     * @return La casilla empaquetada como {@code fila * tamaño + columna}.
+     * @throws IllegalStateException si ya no quedan casillas por disparar.
+     */
+    int nextShot(Board opponentBoard);
+
+    /**
+     * Informa del resultado del último disparo. Por defecto se ignora.
+     * @param row Fila disparada.
+     * @param col Columna disparada.
+     * @param result Resultado obtenido.
+     * @param sunkShip El barco hundido si {@code result} es SUNK, o null.
+     */
+    default void onShotResult(int row, int col, ShotResult result, Ship sunkShip) {
+    }
+
+    /**
+     * Avisa de que la partida terminó, para liberar lo que la estrategia tenga fuera de
+     * la JVM (por ejemplo, el estado de un bot externo). Por defecto no hace nada.
+     */
+    default void gameOver() {
+    }
+
+    /**
+     * Olvida lo aprendido y se prepara para un tablero rival de este lado.
+     * @param boardSize Lado del tablero rival.
+     */
+    default void reset(int boardSize) {
+    }
+
+    /**
+     * Reconstruye el conocimiento a partir de los disparos ya hechos sobre el tablero
+     * (por ejemplo, al reanudar una partida guardada). Solo usa información pública:
+     * agua, impacto y barcos hundidos.
+     * @param opponentBoard Tablero rival con los disparos ya realizados.
+     */
+    default void resume(Board opponentBoard) {
+        int size = opponentBoard.getSize();
+        reset(size);
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                if (!opponentBoard.isShotAt(row, col)) continue;
+                Ship ship = opponentBoard.getShipAt(row, col);
+                if (ship == null) {
+                    onShotResult(row, col, ShotResult.MISS, null);
+                } else if (ship.isSunk() && isLastCell(ship, row, col)) {
+                    onShotResult(row, col, ShotResult.SUNK, ship);
+                } else {
+                    onShotResult(row, col, ShotResult.HIT, null);
+                }
+            }
+        }
+    }
+
+    /**
+     * Exporta el conocimiento acumulado en un formato compacto para guardarlo junto a la
+     * partida. Por defecto no hay estado que guardar y al reanudar se usa {@link #resume}.
+     * @return Los bytes del estado, o null si la estrategia no lo admite.
+     */
+    default byte[] saveState() {
+        return null;
+    }
+
+    /**
+     * Restaura el estado exportado con {@link #saveState()} sin volver a recorrer la
+     * partida. Los disparos del tablero que el estado aún no conocía (posteriores al
+     * guardado) se incorporan como si la estrategia los hubiera hecho.
+     * @param opponentBoard Tablero rival con los disparos ya realizados.
+     * @param state Bytes del estado.
+     * @return true si se restauró; false si el estado no es de esta estrategia o no
+     *         encaja con el tablero, y entonces conviene llamar a {@link #resume}.
+     */
+    default boolean restoreState(Board opponentBoard, byte[] state) {
+        return false;
+    }
+
+    /**
+     * Indica si la casilla es la última del barco en orden de filas y columnas,
+     * para anunciar el hundimiento una sola vez al recorrer el tablero.
+     */
+    private static boolean isLastCell(Ship ship, int row, int col) {
+        int lastRow = ship.isHorizontal() ? ship.getRow() : ship.getRow() + ship.getLength() - 1;
+        int lastCol = ship.isHorizontal() ? ship.getCol() + ship.getLength() - 1 : ship.getCol();
+        return row == lastRow && col == lastCol;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.batallanaval.ai;
+
+/**
+ * Servicio que crea estrategias de disparo. Se descubre con {@link java.util.ServiceLoader},
+ * ya sea declarado con {@code provides} en {@code module-info.java} o en
+ * {@code META-INF/services}.
+ */
+public interface ShotStrategyProvider {
+
+    /** @return Nombre único de la estrategia (p. ej. {@code "heat-map"}). */
+    String name();
+
+    /**
+     * Crea una estrategia nueva para una partida.
+     * @param seed Semilla para las estrategias aleatorias.
+     * @return La estrategia.
+     */
+    ShotStrategy create(long seed);
+}
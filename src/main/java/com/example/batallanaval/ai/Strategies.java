@@ -0,0 +1,85 @@
+package com.example.batallanaval.ai;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Registro de las estrategias disponibles, cargadas una sola vez con {@link ServiceLoader}.
+ * Los mapas son inmutables tras la carga, así que se pueden consultar desde cualquier hilo.
+ */
+public final class Strategies {
+
+    /** Estrategia de disparo usada si no se indica otra. */
+    public static final String DEFAULT_SHOOTER = HuntTargetProvider.NAME;
+
+    /** Estrategia de colocación usada si no se indica otra. */
+    public static final String DEFAULT_PLACER = UniformPlacerProvider.NAME;
+
+    private static final Map<String, ShotStrategyProvider> SHOOTERS = load(ShotStrategyProvider.class, ShotStrategyProvider::name);
+    private static final Map<String, FleetPlacerProvider> PLACERS = load(FleetPlacerProvider.class, FleetPlacerProvider::name);
+
+    private Strategies() {
+    }
+
+    /**
+     * Crea una estrategia de disparo por nombre.
+     * @param name Nombre de la estrategia.
+     * @param seed Semilla.
+     * @return Una estrategia nueva.
+     * @throws IllegalArgumentException si no hay ningún proveedor con ese nombre.
+     */
+    public static ShotStrategy shotStrategy(String name, long seed) {
+        return shooterProvider(name).create(seed);
+    }
+
+    /**
+     * Busca el proveedor de una estrategia de disparo.
+     * @param name Nombre de la estrategia.
+     * @return El proveedor.
+     * @throws IllegalArgumentException si no existe.
+     */
+    public static ShotStrategyProvider shooterProvider(String name) {
+        ShotStrategyProvider provider = SHOOTERS.get(name);
+        if (provider == null) {
+            throw new IllegalArgumentException("Estrategia de disparo desconocida: " + name + " " + SHOOTERS.keySet());
+        }
+        return provider;
+    }
+
+    /**
+     * Crea una estrategia de colocación por nombre.
+     * @param name Nombre de la estrategia.
+     * @return Una estrategia nueva.
+     * @throws IllegalArgumentException si no hay ningún proveedor con ese nombre.
+     */
+    public static FleetPlacer fleetPlacer(String name) {
+        FleetPlacerProvider provider = PLACERS.get(name);
+        if (provider == null) {
+            throw new IllegalArgumentException("Estrategia de colocación desconocida: " + name + " " + PLACERS.keySet());
+        }
+        return provider.create();
+    }
+
+    /** @return Nombres de las estrategias de disparo disponibles, ordenados. */
+    public static Set<String> shooterNames() {
+        return SHOOTERS.keySet();
+    }
+
+    /** @return Nombres de las estrategias de colocación disponibles, ordenados. */
+    public static Set<String> placerNames() {
+        return PLACERS.keySet();
+    }
+
+    private static <P> Map<String, P> load(Class<P> service, Function<P, String> name) {
+        Map<String, P> byName = new TreeMap<>();
+        for (P provider : ServiceLoader.load(service, Strategies.class.getClassLoader())) {
+            // Si dos proveedores usan el mismo nombre gana el primero encontrado
+            byName.putIfAbsent(name.apply(provider), provider);
+        }
+        return Collections.unmodifiableMap(byName);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.batallanaval.ai;
+
+import com.example.batallanaval.models.FleetSampler;
+
+/**
+ * Colocación uniforme sobre todas las flotas válidas, publicada como {@value #NAME}.
+ */
+public class UniformPlacerProvider implements FleetPlacerProvider {
+
+    static final String NAME = "uniform";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public FleetPlacer create() {
+        return (board, random) -> board.randomizeShips(random, FleetSampler.Mode.UNIFORM);
+    }
+}
@@ -1,10 +1,23 @@
 package com.example.batallanaval.controllers;
 
+import com.example.batallanaval.engine.Edit;
+import com.example.batallanaval.engine.GamePhase;
+import com.example.batallanaval.engine.GameSession;
+import com.example.batallanaval.engine.SessionHooks;
+import com.example.batallanaval.engine.SessionListener;
+import com.example.batallanaval.engine.Shot;
 import com.example.batallanaval.models.*;
+import com.example.batallanaval.net.Frame;
+import com.example.batallanaval.net.MatchClient;
+import com.example.batallanaval.persistence.PlayerStats;
 import com.example.batallanaval.persistence.SaveManager;
+import com.example.batallanaval.persistence.SaveService;
+import com.example.batallanaval.persistence.SavedGame;
 import com.example.batallanaval.views.BoardVisualizer;
 import com.example.batallanaval.views.CanvasMarkerRenderer;
 import com.example.batallanaval.views.CanvasShipRenderer;
+import com.example.batallanaval.views.FxEventBatcher;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.control.Button;
@@ -13,17 +26,20 @@ import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.image.ImageView;
+import javafx.scene.input.KeyCombination;
 import javafx.stage.Stage;
 import javafx.scene.layout.TilePane;
 
 import java.io.IOException;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 /**
  * Controlador principal del juego Batalla Naval.
- * Gestiona la lógica de la interfaz de usuario, la fase de colocación de barcos,
- * la fase de batalla contra la IA y la persistencia del estado del juego.
+ * Gestiona la interfaz de usuario: la colocación de barcos, los clics de disparo y el
+ * pintado de los resultados. Las reglas de turno, la IA y la persistencia están en
+ * {@link GameSession}; este controlador solo traduce entre la sesión y la vista.
  */
 public class GameController {
 
@@ -65,14 +81,43 @@ public class GameController {
 
     // ========= GAME LOGIC =========
     private boolean isEnemyFleetRevealed = false;
-    private final int CELL = 50;
-    private boolean placementPhase = true;
-    private boolean isGameFinished = false;
-    private String playerNickname;
+    /** Lado en píxeles del área de cada tablero; el tamaño de celda se deriva de él. */
+    private static final double BOARD_PIXELS = 500;
+    /** Lado del tablero lógico en celdas. */
+    private int boardSize = Board.DEFAULT_SIZE;
+    /** Tamaño en píxeles de una celda (50 para un tablero de 10x10). */
+    private double cellSize = BOARD_PIXELS / Board.DEFAULT_SIZE;
     private Board playerLogical = new Board();
     private Board machineLogical = new Board();
-    private MachineAI ai = new MachineAI();
-    private int numSunkShips;
+    /** Reglas, turnos e IA de la partida; se sustituye al cargar una partida. */
+    private GameSession session = new GameSession(null, playerLogical, machineLogical, SessionHooks.saveService());
+    /** Juega el turno de la máquina a su ritmo, sin bloquear el hilo de JavaFX. */
+    private final MachineTurnScheduler machineTurn = new MachineTurnScheduler(this::onMachineTurnEnd,
+            message -> showWarning("Estrategia de la máquina", message));
+    /** Entrega los eventos de la sesión a {@link BoardPainter}, un lote por pulso. */
+    private FxEventBatcher sessionEvents;
+    /** Canvas de cada barco colocado del jugador, para el efecto fantasma. */
+    private final Map<Ship, Canvas> playerShipCanvases = new IdentityHashMap<>();
+    /** Marcador de cada casilla del tablero enemigo, para reemplazarlo o quitarlo al deshacer. */
+    private Canvas[] enemyMarkers = new Canvas[0];
+    /** Fantasma de cada barco enemigo hundido. */
+    private final Map<Ship, Canvas> enemyGhosts = new IdentityHashMap<>();
+    /** Propiedad del sistema que convierte la batalla en una práctica de tiro con deshacer. */
+    private static final String PRACTICE_PROPERTY = "batallanaval.practice";
+    /**
+     * Propiedad del sistema con el servidor de partidas en red ("host:puerto"). Si está
+     * definida, la batalla se juega contra otra persona a través del servidor.
+     */
+    private static final String SERVER_PROPERTY = "batallanaval.server";
+    /** Conexión con el servidor en modo cliente ligero; null si se juega contra la máquina. */
+    private MatchClient network;
+    private int networkSeat;
+    private boolean networkTurn;
+    /** Casillas del rival ya disparadas (o con el disparo en camino). */
+    private boolean[] networkShots;
+    /** Casilla del disparo propio que espera respuesta del servidor; -1 si no hay ninguno. */
+    private int networkPendingCell = -1;
+    private int networkEnemySunk;
     private ShipPlacementManager placementManager;
     private BoardVisualizer boardVisualizer;
     // Renderer para pintar los barcos en el menú lateral antes de arrastrarlos
@@ -91,28 +136,16 @@ public class GameController {
             backgroundView.fitHeightProperty().bind(rootStack.heightProperty());
         }
 
-        // Inicializar el Visualizador (Dibuja la grilla y el cuadrado de selección)
-        // Le pasamos el 'shipLayer' que es el Pane transparente encima del Grid
-        boardVisualizer = new BoardVisualizer(shipLayer, CELL);
-        // Configuración visual del tablero enemigo
-        if (enemyLayer != null) {
-            boardVisualizer.drawGrid(enemyLayer); // Dibuja líneas en el enemigo
-            boardVisualizer.prepareEnemyBoard(enemyLayer); // Prepara la mira naranja
-        }
-        boardVisualizer.drawGrid();
-
-        markerRenderer = new CanvasMarkerRenderer(CELL);
-
-        placementManager = new ShipPlacementManager(this, boardVisualizer, shipLayer, CELL);
+        configureBoardSize(playerLogical.getSize());
 
         // Crear la flota en el panel lateral
         initDraggableFleet();
         updateFleetCounts();
 
         addTargetHighlight();
-        numSunkShips = 0;
 
-        // Actualiza los contadores al iniciar
+        // Los tableros se pintan a partir de los eventos de la sesión
+        subscribeToSession();
         updateStatsLabels();
 
         //Configurar botones
@@ -125,6 +158,48 @@ public class GameController {
 
         updateRotateButtonText();
         btnRotate.setOnAction(e -> onRotateClick());
+
+        // Si el guardado falla (disco lleno, permisos...) el jugador debe saberlo
+        SaveManager.setFailureListener(message -> Platform.runLater(() -> showWarning("Guardado",
+                message + "\n\nLa partida continúa, pero puede que no se pueda retomar.")));
+
+        // Deshacer y rehacer con el teclado (colocación y práctica)
+        btnStart.sceneProperty().addListener((obs, oldScene, scene) -> {
+            if (scene == null) return;
+            scene.getAccelerators().put(KeyCombination.keyCombination("Shortcut+Z"), this::undo);
+            scene.getAccelerators().put(KeyCombination.keyCombination("Shortcut+Y"), this::redo);
+            scene.getAccelerators().put(KeyCombination.keyCombination("Shortcut+Shift+Z"), this::redo);
+        });
+    }
+
+    /**
+     * Ajusta el tamaño de celda al lado del tablero y recrea los ayudantes visuales
+     * que dependen de él (visualizador, marcadores y gestor de colocación).
+     * @param size Lado del tablero lógico en celdas.
+     */
+    private void configureBoardSize(int size) {
+        boardSize = size;
+        cellSize = BOARD_PIXELS / size;
+
+        shipLayer.getChildren().clear();
+        playerShipCanvases.clear();
+        if (enemyLayer != null) enemyLayer.getChildren().clear();
+
+        // Inicializar el Visualizador (Dibuja la grilla y el cuadrado de selección)
+        // Le pasamos el 'shipLayer' que es el Pane transparente encima del Grid
+        boardVisualizer = new BoardVisualizer(shipLayer, cellSize, size);
+        // Configuración visual del tablero enemigo
+        if (enemyLayer != null) {
+            boardVisualizer.drawGrid(enemyLayer); // Dibuja líneas en el enemigo
+            boardVisualizer.prepareEnemyBoard(enemyLayer); // Prepara la mira naranja
+        }
+        boardVisualizer.drawGrid();
+
+        markerRenderer = new CanvasMarkerRenderer(cellSize);
+        enemyMarkers = new Canvas[size * size];
+        enemyGhosts.clear();
+
+        placementManager = new ShipPlacementManager(this, boardVisualizer, shipLayer, cellSize);
     }
 
     /**
@@ -133,7 +208,8 @@ public class GameController {
      */
     public void addTargetHighlight() {
         //Crear el cuadrado
-        targetHighlight = new Rectangle(CELL, CELL); // Tamaño 50x50
+        targetHighlight = new Rectangle(cellSize, cellSize); // Una celda
+        targetHighlight.setManaged(false); // Se posiciona a mano, no por las columnas del GridPane
         targetHighlight.setFill(Color.rgb(255, 165, 0, 0.3)); // Naranja transparente
         targetHighlight.setStroke(Color.ORANGE);
         targetHighlight.setStrokeWidth(2);
@@ -192,13 +268,7 @@ public class GameController {
      * @param size El tamaño del barco a devolver (ej; 4, 3, 2, 1).
      */
     public void returnShipToPanel(int size) {
-        Pane targetContainer = switch (size) {
-            case 4 -> carrierContainer;
-            case 3 -> submarineContainer;
-            case 2 -> destroyerContainer;
-            case 1 -> frigateContainer;
-            default -> null;
-        };
+        Pane targetContainer = panelFor(size);
 
         if (targetContainer != null) {
             createShipInPanel(size, targetContainer);
@@ -209,7 +279,6 @@ public class GameController {
             btnStart.setStyle("");
 
             // Actualizar controlador al quitar barco
-            updateStatsLabels();
             updateFleetCounts();
 
             // GUARDADO AUTOMÁTICO AL QUITAR BARCO
@@ -217,6 +286,21 @@ public class GameController {
         }
     }
 
+    /**
+     * Devuelve el contenedor del panel de flota para un tamaño de barco.
+     * @param size El tamaño del barco.
+     * @return El contenedor, o null si el tamaño no es de la flota estándar.
+     */
+    private Pane panelFor(int size) {
+        return switch (size) {
+            case 4 -> carrierContainer;
+            case 3 -> submarineContainer;
+            case 2 -> destroyerContainer;
+            case 1 -> frigateContainer;
+            default -> null;
+        };
+    }
+
     /**
      * Inicializa visualmente la flota en el panel lateral.
      * Solo crea los barcos que NO están en el tablero lógico.
@@ -286,7 +370,10 @@ public class GameController {
     private void onRandomBoard() {
         playerLogical.clear();
         playerLogical.randomizeShips();
+        // La flota al azar no se puede deshacer barco a barco
+        session.forgetEdits();
         shipLayer.getChildren().clear();
+        playerShipCanvases.clear();
         boardVisualizer.drawGrid();
         boardVisualizer.recreateHighlight();
 
@@ -306,41 +393,54 @@ public class GameController {
      * Configura las propiedades de arrastre y rotación.
      */
     private void drawPlayerBoardFromModel() {
-        java.util.Set<Ship> drawnShips = new java.util.HashSet<>();
-
-        for (int r = 0; r < 10; r++) {
-            for (int c = 0; c < 10; c++) {
-                Ship ship = playerLogical.peek(r, c).getShip();
-
-                // Si encontramos un barco y no lo hemos dibujado aún.
-                if (ship != null && !drawnShips.contains(ship)) {
-                    boolean isHorizontal = false;
-
-                    // Determinar orientación.
-                    if (c + 1 < 10 && playerLogical.peek(r, c + 1).getShip() == ship) {
-                        isHorizontal = true;
-                    }
-                    if (ship.getSize() == 1) isHorizontal = true;
-                    Canvas canvas = new Canvas(ship.getSize() * CELL, CELL);
-                    renderer.render(canvas, ship.getSize());
-                    // Aplicar rotación y ajustes de posición para barcos verticales.
-                    if (!isHorizontal) {
-                        canvas.setRotate(90);
-                        double offset = CELL * (1 - ship.getSize()) / 2.0;
-                        canvas.setLayoutX((c * CELL) + offset);
-                        canvas.setLayoutY((r * CELL) - offset);
-                    } else {
-                        canvas.setLayoutX(c * CELL);
-                        canvas.setLayoutY(r * CELL);
-                    }
-                    placementManager.setupDragForPlacedShip(canvas, ship, ship.getSize());
-                    shipLayer.getChildren().add(canvas);
-                    drawnShips.add(ship);
-                }
-            }
+        for (Ship ship : playerLogical.getFleet()) {
+            drawPlacedShip(ship);
         }
     }
 
+    /**
+     * Dibuja un barco colocado del jugador en su posición del modelo, listo para arrastrarlo.
+     * @param ship El barco colocado.
+     */
+    private void drawPlacedShip(Ship ship) {
+        Canvas canvas = createBoardShipCanvas(ship);
+        placementManager.setupDragForPlacedShip(canvas, ship, ship.getSize());
+        shipLayer.getChildren().add(canvas);
+    }
+
+    /**
+     * Quita de la capa de barcos el Canvas de un barco del jugador.
+     * @param ship El barco.
+     */
+    private void removePlacedShipCanvas(Ship ship) {
+        Canvas canvas = playerShipCanvases.remove(ship);
+        if (canvas != null) shipLayer.getChildren().remove(canvas);
+    }
+
+    /**
+     * Crea el Canvas de un barco ya colocado, rotado y posicionado según la
+     * geometría registrada en el modelo (origen y orientación).
+     * @param ship El barco colocado en el tablero lógico.
+     * @return El Canvas listo para añadirse a una capa del tablero.
+     */
+    private Canvas createBoardShipCanvas(Ship ship) {
+        Canvas canvas = new Canvas(ship.getSize() * cellSize, cellSize);
+        renderer.render(canvas, ship.getSize());
+        int r = ship.getRow();
+        int c = ship.getCol();
+        // Aplicar rotación y ajustes de posición para barcos verticales.
+        if (!ship.isHorizontal() && ship.getSize() > 1) {
+            canvas.setRotate(90);
+            double offset = cellSize * (1 - ship.getSize()) / 2.0;
+            canvas.setLayoutX((c * cellSize) + offset);
+            canvas.setLayoutY((r * cellSize) - offset);
+        } else {
+            canvas.setLayoutX(c * cellSize);
+            canvas.setLayoutY(r * cellSize);
+        }
+        return canvas;
+    }
+
     /**
      * Muestra u oculta visualmente la flota enemiga en el tablero de la máquina.
      */
@@ -360,38 +460,13 @@ public class GameController {
      * Dibuja los barcos de la máquina en la capa de revelado.
      */
     private void drawMachineBoardRealShips() {
-        java.util.Set<Ship> drawnShips = new java.util.HashSet<>();
-        int size = machineLogical.getSize();
-        for (int r = 0; r < size; r++) {
-            for (int c = 0; c < size; c++) {
-                Ship ship = machineLogical.peek(r, c).getShip();
-                if (ship != null && !drawnShips.contains(ship)) {
-                    boolean isHorizontal = false;
-                    // Determinar orientación
-                    if (c + 1 < size && machineLogical.peek(r, c + 1).getShip() == ship) {
-                        isHorizontal = true;
-                    }
-                    if (ship.getSize() == 1) isHorizontal = true;
-                    Canvas canvas = new Canvas(ship.getSize() * CELL, CELL);
-                    renderer.render(canvas, ship.getSize());
-                    canvas.setOpacity(0.5); // Efecto "fantasma"
-                    // Aplicar rotación y ajustes de posición.
-                    if (!isHorizontal) {
-                        canvas.setRotate(90);
-                        double offset = CELL * (1 - ship.getSize()) / 2.0;
-                        canvas.setLayoutX((c * CELL) + offset);
-                        canvas.setLayoutY((r * CELL) - offset);
-                    } else {
-                        canvas.setLayoutX(c * CELL);
-                        canvas.setLayoutY(r * CELL);
-                    }
-                    canvas.setMouseTransparent(true);
-                    revealLayer.getChildren().add(canvas); // Añadir a la capa de revelación
-                    drawnShips.add(ship);
-                    autoSave();
-                }
-            }
+        for (Ship ship : machineLogical.getFleet()) {
+            Canvas canvas = createBoardShipCanvas(ship);
+            canvas.setOpacity(0.5); // Efecto "fantasma"
+            canvas.setMouseTransparent(true);
+            revealLayer.getChildren().add(canvas); // Añadir a la capa de revelación
         }
+        autoSave();
     }
 
     /**
@@ -403,72 +478,195 @@ public class GameController {
     }
 
     /**
-     * Verifica si la flota del jugador está completa y habilita el botón de inicio de la batalla.
+     * Coloca un barco nuevo en el tablero del jugador a través de la sesión, para que se
+     * pueda deshacer.
+     * @param ship El barco.
+     * @param row Fila inicial.
+     * @param col Columna inicial.
+     * @param horizontal Orientación.
+     * @return false si no cabe ahí.
      */
-    public void checkFleetComplete() {
-        // Actualizar etiqueta SIEMPRE que se verifique la flota
-        updateStatsLabels();
-        updateFleetCounts();
+    boolean placeShip(Ship ship, int row, int col, boolean horizontal) {
+        return session.placeShip(ship, row, col, horizontal);
+    }
 
-        // GUARDADO AUTOMÁTICO AL COLOCAR BARCO
+    /**
+     * Mueve un barco ya colocado del jugador a través de la sesión.
+     * @param ship El barco.
+     * @param row Fila inicial nueva.
+     * @param col Columna inicial nueva.
+     * @param horizontal Orientación nueva.
+     * @return false si no cabe ahí; el barco se queda donde estaba.
+     */
+    boolean moveShip(Ship ship, int row, int col, boolean horizontal) {
+        return session.moveShip(ship, row, col, horizontal);
+    }
+
+    /**
+     * Quita un barco del tablero del jugador a través de la sesión.
+     * @param ship El barco.
+     */
+    void removeShip(Ship ship) {
+        session.removeShip(ship);
+    }
+
+    /**
+     * Gira un barco colocado sobre su casilla inicial, si cabe.
+     * @param ship El barco.
+     */
+    void rotatePlacedShip(Ship ship) {
+        if (session.getPhase() != GamePhase.PLACEMENT || !session.rotateShip(ship)) return;
+        removePlacedShipCanvas(ship);
+        drawPlacedShip(ship);
         autoSave();
+    }
 
-        if (playerLogical.isFleetComplete()) {
-            btnStart.setDisable(false);
-        }
+    /**
+     * Deshace el último cambio de la colocación o de la práctica.
+     */
+    private void undo() {
+        applyEdit(session.undo());
     }
 
     /**
-     * Cuenta el número de barcos que aún no están hundidos.
-     * @param board El tablero lógico a inspeccionar.
-     * @return El número de barcos restantes.
+     * Rehace el último cambio deshecho.
      */
-    private int countRemainingShips(Board board) {
-        Set<Ship> uniqueShips = new HashSet<>();
-        int unsunkCount = 0;
-        int size = board.getSize();
-
-        // 1. Recopila todos los barcos únicos
-        for (int r = 0; r < size; r++) {
-            for (int c = 0; c < size; c++) {
-                Cell cell = board.peek(r, c);
-                if (cell != null && cell.hasShip()) {
-                    uniqueShips.add(cell.getShip());
+    private void redo() {
+        applyEdit(session.redo());
+    }
+
+    /**
+     * Refleja en la vista un cambio que la sesión acaba de aplicar, tocando solo el barco
+     * afectado. Los disparos se pintan a través de los eventos de la sesión.
+     * @param edit El cambio aplicado, o null si no había nada que hacer.
+     */
+    private void applyEdit(Edit edit) {
+        if (edit == null) return;
+        Ship ship = edit.getShip();
+        switch (edit.getKind()) {
+            case PLACE -> {
+                drawPlacedShip(ship);
+                Pane panel = panelFor(ship.getSize());
+                if (panel != null && !panel.getChildren().isEmpty()) {
+                    panel.getChildren().remove(panel.getChildren().size() - 1);
                 }
             }
-        }
-        // 2. Contar los barcos que no están hundidos.
-        for (Ship ship : uniqueShips) {
-            if (!ship.isSunk()) {
-                unsunkCount++;
+            case REMOVE -> {
+                removePlacedShipCanvas(ship);
+                createShipInPanel(ship.getSize(), panelFor(ship.getSize()));
+            }
+            case MOVE -> {
+                removePlacedShipCanvas(ship);
+                drawPlacedShip(ship);
+            }
+            case SHOT -> {
+                if (session.isFinished()) handleGameOver(true);
+            }
+            case UNSHOT -> {
+                // Deshacer el disparo ganador reanuda la práctica
+                if (machineBoard.getOnMouseClicked() == null && !session.isFinished()) {
+                    enableMachineShotEvents(true);
+                    btnStart.setText("🎯 PRÁCTICA");
+                    btnStart.setStyle("-fx-background-color: #FF4444; -fx-text-fill: white;");
+                }
             }
         }
-        return unsunkCount;
+        if (session.getPhase() == GamePhase.PLACEMENT) {
+            updateFleetCounts();
+            btnStart.setDisable(!playerLogical.isFleetComplete());
+            autoSave();
+        }
+    }
+
+    /**
+     * Verifica si la flota del jugador está completa y habilita el botón de inicio de la batalla.
+     */
+    public void checkFleetComplete() {
+        // Las etiquetas de estadísticas están enlazadas al tablero
+        updateFleetCounts();
+
+        // GUARDADO AUTOMÁTICO AL COLOCAR BARCO
+        autoSave();
+
+        if (playerLogical.isFleetComplete()) {
+            btnStart.setDisable(false);
+        }
     }
 
     /**
-     * Actualiza las etiquetas de estadísticas con el conteo actual.
+     * Actualiza las etiquetas de estadísticas con los contadores de los tableros, que se
+     * leen en O(1). Se llama una vez por lote de eventos de la sesión.
      */
     private void updateStatsLabels() {
-        if (placementPhase) {
-            // FASE 1: Contar cuántos barcos has puesto en el tablero
-            int placedShips = playerLogical.getFleetSize();
+        if (session.getPhase() == GamePhase.PLACEMENT) {
+            // FASE 1: Mientras se colocan, los barcos restantes son los barcos puestos
             if (lblPlayerShips != null) {
-                lblPlayerShips.setText("Barcos colocados: " + placedShips + "/10");
+                lblPlayerShips.setText("Barcos colocados: " + playerLogical.getShipsRemaining() + "/10");
             }
             if (lblMachineShips != null) {
                 lblMachineShips.setText("Flota enemiga: Oculta");
             }
         } else {
-            // FASE 2: Contar barcos vivos (Tu lógica original)
-            int playerRemaining = countRemainingShips(playerLogical);
-            int machineRemaining = countRemainingShips(machineLogical);
-
+            // FASE 2: Barcos vivos de cada lado
             if (lblPlayerShips != null) {
-                lblPlayerShips.setText("Barcos restantes (Tú): " + playerRemaining + "/10");
+                lblPlayerShips.setText("Barcos restantes (Tú): " + playerLogical.getShipsRemaining() + "/10");
             }
             if (lblMachineShips != null) {
-                lblMachineShips.setText("Barcos restantes (IA): " + machineRemaining + "/10");
+                lblMachineShips.setText(network != null
+                        ? "Barcos restantes (Rival): " + (10 - networkEnemySunk) + "/10"
+                        : "Barcos restantes (IA): " + machineLogical.getShipsRemaining() + "/10");
+            }
+        }
+    }
+
+    /**
+     * Suscribe la vista a la sesión actual, dando de baja la suscripción anterior y
+     * descartando sus eventos pendientes.
+     */
+    private void subscribeToSession() {
+        if (sessionEvents != null) sessionEvents.close();
+        sessionEvents = new FxEventBatcher(new BoardPainter(), this::updateStatsLabels);
+        session.addListener(sessionEvents);
+    }
+
+    /**
+     * Pinta cada disparo y cada hundimiento como un delta sobre la capa de su tablero,
+     * sin recorrer los tableros.
+     */
+    private final class BoardPainter implements SessionListener {
+
+        @Override
+        public void shotFired(Board board, int row, int col, ShotResult result) {
+            // Las casillas de un barco hundido se pintan todas en shipSunk
+            if (result != ShotResult.SUNK) {
+                paintOnPane(board == playerLogical ? shipLayer : enemyLayer, row, col, result);
+            }
+        }
+
+        @Override
+        public void shipSunk(Board board, Ship ship) {
+            if (board == playerLogical) {
+                markPlayerShipAsSunk(ship);
+            } else {
+                drawSunkShipGhost(ship);
+                markShipAsSunk(enemyLayer, ship);
+            }
+        }
+
+        @Override
+        public void shotUndone(Board board, int row, int col, ShotResult result, Ship ship) {
+            // Solo se deshacen los disparos de práctica, sobre el tablero de la máquina
+            if (board != machineLogical) return;
+            Canvas marker = enemyMarkers[row * boardSize + col];
+            enemyMarkers[row * boardSize + col] = null;
+            if (marker != null) enemyLayer.getChildren().remove(marker);
+            if (ship != null) {
+                // El barco vuelve a flote: sin fantasma y con el resto de casillas como impactos
+                Canvas ghost = enemyGhosts.remove(ship);
+                if (ghost != null) revealLayer.getChildren().remove(ghost);
+                for (int[] cell : ship.getCells()) {
+                    if (cell[0] != row || cell[1] != col) paintOnPane(enemyLayer, cell[0], cell[1], ShotResult.HIT);
+                }
             }
         }
     }
@@ -483,7 +681,15 @@ public class GameController {
             revealEnemyFleet();
             System.out.println("⚠️ La flota enemiga se ocultó automáticamente para iniciar el juego.");
         }
-        placementPhase = false;
+        String server = System.getProperty(SERVER_PROPERTY);
+        if (server != null && !connectToServer(server)) return;
+        boolean practice = Boolean.getBoolean(PRACTICE_PROPERTY);
+        if (practice || network != null) {
+            // En red la sesión local no juega ni guarda: el servidor lleva la partida
+            session.startPractice();
+        } else {
+            session.startBattle();
+        }
         shipLayer.setMouseTransparent(true);
 
         // 1. Deshabilitar botones de edición
@@ -497,9 +703,8 @@ public class GameController {
         destroyerContainer.setDisable(true);
         frigateContainer.setDisable(true);
 
-        btnStart.setText("¡EN COMBATE!");
+        btnStart.setText(network != null ? "⏳ Buscando rival..." : practice ? "🎯 PRÁCTICA" : "¡EN COMBATE!");
         btnStart.setStyle("-fx-background-color: #FF4444; -fx-text-fill: white;");
-        autoSave();
 
         // Habilitar disparos del jugador.
         enableMachineShotEvents(true);
@@ -522,14 +727,14 @@ public class GameController {
         }
         // 1. EVENTO DE MOVIMIENTO
         machineBoard.setOnMouseMoved(e -> {
-            int col = (int)(e.getX() / CELL);
-            int row = (int)(e.getY() / CELL);
+            int col = (int)(e.getX() / cellSize);
+            int row = (int)(e.getY() / cellSize);
             boardVisualizer.updateTargetHighlight(col,row);
-            // Validar que esté dentro del tablero (0-9)
-            if (col >= 0 && col < 10 && row >= 0 && row < 10) {
+            // Validar que esté dentro del tablero
+            if (isInsideBoard(row, col)) {
                 targetHighlight.setVisible(true);
-                GridPane.setColumnIndex(targetHighlight, col);
-                GridPane.setRowIndex(targetHighlight, row);
+                targetHighlight.setLayoutX(col * cellSize);
+                targetHighlight.setLayoutY(row * cellSize);
             } else {
                 targetHighlight.setVisible(false);
             }
@@ -540,33 +745,32 @@ public class GameController {
         });
         // 3. EVENTO DE CLIC (Disparo del jugador)
         machineBoard.setOnMouseClicked(e -> {
-            int col = (int)(e.getX() / CELL);
-            int row = (int)(e.getY() / CELL);
+            int col = (int)(e.getX() / cellSize);
+            int row = (int)(e.getY() / cellSize);
 
             targetHighlight.setVisible(false);
+            if (!isInsideBoard(row, col)) return;
+            if (network != null) {
+                shootOverNetwork(row, col);
+                return;
+            }
+            if (session.getPhase() != GamePhase.PLAYER_TURN) return;
 
-            ShotResult result = machineLogical.shoot(row, col);
-            if (result == null) return;
-            autoSave();
-            if (result == ShotResult.SUNK) {
-                Ship sunkShip = machineLogical.peek(row, col).getShip();
-                drawSunkShipGhost(sunkShip, row, col);
-                markShipAsSunk(enemyLayer, machineLogical, sunkShip);
-                updateStatsLabels();
+            // El disparo se pinta en el siguiente pulso, a través de los eventos de la sesión
+            Shot shot = session.playerShot(row, col);
+            if (shot == null) return;
+            if (shot.getSunkShip() != null) {
                 System.out.println("¡HUNDIDO! Barco destruido.");
-            } else {
-                paintOnPane(enemyLayer, row, col, result);
             }
 
-            if (machineLogical.isGameOver()) {
+            if (session.isFinished()) {
                 System.out.println("¡VICTORIA! Has ganado.");
                 handleGameOver(true);
-                autoSave();
                 return;
             }
 
             // Si fallas, turno de la Máquina
-            if (result == ShotResult.MISS) {
+            if (session.getPhase() == GamePhase.MACHINE_TURN) {
                 playMachineTurn();
             } else {
                 System.out.println("¡Impacto! Sigues disparando.");
@@ -574,35 +778,203 @@ public class GameController {
         });   autoSave();
     }
 
+    // ========= PARTIDA EN RED =========
+
     /**
-     * Ejecuta el turno de la máquina.
+     * Se conecta al servidor, pide rival y envía la flota colocada.
+     * @param server Dirección "host:puerto".
+     * @return false si no se pudo conectar; se sigue en la fase de colocación.
      */
-    private void playMachineTurn() {
+    private boolean connectToServer(String server) {
+        if (boardSize > Frame.MAX_BOARD_SIZE) {
+            System.err.println("Las partidas en red admiten tableros de hasta " + Frame.MAX_BOARD_SIZE
+                    + " casillas de lado; este tiene " + boardSize + ".");
+            btnStart.setText("⚠ Tablero demasiado grande para jugar en red");
+            return false;
+        }
+        try {
+            network = MatchClient.connect(MatchClient.parseAddress(server), new NetworkEvents());
+            network.join(boardSize);
+            network.sendFleet(playerLogical);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("No se pudo conectar con el servidor " + server + ": " + e.getMessage());
+            disconnectFromServer();
+            return false;
+        }
+        networkShots = new boolean[boardSize * boardSize];
+        networkEnemySunk = 0;
+        networkTurn = false;
+        networkPendingCell = -1;
+        return true;
+    }
 
-        int[] aiShot = ai.shoot(playerLogical);
-        int r = aiShot[0];
-        int c = aiShot[1];
+    /**
+     * Cierra la conexión con el servidor, si la hay.
+     */
+    private void disconnectFromServer() {
+        if (network == null) return;
+        MatchClient client = network;
+        network = null;
+        client.close();
+    }
 
-        ShotResult machineResult = playerLogical.shoot(r, c);
-        if (machineResult == null) {
-            playMachineTurn();
-            return;
+    /**
+     * Envía un disparo al servidor en lugar de aplicarlo sobre el tablero local de la
+     * máquina. El resultado se pinta cuando llega la respuesta; si el servidor lo
+     * rechaza, {@link NetworkEvents#error} deshace la marca de la casilla.
+     * @param row Fila.
+     * @param col Columna.
+     */
+    private void shootOverNetwork(int row, int col) {
+        int cell = row * boardSize + col;
+        if (!networkTurn || networkShots[cell]) return;
+        networkTurn = false;
+        networkShots[cell] = true;
+        networkPendingCell = cell;
+        try {
+            network.shoot(row, col);
+        } catch (IOException e) {
+            System.err.println("No se pudo enviar el disparo: " + e.getMessage());
+            networkShots[cell] = false;
+            networkPendingCell = -1;
+            networkTurn = true;
         }
-        autoSave();
-        if (machineResult == ShotResult.SUNK) {
-            Ship sunkShip = playerLogical.peek(r, c).getShip();
-            markPlayerShipAsSunk(sunkShip);
-            numSunkShips++;
-            updateStatsLabels();
-        } else {
-            paintOnPane(shipLayer, r, c, machineResult);
+    }
+
+    /**
+     * Muestra de quién es el turno en la partida en red.
+     */
+    private void showNetworkTurn() {
+        btnStart.setText(networkTurn ? "🎯 ¡TU TURNO!" : "⏳ TURNO DEL RIVAL");
+    }
+
+    /**
+     * Aplica en el hilo de JavaFX lo que responde el servidor. Los disparos del rival se
+     * aplican sobre el tablero local del jugador, que publica sus eventos como siempre;
+     * los propios se pintan directamente, porque el tablero del rival solo lo tiene el
+     * servidor.
+     */
+    private final class NetworkEvents implements MatchClient.Listener {
+
+        @Override
+        public void matched(int seat) {
+            Platform.runLater(() -> {
+                networkSeat = seat;
+                btnStart.setText("⚓ Rival encontrado");
+            });
+        }
+
+        @Override
+        public void started(int firstSeat) {
+            Platform.runLater(() -> {
+                networkTurn = firstSeat == networkSeat;
+                showNetworkTurn();
+                updateStatsLabels();
+            });
+        }
+
+        @Override
+        public void shotResolved(int shooterSeat, int row, int col, ShotResult result) {
+            Platform.runLater(() -> {
+                if (shooterSeat == networkSeat) {
+                    networkPendingCell = -1;
+                    // Las casillas de un barco hundido se pintan todas al llegar SUNK
+                    if (result != ShotResult.SUNK) paintOnPane(enemyLayer, row, col, result);
+                    networkTurn = result != ShotResult.MISS;
+                } else {
+                    playerLogical.shoot(row, col);
+                    networkTurn = result == ShotResult.MISS;
+                }
+                showNetworkTurn();
+            });
+        }
+
+        @Override
+        public void shipSunk(int ownerSeat, Ship ship) {
+            Platform.runLater(() -> {
+                // Los barcos propios se marcan con los eventos del tablero del jugador
+                if (ownerSeat == networkSeat) return;
+                networkEnemySunk++;
+                drawSunkShipGhost(ship);
+                markShipAsSunk(enemyLayer, ship);
+                updateStatsLabels();
+            });
+        }
+
+        @Override
+        public void gameOver(int winnerSeat) {
+            Platform.runLater(() -> {
+                handleGameOver(winnerSeat == networkSeat);
+                disconnectFromServer();
+            });
+        }
+
+        @Override
+        public void error(int code) {
+            Platform.runLater(() -> {
+                if (code == Frame.ERR_OPPONENT_LEFT) {
+                    enableMachineShotEvents(false);
+                    btnStart.setText("🏳 El rival abandonó");
+                    disconnectFromServer();
+                } else {
+                    System.err.println("El servidor rechazó la jugada (código " + code + ")");
+                    rejectPendingShot(code);
+                }
+            });
         }
 
-        if (playerLogical.isGameOver()) {
+        /**
+         * Deshace el disparo en camino que el servidor rechazó. Una casilla ya disparada
+         * sigue marcada y el turno vuelve al jugador; si no era su turno, o la partida no
+         * admitía disparos, se espera a que el servidor lo diga con la siguiente jugada.
+         */
+        private void rejectPendingShot(int code) {
+            int cell = networkPendingCell;
+            if (cell < 0) return;
+            networkPendingCell = -1;
+            if (code != Frame.ERR_ALREADY_SHOT) networkShots[cell] = false;
+            networkTurn = code != Frame.ERR_NOT_YOUR_TURN && code != Frame.ERR_BAD_STATE;
+            showNetworkTurn();
+        }
+
+        @Override
+        public void disconnected(IOException cause) {
+            if (cause == null) return;
+            Platform.runLater(() -> {
+                System.err.println("Se perdió la conexión con el servidor: " + cause.getMessage());
+                if (network == null) return;
+                network = null;
+                enableMachineShotEvents(false);
+                btnStart.setText("⚠ Sin conexión");
+            });
+        }
+    }
+
+    /**
+     * Comprueba si una coordenada cae dentro del tablero.
+     * @param row Fila.
+     * @param col Columna.
+     * @return true si está dentro de los límites.
+     */
+    private boolean isInsideBoard(int row, int col) {
+        return row >= 0 && col >= 0 && row < boardSize && col < boardSize;
+    }
+
+    /**
+     * Empieza el turno de la máquina. Los disparos se aplican de uno en uno al ritmo del
+     * planificador y se pintan a través de los eventos de la sesión; mientras tanto la
+     * sesión no está en el turno del jugador y sus clics se ignoran.
+     */
+    private void playMachineTurn() {
+        machineTurn.start(session);
+    }
+
+    /**
+     * Cierra el turno de la máquina: o vuelve a disparar el jugador o la partida terminó.
+     */
+    private void onMachineTurnEnd() {
+        if (session.isFinished()) {
             handleGameOver(false);
-        } else if (machineResult != ShotResult.MISS) {
-            // La IA vuelve a disparar si acierta
-            playMachineTurn();
         }
     }
 
@@ -614,13 +986,7 @@ public class GameController {
         // 1. Aplicar efecto visual (Transparencia)
         applyGhostEffectToPlayerShip(sunkShip);
         // 2. Pintar el fuego encima
-        for (int r = 0; r < 10; r++) {
-            for (int c = 0; c < 10; c++) {
-                if (playerLogical.peek(r, c).getShip() == sunkShip) {
-                    paintOnPane(shipLayer, r, c, ShotResult.SUNK);
-                }
-            }
-        }
+        markShipAsSunk(shipLayer, sunkShip);
     }
 
     /**
@@ -641,8 +1007,14 @@ public class GameController {
 
         if (marker != null) {
             marker.setMouseTransparent(true);
-            marker.setLayoutX(col * CELL);
-            marker.setLayoutY(row * CELL);
+            marker.setLayoutX(col * cellSize);
+            marker.setLayoutY(row * cellSize);
+            if (layer == enemyLayer) {
+                // Un solo marcador por casilla: el de hundido reemplaza al de impacto
+                Canvas previous = enemyMarkers[row * boardSize + col];
+                if (previous != null) layer.getChildren().remove(previous);
+                enemyMarkers[row * boardSize + col] = marker;
+            }
             layer.getChildren().add(marker);
             marker.toFront();
         }
@@ -651,16 +1023,11 @@ public class GameController {
     /**
      * Marca todas las celdas ocupadas por un barco hundido con el marcador SUNK (fuego).
      * @param layer La capa visual (Pane) donde pintar.
-     * @param board El tablero lógico donde buscar el barco.
      * @param sunkShip El barco hundido.
      */
-    private void markShipAsSunk(Pane layer, Board board, Ship sunkShip) {
-        for (int r = 0; r < 10; r++) {
-            for (int c = 0; c < 10; c++) {
-                if (board.peek(r, c).getShip() == sunkShip) {
-                    paintOnPane(layer, r, c, ShotResult.SUNK);
-                }
-            }
+    private void markShipAsSunk(Pane layer, Ship sunkShip) {
+        for (int[] cell : sunkShip.getCells()) {
+            paintOnPane(layer, cell[0], cell[1], ShotResult.SUNK);
         }
     }
 
@@ -668,53 +1035,13 @@ public class GameController {
      * Dibuja una representación visual de un barco de la máquina que ha sido hundido
      * en la capa de revelación.
      * @param ship El barco de la máquina hundido.
-     * @param r Fila de una de las celdas del barco (se usa para encontrar el inicio).
-     * @param c Columna de una de las celdas del barco (se usa para encontrar el inicio).
      */
-    private void drawSunkShipGhost(Ship ship, int r, int c) {
-        boolean isHorizontal = false;
-        if (ship.getSize() == 1) {
-            isHorizontal = true;
-        } else {
-            // Miramos si la celda de la derecha o izquierda tiene el mismo barco
-            // Ojo: hay que validar límites del tablero
-            if (c + 1 < 10 && machineLogical.peek(r, c + 1).getShip() == ship) isHorizontal = true;
-            if (c - 1 >= 0 && machineLogical.peek(r, c - 1).getShip() == ship) isHorizontal = true;
-        }
-
-        int startR = r;
-        int startC = c;
-
-        if (isHorizontal) {
-            // Buscar hacia la izquierda dónde empieza
-            while (startC > 0 && machineLogical.peek(r, startC - 1).getShip() == ship) {
-                startC--;
-            }
-        } else {
-            // Buscar hacia arriba dónde empieza
-            while (startR > 0 && machineLogical.peek(startR - 1, c).getShip() == ship) {
-                startR--;
-            }
-        }
-
-        // 2. Dibujar el barco fantasma
-        Canvas canvas = new Canvas(ship.getSize() * CELL, CELL);
-        renderer.render(canvas, ship.getSize());
+    private void drawSunkShipGhost(Ship ship) {
+        Canvas canvas = createBoardShipCanvas(ship);
         canvas.setOpacity(0.5); // Semitransparente
         canvas.setMouseTransparent(true);
-
-        // 3. Posicionar y Rotar
-        if (!isHorizontal) {
-            canvas.setRotate(90);
-            double offset = CELL * (1 - ship.getSize()) / 2.0;
-            canvas.setLayoutX((startC * CELL) + offset);
-            canvas.setLayoutY((startR * CELL) - offset);
-        } else {
-            canvas.setLayoutX(startC * CELL);
-            canvas.setLayoutY(startR * CELL);
-        }
-
         revealLayer.getChildren().add(canvas);
+        enemyGhosts.put(ship, canvas);
     }
 
     /**
@@ -722,7 +1049,6 @@ public class GameController {
      * @param playerWon true si el jugador ganó, false si perdió.
      */
     private void handleGameOver(boolean playerWon) {
-        isGameFinished = true;
         machineBoard.setOnMouseClicked(null);
         machineBoard.setOnMouseMoved(null);
 
@@ -734,7 +1060,8 @@ public class GameController {
             btnStart.setText("☠ DERROTA ☠");
             btnStart.setStyle("-fx-background-color: #2b2b2b; -fx-text-fill: red; -fx-font-weight: bold;");
             btnStart.setDisable(true);
-            if (!isEnemyFleetRevealed) {
+            // En red la flota de la máquina no es la del rival
+            if (!isEnemyFleetRevealed && network == null) {
                 revealEnemyFleet();
             }
         }
@@ -763,37 +1090,62 @@ public class GameController {
 
         dialogPane.setMinHeight(javafx.scene.layout.Region.USE_PREF_SIZE);
 
-        SaveManager.deleteSaves();
+        // La sesión ya archivó la partida y la registró en el historial
+        String content = alert.getContentText();
+        if (session.getFinalStats() != null) {
+            session.getFinalStats().thenAccept(stats -> {
+                if (stats != null) Platform.runLater(() -> alert.setContentText(content + "\n\n" + describe(stats)));
+            });
+        }
         alert.show();
-        updateStatsLabels();
     }
 
     /**
-     * Establece el apodo del jugador.
-     * @param playerNickname El apodo a establecer.
+     * Resume las estadísticas acumuladas del jugador para el mensaje de fin de juego.
+     * @param stats Estadísticas tras la partida.
+     * @return El texto del resumen.
      */
-    public void setPlayerNickname(String playerNickname) {
-        this.playerNickname = playerNickname;
+    private static String describe(PlayerStats stats) {
+        String streak = stats.getStreak() > 0
+                ? stats.getStreak() + " victoria(s) seguidas"
+                : -stats.getStreak() + " derrota(s) seguidas";
+        return String.format("📊 Partidas: %d · Victorias: %.0f%% · Precisión: %.0f%%%nDisparos medios: %.1f · Racha: %s",
+                stats.getGames(), stats.getWinRate() * 100, stats.getAccuracy() * 100,
+                stats.getAverageShots(), streak);
     }
 
     /**
      * Guarda automáticamente el estado actual de ambos tableros.
+     * Si el juego terminó, la sesión no guarda nada.
      */
     private void autoSave() {
-        // Si el juego terminó, no guardes nada.
-        if (isGameFinished) return;
-
-        SaveManager.saveBoard(playerLogical, "player_board.ser");
-        SaveManager.saveBoard(machineLogical, "machine_board.ser");
-        SaveManager.savePlayerInfo(playerNickname, numSunkShips,placementPhase);
+        session.save();
     }
 
     /**
-     * Establece el estado de la fase actual del juego.
-     * @param placementPhase true si es la fase de colocación, false si es la fase de batalla.
+     * Muestra un aviso con el estilo del juego sin detener la partida (fallos de guardado
+     * o de la estrategia de la máquina).
+     * @param title Título de la ventana.
+     * @param message Texto del aviso.
      */
-    public void setPlacementPhase(boolean placementPhase){
-        this.placementPhase= placementPhase;
+    private void showWarning(String title, String message) {
+        javafx.scene.control.Alert alert = new javafx.scene.control.Alert(javafx.scene.control.Alert.AlertType.WARNING);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+
+        javafx.scene.control.DialogPane dialogPane = alert.getDialogPane();
+        dialogPane.getStylesheets().add(getClass().getResource("/com/example/batallanaval/theme.css").toExternalForm());
+        dialogPane.getStyleClass().add("dialog-pane");
+        try {
+            ImageView icon = new ImageView(new javafx.scene.image.Image(getClass().getResourceAsStream("/com/example/batallanaval/barco_icon.png")));
+            icon.setFitHeight(48);
+            icon.setFitWidth(48);
+            alert.setGraphic(icon);
+        } catch (Exception ignored) { }
+
+        dialogPane.setMinHeight(javafx.scene.layout.Region.USE_PREF_SIZE);
+        alert.show();
     }
 
     /**
@@ -803,18 +1155,34 @@ public class GameController {
      * @param data Los datos del jugador cargados (nickname, barcos hundidos, fase).
      */
     public void loadGame(Board player, Board machine, PlayerData data) {
-        this.playerLogical = player;
-        this.machineLogical = machine;
-        this.playerNickname = data.getNickname();
-        this.numSunkShips = data.getSunkShips();
-        this.placementPhase = data.isPlacementPhase();
+        loadGame(new SavedGame(player, machine, data));
+    }
 
-        lblPlayerName.setText("Almirante " + playerNickname);
+    /**
+     * Carga una partida guardada, incluido el estado de la máquina si se guardó.
+     * @param saved La partida cargada.
+     */
+    public void loadGame(SavedGame saved) {
+        loadGame(GameSession.restore(saved, SessionHooks.saveService()));
+    }
+
+    private void loadGame(GameSession loaded) {
+        machineTurn.cancel();
+        session.removeListener(sessionEvents);
+        this.session = loaded;
+        this.playerLogical = loaded.getPlayerBoard();
+        this.machineLogical = loaded.getMachineBoard();
+        if (playerLogical.getSize() != boardSize) {
+            configureBoardSize(playerLogical.getSize());
+        }
+
+        lblPlayerName.setText("Almirante " + loaded.getNickname());
         redrawBoards();
+        subscribeToSession();
         updateFleetCounts();
 
         // CONFIGURAR ESTADO DEL JUEGO
-        if (placementPhase) {
+        if (session.getPhase() == GamePhase.PLACEMENT) {
             initDraggableFleet();
             shipLayer.setMouseTransparent(false);
 
@@ -866,10 +1234,15 @@ public class GameController {
             btnStart.setStyle("-fx-background-color: #FF4444; -fx-text-fill: white;");
 
             // 6. ACTIVAR DISPAROS
-            enableMachineShotEvents(true);
+            enableMachineShotEvents(!session.isFinished());
         }
 
         updateStatsLabels();
+
+        // Si se guardó a mitad de una racha de la máquina, la máquina termina su turno
+        if (session.getPhase() == GamePhase.MACHINE_TURN) {
+            playMachineTurn();
+        }
     }
 
     /**
@@ -880,8 +1253,11 @@ public class GameController {
         playerBoard.getChildren().clear();
         machineBoard.getChildren().clear();
         shipLayer.getChildren().clear();
+        playerShipCanvases.clear();
         enemyLayer.getChildren().clear();
         revealLayer.getChildren().clear();
+        Arrays.fill(enemyMarkers, null);
+        enemyGhosts.clear();
 
         // RESTAURAR TABLERO JUGADOR
         drawPlayerBoardFromModel();
@@ -913,89 +1289,64 @@ public class GameController {
      * @param ship El barco del jugador hundido.
      */
     private void applyGhostEffectToPlayerShip(Ship ship) {
-        int startR = -1, startC = -1;
-        boolean found = false;
-
-        // 1. Encontrar la cabeza del barco lógico
-        for (int r = 0; r < 10 && !found; r++) {
-            for (int c = 0; c < 10 && !found; c++) {
-                if (playerLogical.peek(r, c).getShip() == ship) {
-                    startR = r;
-                    startC = c;
-                    found = true;
-                }
-            }
+        Canvas canvas = playerShipCanvases.get(ship);
+        if (canvas != null) {
+            canvas.setOpacity(0.5); // ¡EFECTO FANTASMA!
+            canvas.setMouseTransparent(true);
         }
+    }
 
-        if (found) {
-            // 2. Calcular posición visual esperada
-            boolean isHorizontal = false;
-            if (ship.getSize() == 1) isHorizontal = true;
-            else if (startC + 1 < 10 && playerLogical.peek(startR, startC + 1).getShip() == ship) isHorizontal = true;
-
-            double expectedX, expectedY;
-            if (isHorizontal) {
-                expectedX = startC * CELL;
-                expectedY = startR * CELL;
-            } else {
-                double offset = CELL * (1 - ship.getSize()) / 2.0;
-                expectedX = (startC * CELL) + offset;
-                expectedY = (startR * CELL) - offset;
-            }
-
-            // 3. Buscar el Canvas y bajarle la opacidad
-            for (javafx.scene.Node node : shipLayer.getChildren()) {
-                if (node instanceof Canvas canvas &&
-                        Math.abs(canvas.getLayoutX() - expectedX) < 1.0 &&
-                        Math.abs(canvas.getLayoutY() - expectedY) < 1.0) {
+    /**
+     * Registra el Canvas de un barco colocado del jugador, para encontrarlo sin recorrer la capa.
+     * @param ship El barco del tablero lógico.
+     * @param canvas Su Canvas en la capa de barcos.
+     */
+    void registerShipCanvas(Ship ship, Canvas canvas) {
+        playerShipCanvases.put(ship, canvas);
+    }
 
-                    canvas.setOpacity(0.5); // ¡EFECTO FANTASMA!
-                    canvas.setMouseTransparent(true);
-                    break;
-                }
-            }
-        }
+    /**
+     * Olvida el Canvas de un barco si sigue registrado con él (al moverlo se registra
+     * antes el Canvas nuevo).
+     * @param ship El barco.
+     * @param canvas El Canvas que se quita de la capa.
+     */
+    void forgetShipCanvas(Ship ship, Canvas canvas) {
+        playerShipCanvases.remove(ship, canvas);
     }
 
     /**
-     * Restaura los marcadores de disparo.
+     * Restaura los marcadores de disparo al cargar una partida. Recorre solo las casillas
+     * disparadas (los bits del plano de disparos) y los barcos hundidos, no el tablero entero.
      * @param logicalBoard El tablero lógico
      * @param targetLayer La capa visual
      */
     private void restoreShotsVisuals(Board logicalBoard, Pane targetLayer) {
-        Set<Ship> restoredShips = new HashSet<>();
-
-        for (int r = 0; r < 10; r++) {
-            for (int c = 0; c < 10; c++) {
-                Cell cell = logicalBoard.peek(r, c);
-
-                if (cell.isShot()) {
-                    ShotResult result;
-                    if (cell.isEmpty()) result = ShotResult.MISS;
-                    else if (cell.getShip().isSunk()) result = ShotResult.SUNK;
-                    else result = ShotResult.HIT;
-
-                    // 1. Pintar fuego/bomba/agua
-                    paintOnPane(targetLayer, r, c, result);
-
-                    // 2. RESTAURAR EFECTO FANTASMA (Solo una vez por barco)
-                    if (result == ShotResult.SUNK) {
-                        Ship ship = cell.getShip();
-
-                        if (!restoredShips.contains(ship)) {
-                            // CASO A: Tablero Enemigo (Dibujamos nuevo fantasma)
-                            if (targetLayer == enemyLayer) {
-                                drawSunkShipGhost(ship, r, c);
-                            }
-                            // CASO B: Tablero Jugador (Volvemos transparente el existente)
-                            else if (targetLayer == shipLayer) {
-                                applyGhostEffectToPlayerShip(ship);
-                            }
-
-                            restoredShips.add(ship);
-                        }
-                    }
-                }
+        int size = logicalBoard.getSize();
+        long[] shotMask = logicalBoard.getShotMask();
+        for (int w = 0; w < shotMask.length; w++) {
+            for (long bits = shotMask[w]; bits != 0; bits &= bits - 1) {
+                int idx = (w << 6) + Long.numberOfTrailingZeros(bits);
+                int r = idx / size;
+                int c = idx % size;
+                // 1. Pintar agua o fuego; los barcos hundidos se pintan enteros después
+                Ship ship = logicalBoard.getShipAt(r, c);
+                if (ship == null) paintOnPane(targetLayer, r, c, ShotResult.MISS);
+                else if (!ship.isSunk()) paintOnPane(targetLayer, r, c, ShotResult.HIT);
+            }
+        }
+
+        // 2. RESTAURAR BARCOS HUNDIDOS (bombas y efecto fantasma, una vez por barco)
+        for (Ship ship : logicalBoard.getFleet()) {
+            if (!ship.isSunk()) continue;
+            // CASO A: Tablero Enemigo (Dibujamos nuevo fantasma)
+            if (targetLayer == enemyLayer) {
+                drawSunkShipGhost(ship);
+                markShipAsSunk(enemyLayer, ship);
+            }
+            // CASO B: Tablero Jugador (Volvemos transparente el existente)
+            else if (targetLayer == shipLayer) {
+                markPlayerShipAsSunk(ship);
             }
         }
     }
@@ -1008,7 +1359,12 @@ public class GameController {
      */
     public void attachCloseHandler(Stage stage) {
         stage.setOnCloseRequest(e -> {
+            // El turno pendiente de la máquina se retoma al cargar la partida
+            machineTurn.cancel();
+            disconnectFromServer();
             autoSave();
+            // Barrera: no cerrar hasta que lo encolado esté en disco
+            SaveService.shared().flush();
             System.out.println("💾 Juego guardado al cerrar.");
         });
     }
@@ -1024,7 +1380,7 @@ public class GameController {
         javafx.scene.control.Alert alert = new javafx.scene.control.Alert(javafx.scene.control.Alert.AlertType.CONFIRMATION);
         alert.setTitle("Volver al Menú");
 
-        if (isGameFinished) {
+        if (session.isFinished()) {
             alert.setHeaderText(null);
             alert.setContentText("¿Estás seguro de que deseas volver al inicio?");
         } else {
@@ -1049,9 +1405,12 @@ public class GameController {
         java.util.Optional<javafx.scene.control.ButtonType> result = alert.showAndWait();
 
         if (result.isPresent() && result.get() == javafx.scene.control.ButtonType.OK) {
-            if (!isGameFinished) {
+            machineTurn.cancel();
+            disconnectFromServer();
+            if (!session.isFinished()) {
                 autoSave();
             }
+            SaveService.shared().flush();
             Stage stage = (Stage) btnStart.getScene().getWindow();
             stage.close();
             new com.example.batallanaval.views.WelcomeView().show();
@@ -0,0 +1,180 @@
+package com.example.batallanaval.controllers;
+
+import com.example.batallanaval.ai.Strategies;
+import com.example.batallanaval.engine.GamePhase;
+import com.example.batallanaval.engine.GameSession;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.util.Duration;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Planificador iterativo del turno de la máquina.
+ * <p>
+ * Cada disparo se hace en dos pasos: la estrategia elige la casilla en el hilo
+ * {@code batallanaval-ai} ({@link GameSession#nextMachineTarget()}, que solo lee los
+ * tableros) y el resultado se aplica en el hilo de JavaFX
+ * ({@link GameSession#applyMachineShot(int)}). Entre un disparo y el siguiente espera el
+ * ritmo configurado con un {@link Timeline}, así que una racha larga de aciertos no
+ * congela la ventana ni anida llamadas. Con ritmo cero (modo rápido) los disparos se
+ * encadenan sin pausa, pero el cálculo sigue fuera del hilo de JavaFX.
+ * <p>
+ * Si la estrategia falla (un bot externo que no responde o que repite casillas), se avisa
+ * y la máquina sigue con {@link Strategies#DEFAULT_SHOOTER}.
+ * <p>
+ * Todos los métodos deben llamarse desde el hilo de JavaFX.
+ */
+final class MachineTurnScheduler {
+
+    /**
+     * Propiedad del sistema con la pausa entre disparos de la máquina, en milisegundos;
+     * 0 activa el modo rápido.
+     */
+    static final String PACE_PROPERTY = "batallanaval.machinePace";
+    /** Pausa por defecto entre disparos de la máquina. */
+    static final Duration DEFAULT_PACE = Duration.millis(350);
+    /** Lo que {@link #cancel()} espera como mucho al cálculo pendiente. */
+    private static final long CANCEL_WAIT_MILLIS = 250;
+
+    private static final ExecutorService AI_THREAD = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "batallanaval-ai");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Runnable onTurnEnd;
+    private final Consumer<String> onError;
+    private final Timeline delay = new Timeline();
+    private Duration pace;
+    private GameSession session;
+    private boolean running;
+    /** Cambia al cancelar, para descartar los cálculos que lleguen tarde. */
+    private int generation;
+    private CompletableFuture<?> pending = CompletableFuture.completedFuture(null);
+
+    /**
+     * Los disparos aplicados se pintan a través de los eventos de la sesión.
+     * @param onTurnEnd Se llama cuando la máquina termina su turno (falla o gana).
+     * @param onError Recibe el aviso para el jugador cuando la estrategia falla.
+     */
+    MachineTurnScheduler(Runnable onTurnEnd, Consumer<String> onError) {
+        this.onTurnEnd = onTurnEnd;
+        this.onError = onError;
+        long millis = Long.getLong(PACE_PROPERTY, (long) DEFAULT_PACE.toMillis());
+        this.pace = Duration.millis(Math.max(0, millis));
+    }
+
+    /**
+     * Cambia la pausa entre disparos; se aplica a partir del siguiente disparo.
+     * @param pace La pausa; {@link Duration#ZERO} equivale al modo rápido.
+     */
+    void setPace(Duration pace) {
+        this.pace = pace;
+    }
+
+    /**
+     * Empieza a jugar el turno de la máquina de la sesión. No hace nada si ya hay uno en
+     * curso o si no le toca a la máquina.
+     * @param session La sesión.
+     */
+    void start(GameSession session) {
+        if (running || session.getPhase() != GamePhase.MACHINE_TURN) return;
+        this.session = session;
+        running = true;
+        scheduleNext();
+    }
+
+    /**
+     * Detiene el turno en curso para que la sesión vuelva a ser de un único hilo (por
+     * ejemplo, antes de guardarla al cerrar). Espera al cálculo pendiente como mucho
+     * {@value #CANCEL_WAIT_MILLIS} ms; si una estrategia lenta sigue ocupada, la sesión
+     * pasa a una instancia nueva de la misma estrategia y el cálculo tardío se descarta
+     * por la generación. La fase de la sesión se queda en {@link GamePhase#MACHINE_TURN},
+     * así que el turno se retoma al cargar.
+     */
+    void cancel() {
+        generation++;
+        delay.stop();
+        running = false;
+        try {
+            pending.get(CANCEL_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // La instancia ocupada se queda con el cálculo tardío; la sesión sigue con otra
+            try {
+                session.replaceStrategy(session.getAiName());
+            } catch (RuntimeException failed) {
+                session.replaceStrategy(Strategies.DEFAULT_SHOOTER);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | CancellationException ignored) {
+            // El error ya se trató al llegar al hilo de JavaFX
+        }
+    }
+
+    private void scheduleNext() {
+        if (pace.lessThanOrEqualTo(Duration.ZERO)) {
+            computeNext();
+            return;
+        }
+        int expected = generation;
+        delay.stop();
+        delay.getKeyFrames().setAll(new KeyFrame(pace, e -> {
+            if (expected == generation) computeNext();
+        }));
+        delay.playFromStart();
+    }
+
+    private void computeNext() {
+        int expected = generation;
+        GameSession target = session;
+        pending = CompletableFuture.supplyAsync(target::nextMachineTarget, AI_THREAD)
+                .whenComplete((cell, error) -> Platform.runLater(() -> {
+                    if (expected != generation) return;
+                    if (error != null) {
+                        recover(error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause() : error);
+                        return;
+                    }
+                    apply(cell);
+                }));
+    }
+
+    /**
+     * La estrategia no pudo elegir casilla: se avisa y se sigue con la de por defecto. Si
+     * la que falla es justo esa, el turno se detiene.
+     */
+    private void recover(Throwable cause) {
+        cause.printStackTrace();
+        String failed = session.getAiName();
+        if (failed.equals(Strategies.DEFAULT_SHOOTER)) {
+            running = false;
+            onError.accept("La máquina no pudo elegir su disparo: " + cause.getMessage());
+            return;
+        }
+        session.replaceStrategy(Strategies.DEFAULT_SHOOTER);
+        onError.accept("La estrategia «" + failed + "» falló: " + cause.getMessage()
+                + "\n\nLa máquina sigue jugando con «" + Strategies.DEFAULT_SHOOTER + "».");
+        scheduleNext();
+    }
+
+    private void apply(int cell) {
+        session.applyMachineShot(cell);
+        if (session.getPhase() == GamePhase.MACHINE_TURN) {
+            scheduleNext();
+        } else {
+            running = false;
+            onTurnEnd.run();
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package com.example.batallanaval.controllers;
 
-import com.example.batallanaval.models.Board;
 import com.example.batallanaval.models.Ship;
 import com.example.batallanaval.views.BoardVisualizer;
 import com.example.batallanaval.views.CanvasShipRenderer;
@@ -34,6 +33,8 @@ public class ShipPlacementManager {
     private boolean isHorizontal = true;
     /** Renderizador para dibujar los barcos en los objetos Canvas. */
     private final CanvasShipRenderer renderer = new CanvasShipRenderer();
+    /** Barco colocado que se está arrastrando, o null si el arrastre viene del menú. */
+    private Ship draggedShip;
 
     /**
      * Constructor del gestor de colocación de barcos.
@@ -63,10 +64,11 @@ public class ShipPlacementManager {
                 int col = (int) (e.getX() / cellSize);
                 int row = (int) (e.getY() / cellSize);
                 // Corrección de límites.
+                int boardSize = controller.getPlayerLogical().getSize();
                 if (isHorizontal) {
-                    col = Math.min(col, 10 - size);
+                    col = Math.min(col, boardSize - size);
                 } else {
-                    row = Math.min(row, 10 - size);
+                    row = Math.min(row, boardSize - size);
                 }
                 col = Math.max(0, col);
                 row = Math.max(0, row);
@@ -86,21 +88,24 @@ public class ShipPlacementManager {
                 int row = (int) (e.getY() / cellSize);
 
                 // Corrección de límites.
+                int boardSize = controller.getPlayerLogical().getSize();
                 if (isHorizontal) {
-                    col = Math.min(col, 10 - size);
+                    col = Math.min(col, boardSize - size);
                 } else {
-                    row = Math.min(row, 10 - size);
+                    row = Math.min(row, boardSize - size);
                 }
                 col = Math.max(0, col);
                 row = Math.max(0, row);
 
-                Board board = controller.getPlayerLogical();
-                Ship tempShip = new Ship(size);
+                // Un barco ya colocado se mueve; uno del menú se coloca nuevo (ambos se pueden deshacer)
+                Ship ship = draggedShip != null ? draggedShip : new Ship(size);
+                boolean placed = draggedShip != null
+                        ? controller.moveShip(ship, row, col, isHorizontal)
+                        : controller.placeShip(ship, row, col, isHorizontal);
 
-                if (board.canPlaceShip(tempShip, row, col, isHorizontal)) {
-                    board.placeShip(tempShip, row, col, isHorizontal);
+                if (placed) {
                     // Colocamos visualmente y pasamos la referencia del barco
-                    placeVisualShip(col, row, size, tempShip);
+                    placeVisualShip(col, row, size, ship);
                     controller.checkFleetComplete();
                     success = true;
                 }
@@ -111,7 +116,7 @@ public class ShipPlacementManager {
             e.consume();
         });
 
-        // Click derecho para rotar (Atajo)
+        // Click derecho para rotar (Atajo); sobre un barco colocado lo gira a él
         shipsPane.setOnMouseClicked(e -> {
             if (e.getButton() == MouseButton.SECONDARY) toggleOrientation();
         });
@@ -165,8 +170,8 @@ public class ShipPlacementManager {
     /**
      * Coloca un nuevo barco visual (Canvas) en el panel del tablero.
      * Además, configura los manejadores de arrastre para que este barco colocado pueda ser movido nuevamente.
-     * @param col La columna inicial (índice 0-9).
-     * @param row La fila inicial (índice 0-9).
+     * @param col La columna inicial.
+     * @param row La fila inicial.
      * @param size El tamaño del barco.
      * @param placedShip La referencia al objeto Ship del modelo lógico.
      */
@@ -202,6 +207,15 @@ public class ShipPlacementManager {
 
         // Poner manito en el tablero también
         canvas.setCursor(Cursor.HAND);
+        controller.registerShipCanvas(shipRef, canvas);
+
+        // Click derecho sobre el barco: girarlo en su sitio
+        canvas.setOnMouseClicked(e -> {
+            if (e.getButton() == MouseButton.SECONDARY) {
+                controller.rotatePlacedShip(shipRef);
+                e.consume();
+            }
+        });
 
         canvas.setOnDragDetected(e -> {
             // 1. Iniciar el arrastre
@@ -224,8 +238,9 @@ public class ShipPlacementManager {
 
             db.setDragView(snapshot);
 
-            // 3. Quitar el barco de la lógica del tablero (para liberar las celdas)
-            controller.getPlayerLogical().removeShip(shipRef);
+            // 3. Recordar el barco: sigue en el tablero hasta que se suelte, y al soltarlo
+            //    se mueve en un solo paso (así se deshace como un movimiento)
+            draggedShip = shipRef;
 
             // 4. Hace el barco invisible e intangible des pues de iniciar el arrastre.
             javafx.application.Platform.runLater(() -> {
@@ -239,12 +254,15 @@ public class ShipPlacementManager {
         canvas.setOnDragDone(e -> {
             // 5. Borrar el canvas viejo del Pane
             shipsPane.getChildren().remove(canvas);
+            controller.forgetShipCanvas(shipRef, canvas);
+            draggedShip = null;
 
             // 6. Forzar el apagado del cuadro verde/rojo
             visualizer.getSelectionHighlight().setVisible(false);
 
             // 7. Si el drop falló (el TransferMode es null, es decir, no se soltó en una zona válida)
             if (e.getTransferMode() == null) {
+                controller.removeShip(shipRef);
                 controller.returnShipToPanel(size); // Devuélvelo a su casa
             }
             e.consume();
@@ -261,16 +279,17 @@ public class ShipPlacementManager {
      */
     private void updateHighlight(int col, int row, int size) {
         Rectangle rect = visualizer.getSelectionHighlight();
+        int boardSize = controller.getPlayerLogical().getSize();
         // Ocultar si está fuera de los límites
-        if (col < 0 || row < 0 || col >= 10 || row >= 10) { rect.setVisible(false); return; }
+        if (col < 0 || row < 0 || col >= boardSize || row >= boardSize) { rect.setVisible(false); return; }
 
         rect.setWidth(isHorizontal ? size * cellSize : cellSize);
         rect.setHeight(isHorizontal ? cellSize : size * cellSize);
         rect.setLayoutX(col * cellSize);
         rect.setLayoutY(row * cellSize);
 
-        // Comprueba si el barco cabe dentro del límite 10x10
-        boolean fit = isHorizontal ? (col + size <= 10) : (row + size <= 10);
+        // Comprueba si el barco cabe dentro de los límites del tablero
+        boolean fit = isHorizontal ? (col + size <= boardSize) : (row + size <= boardSize);
         rect.setFill(fit ? Color.rgb(0, 255, 0, 0.4) : Color.rgb(255, 0, 0, 0.4));
         rect.setVisible(true);
     }
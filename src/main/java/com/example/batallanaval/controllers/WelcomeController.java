@@ -2,17 +2,29 @@ package com.example.batallanaval.controllers;
 
 import com.example.batallanaval.models.Board;
 import com.example.batallanaval.models.PlayerData;
+import com.example.batallanaval.persistence.SaveHeader;
 import com.example.batallanaval.persistence.SaveManager;
+import com.example.batallanaval.persistence.SaveService;
+import com.example.batallanaval.persistence.SavedGame;
+import com.example.batallanaval.persistence.SlotStore;
 import com.example.batallanaval.views.GameView;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.TextField;
+import javafx.scene.control.Tooltip;
 import javafx.scene.layout.HBox;
 import javafx.stage.Stage;
 import javafx.scene.layout.StackPane;
 import javafx.scene.image.ImageView;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Controlador para la pantalla de bienvenida (menú principal).
  * Gestiona la carga de partidas, el inicio de nuevos juegos, la validación del nombre
@@ -20,6 +32,12 @@ import javafx.scene.image.ImageView;
  */
 public class WelcomeController {
 
+    /**
+     * Propiedad del sistema con el lado del tablero de las partidas nuevas; sin ella se
+     * juega en {@value Board#DEFAULT_SIZE}x{@value Board#DEFAULT_SIZE}.
+     */
+    private static final String BOARD_SIZE_PROPERTY = "batallanaval.boardSize";
+
     // FXML
     @FXML private StackPane rootStack;
     @FXML private ImageView backgroundView;
@@ -45,9 +63,19 @@ public class WelcomeController {
             backgroundView.fitWidthProperty().bind(rootStack.widthProperty());
             backgroundView.fitHeightProperty().bind(rootStack.heightProperty());
         }
-        // Verifica si hay partida guardada, si no existe el archivo, deshabilitamos el botón de Continuar
-        if (SaveManager.loadPlayerInfo() == null) {
+        // Verifica si hay partida guardada en alguna ranura, si no, deshabilitamos el botón de Continuar.
+        // Solo se lee la cabecera de la ranura; los tableros se cargan al continuar.
+        SaveService.shared().flush();
+        SlotStore.SlotInfo latest = SaveManager.latestSave();
+        if (latest == null) {
             btnContinue.setDisable(true);
+        } else {
+            SaveHeader header = latest.getHeader();
+            btnContinue.setTooltip(new Tooltip(header.getNickname()
+                    + (header.isPlacementPhase() ? " · colocando barcos" : " · disparos: " + header.getTurns()
+                    + " · barcos " + header.getPlayerShipsLeft() + " vs " + header.getMachineShipsLeft())
+                    + " · " + DateTimeFormatter.ofPattern("dd/MM HH:mm").format(
+                            LocalDateTime.ofInstant(Instant.ofEpochMilli(latest.getSavedAt()), ZoneId.systemDefault()))));
         }
         // Ocultar sección de nuevo juego al inicio
         newGameBox.setVisible(false);
@@ -76,7 +104,7 @@ public class WelcomeController {
 
     /**
      * Inicia un nuevo juego después de validar el nickname del jugador.
-     * Crea tableros nuevos, coloca los barcos de la máquina aleatoriamente
+     * Crea tableros nuevos del lado configurado en {@value #BOARD_SIZE_PROPERTY}, coloca los barcos de la máquina aleatoriamente
      * y guarda el estado inicial del juego.
      */
     private void startNewGame() {
@@ -86,58 +114,114 @@ public class WelcomeController {
             if (!nameField.getStyleClass().contains("error")) {
                 nameField.getStyleClass().add("error");
             }
-            javafx.scene.control.Alert alert = new javafx.scene.control.Alert(javafx.scene.control.Alert.AlertType.WARNING);
-
-            javafx.scene.control.DialogPane dialogPane = alert.getDialogPane();
-            dialogPane.getStylesheets().add(getClass().getResource("/com/example/batallanaval/theme.css").toExternalForm());
-            dialogPane.getStyleClass().add("dialog-pane");
-            dialogPane.setMinHeight(javafx.scene.layout.Region.USE_PREF_SIZE);
-
-            try {
-                ImageView icon = new ImageView(new javafx.scene.image.Image(getClass().getResourceAsStream("/com/example/batallanaval/barco_icon.png")));
-                icon.setFitHeight(48);
-                icon.setFitWidth(48);
-                alert.setGraphic(icon);
-            } catch (Exception ignored) { }
-
-            alert.setTitle("Nombre muy corto");
-            alert.setHeaderText(null);
-            alert.setContentText("Por favor, ingresa un nombre de al menos 3 caracteres.");
-            alert.show();
+            showWarning("Nombre muy corto", "Por favor, ingresa un nombre de al menos 3 caracteres.");
+            return;
+        }
+        if (!SaveHeader.fitNickname(nickname).equals(nickname)) {
+            if (!nameField.getStyleClass().contains("error")) {
+                nameField.getStyleClass().add("error");
+            }
+            showWarning("Nombre muy largo", "El nombre no puede ocupar más de " + SaveHeader.MAX_NICKNAME_BYTES
+                    + " bytes (unos " + SaveHeader.MAX_NICKNAME_BYTES + " caracteres sin tildes).");
             return;
         }
 
-        Board playerBoard = new Board();
-        Board machineBoard = new Board();
-        machineBoard.randomizeShips(); // Colocación aleatoria para la IA
-
-        // Guardado inicial de los tableros y la información de la IA
-        SaveManager.saveBoard(playerBoard, "player_board.ser");
-        SaveManager.saveBoard(machineBoard, "machine_board.ser");
-        SaveManager.savePlayerInfo(nickname, 0, true);
+        int size = newBoardSize();
+        Board playerBoard = new Board(size);
+        Board machineBoard = new Board(size);
+        try {
+            machineBoard.randomizeShips(); // Colocación aleatoria para la IA
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            showWarning("Tablero muy pequeño",
+                    "La flota no cabe en un tablero de " + size + "x" + size + ". Revisa " + BOARD_SIZE_PROPERTY + ".");
+            return;
+        }
 
+        // Guardado inicial de los tableros y la información de la IA, en la ranura del jugador
+        SaveService.shared().flush();
+        SaveManager.selectSlotFor(nickname);
         PlayerData data = new PlayerData(nickname, 0, true);
+        SaveService.shared().snapshot(new SavedGame(playerBoard, machineBoard, data));
+
         openGame(playerBoard, machineBoard, data);
     }
 
     /**
-     * Carga el estado de la partida guardada desde los archivos de persistencia
-     * y abre la vista del juego con el estado recuperado.
+     * Lee el lado del tablero para las partidas nuevas de {@value #BOARD_SIZE_PROPERTY}.
+     * @return El lado configurado, o {@link Board#DEFAULT_SIZE} si no hay ninguno válido.
+     */
+    private static int newBoardSize() {
+        String value = System.getProperty(BOARD_SIZE_PROPERTY);
+        if (value == null) return Board.DEFAULT_SIZE;
+        try {
+            int size = Integer.parseInt(value.trim());
+            if (size >= 1 && size <= Board.MAX_SIZE) return size;
+        } catch (NumberFormatException ignored) {
+            // Se avisa igual que un lado fuera de rango
+        }
+        System.err.println("⚠️ " + BOARD_SIZE_PROPERTY + "=" + value + " no es un lado válido (1-" + Board.MAX_SIZE
+                + "); se usa " + Board.DEFAULT_SIZE + ".");
+        return Board.DEFAULT_SIZE;
+    }
+
+    /**
+     * Muestra un aviso con el estilo del juego.
+     * @param title Título de la ventana.
+     * @param message Texto del aviso.
+     */
+    private void showWarning(String title, String message) {
+        javafx.scene.control.Alert alert = new javafx.scene.control.Alert(javafx.scene.control.Alert.AlertType.WARNING);
+
+        javafx.scene.control.DialogPane dialogPane = alert.getDialogPane();
+        dialogPane.getStylesheets().add(getClass().getResource("/com/example/batallanaval/theme.css").toExternalForm());
+        dialogPane.getStyleClass().add("dialog-pane");
+        dialogPane.setMinHeight(javafx.scene.layout.Region.USE_PREF_SIZE);
+
+        try {
+            ImageView icon = new ImageView(new javafx.scene.image.Image(getClass().getResourceAsStream("/com/example/batallanaval/barco_icon.png")));
+            icon.setFitHeight(48);
+            icon.setFitWidth(48);
+            alert.setGraphic(icon);
+        } catch (Exception ignored) { }
+
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.show();
+    }
+
+    /**
+     * Continúa la partida guardada más reciente de entre todas las ranuras. Los tableros
+     * se decodifican en el hilo de guardado mientras se construye la vista del juego, y
+     * la ventana se muestra cuando ambas cosas han terminado. Si la carga falla se avisa
+     * y el botón vuelve a quedar disponible.
      */
     private void continueGame() {
-        Board player = SaveManager.loadBoard("player_board.ser");
-        Board machine = SaveManager.loadBoard("machine_board.ser");
-        PlayerData data = SaveManager.loadPlayerInfo();
-        // Verificación de integridad de los archivos guardados
-        if (player == null || machine == null || data == null) {
+        SlotStore.SlotInfo latest = SaveManager.latestSave();
+        if (latest == null) {
             System.out.println("❌ No hay partida guardada.");
+            btnContinue.setDisable(true);
+            showWarning("Sin partida guardada", "No se encontró ninguna partida para continuar.");
             return;
         }
-        openGame(
-                player,
-                machine,
-                data
-        );
+        SaveManager.setActiveSlot(latest.getSlot());
+        // La carga va detrás de lo que quede en la cola de guardado
+        CompletableFuture<SavedGame> loading = SaveService.shared().load();
+        GameView gameView = createGameView();
+        if (gameView == null) return;
+        btnContinue.setDisable(true);
+        loading.whenComplete((saved, error) -> Platform.runLater(() -> {
+            // Verificación de integridad de la ranura
+            if (saved == null) {
+                if (error != null) error.printStackTrace();
+                System.out.println("❌ No hay partida guardada.");
+                btnContinue.setDisable(false);
+                showWarning("No se pudo continuar", "La partida de " + latest.getHeader().getNickname()
+                        + " no se pudo cargar. Puedes intentarlo de nuevo o empezar un juego nuevo.");
+                return;
+            }
+            showGame(gameView, saved);
+        }));
     }
 
     /**
@@ -150,12 +234,36 @@ public class WelcomeController {
     private void openGame(Board player,
                           Board machine,
                        PlayerData data) {
+        GameView gameView = createGameView();
+        if (gameView != null) {
+            showGame(gameView, new SavedGame(player, machine, data));
+        }
+    }
+
+    /**
+     * Construye la ventana del juego sin mostrarla.
+     * @return La vista, o null si el FXML no se pudo cargar.
+     */
+    private GameView createGameView() {
+        try {
+            return new GameView();
+        } catch (Exception e) {
+            System.err.println("Error al intentar abrir la ventana del juego.");
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Carga el estado en la vista del juego, la muestra y cierra la ventana de bienvenida.
+     * @param gameView La vista del juego ya construida.
+     * @param saved La partida: tableros, datos del jugador y estado de la máquina.
+     */
+    private void showGame(GameView gameView, SavedGame saved) {
         try {
-            GameView gameView = new GameView();
             GameController controller = gameView.getGameController();
             // 🔹 Cargar estado
-            controller.loadGame(player, machine, data);
-            controller.setPlacementPhase(data.isPlacementPhase());
+            controller.loadGame(saved);
             // 🔹 Guardar al cerrar
             controller.attachCloseHandler(gameView);
             // 🔹 Mostrar juego
@@ -167,6 +275,7 @@ public class WelcomeController {
         } catch (Exception e) {
             System.err.println("Error al intentar abrir la ventana del juego.");
             e.printStackTrace();
+            btnContinue.setDisable(SaveManager.latestSave() == null);
         }
     }
 
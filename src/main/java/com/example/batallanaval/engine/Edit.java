@@ -0,0 +1,107 @@
+package com.example.batallanaval.engine;
+
+import com.example.batallanaval.models.Ship;
+
+/**
+ * Cambio reversible de una {@link GameSession}: colocar, quitar, mover o girar un barco
+ * durante la colocación, o un disparo en modo práctica.
+ * <p>
+ * Guarda solo el delta mínimo para invertirlo: el barco y sus casillas de origen y
+ * destino (como {@code fila * tamaño + columna}) o la casilla disparada. Invertirlo
+ * cuesta O(longitud del barco), sin recorrer ni reconstruir el tablero.
+ */
+public final class Edit {
+
+    /** Tipos de cambio. */
+    public enum Kind {
+        /** Se colocó un barco en el tablero del jugador. */
+        PLACE,
+        /** Se quitó un barco del tablero del jugador. */
+        REMOVE,
+        /** Se movió o giró un barco del tablero del jugador. */
+        MOVE,
+        /** Se disparó a una casilla del tablero de la máquina. */
+        SHOT,
+        /** Se deshizo un disparo sobre el tablero de la máquina. */
+        UNSHOT
+    }
+
+    /** Casilla ausente (el barco no estaba en el tablero antes o no lo está después). */
+    static final int NONE = -1;
+
+    private final Kind kind;
+    private final Ship ship;
+    private final int from;
+    private final boolean fromHorizontal;
+    private final int to;
+    private final boolean toHorizontal;
+
+    private Edit(Kind kind, Ship ship, int from, boolean fromHorizontal, int to, boolean toHorizontal) {
+        this.kind = kind;
+        this.ship = ship;
+        this.from = from;
+        this.fromHorizontal = fromHorizontal;
+        this.to = to;
+        this.toHorizontal = toHorizontal;
+    }
+
+    static Edit place(Ship ship, int cell, boolean horizontal) {
+        return new Edit(Kind.PLACE, ship, NONE, false, cell, horizontal);
+    }
+
+    static Edit remove(Ship ship, int cell, boolean horizontal) {
+        return new Edit(Kind.REMOVE, ship, cell, horizontal, NONE, false);
+    }
+
+    static Edit move(Ship ship, int from, boolean fromHorizontal, int to, boolean toHorizontal) {
+        return new Edit(Kind.MOVE, ship, from, fromHorizontal, to, toHorizontal);
+    }
+
+    static Edit shot(int cell) {
+        return new Edit(Kind.SHOT, null, NONE, false, cell, false);
+    }
+
+    /**
+     * @return El cambio que deshace este.
+     */
+    Edit inverse() {
+        Kind inverse = switch (kind) {
+            case PLACE -> Kind.REMOVE;
+            case REMOVE -> Kind.PLACE;
+            case MOVE -> Kind.MOVE;
+            case SHOT -> Kind.UNSHOT;
+            case UNSHOT -> Kind.SHOT;
+        };
+        return new Edit(inverse, ship, to, toHorizontal, from, fromHorizontal);
+    }
+
+    /** @return El tipo de cambio. */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /** @return El barco afectado, o null en los disparos. */
+    public Ship getShip() {
+        return ship;
+    }
+
+    /** @return Casilla de origen del barco o casilla cuyo disparo se deshace; -1 si no hay. */
+    public int getFrom() {
+        return from;
+    }
+
+    /** @return Orientación del barco en su origen. */
+    public boolean isFromHorizontal() {
+        return fromHorizontal;
+    }
+
+    /** @return Casilla de destino del barco o casilla disparada; -1 si no hay. */
+    public int getTo() {
+        return to;
+    }
+
+    /** @return Orientación del barco en su destino. */
+    public boolean isToHorizontal() {
+        return toHorizontal;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.batallanaval.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registro de deshacer y rehacer de una sesión: los cambios hasta el cursor están
+ * aplicados y los de después se pueden rehacer. Registrar un cambio nuevo descarta lo
+ * que quedaba por rehacer.
+ */
+final class EditLog {
+
+    private final List<Edit> edits = new ArrayList<>();
+    private int cursor;
+
+    void record(Edit edit) {
+        if (cursor < edits.size()) edits.subList(cursor, edits.size()).clear();
+        edits.add(edit);
+        cursor++;
+    }
+
+    boolean canUndo() {
+        return cursor > 0;
+    }
+
+    boolean canRedo() {
+        return cursor < edits.size();
+    }
+
+    /** @return El último cambio aplicado, que pasa a poder rehacerse. */
+    Edit undo() {
+        return edits.get(--cursor);
+    }
+
+    /** @return El siguiente cambio por rehacer, que pasa a estar aplicado. */
+    Edit redo() {
+        return edits.get(cursor++);
+    }
+
+    void clear() {
+        edits.clear();
+        cursor = 0;
+    }
+}
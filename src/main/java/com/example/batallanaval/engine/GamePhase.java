@@ -0,0 +1,15 @@
+package com.example.batallanaval.engine;
+
+/**
+ * Fases de una {@link GameSession}.
+ */
+public enum GamePhase {
+    /** El jugador está colocando su flota. */
+    PLACEMENT,
+    /** Le toca disparar al jugador. */
+    PLAYER_TURN,
+    /** Le toca disparar a la máquina. */
+    MACHINE_TURN,
+    /** Una de las dos flotas está hundida. */
+    FINISHED
+}
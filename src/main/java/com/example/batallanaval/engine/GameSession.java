@@ -0,0 +1,605 @@
+package com.example.batallanaval.engine;
+
+import com.example.batallanaval.ai.ShotStrategy;
+import com.example.batallanaval.ai.Strategies;
+import com.example.batallanaval.models.Board;
+import com.example.batallanaval.models.ListenerList;
+import com.example.batallanaval.models.PlayerData;
+import com.example.batallanaval.models.Ship;
+import com.example.batallanaval.models.ShotHistory;
+import com.example.batallanaval.models.ShotResult;
+import com.example.batallanaval.persistence.PlayerStats;
+import com.example.batallanaval.persistence.SavedGame;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Partida de Batalla Naval sin interfaz: los dos tableros, la estrategia de la máquina,
+ * el orden de los turnos y los enganches de persistencia.
+ * <p>
+ * Reglas de turno: quien acierta (tocado o hundido) vuelve a disparar y quien falla
+ * cede el turno; la partida termina cuando una flota queda hundida. La vista solo
+ * traduce clics en {@link #playerShot(int, int)}, pide los disparos de la máquina con
+ * {@link #machineShot()} mientras la fase sea {@link GamePhase#MACHINE_TURN} y pinta los
+ * {@link Shot} devueltos. Una interfaz que no quiera calcular la estrategia en su hilo
+ * puede partir cada disparo de la máquina en {@link #nextMachineTarget()} y
+ * {@link #applyMachineShot(int)}.
+ * <p>
+ * Durante la colocación, y con los disparos del modo práctica ({@link #startPractice()}),
+ * cada cambio queda en un registro de deshacer y rehacer ({@link #undo()}, {@link #redo()}).
+ * <p>
+ * Los cambios se publican a los {@link SessionListener} suscritos en el hilo que maneja
+ * la sesión: los de los tableros al aplicar cada disparo y los de fase al cambiar de turno.
+ * <p>
+ * No es segura entre hilos: cada sesión debe manejarse desde un único hilo a la vez.
+ * Sin persistencia ({@link SessionHooks#NONE}) una sesión solo ocupa sus dos tableros y
+ * la estrategia, así que un servidor o un simulador pueden mantener miles por JVM.
+ */
+public final class GameSession {
+
+    /** Propiedad del sistema con el nombre de la estrategia de la máquina por defecto. */
+    public static final String AI_PROPERTY = "batallanaval.ai";
+
+    private final String nickname;
+    private final Board player;
+    private final Board machine;
+    private final SessionHooks hooks;
+    private String aiName;
+    private ShotStrategy ai;
+    /** Orden de los disparos de la partida, para la repetición. */
+    private ShotHistory history;
+    private GamePhase phase;
+    /** Barcos del jugador hundidos por la máquina. */
+    private int sunkShips;
+    private boolean playerWon;
+    private CompletableFuture<PlayerStats> finalStats;
+    private final ListenerList<SessionListener> listeners = new ListenerList<>();
+    /** Cambios reversibles de la colocación o del modo práctica. */
+    private final EditLog edits = new EditLog();
+    /** En práctica la máquina no responde, los disparos se pueden deshacer y nada se guarda. */
+    private boolean practice;
+
+    /**
+     * Crea una partida nueva en fase de colocación con la estrategia por defecto
+     * (propiedad {@value #AI_PROPERTY}).
+     * @param nickname El apodo del jugador.
+     * @param player Tablero del jugador, vacío o con la flota a medio colocar.
+     * @param machine Tablero de la máquina con su flota colocada.
+     * @param hooks Enganches de persistencia.
+     */
+    public GameSession(String nickname, Board player, Board machine, SessionHooks hooks) {
+        this(nickname, player, machine, defaultAiName(), System.nanoTime(), hooks);
+    }
+
+    /**
+     * Crea una partida nueva en fase de colocación.
+     * @param nickname El apodo del jugador.
+     * @param player Tablero del jugador, vacío o con la flota a medio colocar.
+     * @param machine Tablero de la máquina con su flota colocada.
+     * @param aiName Nombre de la estrategia de la máquina.
+     * @param seed Semilla de la estrategia.
+     * @param hooks Enganches de persistencia.
+     * @throws IllegalArgumentException si los tableros no tienen el mismo tamaño o la
+     *         estrategia no existe.
+     */
+    public GameSession(String nickname, Board player, Board machine, String aiName, long seed, SessionHooks hooks) {
+        if (player.getSize() != machine.getSize()) {
+            throw new IllegalArgumentException("Los tableros no tienen el mismo tamaño: "
+                    + player.getSize() + " y " + machine.getSize());
+        }
+        this.nickname = nickname;
+        this.player = player;
+        this.machine = machine;
+        this.hooks = hooks;
+        this.aiName = aiName;
+        this.ai = Strategies.shotStrategy(aiName, seed);
+        this.history = new ShotHistory();
+        this.phase = GamePhase.PLACEMENT;
+    }
+
+    /**
+     * Reconstruye una sesión a partir de una partida guardada. La máquina sigue con la
+     * estrategia guardada si está registrada y recupera lo que ya sabía: con su estado
+     * guardado directamente y, si no, a partir de los disparos del tablero.
+     * <p>
+     * Si la partida se guardó a mitad de una racha de la máquina, el historial permite
+     * devolverle el turno; sin historial (partidas antiguas) siempre empieza el jugador.
+     * @param saved La partida cargada.
+     * @param hooks Enganches de persistencia.
+     * @return La sesión.
+     */
+    public static GameSession restore(SavedGame saved, SessionHooks hooks) {
+        PlayerData data = saved.getData();
+        GameSession session = new GameSession(data.getNickname(), saved.getPlayer(), saved.getMachine(), hooks);
+        session.sunkShips = data.getSunkShips();
+
+        String savedAiName = saved.getAiName();
+        if (savedAiName != null && !savedAiName.equals(session.aiName)
+                && Strategies.shooterNames().contains(savedAiName)) {
+            session.aiName = savedAiName;
+            session.ai = Strategies.shotStrategy(savedAiName, System.nanoTime());
+        }
+        byte[] savedAiState = saved.getAiState();
+        if (savedAiState == null || !session.aiName.equals(savedAiName)
+                || !session.ai.restoreState(session.player, savedAiState)) {
+            session.ai.resume(session.player);
+        }
+
+        ShotHistory savedHistory = saved.getHistory();
+        // Sin historial guardado el orden de los disparos es aproximado
+        session.history = savedHistory != null
+                ? savedHistory
+                : ShotHistory.fromBoards(session.player, session.machine);
+
+        if (data.isPlacementPhase()) {
+            session.phase = GamePhase.PLACEMENT;
+        } else if (session.player.isGameOver() || session.machine.isGameOver()) {
+            session.phase = GamePhase.FINISHED;
+            session.playerWon = session.machine.isGameOver();
+        } else {
+            session.phase = savedHistory != null && session.machineMovesNext()
+                    ? GamePhase.MACHINE_TURN
+                    : GamePhase.PLAYER_TURN;
+        }
+        return session;
+    }
+
+    /**
+     * @return El nombre de la estrategia de la máquina elegido con la propiedad
+     *         {@value #AI_PROPERTY}, o el de por defecto.
+     */
+    public static String defaultAiName() {
+        return System.getProperty(AI_PROPERTY, Strategies.DEFAULT_SHOOTER);
+    }
+
+    // ========= TURNOS =========
+
+    /**
+     * Termina la colocación y empieza la batalla con el turno del jugador.
+     * @throws IllegalStateException si no está en fase de colocación o la flota del
+     *         jugador no está completa.
+     */
+    public void startBattle() {
+        requirePhase(GamePhase.PLACEMENT);
+        if (!player.isFleetComplete()) {
+            throw new IllegalStateException("La flota del jugador no está completa");
+        }
+        edits.clear();
+        setPhase(GamePhase.PLAYER_TURN);
+        save();
+    }
+
+    /**
+     * Empieza una práctica de tiro: el jugador dispara sobre la flota de la máquina sin
+     * que la máquina responda, puede deshacer y rehacer sus disparos, y la partida no se
+     * guarda ni cuenta para el historial.
+     * @throws IllegalStateException si no está en fase de colocación o la flota del
+     *         jugador no está completa.
+     */
+    public void startPractice() {
+        requirePhase(GamePhase.PLACEMENT);
+        if (!player.isFleetComplete()) {
+            throw new IllegalStateException("La flota del jugador no está completa");
+        }
+        practice = true;
+        edits.clear();
+        setPhase(GamePhase.PLAYER_TURN);
+    }
+
+    /**
+     * Aplica un disparo del jugador sobre el tablero de la máquina. Si falla, el turno
+     * pasa a la máquina (salvo en práctica); si hunde la última flota, la partida termina.
+     * @param row Fila.
+     * @param col Columna.
+     * @return El disparo aplicado, o null si la casilla ya estaba disparada.
+     * @throws IllegalStateException si no es el turno del jugador.
+     * @throws IllegalArgumentException si la casilla está fuera del tablero.
+     */
+    public Shot playerShot(int row, int col) {
+        requirePhase(GamePhase.PLAYER_TURN);
+        requireInside(row, col);
+        ShotResult result = machine.shoot(row, col);
+        if (result == null) return null;
+        Ship sunkShip = result == ShotResult.SUNK ? machine.getShipAt(row, col) : null;
+        if (practice) {
+            // Los disparos de práctica no van al diario: se pueden deshacer
+            edits.record(Edit.shot(row * machine.getSize() + col));
+        } else {
+            journal(false, row, col);
+        }
+
+        if (machine.isGameOver()) {
+            finish(true);
+        } else if (result == ShotResult.MISS && !practice) {
+            setPhase(GamePhase.MACHINE_TURN);
+        }
+        return new Shot(false, row, col, result, sunkShip);
+    }
+
+    /**
+     * Aplica un disparo de la máquina sobre el tablero del jugador. Si falla, el turno
+     * vuelve al jugador; si acierta, la fase sigue siendo {@link GamePhase#MACHINE_TURN}
+     * y hay que volver a llamar.
+     * @return El disparo aplicado.
+     * @throws IllegalStateException si no es el turno de la máquina o la estrategia no
+     *         encuentra una casilla libre.
+     */
+    public Shot machineShot() {
+        return applyMachineShot(nextMachineTarget());
+    }
+
+    /**
+     * Pide a la estrategia la siguiente casilla de la máquina sin aplicarla.
+     * <p>
+     * Solo lee los tableros, así que puede calcularse en otro hilo mientras nadie
+     * modifique la sesión; el resultado se aplica después con {@link #applyMachineShot(int)}.
+     * @return Casilla libre del tablero del jugador, como {@code fila * tamaño + columna}.
+     * @throws IllegalStateException si no es el turno de la máquina o la estrategia no
+     *         encuentra una casilla libre.
+     */
+    public int nextMachineTarget() {
+        requirePhase(GamePhase.MACHINE_TURN);
+        int size = player.getSize();
+        // Una estrategia que repite casilla se vuelve a consultar, pero sin bucles infinitos
+        for (int attempts = size * size; attempts > 0; attempts--) {
+            int cell = ai.nextShot(player);
+            if (!player.isShotAt(cell / size, cell % size)) return cell;
+        }
+        throw new IllegalStateException("La estrategia " + aiName + " no encontró una casilla libre");
+    }
+
+    /**
+     * Cambia la estrategia de la máquina por una instancia nueva, que retoma la partida a
+     * partir de los disparos del tablero del jugador. La instancia anterior ya no se usa,
+     * así que puede seguir ocupada en otro hilo sin afectar a la sesión.
+     * @param name Nombre de la estrategia; puede ser el de la actual.
+     * @throws IllegalArgumentException si la estrategia no existe.
+     */
+    public void replaceStrategy(String name) {
+        ShotStrategy next = Strategies.shotStrategy(name, System.nanoTime());
+        next.resume(player);
+        aiName = name;
+        ai = next;
+    }
+
+    /**
+     * Aplica sobre el tablero del jugador una casilla obtenida con {@link #nextMachineTarget()}.
+     * @param cell Casilla como {@code fila * tamaño + columna}.
+     * @return El disparo aplicado.
+     * @throws IllegalStateException si no es el turno de la máquina.
+     * @throws IllegalArgumentException si la casilla está fuera del tablero o ya estaba disparada.
+     */
+    public Shot applyMachineShot(int cell) {
+        requirePhase(GamePhase.MACHINE_TURN);
+        int size = player.getSize();
+        int row = cell / size;
+        int col = cell % size;
+        requireInside(row, col);
+        ShotResult result = player.shoot(row, col);
+        if (result == null) {
+            throw new IllegalArgumentException("Casilla ya disparada: (" + row + ", " + col + ")");
+        }
+
+        Ship sunkShip = result == ShotResult.SUNK ? player.getShipAt(row, col) : null;
+        ai.onShotResult(row, col, result, sunkShip);
+        journal(true, row, col);
+        if (sunkShip != null) sunkShips++;
+
+        if (player.isGameOver()) {
+            finish(false);
+        } else if (result == ShotResult.MISS) {
+            setPhase(GamePhase.PLAYER_TURN);
+        }
+        return new Shot(true, row, col, result, sunkShip);
+    }
+
+    /**
+     * Juega de seguido todo el turno de la máquina, sin devolver los disparos.
+     * @return Número de disparos de la máquina.
+     */
+    public int playMachineTurn() {
+        int shots = 0;
+        while (phase == GamePhase.MACHINE_TURN) {
+            machineShot();
+            shots++;
+        }
+        return shots;
+    }
+
+    /**
+     * Guarda una instantánea completa si la partida no ha terminado y no es una práctica.
+     */
+    public void save() {
+        if (phase != GamePhase.FINISHED && !practice) hooks.snapshot(this);
+    }
+
+    // ========= COLOCACIÓN =========
+
+    /**
+     * Coloca un barco en el tablero del jugador.
+     * @param ship El barco, fuera del tablero.
+     * @param row Fila inicial.
+     * @param col Columna inicial.
+     * @param horizontal Orientación.
+     * @return false si no cabe ahí.
+     * @throws IllegalStateException si no está en fase de colocación.
+     */
+    public boolean placeShip(Ship ship, int row, int col, boolean horizontal) {
+        requirePhase(GamePhase.PLACEMENT);
+        if (!player.canPlaceShip(ship, row, col, horizontal)) return false;
+        player.placeShip(ship, row, col, horizontal);
+        edits.record(Edit.place(ship, row * player.getSize() + col, horizontal));
+        return true;
+    }
+
+    /**
+     * Quita un barco del tablero del jugador.
+     * @param ship El barco.
+     * @throws IllegalStateException si no está en fase de colocación.
+     */
+    public void removeShip(Ship ship) {
+        requirePhase(GamePhase.PLACEMENT);
+        if (!isPlaced(ship)) return;
+        int cell = ship.getRow() * player.getSize() + ship.getCol();
+        boolean horizontal = ship.isHorizontal();
+        player.removeShip(ship);
+        edits.record(Edit.remove(ship, cell, horizontal));
+    }
+
+    /**
+     * Mueve (o gira) un barco ya colocado en el tablero del jugador.
+     * @param ship El barco.
+     * @param row Fila inicial nueva.
+     * @param col Columna inicial nueva.
+     * @param horizontal Orientación nueva.
+     * @return false si el barco no está en el tablero o no cabe en la posición nueva; en
+     *         ese caso se queda donde estaba.
+     * @throws IllegalStateException si no está en fase de colocación.
+     */
+    public boolean moveShip(Ship ship, int row, int col, boolean horizontal) {
+        requirePhase(GamePhase.PLACEMENT);
+        if (!isPlaced(ship)) return false;
+        int size = player.getSize();
+        int fromRow = ship.getRow();
+        int fromCol = ship.getCol();
+        boolean fromHorizontal = ship.isHorizontal();
+        if (fromRow == row && fromCol == col && fromHorizontal == horizontal) return true;
+
+        // Se quita antes de validar para que sus propias casillas no cuenten como ocupadas
+        player.removeShip(ship);
+        if (!player.canPlaceShip(ship, row, col, horizontal)) {
+            player.placeShip(ship, fromRow, fromCol, fromHorizontal);
+            return false;
+        }
+        player.placeShip(ship, row, col, horizontal);
+        edits.record(Edit.move(ship, fromRow * size + fromCol, fromHorizontal, row * size + col, horizontal));
+        return true;
+    }
+
+    /**
+     * Gira un barco colocado sobre su casilla inicial.
+     * @param ship El barco.
+     * @return false si girado no cabe.
+     * @throws IllegalStateException si no está en fase de colocación.
+     */
+    public boolean rotateShip(Ship ship) {
+        return moveShip(ship, ship.getRow(), ship.getCol(), !ship.isHorizontal());
+    }
+
+    /**
+     * Olvida los cambios registrados, tras modificar el tablero del jugador por fuera de
+     * la sesión (por ejemplo, al colocar la flota al azar).
+     */
+    public void forgetEdits() {
+        edits.clear();
+    }
+
+    // ========= DESHACER =========
+
+    /** @return true si hay un cambio que deshacer. */
+    public boolean canUndo() {
+        return undoable() && edits.canUndo();
+    }
+
+    /** @return true si hay un cambio que rehacer. */
+    public boolean canRedo() {
+        return undoable() && edits.canRedo();
+    }
+
+    /**
+     * Deshace el último cambio en O(longitud del barco).
+     * @return El cambio aplicado para deshacerlo (el inverso del original), o null si no
+     *         había nada que deshacer.
+     */
+    public Edit undo() {
+        if (!canUndo()) return null;
+        Edit inverse = edits.undo().inverse();
+        apply(inverse);
+        return inverse;
+    }
+
+    /**
+     * Rehace el último cambio deshecho.
+     * @return El cambio aplicado, o null si no había nada que rehacer.
+     */
+    public Edit redo() {
+        if (!canRedo()) return null;
+        Edit edit = edits.redo();
+        apply(edit);
+        return edit;
+    }
+
+    /**
+     * Reúne el estado actual de la partida para guardarlo o archivarlo.
+     * @return La partida con los tableros, los datos del jugador, la IA y el historial.
+     */
+    public SavedGame toSavedGame() {
+        PlayerData data = new PlayerData(nickname, sunkShips, phase == GamePhase.PLACEMENT);
+        return new SavedGame(player, machine, data, aiName, ai.saveState(), history);
+    }
+
+    // ========= EVENTOS =========
+
+    /**
+     * Suscribe un oyente a la sesión y a sus dos tableros.
+     * @param listener El oyente.
+     */
+    public void addListener(SessionListener listener) {
+        listeners.add(listener);
+        player.addListener(listener);
+        machine.addListener(listener);
+    }
+
+    /**
+     * Da de baja un oyente de la sesión y de sus tableros.
+     * @param listener El oyente.
+     */
+    public void removeListener(SessionListener listener) {
+        listeners.remove(listener);
+        player.removeListener(listener);
+        machine.removeListener(listener);
+    }
+
+    // ========= CONSULTAS =========
+
+    /** @return El apodo del jugador. */
+    public String getNickname() {
+        return nickname;
+    }
+
+    /** @return Tablero del jugador. */
+    public Board getPlayerBoard() {
+        return player;
+    }
+
+    /** @return Tablero de la máquina. */
+    public Board getMachineBoard() {
+        return machine;
+    }
+
+    /** @return Nombre de la estrategia de la máquina. */
+    public String getAiName() {
+        return aiName;
+    }
+
+    /** @return La fase actual. */
+    public GamePhase getPhase() {
+        return phase;
+    }
+
+    /** @return true si es una práctica de tiro ({@link #startPractice()}). */
+    public boolean isPracticeMode() {
+        return practice;
+    }
+
+    /** @return true si la partida terminó. */
+    public boolean isFinished() {
+        return phase == GamePhase.FINISHED;
+    }
+
+    /** @return true si la partida terminó con victoria del jugador. */
+    public boolean isPlayerWinner() {
+        return phase == GamePhase.FINISHED && playerWon;
+    }
+
+    /** @return Barcos del jugador hundidos por la máquina. */
+    public int getSunkShips() {
+        return sunkShips;
+    }
+
+    /** @return Número de disparos hechos en la partida, de ambos bandos. */
+    public int getTurn() {
+        return history.size();
+    }
+
+    /**
+     * @return Las estadísticas del jugador que devolvieron los enganches al terminar, o
+     *         null si la partida no ha terminado en esta sesión.
+     */
+    public CompletableFuture<PlayerStats> getFinalStats() {
+        return finalStats;
+    }
+
+    // ========= INTERNOS =========
+
+    private void journal(boolean onPlayerBoard, int row, int col) {
+        int cell = row * player.getSize() + col;
+        history.add(onPlayerBoard, cell);
+        if (hooks.shot(this, onPlayerBoard, cell)) save();
+    }
+
+    private void setPhase(GamePhase next) {
+        if (phase == next) return;
+        phase = next;
+        for (Object listener : listeners.snapshot()) {
+            ((SessionListener) listener).phaseChanged(this, next);
+        }
+    }
+
+    private void finish(boolean playerWon) {
+        this.playerWon = playerWon;
+        setPhase(GamePhase.FINISHED);
+        // Las prácticas no se archivan ni cuentan para el historial
+        finalStats = practice ? null : hooks.gameOver(this, playerWon);
+        ai.gameOver();
+    }
+
+    private boolean undoable() {
+        return phase == GamePhase.PLACEMENT || practice;
+    }
+
+    private boolean isPlaced(Ship ship) {
+        return ship.getRow() >= 0 && player.getShipAt(ship.getRow(), ship.getCol()) == ship;
+    }
+
+    private void apply(Edit edit) {
+        int size = player.getSize();
+        Ship ship = edit.getShip();
+        switch (edit.getKind()) {
+            case PLACE -> player.placeShip(ship, edit.getTo() / size, edit.getTo() % size, edit.isToHorizontal());
+            case REMOVE -> player.removeShip(ship);
+            case MOVE -> {
+                player.removeShip(ship);
+                player.placeShip(ship, edit.getTo() / size, edit.getTo() % size, edit.isToHorizontal());
+            }
+            case SHOT -> {
+                machine.shoot(edit.getTo() / size, edit.getTo() % size);
+                if (machine.isGameOver()) finish(true);
+            }
+            case UNSHOT -> {
+                machine.undoShot(edit.getFrom() / size, edit.getFrom() % size);
+                if (phase == GamePhase.FINISHED) {
+                    playerWon = false;
+                    setPhase(GamePhase.PLAYER_TURN);
+                }
+            }
+        }
+    }
+
+    /**
+     * Deduce del último disparo si a la máquina le quedaba turno: falló el jugador o
+     * acertó la máquina.
+     */
+    private boolean machineMovesNext() {
+        int count = history.size();
+        if (count == 0) return false;
+        boolean onPlayerBoard = history.isOnPlayerBoard(count - 1);
+        int cell = history.cell(count - 1);
+        int size = player.getSize();
+        boolean hit = (onPlayerBoard ? player : machine).hasShipAt(cell / size, cell % size);
+        return onPlayerBoard == hit;
+    }
+
+    private void requirePhase(GamePhase expected) {
+        if (phase != expected) {
+            throw new IllegalStateException("Fase incorrecta: se esperaba " + expected + " y es " + phase);
+        }
+    }
+
+    private void requireInside(int row, int col) {
+        int size = machine.getSize();
+        if (row < 0 || col < 0 || row >= size || col >= size) {
+            throw new IllegalArgumentException("Casilla fuera del tablero: (" + row + ", " + col + ")");
+        }
+    }
+}
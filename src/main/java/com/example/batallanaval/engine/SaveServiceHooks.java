@@ -0,0 +1,45 @@
+package com.example.batallanaval.engine;
+
+import com.example.batallanaval.models.Board;
+import com.example.batallanaval.persistence.PlayerStats;
+import com.example.batallanaval.persistence.SaveHeader;
+import com.example.batallanaval.persistence.SaveService;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Enganches de la aplicación de escritorio: instantáneas y diario en la ranura activa y,
+ * al terminar, repetición e historial antes de vaciar la ranura.
+ */
+final class SaveServiceHooks implements SessionHooks {
+
+    static final SaveServiceHooks INSTANCE = new SaveServiceHooks();
+
+    private SaveServiceHooks() {
+    }
+
+    @Override
+    public void snapshot(GameSession session) {
+        SaveService.shared().snapshot(session.toSavedGame());
+    }
+
+    @Override
+    public boolean shot(GameSession session, boolean onPlayerBoard, int cell) {
+        SaveHeader header = SaveHeader.of(session.getNickname(), session.getPhase() == GamePhase.PLACEMENT,
+                session.getPlayerBoard(), session.getMachineBoard());
+        return SaveService.shared().shot(onPlayerBoard, cell, header);
+    }
+
+    @Override
+    public CompletableFuture<PlayerStats> gameOver(GameSession session, boolean playerWon) {
+        SaveService service = SaveService.shared();
+        // La partida se archiva como repetición y en el historial antes de vaciar su ranura
+        service.archiveReplay(session.toSavedGame(), playerWon);
+        Board player = session.getPlayerBoard();
+        Board machine = session.getMachineBoard();
+        CompletableFuture<PlayerStats> stats = service.recordResult(session.getNickname(), playerWon,
+                machine.getShotsFired(), machine.getHitCount(), player.getShotsFired());
+        service.deleteSaves();
+        return stats;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.batallanaval.engine;
+
+import com.example.batallanaval.persistence.PlayerStats;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Puntos de enganche de persistencia de una {@link GameSession}.
+ * <p>
+ * La sesión los invoca en el hilo que la maneja, así que no deben bloquear: la
+ * implementación de {@link #saveService()} solo encola en el hilo de guardado. Todos los
+ * métodos tienen una implementación vacía, de modo que {@link #NONE} sirve para sesiones
+ * sin guardado (simuladores, servidores) y no construye nada por disparo.
+ */
+public interface SessionHooks {
+
+    /** Sesión sin persistencia. */
+    SessionHooks NONE = new SessionHooks() { };
+
+    /**
+     * Guarda el estado completo de la sesión.
+     * @param session La sesión.
+     */
+    default void snapshot(GameSession session) {
+    }
+
+    /**
+     * Registra un disparo ya aplicado.
+     * @param session La sesión.
+     * @param onPlayerBoard true si el disparo fue sobre el tablero del jugador.
+     * @param cell Casilla empaquetada como {@code fila * tamaño + columna}.
+     * @return true si conviene guardar una instantánea completa (por ejemplo, para compactar).
+     */
+    default boolean shot(GameSession session, boolean onPlayerBoard, int cell) {
+        return false;
+    }
+
+    /**
+     * Se invoca una sola vez, cuando la partida termina.
+     * @param session La sesión terminada.
+     * @param playerWon true si ganó el jugador.
+     * @return Las estadísticas del jugador tras la partida, o null dentro del futuro si no se registran.
+     */
+    default CompletableFuture<PlayerStats> gameOver(GameSession session, boolean playerWon) {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * @return Enganches que guardan la partida en la ranura activa con el
+     *         {@link com.example.batallanaval.persistence.SaveService} compartido.
+     */
+    static SessionHooks saveService() {
+        return SaveServiceHooks.INSTANCE;
+    }
+}
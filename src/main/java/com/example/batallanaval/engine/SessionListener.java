@@ -0,0 +1,18 @@
+package com.example.batallanaval.engine;
+
+import com.example.batallanaval.models.BoardListener;
+
+/**
+ * Oyente de una {@link GameSession}: recibe los eventos de sus dos tableros
+ * ({@link BoardListener}) y los cambios de fase.
+ */
+public interface SessionListener extends BoardListener {
+
+    /**
+     * La sesión cambió de fase (PhaseChanged).
+     * @param session La sesión.
+     * @param phase La fase nueva.
+     */
+    default void phaseChanged(GameSession session, GamePhase phase) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.batallanaval.engine;
+
+import com.example.batallanaval.models.Ship;
+import com.example.batallanaval.models.ShotResult;
+
+/**
+ * Un disparo ya aplicado por una {@link GameSession}.
+ */
+public final class Shot {
+
+    private final boolean onPlayerBoard;
+    private final int row;
+    private final int col;
+    private final ShotResult result;
+    private final Ship sunkShip;
+
+    Shot(boolean onPlayerBoard, int row, int col, ShotResult result, Ship sunkShip) {
+        this.onPlayerBoard = onPlayerBoard;
+        this.row = row;
+        this.col = col;
+        this.result = result;
+        this.sunkShip = sunkShip;
+    }
+
+    /** @return true si el disparo fue sobre el tablero del jugador (lo hizo la máquina). */
+    public boolean isOnPlayerBoard() {
+        return onPlayerBoard;
+    }
+
+    /** @return Fila disparada. */
+    public int getRow() {
+        return row;
+    }
+
+    /** @return Columna disparada. */
+    public int getCol() {
+        return col;
+    }
+
+    /** @return Resultado del disparo. */
+    public ShotResult getResult() {
+        return result;
+    }
+
+    /** @return El barco hundido por este disparo, o null si no hundió ninguno. */
+    public Ship getSunkShip() {
+        return sunkShip;
+    }
+}
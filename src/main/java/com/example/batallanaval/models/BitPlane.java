@@ -0,0 +1,49 @@
+package com.example.batallanaval.models;
+
+import java.io.Serializable;
+
+/**
+ * Plano de un bit por celda usado por {@link Board} para ocupación, disparos e impactos.
+ * Las celdas se identifican por su índice lineal {@code fila * tamaño + columna}.
+ * Hay una implementación densa (un {@code long[]} contiguo) para tableros pequeños y una
+ * por bloques ({@link ChunkedBitPlane}) cuya memoria crece con las celdas marcadas.
+ */
+interface BitPlane extends Serializable {
+
+    /**
+     * Crea el plano adecuado para el número de celdas.
+     * @param cells Número total de celdas del tablero.
+     * @param sparse true para usar almacenamiento por bloques.
+     * @return Un plano vacío.
+     */
+    static BitPlane create(int cells, boolean sparse) {
+        return sparse ? new ChunkedBitPlane(cells) : new DenseBitPlane(cells);
+    }
+
+    /** @return true si el bit de la celda está activo. */
+    boolean get(int idx);
+
+    /** Activa el bit de la celda. */
+    void set(int idx);
+
+    /** Desactiva el bit de la celda. */
+    void clear(int idx);
+
+    /** Desactiva todos los bits. */
+    void reset();
+
+    /**
+     * Comprueba si alguna celda de un segmento está activa.
+     * @param start Índice de la primera celda.
+     * @param count Número de celdas.
+     * @param step Distancia entre celdas consecutivas (1 horizontal, tamaño vertical).
+     * @return true si al menos una está activa.
+     */
+    boolean anySet(int start, int count, int step);
+
+    /**
+     * Combina (OR) el plano en una máscara densa de {@link PlacementTable#wordsFor(int)} palabras.
+     * @param dense Máscara destino.
+     */
+    void orInto(long[] dense);
+}
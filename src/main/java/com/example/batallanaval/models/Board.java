@@ -2,36 +2,97 @@ package com.example.batallanaval.models;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Representa el tablero de juego para la Batalla Naval.
- * Contiene la cuadrícula de celdas (Cell) y la lista de barcos (Ship) colocados
- * en el tablero.
+ * El estado se guarda en planos de bits empaquetados (ocupación, disparos e impactos),
+ * donde la celda (fila, columna) corresponde al bit {@code fila * tamaño + columna}.
+ * Un plano de bytes guarda el identificador del barco que ocupa cada celda,
+ * de forma que disparar o validar una colocación no crea objetos.
+ * El lado del tablero es configurable; a partir de {@link #SPARSE_THRESHOLD} los planos
+ * se almacenan por bloques reservados bajo demanda, para que la memoria dependa de los
+ * barcos y disparos y no del área.
+ * Además mantiene contadores de la flota y de los disparos que se actualizan en O(1)
+ * en cada operación. Los cambios se publican a los {@link BoardListener} suscritos;
+ * sin oyentes publicar no cuesta nada.
  */
 public class Board implements Serializable {
     /** ID de serialización para asegurar la compatibilidad al guardar/cargar. */
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 4L;
 
-    /** Define el tamaño de la cuadrícula (10x10). */
-    private static final int SIZE = 10;
+    /** Tamaño por defecto de la cuadrícula (10x10). */
+    public static final int DEFAULT_SIZE = 10;
 
-    /** La cuadrícula 2D de celdas que compone el tablero. */
-    private final Cell[][] grid = new Cell[SIZE][SIZE];
+    /** Lado máximo admitido. */
+    public static final int MAX_SIZE = 1000;
+
+    /** Lado a partir del cual se usa almacenamiento disperso. */
+    public static final int SPARSE_THRESHOLD = 128;
+
+    /** Lado de la cuadrícula. */
+    private final int size;
+
+    /** Máximo de barcos distinguibles por el plano de identificadores (un byte por celda). */
+    private static final int MAX_SHIPS = Byte.MAX_VALUE;
+
+    /** Plano de celdas ocupadas por algún barco. */
+    private final BitPlane occupied;
+
+    /** Plano de celdas que ya recibieron un disparo. */
+    private final BitPlane shots;
+
+    /** Plano de disparos que acertaron en un barco. */
+    private final BitPlane hits;
+
+    /** Identificador (1..MAX_SHIPS) del barco en cada celda; 0 si es agua. */
+    private final ShipIdPlane shipIds;
+
+    /** Barcos indexados por identificador - 1; los huecos se reutilizan al quitar barcos. */
+    private final Ship[] shipsById = new Ship[MAX_SHIPS];
 
     /** Lista de objetos Ship colocados actualmente en el tablero. */
     private final List<Ship> fleet = new ArrayList<>();
 
+    // ========= CONTADORES =========
+    /** Barcos colocados que aún no han sido hundidos. */
+    private int shipsRemaining;
+    /** Barcos hundidos. */
+    private int shipsSunk;
+    /** Disparos que acertaron en un barco. */
+    private int hitCount;
+    /** Disparos realizados sobre este tablero. */
+    private int shotsFired;
+
+    /** Oyentes de los cambios; se crea con la primera suscripción. */
+    private transient ListenerList<BoardListener> listeners;
+
     /**
-     * Inicializa un nuevo tablero de juego (10x10) creando una instancia
-     * de Cell para cada posición de la cuadrícula.
+     * Inicializa un nuevo tablero de juego (10x10) vacío.
      */
     public Board() {
-        for (int r = 0; r < SIZE; r++) {
-            for (int c = 0; c < SIZE; c++) {
-                grid[r][c] = new Cell();
-            }
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * Inicializa un tablero vacío de lado arbitrario.
+     * @param size Lado de la cuadrícula, entre 1 y {@link #MAX_SIZE}.
+     * @throws IllegalArgumentException si el tamaño está fuera de rango.
+     */
+    public Board(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Tamaño de tablero inválido: " + size);
         }
+        this.size = size;
+        int cells = size * size;
+        boolean sparse = size >= SPARSE_THRESHOLD;
+        occupied = BitPlane.create(cells, sparse);
+        shots = BitPlane.create(cells, sparse);
+        hits = BitPlane.create(cells, sparse);
+        shipIds = new ShipIdPlane(cells, sparse);
     }
 
     /**
@@ -39,17 +100,50 @@ public class Board implements Serializable {
      * @return El tamaño del lado del tablero.
      */
     public int getSize() {
-        return SIZE;
+        return size;
     }
 
     /**
-     * Devuelve la celda en la posición específica sin modificar su estado.
+     * Devuelve una vista de la celda en la posición específica sin modificar su estado.
+     * Se conserva por compatibilidad con los controladores y renderizadores; el código
+     * sensible al rendimiento debe usar {@link #hasShipAt(int, int)} y {@link #isShotAt(int, int)}.
      * @param row La fila de la celda.
      * @param col La columna de la celda.
-     * @return La instancia de Cell en (row, col).
+     * @return Una instancia de Cell con el estado de (row, col).
      */
     public Cell peek(int row, int col) {
-        return grid[row][col];
+        int index = index(row, col);
+        return new Cell(shipAt(index), shots.get(index));
+    }
+
+    /**
+     * Verifica si hay un barco en la celda indicada sin crear objetos.
+     * @param row La fila de la celda.
+     * @param col La columna de la celda.
+     * @return true si la celda está ocupada por un barco.
+     */
+    public boolean hasShipAt(int row, int col) {
+        return occupied.get(index(row, col));
+    }
+
+    /**
+     * Verifica si la celda indicada ya recibió un disparo sin crear objetos.
+     * @param row La fila de la celda.
+     * @param col La columna de la celda.
+     * @return true si la celda ya fue disparada.
+     */
+    public boolean isShotAt(int row, int col) {
+        return shots.get(index(row, col));
+    }
+
+    /**
+     * Obtiene el barco que ocupa la celda indicada.
+     * @param row La fila de la celda.
+     * @param col La columna de la celda.
+     * @return El barco en (row, col) o null si es agua.
+     */
+    public Ship getShipAt(int row, int col) {
+        return shipAt(index(row, col));
     }
 
     /**
@@ -79,22 +173,15 @@ public class Board implements Serializable {
      */
     public boolean canPlaceShip(Ship ship, int row, int col, boolean horizontal) {
         int length = ship.getLength();
+        if (row < 0 || col < 0) return false;
         // Verificación de límites
         if (horizontal) {
-            if (col + length > SIZE) return false;
+            if (row >= size || col + length > size) return false;
         } else {
-            if (row + length > SIZE) return false;
+            if (col >= size || row + length > size) return false;
         }
-
-        // Verificación de colisiones
-        for (int i = 0; i < length; i++) {
-            int r = row + (horizontal ? 0 : i);
-            int c = col + (horizontal ? i : 0);
-            //Si la celda tiene barco, hay colisión
-            if (grid[r][c].hasShip()) return false;
-        }
-
-        return true;
+        // Verificación de colisiones sobre el plano de ocupación
+        return !occupied.anySet(index(row, col), length, horizontal ? 1 : size);
     }
 
     /**
@@ -105,17 +192,20 @@ public class Board implements Serializable {
      * @param horizontal Orientación.
      */
     public void placeShip(Ship ship, int row, int col, boolean horizontal) {
-        int length = ship.getLength();
+        int id = allocateId(ship);
+        int start = index(row, col);
+        int step = horizontal ? 1 : size;
         // Marcar las celdas ocupadas por el barco
-        for (int i = 0; i < length; i++) {
-            int r = row + (horizontal ? 0 : i);
-            int c = col + (horizontal ? i : 0);
-
-            grid[r][c].placeShip(ship);
+        for (int i = 0, idx = start; i < ship.getLength(); i++, idx += step) {
+            occupied.set(idx);
+            shipIds.set(idx, id);
         }
-        // Marcar el barco como colocado y añadirlo a la flota
+        // Marcar el barco como colocado, registrar su geometría y añadirlo a la flota
+        ship.setPosition(row, col, horizontal);
         ship.setPlaced(true);
         fleet.add(ship);
+        if (ship.isSunk()) shipsSunk++; else shipsRemaining++;
+        fireFleetChanged();
     }
 
     /**
@@ -123,15 +213,26 @@ public class Board implements Serializable {
      * @param ship El barco a remover.
      */
     public void removeShip(Ship ship) {
-        // Recorrer toda la cuadrícula para encontrar todas las referencias a ese barco
-        for (int r = 0; r < SIZE; r++) {
-            for (int c = 0; c < SIZE; c++) {
-                if (grid[r][c].getShip() == ship) {
-                    grid[r][c] = new Cell();
-                }
+        if (ship.getRow() < 0) return;
+        int start = index(ship.getRow(), ship.getCol());
+        int id = shipIds.get(start);
+        if (id == 0 || shipsById[id - 1] != ship) return;
+        // Liberar solo las celdas del barco a partir de su geometría
+        int step = ship.isHorizontal() ? 1 : size;
+        for (int i = 0, idx = start; i < ship.getLength(); i++, idx += step) {
+            if (shots.get(idx)) {
+                shotsFired--;
+                hitCount--;
             }
+            shipIds.set(idx, 0);
+            occupied.clear(idx);
+            shots.clear(idx);
+            hits.clear(idx);
         }
+        shipsById[id - 1] = null;
         fleet.remove(ship);
+        if (ship.isSunk()) shipsSunk--; else shipsRemaining--;
+        fireFleetChanged();
     }
 
     /**
@@ -141,73 +242,261 @@ public class Board implements Serializable {
      * @return El resultado del disparo (MISS, HIT, SUNK) o null si la celda ya había sido disparada.
      */
     public ShotResult shoot(int row, int col) {
-        Cell cell = grid[row][col];
+        int idx = index(row, col);
         // Verifica si ya fue disparado.
-        if (cell.isShot()) return null;
+        if (shots.get(idx)) return null;
         // Marca el disparo
-        cell.markShot();
+        shots.set(idx);
+        shotsFired++;
         // Evaluar resultado
-        if (!cell.hasShip()) {
+        if (!occupied.get(idx)) {
+            fireShot(row, col, ShotResult.MISS, null);
             return ShotResult.MISS; // Agua
         }
         // Sí hay barco
-        Ship ship = cell.getShip();
+        hits.set(idx);
+        hitCount++;
+        Ship ship = shipsById[shipIds.get(idx) - 1];
         ship.registerHit(); // Registra impacto
+        boolean sunk = ship.isSunk();
+        if (sunk) {
+            shipsRemaining--;
+            shipsSunk++;
+        }
         // Devolver el resultado final (HIT o SUNK)
-        return ship.isSunk() ? ShotResult.SUNK : ShotResult.HIT;
+        ShotResult result = sunk ? ShotResult.SUNK : ShotResult.HIT;
+        fireShot(row, col, result, sunk ? ship : null);
+        return result;
+    }
+
+    /**
+     * Deshace el disparo a una casilla en O(1): la casilla vuelve a estar sin disparar y,
+     * si el disparo había hundido un barco, el barco vuelve a flote. Solo es coherente
+     * deshaciendo los disparos en orden inverso.
+     * @param row La fila del disparo.
+     * @param col La columna del disparo.
+     * @return El resultado que tenía el disparo, o null si la casilla no estaba disparada.
+     */
+    public ShotResult undoShot(int row, int col) {
+        int idx = index(row, col);
+        if (!shots.get(idx)) return null;
+        shots.clear(idx);
+        shotsFired--;
+        if (!hits.get(idx)) {
+            fireShotUndone(row, col, ShotResult.MISS, null);
+            return ShotResult.MISS;
+        }
+        hits.clear(idx);
+        hitCount--;
+        Ship ship = shipsById[shipIds.get(idx) - 1];
+        boolean wasSunk = ship.isSunk();
+        ship.unregisterHit();
+        if (wasSunk) {
+            shipsSunk--;
+            shipsRemaining++;
+        }
+        ShotResult result = wasSunk ? ShotResult.SUNK : ShotResult.HIT;
+        fireShotUndone(row, col, result, wasSunk ? ship : null);
+        return result;
     }
 
     /**
      * Coloca todos los 10 barcos de la flota estándar de Batalla Naval
-     * en posiciones aleatorias y válidas dentro del tablero.
+     * en posiciones aleatorias y válidas dentro del tablero, con distribución uniforme.
      */
     public void randomizeShips() {
-        int[] lengths = {4, 3, 3, 2, 2, 2, 1, 1, 1, 1};
-
-        for (int len : lengths) {
-            Ship ship = new Ship(len);
-            boolean placed = false;
-            // Intentar colocar el barco hasta encontrar una posición válida
-            while (!placed) {
-                // Generar coordenadas y orientación aleatorias
-                int row = (int) (Math.random() * SIZE);
-                int col = (int) (Math.random() * SIZE);
-                boolean horizontal = Math.random() < 0.5; // que halla un 50% que sea horizontal
-                // Verificar si la colocación es válida
-                if (canPlaceShip(ship, row, col, horizontal)) {
-                    placeShip(ship, row, col, horizontal);
-                    placed = true;
-                }
-            }
+        randomizeShips(ThreadLocalRandom.current(), FleetSampler.Mode.UNIFORM);
+    }
+
+    /**
+     * Coloca la flota estándar usando las tablas de colocación precalculadas.
+     * Las celdas ya ocupadas por otros barcos se respetan.
+     * @param random Fuente de aleatoriedad (permite resultados reproducibles).
+     * @param mode Modo de muestreo: uniforme o rápido con retroceso.
+     * @throws IllegalStateException si la flota no cabe dentro del presupuesto del muestreador.
+     */
+    public void randomizeShips(Random random, FleetSampler.Mode mode) {
+        FleetSampler sampler = new FleetSampler(size);
+        long[] blocked = new long[PlacementTable.wordsFor(size)];
+        occupied.orInto(blocked);
+        sampler.setBlocked(blocked);
+        int[] placements = new int[sampler.fleetSize()];
+        if (!sampler.sample(random, mode, placements)) {
+            throw new IllegalStateException("No se pudo colocar la flota en el tablero");
         }
+        sampler.apply(this, placements);
     }
 
     /**
      * Verifica si el juego ha terminado para este tablero.
      * El juego termina si todos los barcos de la flota han sido hundidos.
-     * @return true si la flota está vacía y todos los barcos están hundidos, false en caso contrario.
+     * @return true si hay barcos y todos están hundidos, false en caso contrario.
      */
     public boolean isGameOver() {
-        return !fleet.isEmpty() &&
-                fleet.stream().allMatch(Ship::isSunk);
+        return shipsRemaining == 0 && shipsSunk > 0;
     }
 
     /**
-     * Limpia completamente el tablero, reiniciando la cuadrícula con celdas vacías
-     * y eliminando todos los barcos de la flota.
+     * Devuelve una copia densa del plano de disparos: el bit {@code fila * tamaño + columna}
+     * está activo si la casilla ya recibió un disparo.
+     * @return Máscara de {@link PlacementTable#wordsFor(int)} palabras.
      */
-    public void clear() {
-        // Reinicializar la cuadrícula
-        for (int r = 0; r < SIZE; r++) {
-            for (int c = 0; c < SIZE; c++) {
-                grid[r][c] = new Cell();
+    public long[] getShotMask() {
+        long[] mask = new long[PlacementTable.wordsFor(size)];
+        shots.orInto(mask);
+        return mask;
+    }
+
+    /**
+     * Crea una copia independiente del tablero: mismos barcos en las mismas posiciones
+     * y mismos disparos. Sirve para entregar el estado a otro hilo sin compartir objetos.
+     * Cuesta O(barcos + disparos + tamaño² / 64).
+     * @return La copia.
+     */
+    public Board copy() {
+        Board copy = new Board(size);
+        for (Ship ship : fleet) {
+            copy.placeShip(new Ship(ship.getLength()), ship.getRow(), ship.getCol(), ship.isHorizontal());
+        }
+        long[] shotMask = getShotMask();
+        for (int w = 0; w < shotMask.length; w++) {
+            for (long bits = shotMask[w]; bits != 0; bits &= bits - 1) {
+                int idx = (w << 6) + Long.numberOfTrailingZeros(bits);
+                copy.shoot(idx / size, idx % size);
             }
         }
+        return copy;
+    }
+
+    /**
+     * Limpia completamente el tablero, reiniciando las máscaras
+     * y eliminando todos los barcos de la flota.
+     */
+    public void clear() {
+        occupied.reset();
+        shots.reset();
+        hits.reset();
+        shipIds.reset();
+        Arrays.fill(shipsById, null);
         // Limpiar la lista de barcos
         fleet.clear();
+        shipsRemaining = 0;
+        shipsSunk = 0;
+        hitCount = 0;
+        shotsFired = 0;
+        fireFleetChanged();
     }
 
     public ArrayList< Ship> getFleet() {
         return (ArrayList<Ship>) fleet;
     }
+
+    // ========= CONTADORES =========
+
+    /**
+     * Obtiene el número de barcos colocados que aún no han sido hundidos.
+     * @return Barcos restantes.
+     */
+    public int getShipsRemaining() {
+        return shipsRemaining;
+    }
+
+    /**
+     * Obtiene el número de barcos hundidos en este tablero.
+     * @return Barcos hundidos.
+     */
+    public int getShipsSunk() {
+        return shipsSunk;
+    }
+
+    /**
+     * Obtiene el número de disparos que acertaron en un barco.
+     * @return Impactos recibidos.
+     */
+    public int getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Obtiene el número de disparos realizados sobre este tablero.
+     * @return Disparos recibidos.
+     */
+    public int getShotsFired() {
+        return shotsFired;
+    }
+
+    // ========= EVENTOS =========
+
+    /**
+     * Suscribe un oyente a los cambios del tablero. Las copias ({@link #copy()}) y los
+     * tableros cargados no heredan los oyentes.
+     * @param listener El oyente.
+     */
+    public void addListener(BoardListener listener) {
+        if (listeners == null) listeners = new ListenerList<>();
+        listeners.add(listener);
+    }
+
+    /**
+     * Da de baja un oyente.
+     * @param listener El oyente.
+     */
+    public void removeListener(BoardListener listener) {
+        if (listeners != null) listeners.remove(listener);
+    }
+
+    private void fireShot(int row, int col, ShotResult result, Ship sunkShip) {
+        if (listeners == null) return;
+        for (Object listener : listeners.snapshot()) {
+            BoardListener l = (BoardListener) listener;
+            l.shotFired(this, row, col, result);
+            if (sunkShip != null) l.shipSunk(this, sunkShip);
+        }
+    }
+
+    private void fireShotUndone(int row, int col, ShotResult result, Ship ship) {
+        if (listeners == null) return;
+        for (Object listener : listeners.snapshot()) {
+            ((BoardListener) listener).shotUndone(this, row, col, result, ship);
+        }
+    }
+
+    private void fireFleetChanged() {
+        if (listeners == null) return;
+        for (Object listener : listeners.snapshot()) {
+            ((BoardListener) listener).fleetChanged(this);
+        }
+    }
+
+    // ========= UTILIDADES =========
+
+    /**
+     * Convierte una coordenada en el índice lineal de su celda.
+     * @throws IndexOutOfBoundsException si la coordenada está fuera del tablero.
+     */
+    private int index(int row, int col) {
+        if (row < 0 || col < 0 || row >= size || col >= size) {
+            throw new IndexOutOfBoundsException("Celda fuera del tablero: (" + row + ", " + col + ")");
+        }
+        return row * size + col;
+    }
+
+    private Ship shipAt(int idx) {
+        int id = shipIds.get(idx);
+        return id == 0 ? null : shipsById[id - 1];
+    }
+
+    /**
+     * Reserva el primer identificador libre para el barco.
+     * @throws IllegalStateException si el tablero ya tiene MAX_SHIPS barcos.
+     */
+    private int allocateId(Ship ship) {
+        for (int i = 0; i < MAX_SHIPS; i++) {
+            if (shipsById[i] == null) {
+                shipsById[i] = ship;
+                return i + 1;
+            }
+        }
+        throw new IllegalStateException("El tablero no admite más de " + MAX_SHIPS + " barcos");
+    }
 }
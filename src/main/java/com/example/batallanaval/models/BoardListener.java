@@ -0,0 +1,49 @@
+package com.example.batallanaval.models;
+
+/**
+ * Oyente de los cambios de un {@link Board}.
+ * <p>
+ * Los eventos se entregan en el hilo que modifica el tablero, justo después de aplicar
+ * el cambio y con los contadores ya actualizados. Llevan solo lo que cambió, para que
+ * una vista aplique el delta sin recorrer el tablero. Todos los métodos tienen una
+ * implementación vacía: basta con sobrescribir los que interesen.
+ */
+public interface BoardListener {
+
+    /**
+     * Se disparó a una casilla (ShotFired). Si el disparo hunde un barco, después llega
+     * {@link #shipSunk(Board, Ship)}.
+     * @param board El tablero.
+     * @param row Fila.
+     * @param col Columna.
+     * @param result Resultado del disparo.
+     */
+    default void shotFired(Board board, int row, int col, ShotResult result) {
+    }
+
+    /**
+     * Un barco acaba de hundirse (ShipSunk).
+     * @param board El tablero.
+     * @param ship El barco hundido.
+     */
+    default void shipSunk(Board board, Ship ship) {
+    }
+
+    /**
+     * Se deshizo un disparo (ShotUndone): la casilla vuelve a estar sin disparar.
+     * @param board El tablero.
+     * @param row Fila.
+     * @param col Columna.
+     * @param result Resultado que tenía el disparo deshecho.
+     * @param ship El barco que el disparo había hundido y que vuelve a flote, o null.
+     */
+    default void shotUndone(Board board, int row, int col, ShotResult result, Ship ship) {
+    }
+
+    /**
+     * La flota cambió: se colocó o se quitó un barco, o se vació el tablero (FleetChanged).
+     * @param board El tablero.
+     */
+    default void fleetChanged(Board board) {
+    }
+}
@@ -1,32 +1,34 @@
-
 package com.example.batallanaval.models;
 
-import java.io.Serializable;
-
 /**
- * Representa una celda individual dentro del tablero de Batalla Naval.
- * Almacena el estado de la celda: si contiene un barco y si ha sido disparada.
+ * Vista de solo lectura de una celda individual del tablero de Batalla Naval.
+ * El tablero guarda su estado en máscaras de bits; esta clase solo expone,
+ * para una posición concreta, si contiene un barco y si ha sido disparada.
  */
-public class Cell implements Serializable {
-
-    /** ID de serialización para asegurar la compatibilidad al guardar/cargar. */
-    private static final long serialVersionUID = 1L;
+public class Cell {
 
-    /** Indica si esta celda contiene una parte de un barco. */
-    private boolean hasShip;
-
-    /** Referencia al objeto Ship si hasShip es true; de lo contrario, es null. */
-    private Ship ship;
+    /** Referencia al objeto Ship que ocupa la celda; null si es agua. */
+    private final Ship ship;
 
     /** Indica si esta celda ha sido objeto de un disparo. */
-    private boolean shot;
+    private final boolean shot;
+
+    /**
+     * Crea la vista de una celda.
+     * @param ship El barco que ocupa la celda, o null si está vacía.
+     * @param shot true si la celda ya fue disparada.
+     */
+    public Cell(Ship ship, boolean shot) {
+        this.ship = ship;
+        this.shot = shot;
+    }
 
     /**
      * Verifica si la celda contiene un barco.
      * @return true si la celda contiene una parte de un barco, false en caso contrario.
      */
     public boolean hasShip() {
-        return hasShip;
+        return ship != null;
     }
 
     /**
@@ -50,22 +52,6 @@ public class Cell implements Serializable {
      * @return true si no hay barco en la celda (es agua), false si hay un barco.
      */
     public boolean isEmpty() {
-        return !hasShip;
-    }
-
-    /**
-     * Asigna un barco a esta celda, marcándola como ocupada.
-     * @param ship La instancia del barco que se coloca en esta celda.
-     */
-    public void placeShip(Ship ship) {
-        this.hasShip = true;
-        this.ship = ship;
-    }
-
-    /**
-     * Marca esta celda como disparada.
-     */
-    public void markShot() {
-        this.shot = true;
+        return ship == null;
     }
 }
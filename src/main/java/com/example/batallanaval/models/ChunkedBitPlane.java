@@ -0,0 +1,68 @@
+package com.example.batallanaval.models;
+
+import java.util.Arrays;
+
+/**
+ * Plano de bits disperso para tableros grandes. Las celdas se agrupan en bloques de
+ * 4096 bits (64 palabras) que solo se reservan cuando se activa alguno de sus bits,
+ * de modo que la memoria crece con los barcos y disparos y no con el área del tablero.
+ * Un tablero de 1000x1000 tiene un directorio de 245 referencias.
+ */
+final class ChunkedBitPlane implements BitPlane {
+
+    private static final long serialVersionUID = 1L;
+
+    /** log2 de los bits por bloque. */
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+    private static final int CHUNK_WORDS = 1 << (CHUNK_SHIFT - 6);
+
+    private final long[][] chunks;
+
+    ChunkedBitPlane(int cells) {
+        chunks = new long[(cells + CHUNK_MASK) >>> CHUNK_SHIFT][];
+    }
+
+    @Override
+    public boolean get(int idx) {
+        long[] chunk = chunks[idx >>> CHUNK_SHIFT];
+        return chunk != null && (chunk[(idx & CHUNK_MASK) >>> 6] & (1L << idx)) != 0;
+    }
+
+    @Override
+    public void set(int idx) {
+        long[] chunk = chunks[idx >>> CHUNK_SHIFT];
+        if (chunk == null) chunk = chunks[idx >>> CHUNK_SHIFT] = new long[CHUNK_WORDS];
+        chunk[(idx & CHUNK_MASK) >>> 6] |= 1L << idx;
+    }
+
+    @Override
+    public void clear(int idx) {
+        long[] chunk = chunks[idx >>> CHUNK_SHIFT];
+        if (chunk != null) chunk[(idx & CHUNK_MASK) >>> 6] &= ~(1L << idx);
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(chunks, null);
+    }
+
+    @Override
+    public boolean anySet(int start, int count, int step) {
+        for (int i = 0, idx = start; i < count; i++, idx += step) {
+            if (get(idx)) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void orInto(long[] dense) {
+        for (int c = 0; c < chunks.length; c++) {
+            long[] chunk = chunks[c];
+            if (chunk == null) continue;
+            int base = c * CHUNK_WORDS;
+            int limit = Math.min(CHUNK_WORDS, dense.length - base);
+            for (int w = 0; w < limit; w++) dense[base + w] |= chunk[w];
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.batallanaval.models;
+
+import java.util.Arrays;
+
+/**
+ * Plano de bits contiguo: {@code ceil(celdas / 64)} palabras (2 para un tablero de 10x10).
+ */
+final class DenseBitPlane implements BitPlane {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long[] words;
+
+    DenseBitPlane(int cells) {
+        words = new long[(cells + 63) >>> 6];
+    }
+
+    @Override
+    public boolean get(int idx) {
+        return (words[idx >>> 6] & (1L << idx)) != 0;
+    }
+
+    @Override
+    public void set(int idx) {
+        words[idx >>> 6] |= 1L << idx;
+    }
+
+    @Override
+    public void clear(int idx) {
+        words[idx >>> 6] &= ~(1L << idx);
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(words, 0L);
+    }
+
+    /**
+     * Un segmento horizontal es un rango contiguo de bits y se evalúa palabra a palabra;
+     * uno vertical se recorre celda a celda.
+     */
+    @Override
+    public boolean anySet(int start, int count, int step) {
+        if (step != 1) {
+            for (int i = 0, idx = start; i < count; i++, idx += step) {
+                if (get(idx)) return true;
+            }
+            return false;
+        }
+        int end = start + count; // exclusivo
+        while (start < end) {
+            int bit = start & 63;
+            int span = Math.min(64 - bit, end - start);
+            long run = (span == 64 ? -1L : (1L << span) - 1) << bit;
+            if ((words[start >>> 6] & run) != 0) return true;
+            start += span;
+        }
+        return false;
+    }
+
+    @Override
+    public void orInto(long[] dense) {
+        for (int w = 0; w < words.length; w++) dense[w] |= words[w];
+    }
+}
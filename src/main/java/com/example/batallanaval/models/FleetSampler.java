@@ -0,0 +1,218 @@
+package com.example.batallanaval.models;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Genera flotas aleatorias y válidas a partir de las tablas de colocación precalculadas
+ * ({@link PlacementTable}), intersectando máscaras de bits en lugar de probar
+ * coordenadas al azar.
+ * <p>
+ * Dispone de dos modos:
+ * <ul>
+ *   <li>{@link Mode#FAST}: búsqueda en profundidad aleatorizada con retroceso. Elige para
+ *   cada barco una colocación al azar entre las que no colisionan y, si un barco no cabe,
+ *   deshace el anterior y prueba la siguiente.</li>
+ *   <li>{@link Mode#UNIFORM}: muestreo por rechazo de la flota completa. Cada barco se
+ *   coloca de forma uniforme e independiente y la flota se descarta si hay solapes, lo que
+ *   produce una distribución uniforme sobre todas las flotas válidas. Si se agotan los
+ *   intentos se recurre al modo rápido.</li>
+ * </ul>
+ * El número de colocaciones evaluadas está acotado por {@code budget}, de modo que
+ * {@link #sample} siempre termina. Una instancia reutiliza sus buffers y no es segura
+ * entre hilos; cada hilo debe usar la suya.
+ */
+public final class FleetSampler {
+
+    /** Estrategia de muestreo. */
+    public enum Mode { FAST, UNIFORM }
+
+    /** Flota estándar de Batalla Naval: 1 portaaviones, 2 submarinos, 3 destructores, 4 fragatas. */
+    private static final int[] STANDARD_FLEET = {4, 3, 3, 2, 2, 2, 1, 1, 1, 1};
+
+    /** Colocaciones evaluadas por defecto antes de rendirse. */
+    private static final int DEFAULT_BUDGET = 1_000_000;
+
+    /** Flotas completas que el modo uniforme intenta antes de recurrir al modo rápido. */
+    private static final int UNIFORM_ATTEMPTS = 10_000;
+
+    private final int boardSize;
+    private final int words;
+    /** Longitudes de la flota, ordenadas de mayor a menor. */
+    private final int[] lengths;
+    private final PlacementTable[] tables;
+    /** Máscara de celdas prohibidas (barcos previos, agua conocida...). */
+    private final long[] blocked;
+    /** Máscara de trabajo con lo ocupado durante el muestreo. */
+    private final long[] occupied;
+    /** Estado de la búsqueda por profundidad: candidato inicial y desplazamiento actual. */
+    private final int[] offset;
+    private final int[] tried;
+    private int budget = DEFAULT_BUDGET;
+
+    /**
+     * Crea un muestreador para la flota estándar.
+     * @param boardSize Lado del tablero.
+     */
+    public FleetSampler(int boardSize) {
+        this(boardSize, STANDARD_FLEET);
+    }
+
+    /**
+     * Crea un muestreador para una flota arbitraria.
+     * @param boardSize Lado del tablero.
+     * @param fleetLengths Longitudes de los barcos.
+     */
+    public FleetSampler(int boardSize, int[] fleetLengths) {
+        this.boardSize = boardSize;
+        this.words = PlacementTable.wordsFor(boardSize);
+        this.lengths = fleetLengths.clone();
+        Arrays.sort(lengths);
+        // Colocar primero los barcos largos reduce mucho los retrocesos
+        for (int i = 0, j = lengths.length - 1; i < j; i++, j--) {
+            int t = lengths[i]; lengths[i] = lengths[j]; lengths[j] = t;
+        }
+        this.tables = new PlacementTable[lengths.length];
+        for (int i = 0; i < lengths.length; i++) tables[i] = PlacementTable.of(boardSize, lengths[i]);
+        this.blocked = new long[words];
+        this.occupied = new long[words];
+        this.offset = new int[lengths.length];
+        this.tried = new int[lengths.length];
+    }
+
+    /**
+     * Devuelve una copia de la flota estándar.
+     * @return Longitudes de los 10 barcos estándar.
+     */
+    public static int[] standardFleet() {
+        return STANDARD_FLEET.clone();
+    }
+
+    /**
+     * Cambia el máximo de colocaciones evaluadas por muestra.
+     * @param budget Límite positivo.
+     */
+    public void setBudget(int budget) {
+        if (budget <= 0) throw new IllegalArgumentException("El presupuesto debe ser positivo");
+        this.budget = budget;
+    }
+
+    /**
+     * Define las celdas que ningún barco puede ocupar.
+     * @param mask Máscara de {@link PlacementTable#wordsFor(int)} palabras, o null para ninguna.
+     */
+    public void setBlocked(long[] mask) {
+        if (mask == null) Arrays.fill(blocked, 0L);
+        else System.arraycopy(mask, 0, blocked, 0, words);
+    }
+
+    /** @return Longitudes de la flota en el orden en que se muestrean. */
+    public int[] lengths() {
+        return lengths.clone();
+    }
+
+    /** @return Número de barcos de la flota. */
+    public int fleetSize() {
+        return lengths.length;
+    }
+
+    /**
+     * Tabla de colocaciones del barco {@code i} (en orden de muestreo).
+     * @param i Índice del barco.
+     * @return Su tabla de colocaciones.
+     */
+    public PlacementTable table(int i) {
+        return tables[i];
+    }
+
+    /**
+     * Muestrea una flota completa.
+     * @param random Fuente de aleatoriedad.
+     * @param mode Modo de muestreo.
+     * @param out Recibe, por cada barco (en orden de {@link #lengths()}), el índice de su colocación.
+     * @return true si se encontró una flota dentro del presupuesto.
+     */
+    public boolean sample(Random random, Mode mode, int[] out) {
+        if (mode == Mode.UNIFORM && sampleUniform(random, out)) return true;
+        return sampleBacktracking(random, out);
+    }
+
+    /**
+     * Aplica una flota muestreada a un tablero creando un Ship por barco.
+     * @param board Tablero destino.
+     * @param placements Salida de {@link #sample}.
+     */
+    public void apply(Board board, int[] placements) {
+        for (int i = 0; i < lengths.length; i++) {
+            PlacementTable t = tables[i];
+            int p = placements[i];
+            int start = t.start(p);
+            board.placeShip(new Ship(lengths[i]), start / boardSize, start % boardSize, t.isHorizontal(p));
+        }
+    }
+
+    /**
+     * Rechazo de flota completa: uniforme sobre todas las flotas válidas.
+     */
+    private boolean sampleUniform(Random random, int[] out) {
+        int spent = 0;
+        for (int attempt = 0; attempt < UNIFORM_ATTEMPTS && spent < budget; attempt++) {
+            System.arraycopy(blocked, 0, occupied, 0, words);
+            boolean ok = true;
+            for (int i = 0; i < lengths.length && ok; i++) {
+                PlacementTable t = tables[i];
+                int p = random.nextInt(t.count());
+                spent++;
+                if (t.intersects(occupied, p)) {
+                    ok = false;
+                } else {
+                    t.set(occupied, p);
+                    out[i] = p;
+                }
+            }
+            if (ok) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Búsqueda en profundidad con retroceso. Cada nivel recorre sus candidatos en orden
+     * cíclico desde un punto de partida aleatorio, así que la búsqueda es completa:
+     * si existe una flota y el presupuesto alcanza, se encuentra.
+     */
+    private boolean sampleBacktracking(Random random, int[] out) {
+        System.arraycopy(blocked, 0, occupied, 0, words);
+        int spent = 0;
+        int depth = 0;
+        offset[0] = random.nextInt(tables[0].count());
+        tried[0] = 0;
+        while (depth >= 0) {
+            if (depth == lengths.length) return true;
+            PlacementTable t = tables[depth];
+            int n = t.count();
+            boolean advanced = false;
+            while (tried[depth] < n) {
+                if (++spent > budget) return false;
+                int p = offset[depth] + tried[depth]++;
+                if (p >= n) p -= n;
+                if (!t.intersects(occupied, p)) {
+                    t.set(occupied, p);
+                    out[depth] = p;
+                    depth++;
+                    if (depth < lengths.length) {
+                        offset[depth] = random.nextInt(tables[depth].count());
+                        tried[depth] = 0;
+                    }
+                    advanced = true;
+                    break;
+                }
+            }
+            if (!advanced) {
+                // Sin candidatos: deshacer el barco anterior y probar su siguiente colocación
+                depth--;
+                if (depth >= 0) tables[depth].clear(occupied, out[depth]);
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,322 @@
+package com.example.batallanaval.models;
+
+import com.example.batallanaval.ai.ShotStrategy;
+
+import java.util.Arrays;
+
+/**
+ * Inteligencia Artificial basada en densidad de probabilidad.
+ * <p>
+ * Para cada casilla mantiene un "mapa de calor": cuántas colocaciones de los barcos que
+ * aún quedan a flote la cubrirían sin pasar por agua conocida ni por barcos hundidos.
+ * En modo caza dispara a la casilla desconocida más caliente. Si hay impactos sin hundir,
+ * entra en modo objetivo y puntúa solo las colocaciones que pasan por esos impactos.
+ * <p>
+ * La IA no mira el tablero rival: solo conoce lo que recibe en {@link #onShotResult}
+ * y guarda su propio tablero de conocimiento. Cuando un disparo descubre agua, solo se
+ * restan las colocaciones que pasaban por esa casilla, es decir, las de su ventana de fila
+ * y de columna; el máximo se mantiene en un árbol de segmentos. Así cada jugada cuesta
+ * O(L² · log n) en lugar de recorrer el tablero. Solo el hundimiento de un barco (como
+ * mucho una vez por barco) recalcula el mapa completo.
+ */
+public class HeatMapAI implements ShotStrategy {
+
+    private static final byte UNKNOWN = 0;
+    private static final byte MISS = 1;
+    private static final byte HIT = 2;
+    private static final byte SUNK = 3;
+
+    /** Longitudes de la flota rival al empezar la partida. */
+    private final int[] fleetLengths;
+
+    private int size;
+    /** Tablero de conocimiento propio. */
+    private byte[] state;
+    /** Barcos a flote por longitud. */
+    private int[] remaining;
+    private int maxLength;
+    /** Colocaciones (ponderadas por barcos a flote) que cubren cada casilla. */
+    private int[] heat;
+    /** Máximo del mapa de calor sobre las casillas desconocidas. */
+    private MaxScoreTree hunt;
+
+    /** Impactos aún no hundidos. */
+    private int[] openHits;
+    private int openHitCount;
+
+    /** Puntuación temporal del modo objetivo y casillas tocadas para limpiarla. */
+    private int[] targetScore;
+    private int[] touched;
+    private int touchedCount;
+
+    /**
+     * Crea la IA para la flota estándar.
+     */
+    public HeatMapAI() {
+        this(FleetSampler.standardFleet());
+    }
+
+    /**
+     * Crea la IA para una flota arbitraria.
+     * @param fleetLengths Longitudes de los barcos del rival.
+     */
+    public HeatMapAI(int[] fleetLengths) {
+        this.fleetLengths = fleetLengths.clone();
+    }
+
+    /**
+     * Elige el siguiente disparo.
+     * @param opponentBoard Tablero rival; solo se usa para conocer su tamaño.
+     * @return La casilla empaquetada como {@code fila * tamaño + columna}.
+     * @throws IllegalStateException si ya no quedan casillas por disparar.
+     */
+    @Override
+    public int nextShot(Board opponentBoard) {
+        ensureSize(opponentBoard.getSize());
+        if (openHitCount > 0) {
+            int target = bestTarget();
+            if (target >= 0) return target;
+        }
+        if (hunt.max() < 0) {
+            throw new IllegalStateException("No quedan casillas por disparar");
+        }
+        return hunt.argMax();
+    }
+
+    /**
+     * Devuelve el disparo como {fila, columna}, igual que {@link MachineAI#shoot(Board)}.
+     * @param opponentBoard Tablero rival.
+     * @return Coordenadas del disparo.
+     */
+    public int[] shoot(Board opponentBoard) {
+        int cell = nextShot(opponentBoard);
+        return new int[] { cell / size, cell % size };
+    }
+
+    /**
+     * Informa a la IA del resultado de un disparo suyo.
+     * @param row Fila disparada.
+     * @param col Columna disparada.
+     * @param result Resultado obtenido.
+     * @param sunkShip El barco hundido si {@code result} es SUNK (el juego lo anuncia), o null.
+     */
+    @Override
+    public void onShotResult(int row, int col, ShotResult result, Ship sunkShip) {
+        if (state == null) {
+            throw new IllegalStateException("La IA aún no ha elegido ningún disparo");
+        }
+        int cell = row * size + col;
+        if (state[cell] != UNKNOWN) return;
+        switch (result) {
+            case MISS -> block(cell, MISS);
+            case HIT -> markHit(cell);
+            case SUNK -> {
+                markHit(cell);
+                if (sunkShip != null) sink(sunkShip);
+            }
+        }
+    }
+
+    // ========= MODO OBJETIVO =========
+
+    /**
+     * Puntúa las casillas desconocidas de las colocaciones válidas que pasan por algún
+     * impacto abierto; cada colocación pesa más cuantos más impactos cubre.
+     * @return La mejor casilla, o -1 si ninguna colocación es compatible.
+     */
+    private int bestTarget() {
+        for (int h = 0; h < openHitCount; h++) {
+            int hit = openHits[h];
+            int r = hit / size;
+            int c = hit % size;
+            for (int len = 1; len <= maxLength; len++) {
+                int count = remaining[len];
+                if (count == 0) continue;
+                for (int s = Math.max(0, c - len + 1); s <= Math.min(c, size - len); s++) {
+                    scorePlacement(r * size + s, 1, len, count);
+                }
+                if (len == 1) continue;
+                for (int s = Math.max(0, r - len + 1); s <= Math.min(r, size - len); s++) {
+                    scorePlacement(s * size + c, size, len, count);
+                }
+            }
+        }
+        int best = -1;
+        for (int i = 0; i < touchedCount; i++) {
+            int cell = touched[i];
+            if (best < 0 || targetScore[cell] > targetScore[best]
+                    || (targetScore[cell] == targetScore[best] && heat[cell] > heat[best])) {
+                best = cell;
+            }
+        }
+        for (int i = 0; i < touchedCount; i++) targetScore[touched[i]] = 0;
+        touchedCount = 0;
+        return best;
+    }
+
+    private void scorePlacement(int start, int step, int len, int count) {
+        int hits = 0;
+        for (int i = 0, idx = start; i < len; i++, idx += step) {
+            byte st = state[idx];
+            if (st == MISS || st == SUNK) return;
+            if (st == HIT) hits++;
+        }
+        int weight = count * hits * hits;
+        for (int i = 0, idx = start; i < len; i++, idx += step) {
+            if (state[idx] != UNKNOWN) continue;
+            if (targetScore[idx] == 0) touched[touchedCount++] = idx;
+            targetScore[idx] += weight;
+        }
+    }
+
+    // ========= ACTUALIZACIÓN INCREMENTAL =========
+
+    private void markHit(int cell) {
+        state[cell] = HIT;
+        hunt.update(cell, -1);
+        openHits[openHitCount++] = cell;
+    }
+
+    /**
+     * Convierte una casilla en bloqueante (agua o hundido) y resta del mapa las
+     * colocaciones que la cubrían, recorriendo solo su ventana de fila y de columna.
+     */
+    private void block(int cell, byte newState) {
+        int r = cell / size;
+        int c = cell % size;
+        for (int len = 1; len <= maxLength; len++) {
+            int count = remaining[len];
+            if (count == 0) continue;
+            // Casillas abiertas contiguas a cada lado, como mucho len - 1
+            int left = 0;
+            while (left < len - 1 && c - left - 1 >= 0 && isOpen(cell - left - 1)) left++;
+            int right = 0;
+            while (right < len - 1 && c + right + 1 < size && isOpen(cell + right + 1)) right++;
+            for (int s = c - left; s + len - 1 <= c + right && s <= c; s++) {
+                addPlacement(r * size + s, 1, len, -count);
+            }
+            if (len == 1) continue;
+            int up = 0;
+            while (up < len - 1 && r - up - 1 >= 0 && isOpen(cell - (up + 1) * size)) up++;
+            int down = 0;
+            while (down < len - 1 && r + down + 1 < size && isOpen(cell + (down + 1) * size)) down++;
+            for (int s = r - up; s + len - 1 <= r + down && s <= r; s++) {
+                addPlacement(s * size + c, size, len, -count);
+            }
+        }
+        state[cell] = newState;
+        hunt.update(cell, -1);
+        refreshWindow(r, c);
+    }
+
+    /**
+     * Registra el hundimiento: sus casillas pasan a bloquear, se descuenta el barco
+     * de los que quedan a flote y se recalcula el mapa.
+     */
+    private void sink(Ship ship) {
+        for (int[] pos : ship.getCells()) {
+            int cell = pos[0] * size + pos[1];
+            removeOpenHit(cell);
+            state[cell] = SUNK;
+        }
+        int len = ship.getLength();
+        if (len < remaining.length && remaining[len] > 0) remaining[len]--;
+        rebuildHeat();
+    }
+
+    private void removeOpenHit(int cell) {
+        for (int i = 0; i < openHitCount; i++) {
+            if (openHits[i] == cell) {
+                openHits[i] = openHits[--openHitCount];
+                return;
+            }
+        }
+    }
+
+    private boolean isOpen(int cell) {
+        byte st = state[cell];
+        return st == UNKNOWN || st == HIT;
+    }
+
+    private void addPlacement(int start, int step, int len, int delta) {
+        for (int i = 0, idx = start; i < len; i++, idx += step) heat[idx] += delta;
+    }
+
+    /**
+     * Publica en el árbol las casillas de la fila y columna afectadas por un bloqueo.
+     */
+    private void refreshWindow(int r, int c) {
+        int reach = maxLength - 1;
+        for (int cc = Math.max(0, c - reach); cc <= Math.min(size - 1, c + reach); cc++) {
+            publish(r * size + cc);
+        }
+        for (int rr = Math.max(0, r - reach); rr <= Math.min(size - 1, r + reach); rr++) {
+            publish(rr * size + c);
+        }
+    }
+
+    private void publish(int cell) {
+        hunt.update(cell, state[cell] == UNKNOWN ? heat[cell] : -1);
+    }
+
+    // ========= INICIALIZACIÓN =========
+
+    @Override
+    public void reset(int boardSize) {
+        size = 0;
+        ensureSize(boardSize);
+    }
+
+    private void ensureSize(int boardSize) {
+        if (boardSize == size) return;
+        size = boardSize;
+        int cells = boardSize * boardSize;
+        state = new byte[cells];
+        heat = new int[cells];
+        targetScore = new int[cells];
+        touched = new int[cells];
+        openHits = new int[cells];
+        openHitCount = 0;
+        maxLength = 0;
+        for (int len : fleetLengths) maxLength = Math.max(maxLength, Math.min(len, boardSize));
+        remaining = new int[maxLength + 1];
+        for (int len : fleetLengths) if (len <= boardSize) remaining[len]++;
+        hunt = new MaxScoreTree(cells);
+        rebuildHeat();
+    }
+
+    /**
+     * Recalcula el mapa completo en O(n · longitudes) con ventanas deslizantes por fila
+     * y por columna, y reconstruye el árbol.
+     */
+    private void rebuildHeat() {
+        Arrays.fill(heat, 0);
+        for (int len = 1; len <= maxLength; len++) {
+            int count = remaining[len];
+            if (count == 0) continue;
+            for (int line = 0; line < size; line++) {
+                accumulateLine(line * size, 1, len, count);
+                if (len > 1) accumulateLine(line, size, len, count);
+            }
+        }
+        for (int cell = 0; cell < heat.length; cell++) {
+            hunt.setRaw(cell, state[cell] == UNKNOWN ? heat[cell] : -1);
+        }
+        hunt.rebuild();
+    }
+
+    /**
+     * Suma {@code count} a cada casilla por cada colocación válida de longitud {@code len}
+     * que la cubre dentro de una línea, usando la longitud del tramo abierto actual.
+     */
+    private void accumulateLine(int first, int step, int len, int count) {
+        int run = 0;
+        for (int i = 0, idx = first; i < size; i++, idx += step) {
+            run = isOpen(idx) ? run + 1 : 0;
+            if (run >= len) {
+                // La colocación que termina en esta casilla es válida
+                addPlacement(idx - (len - 1) * step, step, len, count);
+            }
+        }
+    }
+}
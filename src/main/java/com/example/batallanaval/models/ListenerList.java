@@ -0,0 +1,62 @@
+package com.example.batallanaval.models;
+
+import java.util.Arrays;
+
+/**
+ * Lista de oyentes con copia en escritura, pensada para publicar eventos sin reservar
+ * memoria: suscribirse copia el arreglo, pero recorrerlo no crea objetos.
+ * <p>
+ * Se publica recorriendo {@link #snapshot()}; un oyente que se suscribe o se da de baja
+ * durante la publicación no altera el recorrido en curso.
+ * @param <L> Tipo de oyente.
+ */
+public final class ListenerList<L> {
+
+    private static final Object[] EMPTY = {};
+
+    private volatile Object[] listeners = EMPTY;
+
+    /**
+     * Suscribe un oyente. Suscribirlo dos veces hace que reciba cada evento dos veces.
+     * @param listener El oyente.
+     */
+    public synchronized void add(L listener) {
+        Object[] current = listeners;
+        Object[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = listener;
+        listeners = next;
+    }
+
+    /**
+     * Da de baja la primera suscripción del oyente.
+     * @param listener El oyente.
+     * @return true si estaba suscrito.
+     */
+    public synchronized boolean remove(L listener) {
+        Object[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                Object[] next = new Object[current.length - 1];
+                System.arraycopy(current, 0, next, 0, i);
+                System.arraycopy(current, i + 1, next, i, next.length - i);
+                listeners = next;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** @return true si no hay oyentes. */
+    public boolean isEmpty() {
+        return listeners.length == 0;
+    }
+
+    /**
+     * Devuelve los oyentes actuales. El arreglo nunca se modifica después de publicarse,
+     * así que puede recorrerse sin copiarlo; sus elementos son de tipo {@code L}.
+     * @return Los oyentes, en orden de suscripción.
+     */
+    public Object[] snapshot() {
+        return listeners;
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.batallanaval.models;
 
-import com.example.batallanaval.models.Board;
+import com.example.batallanaval.ai.ShotStrategy;
 
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.util.*;
 
 /**
@@ -12,16 +14,54 @@ import java.util.*;
  * la IA entra en modo objetivo, disparando a las casillas adyacentes
  * al acierto para hundir el barco rápidamente.
  * La IA garantiza que nunca dispara dos veces a la misma casilla.
+ * <p>
+ * Las casillas se representan empaquetadas como {@code fila * tamaño + columna}.
+ * El historial es un bitset, la cola de objetivos un array circular de enteros y el modo
+ * caza elige en O(1) de una lista de casillas libres con borrado por intercambio, así que
+ * {@link #nextShot(Board)} no crea objetos y termina en tiempo acotado.
+ * <p>
+ * El estado se guarda con {@link #saveState()} como el bitset del historial seguido de la
+ * cola de objetivos en orden, con cada casilla en 1, 2 o 3 bytes según el lado del tablero.
+ * En un tablero de 10x10 ocupa unos 20 bytes.
  */
-public class MachineAI {
+public class MachineAI implements ShotStrategy {
 
-    private final Random random = new Random();
+    private final Random random;
 
-    /** Lista de tiros pendientes cuando la IA detecta un barco */
-    private final Queue<int[]> targets = new ArrayDeque<>();
+    /** Lado del tablero para el que están dimensionadas las estructuras (0 = sin iniciar). */
+    private int size;
 
-    /** Historial de tiros para evitar duplicados */
-    private final Set<String> usedShots = new HashSet<>();
+    /** Historial de tiros para evitar duplicados (un bit por casilla). */
+    private long[] usedShots;
+
+    /** Casillas pendientes de encolar dos veces (un bit por casilla en cola). */
+    private long[] queued;
+
+    /** Lista de tiros pendientes cuando la IA detecta un barco (cola circular). */
+    private int[] targets;
+    private int targetHead;
+    private int targetCount;
+
+    /** Casillas aún no disparadas; las primeras {@code freeCount} son válidas. */
+    private int[] free;
+    /** Posición de cada casilla dentro de {@code free}. */
+    private int[] freePos;
+    private int freeCount;
+
+    /**
+     * Crea la IA con una semilla aleatoria.
+     */
+    public MachineAI() {
+        this(new Random());
+    }
+
+    /**
+     * Crea la IA con una fuente de aleatoriedad propia (útil para simulaciones reproducibles).
+     * @param random Generador a usar.
+     */
+    public MachineAI(Random random) {
+        this.random = random;
+    }
 
     /**
      * Devuelve el disparo de la IA como un array de coordenadas {fila, columna}.
@@ -29,35 +69,44 @@ public class MachineAI {
      * @return Array de dos enteros: {fila, columna} del disparo elegido.
      */
     public int[] shoot(Board playerBoard) {
+        int cell = nextShot(playerBoard);
+        return new int[] { cell / size, cell % size };
+    }
 
-        int size = playerBoard.getSize();
+    /**
+     * Elige el siguiente disparo sin crear objetos.
+     * @param playerBoard El tablero del oponente sobre el que se va a disparar.
+     * @return La casilla empaquetada como {@code fila * tamaño + columna}.
+     * @throws IllegalStateException si ya no quedan casillas por disparar.
+     */
+    @Override
+    public int nextShot(Board playerBoard) {
+        ensureSize(playerBoard.getSize());
 
-        if (!targets.isEmpty()) {
-            int[] shot = targets.poll();
-            String key = shot[0] + "," + shot[1];
-            // Solo dispara si la casilla no ha sido utilizada antes.
-            if (!usedShots.contains(key)) {
-                usedShots.add(key);
-                return shot;
+        // Solo dispara a objetivos que no hayan sido utilizados antes.
+        while (targetCount > 0) {
+            int cell = pollTarget();
+            if (!isUsed(cell) && !isShotOnBoard(playerBoard, cell)) {
+                markUsed(cell);
+                return cell;
             }
+            markUsed(cell);
         }
 
-        int row, col;
-        String key;
-
+        int cell;
         do {
-            row = random.nextInt(size);
-            col = random.nextInt(size);
-            key = row + "," + col;
-        } while (usedShots.contains(key));  // evitar duplicados
-
-        usedShots.add(key);
+            if (freeCount == 0) {
+                throw new IllegalStateException("No quedan casillas por disparar");
+            }
+            cell = free[random.nextInt(freeCount)];
+            markUsed(cell);
+            // Casillas ya disparadas en el tablero (p. ej. al reanudar) se descartan sin repetir
+        } while (isShotOnBoard(playerBoard, cell));
 
-        if (playerBoard.peek(row, col).hasShip()) {
-            addAdjacentTargets(row, col, size);
+        if (playerBoard.hasShipAt(cell / size, cell % size)) {
+            addAdjacentTargets(cell / size, cell % size, size);
         }
-
-        return new int[] { row, col };
+        return cell;
     }
 
     /**
@@ -70,9 +119,165 @@ public class MachineAI {
      */
     private void addAdjacentTargets(int r, int c, int size) {
 
-        if (r > 0)         targets.offer(new int[]{r - 1, c});
-        if (r < size - 1)  targets.offer(new int[]{r + 1, c});
-        if (c > 0)         targets.offer(new int[]{r, c - 1});
-        if (c < size - 1)  targets.offer(new int[]{r, c + 1});
+        if (r > 0)         offerTarget((r - 1) * size + c);
+        if (r < size - 1)  offerTarget((r + 1) * size + c);
+        if (c > 0)         offerTarget(r * size + c - 1);
+        if (c < size - 1)  offerTarget(r * size + c + 1);
+    }
+
+    // ========= ESTADO GUARDADO =========
+
+    /** Versión del formato de {@link #saveState()}. */
+    private static final int STATE_VERSION = 1;
+
+    /**
+     * Estructura: byte versión, short lado, ⌈lado² / 8⌉ bytes del historial, int número de
+     * objetivos y los objetivos desde la cabeza de la cola.
+     */
+    @Override
+    public byte[] saveState() {
+        if (size == 0) return null;
+        int cells = size * size;
+        int maskBytes = (cells + 7) >>> 3;
+        int cellBytes = cellBytes(cells);
+        ByteBuffer out = ByteBuffer.allocate(1 + 2 + maskBytes + 4 + targetCount * cellBytes);
+        out.put((byte) STATE_VERSION).putShort((short) size);
+        for (int i = 0; i < maskBytes; i++) {
+            out.put((byte) (usedShots[i >>> 3] >>> ((i & 7) << 3)));
+        }
+        out.putInt(targetCount);
+        for (int i = 0; i < targetCount; i++) {
+            int cell = targets[(targetHead + i) % targets.length];
+            for (int b = cellBytes - 1; b >= 0; b--) out.put((byte) (cell >>> (b << 3)));
+        }
+        return out.array();
+    }
+
+    @Override
+    public boolean restoreState(Board playerBoard, byte[] state) {
+        ByteBuffer in = ByteBuffer.wrap(state);
+        try {
+            if (in.get() != STATE_VERSION || in.getShort() != playerBoard.getSize()) return false;
+            reset(playerBoard.getSize());
+            int cells = size * size;
+            for (int i = 0, maskBytes = (cells + 7) >>> 3; i < maskBytes; i++) {
+                for (int bits = in.get() & 0xFF; bits != 0; bits &= bits - 1) {
+                    int cell = (i << 3) + Integer.numberOfTrailingZeros(bits);
+                    if (cell >= cells) return invalidState();
+                    markUsed(cell);
+                }
+            }
+            int count = in.getInt();
+            int cellBytes = cellBytes(cells);
+            if (count < 0 || count > cells) return invalidState();
+            for (int i = 0; i < count; i++) {
+                int cell = 0;
+                for (int b = 0; b < cellBytes; b++) cell = (cell << 8) | (in.get() & 0xFF);
+                if (cell >= cells) return invalidState();
+                offerTarget(cell);
+            }
+        } catch (BufferUnderflowException e) {
+            return invalidState();
+        }
+
+        // Disparos posteriores al guardado: se aplican igual que en nextShot
+        long[] shots = playerBoard.getShotMask();
+        for (int w = 0; w < shots.length; w++) {
+            for (long bits = shots[w] & ~usedShots[w]; bits != 0; bits &= bits - 1) {
+                int cell = (w << 6) + Long.numberOfTrailingZeros(bits);
+                markUsed(cell);
+                if (playerBoard.hasShipAt(cell / size, cell % size)) {
+                    addAdjacentTargets(cell / size, cell % size, size);
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Deja la IA limpia tras un estado ilegible para que se pueda usar {@link #resume}. */
+    private boolean invalidState() {
+        size = 0;
+        return false;
+    }
+
+    private static int cellBytes(int cells) {
+        return cells <= 1 << 8 ? 1 : cells <= 1 << 16 ? 2 : 3;
+    }
+
+    // ========= ESTRUCTURAS PRIMITIVAS =========
+
+    @Override
+    public void reset(int boardSize) {
+        size = 0;
+        ensureSize(boardSize);
+    }
+
+    /**
+     * Dimensiona las estructuras la primera vez o si cambia el tamaño del tablero.
+     */
+    private void ensureSize(int boardSize) {
+        if (boardSize == size) return;
+        size = boardSize;
+        int cells = boardSize * boardSize;
+        int words = (cells + 63) >>> 6;
+        usedShots = new long[words];
+        queued = new long[words];
+        targets = new int[Math.min(cells, 64)];
+        targetHead = 0;
+        targetCount = 0;
+        free = new int[cells];
+        freePos = new int[cells];
+        for (int i = 0; i < cells; i++) {
+            free[i] = i;
+            freePos[i] = i;
+        }
+        freeCount = cells;
+    }
+
+    private boolean isShotOnBoard(Board board, int cell) {
+        return board.isShotAt(cell / size, cell % size);
+    }
+
+    private boolean isUsed(int cell) {
+        return (usedShots[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * Marca la casilla como usada y la quita de la lista libre intercambiándola con la última.
+     */
+    private void markUsed(int cell) {
+        if (isUsed(cell)) return;
+        usedShots[cell >>> 6] |= 1L << cell;
+        int pos = freePos[cell];
+        int last = free[--freeCount];
+        free[pos] = last;
+        freePos[last] = pos;
+        free[freeCount] = cell;
+        freePos[cell] = freeCount;
+    }
+
+    private void offerTarget(int cell) {
+        long bit = 1L << cell;
+        if (isUsed(cell) || (queued[cell >>> 6] & bit) != 0) return;
+        queued[cell >>> 6] |= bit;
+        if (targetCount == targets.length) {
+            // Crece solo hasta el número de casillas, porque cada una se encola a lo sumo una vez
+            int[] grown = new int[Math.min(targets.length * 2, size * size)];
+            for (int i = 0; i < targetCount; i++) {
+                grown[i] = targets[(targetHead + i) % targets.length];
+            }
+            targets = grown;
+            targetHead = 0;
+        }
+        targets[(targetHead + targetCount) % targets.length] = cell;
+        targetCount++;
+    }
+
+    private int pollTarget() {
+        int cell = targets[targetHead];
+        targetHead = (targetHead + 1) % targets.length;
+        targetCount--;
+        queued[cell >>> 6] &= ~(1L << cell);
+        return cell;
     }
 }
@@ -0,0 +1,67 @@
+package com.example.batallanaval.models;
+
+import java.util.Arrays;
+
+/**
+ * Árbol de segmentos que mantiene, para un array de puntuaciones enteras, el índice
+ * de la puntuación máxima. Actualizar una posición cuesta O(log n) y consultar el
+ * máximo O(1); a igualdad gana el índice menor.
+ */
+final class MaxScoreTree {
+
+    private final int capacity;
+    private final int[] score;
+    /** Nodo i guarda el índice ganador de su rango; las hojas empiezan en {@code capacity}. */
+    private final int[] tree;
+
+    MaxScoreTree(int n) {
+        int cap = 1;
+        while (cap < n) cap <<= 1;
+        capacity = cap;
+        score = new int[cap];
+        tree = new int[2 * cap];
+        Arrays.fill(score, Integer.MIN_VALUE);
+        for (int i = 0; i < cap; i++) tree[cap + i] = i;
+        rebuild();
+    }
+
+    /**
+     * Cambia la puntuación de una posición.
+     * @param i Posición.
+     * @param value Nueva puntuación.
+     */
+    void update(int i, int value) {
+        score[i] = value;
+        for (int node = (i + capacity) >>> 1; node > 0; node >>>= 1) {
+            tree[node] = better(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Fija una puntuación sin recalcular el árbol; usar junto con {@link #rebuild()}.
+     */
+    void setRaw(int i, int value) {
+        score[i] = value;
+    }
+
+    /** Recalcula todos los nodos internos en O(n). */
+    void rebuild() {
+        for (int node = capacity - 1; node > 0; node--) {
+            tree[node] = better(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    /** @return Índice con la puntuación máxima. */
+    int argMax() {
+        return tree[1];
+    }
+
+    /** @return Puntuación máxima. */
+    int max() {
+        return score[tree[1]];
+    }
+
+    private int better(int a, int b) {
+        return score[b] > score[a] ? b : a;
+    }
+}
@@ -0,0 +1,465 @@
+package com.example.batallanaval.models;
+
+import com.example.batallanaval.ai.ShotStrategy;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Inteligencia Artificial de nivel experto basada en Monte Carlo.
+ * <p>
+ * En cada turno genera miles de flotas compatibles con lo observado: ningún barco pasa
+ * por agua conocida ni por barcos hundidos, los barcos hundidos se descuentan de la flota
+ * y cada impacto sin hundir queda cubierto por algún barco. Después dispara a la casilla
+ * desconocida que aparece ocupada en más muestras.
+ * <p>
+ * Las muestras se reparten en bloques de {@value #SAMPLES_PER_TASK} sobre un
+ * {@link ForkJoinPool}. Cada bloque tiene su propio generador, derivado de la semilla,
+ * del número de turno y del índice del bloque, y anota las casillas de sus muestras en una
+ * lista propia, que se suma al final en un único contador por casilla. Así las tareas no
+ * comparten nada mientras trabajan, el rendimiento escala con los núcleos y la memoria de
+ * cada bloque depende de sus muestras y no del lado del tablero. Como la suma de enteros
+ * no depende del orden, con la misma semilla se obtienen los mismos disparos sea cual sea
+ * el número de hilos, siempre que no se agote el presupuesto de tiempo.
+ * <p>
+ * Igual que {@link HeatMapAI}, no mira el tablero rival: aprende solo de
+ * {@link #onShotResult}.
+ */
+public class MonteCarloAI implements ShotStrategy {
+
+    private static final byte UNKNOWN = 0;
+    private static final byte MISS = 1;
+    private static final byte HIT = 2;
+    private static final byte SUNK = 3;
+
+    /** Muestras por tarea hoja; fijo para que el reparto no dependa de los hilos. */
+    static final int SAMPLES_PER_TASK = 128;
+
+    /** Intentos de construir una muestra por cada muestra pedida antes de descartarla. */
+    private static final int ATTEMPTS_PER_SAMPLE = 20;
+
+    /** Intentos de colocar al azar cada barco libre dentro de una muestra. */
+    private static final int ATTEMPTS_PER_SHIP = 64;
+
+    private static final int DEFAULT_SAMPLES = 10_000;
+
+    private final ForkJoinPool pool;
+    private final long seed;
+    private final int[] fleetLengths;
+
+    private int sampleBudget = DEFAULT_SAMPLES;
+    /** Presupuesto de tiempo por disparo en nanosegundos (0 = sin límite). */
+    private long timeBudgetNanos;
+
+    private int size;
+    private int words;
+    /** Tablero de conocimiento propio. */
+    private byte[] state;
+    /** Agua conocida y barcos hundidos, como máscara de bits. */
+    private long[] blocked;
+    /** Longitudes de los barcos que siguen a flote. */
+    private int[] afloat;
+    private int afloatCount;
+    /** Ocupaciones por casilla del turno en curso; se reutiliza entre turnos. */
+    private int[] counts;
+    /** Impactos aún no hundidos. */
+    private int[] openHits;
+    private int openHitCount;
+    /** Disparos realizados; forma parte de la semilla de cada turno. */
+    private int turn;
+
+    /** Muestras válidas del último disparo (informativo). */
+    private int lastSamples;
+
+    /**
+     * Crea la IA con una semilla aleatoria y el pool común.
+     */
+    public MonteCarloAI() {
+        this(new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Crea una IA reproducible que usa el pool común.
+     * @param seed Semilla.
+     */
+    public MonteCarloAI(long seed) {
+        this(seed, ForkJoinPool.commonPool(), FleetSampler.standardFleet());
+    }
+
+    /**
+     * Crea una IA reproducible con su propio pool y flota.
+     * @param seed Semilla.
+     * @param pool Pool donde se reparten las muestras.
+     * @param fleetLengths Longitudes de los barcos del rival.
+     */
+    public MonteCarloAI(long seed, ForkJoinPool pool, int[] fleetLengths) {
+        this.seed = seed;
+        this.pool = pool;
+        this.fleetLengths = fleetLengths.clone();
+    }
+
+    /**
+     * Cambia el número de flotas muestreadas por disparo.
+     * @param samples Número positivo de muestras.
+     */
+    public void setSampleBudget(int samples) {
+        if (samples <= 0) throw new IllegalArgumentException("El número de muestras debe ser positivo");
+        this.sampleBudget = samples;
+    }
+
+    /**
+     * Limita el tiempo de cálculo de cada disparo. Al agotarse se usan las muestras
+     * obtenidas hasta entonces, lo que rompe la reproducibilidad de ese disparo.
+     * @param millis Milisegundos por disparo, o 0 para no limitar.
+     */
+    public void setTimeBudgetMillis(long millis) {
+        if (millis < 0) throw new IllegalArgumentException("El tiempo no puede ser negativo");
+        this.timeBudgetNanos = millis * 1_000_000L;
+    }
+
+    /** @return Muestras válidas usadas en el último disparo. */
+    public int getLastSampleCount() {
+        return lastSamples;
+    }
+
+    /**
+     * Elige el siguiente disparo.
+     * @param opponentBoard Tablero rival; solo se usa para conocer su tamaño.
+     * @return La casilla empaquetada como {@code fila * tamaño + columna}.
+     * @throws IllegalStateException si ya no quedan casillas por disparar.
+     */
+    @Override
+    public int nextShot(Board opponentBoard) {
+        ensureSize(opponentBoard.getSize());
+        long deadline = timeBudgetNanos > 0 ? System.nanoTime() + timeBudgetNanos : Long.MAX_VALUE;
+        int tasks = (sampleBudget + SAMPLES_PER_TASK - 1) / SAMPLES_PER_TASK;
+        Snapshot snapshot = new Snapshot(size, words, blocked.clone(), afloatLengths(), openHitsCopy());
+        long turnSeed = mix(seed + turn * 0x9E3779B97F4A7C15L);
+
+        int[][] results = new int[tasks][];
+        pool.invoke(new SampleTask(snapshot, turnSeed, 0, tasks, sampleBudget, deadline, results));
+        Arrays.fill(counts, 0);
+        int accepted = 0;
+        for (int[] cells : results) {
+            accepted += cells[0];
+            for (int i = 2, end = 2 + cells[1]; i < end; i++) counts[cells[i]]++;
+        }
+        lastSamples = accepted;
+
+        int best = -1;
+        for (int cell = 0; cell < state.length; cell++) {
+            if (state[cell] != UNKNOWN) continue;
+            if (best < 0 || counts[cell] > counts[best]) best = cell;
+        }
+        if (best < 0) {
+            throw new IllegalStateException("No quedan casillas por disparar");
+        }
+        turn++;
+        return best;
+    }
+
+    /**
+     * Devuelve el disparo como {fila, columna}, igual que {@link MachineAI#shoot(Board)}.
+     * @param opponentBoard Tablero rival.
+     * @return Coordenadas del disparo.
+     */
+    public int[] shoot(Board opponentBoard) {
+        int cell = nextShot(opponentBoard);
+        return new int[] { cell / size, cell % size };
+    }
+
+    /**
+     * Informa a la IA del resultado de un disparo suyo.
+     * @param row Fila disparada.
+     * @param col Columna disparada.
+     * @param result Resultado obtenido.
+     * @param sunkShip El barco hundido si {@code result} es SUNK, o null.
+     */
+    @Override
+    public void onShotResult(int row, int col, ShotResult result, Ship sunkShip) {
+        if (state == null) {
+            throw new IllegalStateException("La IA aún no ha elegido ningún disparo");
+        }
+        int cell = row * size + col;
+        if (state[cell] != UNKNOWN) return;
+        switch (result) {
+            case MISS -> {
+                state[cell] = MISS;
+                blocked[cell >>> 6] |= 1L << cell;
+            }
+            case HIT -> {
+                state[cell] = HIT;
+                openHits[openHitCount++] = cell;
+            }
+            case SUNK -> {
+                state[cell] = HIT;
+                openHits[openHitCount++] = cell;
+                if (sunkShip != null) sink(sunkShip);
+            }
+        }
+    }
+
+    private void sink(Ship ship) {
+        for (int[] pos : ship.getCells()) {
+            int cell = pos[0] * size + pos[1];
+            state[cell] = SUNK;
+            blocked[cell >>> 6] |= 1L << cell;
+            for (int i = 0; i < openHitCount; i++) {
+                if (openHits[i] == cell) {
+                    openHits[i] = openHits[--openHitCount];
+                    break;
+                }
+            }
+        }
+        for (int i = 0; i < afloatCount; i++) {
+            if (afloat[i] == ship.getLength()) {
+                afloat[i] = afloat[--afloatCount];
+                break;
+            }
+        }
+    }
+
+    @Override
+    public void reset(int boardSize) {
+        size = 0;
+        ensureSize(boardSize);
+    }
+
+    private void ensureSize(int boardSize) {
+        if (boardSize == size) return;
+        size = boardSize;
+        words = PlacementTable.wordsFor(boardSize);
+        state = new byte[boardSize * boardSize];
+        counts = new int[state.length];
+        blocked = new long[words];
+        openHits = new int[state.length];
+        openHitCount = 0;
+        afloatCount = 0;
+        afloat = new int[fleetLengths.length];
+        for (int len : fleetLengths) if (len <= boardSize) afloat[afloatCount++] = len;
+        turn = 0;
+    }
+
+    private int[] afloatLengths() {
+        int[] lengths = new int[afloatCount];
+        System.arraycopy(afloat, 0, lengths, 0, afloatCount);
+        // Orden fijo (mayor a menor) para que las muestras no dependan del orden de los hundimientos
+        Arrays.sort(lengths);
+        for (int i = 0, j = lengths.length - 1; i < j; i++, j--) {
+            int t = lengths[i]; lengths[i] = lengths[j]; lengths[j] = t;
+        }
+        return lengths;
+    }
+
+    private int[] openHitsCopy() {
+        int[] hits = new int[openHitCount];
+        System.arraycopy(openHits, 0, hits, 0, openHitCount);
+        Arrays.sort(hits);
+        return hits;
+    }
+
+    /** Mezclador de 64 bits (SplitMix64) para derivar semillas independientes. */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // ========= MUESTREO EN PARALELO =========
+
+    /**
+     * Estado observado e inmutable que comparten todas las tareas de un turno.
+     */
+    private record Snapshot(int size, int words, long[] blocked, int[] lengths, int[] hits) { }
+
+    /**
+     * Reparte el rango de bloques [from, to) por bisección. Cada hoja deja en
+     * {@code results[bloque]} la lista de casillas ocupadas por sus muestras válidas
+     * (ver {@link Worker#run}).
+     */
+    private static final class SampleTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Snapshot snapshot;
+        private final long turnSeed;
+        private final int from;
+        private final int to;
+        private final int totalSamples;
+        private final long deadline;
+        private final int[][] results;
+
+        SampleTask(Snapshot snapshot, long turnSeed, int from, int to, int totalSamples, long deadline,
+                   int[][] results) {
+            this.snapshot = snapshot;
+            this.turnSeed = turnSeed;
+            this.from = from;
+            this.to = to;
+            this.totalSamples = totalSamples;
+            this.deadline = deadline;
+            this.results = results;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                int samples = Math.min(SAMPLES_PER_TASK, totalSamples - from * SAMPLES_PER_TASK);
+                results[from] = new Worker(snapshot).run(new SplittableRandom(mix(turnSeed ^ from)), samples, deadline);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            SampleTask left = new SampleTask(snapshot, turnSeed, from, mid, totalSamples, deadline, results);
+            left.fork();
+            new SampleTask(snapshot, turnSeed, mid, to, totalSamples, deadline, results).compute();
+            left.join();
+        }
+    }
+
+    /**
+     * Construye muestras para una hoja. Primero cubre cada impacto abierto con un barco
+     * elegido al azar que pase por él; después coloca al azar los barcos restantes.
+     * Cualquier fallo descarta la muestra entera.
+     */
+    private static final class Worker {
+
+        private final Snapshot s;
+        private final PlacementTable[] tables;
+        private final long[] occupied;
+        /** Colocación elegida por barco, o -1 si aún no está colocado. */
+        private final int[] chosen;
+        /** Candidatos temporales que pasan por un impacto. */
+        private final int[] candidates;
+
+        Worker(Snapshot snapshot) {
+            this.s = snapshot;
+            this.tables = new PlacementTable[snapshot.lengths().length];
+            int maxLen = 1;
+            for (int i = 0; i < tables.length; i++) {
+                tables[i] = PlacementTable.of(snapshot.size(), snapshot.lengths()[i]);
+                maxLen = Math.max(maxLen, snapshot.lengths()[i]);
+            }
+            this.occupied = snapshot.blocked().clone();
+            this.chosen = new int[tables.length];
+            this.candidates = new int[2 * maxLen];
+        }
+
+        /**
+         * Construye hasta {@code samples} muestras.
+         * @return {muestras válidas, n, casilla...}: las n casillas ocupadas por las muestras
+         *         válidas, repetidas una vez por muestra. Su tamaño no depende del tablero.
+         */
+        int[] run(SplittableRandom random, int samples, long deadline) {
+            int perSample = 0;
+            for (int len : s.lengths()) perSample += len;
+            int[] cells = new int[2 + samples * perSample];
+            int n = 2;
+            int accepted = 0;
+            for (int i = 0; i < samples; i++) {
+                if ((i & 15) == 0 && System.nanoTime() > deadline) break;
+                for (int attempt = 0; attempt < ATTEMPTS_PER_SAMPLE; attempt++) {
+                    boolean ok = buildSample(random);
+                    if (ok) {
+                        for (int k = 0; k < tables.length; k++) n = addCells(cells, n, k);
+                        accepted++;
+                    }
+                    undo();
+                    if (ok) break;
+                }
+            }
+            cells[0] = accepted;
+            cells[1] = n - 2;
+            return cells;
+        }
+
+        private boolean buildSample(SplittableRandom random) {
+            Arrays.fill(chosen, -1);
+            for (int hit : s.hits()) {
+                if (isSet(occupied, hit)) continue;
+                if (!coverHit(random, hit)) return false;
+            }
+            for (int k = 0; k < tables.length; k++) {
+                if (chosen[k] >= 0) continue;
+                PlacementTable t = tables[k];
+                boolean placed = false;
+                for (int attempt = 0; attempt < ATTEMPTS_PER_SHIP; attempt++) {
+                    int p = random.nextInt(t.count());
+                    if (!t.intersects(occupied, p)) {
+                        place(k, p);
+                        placed = true;
+                        break;
+                    }
+                }
+                if (!placed) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Elige un barco libre al azar que tenga alguna colocación por el impacto
+         * y lo coloca en una de ellas, también al azar.
+         */
+        private boolean coverHit(SplittableRandom random, int hit) {
+            int n = tables.length;
+            int first = random.nextInt(n);
+            for (int j = 0; j < n; j++) {
+                int k = (first + j) % n;
+                if (chosen[k] >= 0) continue;
+                int found = collectThrough(k, hit);
+                if (found > 0) {
+                    place(k, candidates[random.nextInt(found)]);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /** Guarda en {@code candidates} las colocaciones libres del barco k que cubren la casilla. */
+        private int collectThrough(int k, int cell) {
+            PlacementTable t = tables[k];
+            int size = s.size();
+            int len = t.length();
+            int r = cell / size;
+            int c = cell % size;
+            int perLine = size - len + 1;
+            int found = 0;
+            for (int col = Math.max(0, c - len + 1); col <= Math.min(c, size - len); col++) {
+                int p = r * perLine + col;
+                if (!t.intersects(occupied, p)) candidates[found++] = p;
+            }
+            if (len > 1) {
+                int horizontal = perLine * size;
+                for (int row = Math.max(0, r - len + 1); row <= Math.min(r, size - len); row++) {
+                    int p = horizontal + row * size + c;
+                    if (!t.intersects(occupied, p)) candidates[found++] = p;
+                }
+            }
+            return found;
+        }
+
+        private void place(int k, int p) {
+            tables[k].set(occupied, p);
+            chosen[k] = p;
+        }
+
+        /** Quita los barcos de la muestra; lo bloqueado nunca se solapa con ellos. */
+        private void undo() {
+            for (int k = 0; k < tables.length; k++) {
+                if (chosen[k] >= 0) tables[k].clear(occupied, chosen[k]);
+            }
+        }
+
+        private int addCells(int[] cells, int n, int k) {
+            PlacementTable t = tables[k];
+            int p = chosen[k];
+            int step = t.isHorizontal(p) ? 1 : s.size();
+            for (int i = 0, idx = t.start(p); i < t.length(); i++, idx += step) cells[n++] = idx;
+            return n;
+        }
+
+        private static boolean isSet(long[] mask, int cell) {
+            return (mask[cell >>> 6] & (1L << cell)) != 0;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.batallanaval.models;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tabla precalculada con todas las colocaciones legales de un barco de cierta longitud
+ * en un tablero de cierto tamaño (dentro de los límites, sin tener en cuenta otros barcos).
+ * <p>
+ * Cada colocación se identifica por un índice {@code p}: primero todas las horizontales
+ * (fila a fila) y después las verticales. Su celda de origen (índice lineal
+ * {@code fila * tamaño + columna}) y su orientación se derivan aritméticamente de {@code p}.
+ * Para tableros pequeños además se guarda la máscara de bits de cada colocación, así que
+ * comprobar una colisión es un AND palabra a palabra sobre las palabras que toca el barco;
+ * en tableros grandes las máscaras ocuparían demasiado y se evalúa celda a celda.
+ * Las tablas son inmutables y se comparten entre hilos.
+ */
+public final class PlacementTable {
+
+    /** Tableros con más palabras que esto no guardan máscaras (se evalúa celda a celda). */
+    private static final int MAX_MASK_WORDS = 32;
+
+    /** Caché de tablas por (tamaño, longitud). */
+    private static final ConcurrentHashMap<Long, PlacementTable> CACHE = new ConcurrentHashMap<>();
+
+    private final int boardSize;
+    private final int length;
+    private final int words;
+    /** Colocaciones por fila (horizontales) o por columna (verticales). */
+    private final int perLine;
+    /** Número de colocaciones horizontales; las verticales empiezan en este índice. */
+    private final int horizontalCount;
+    private final int count;
+    /** Primera y última palabra de 64 bits que toca cada colocación (solo con máscaras). */
+    private final int[] firstWord;
+    private final int[] lastWord;
+    /** Máscaras aplanadas ({@code words} palabras por colocación) o null en tableros grandes. */
+    private final long[] masks;
+
+    private PlacementTable(int boardSize, int length) {
+        this.boardSize = boardSize;
+        this.length = length;
+        this.words = wordsFor(boardSize);
+        this.perLine = boardSize - length + 1;
+        this.horizontalCount = perLine * boardSize;
+        // Los barcos de una celda solo se enumeran una vez (horizontal)
+        this.count = length == 1 ? horizontalCount : 2 * horizontalCount;
+
+        if (words <= MAX_MASK_WORDS) {
+            firstWord = new int[count];
+            lastWord = new int[count];
+            masks = new long[count * words];
+            for (int p = 0; p < count; p++) {
+                int start = start(p);
+                int step = isHorizontal(p) ? 1 : boardSize;
+                firstWord[p] = start >>> 6;
+                lastWord[p] = (start + (length - 1) * step) >>> 6;
+                for (int i = 0, idx = start; i < length; i++, idx += step) {
+                    masks[p * words + (idx >>> 6)] |= 1L << idx;
+                }
+            }
+        } else {
+            firstWord = null;
+            lastWord = null;
+            masks = null;
+        }
+    }
+
+    /**
+     * Obtiene (y crea la primera vez) la tabla para un tamaño de tablero y una longitud de barco.
+     * @param boardSize Lado del tablero.
+     * @param length Longitud del barco.
+     * @return La tabla compartida.
+     */
+    public static PlacementTable of(int boardSize, int length) {
+        if (length < 1 || length > boardSize) {
+            throw new IllegalArgumentException("Longitud de barco inválida: " + length);
+        }
+        Long key = ((long) boardSize << 32) | length;
+        PlacementTable table = CACHE.get(key);
+        if (table == null) {
+            // Se construye fuera del candado del mapa: con computeIfAbsent quien pidiera la
+            // misma tabla se bloquearía en un monitor (y un hilo virtual fijaría su portador)
+            PlacementTable built = new PlacementTable(boardSize, length);
+            table = CACHE.putIfAbsent(key, built);
+            if (table == null) table = built;
+        }
+        return table;
+    }
+
+    /**
+     * Número de palabras de 64 bits que necesita una máscara para un tablero de este lado.
+     * @param boardSize Lado del tablero.
+     * @return Palabras necesarias.
+     */
+    public static int wordsFor(int boardSize) {
+        return (int) (((long) boardSize * boardSize + 63) >>> 6);
+    }
+
+    /** @return Número de colocaciones legales. */
+    public int count() {
+        return count;
+    }
+
+    /** @return Longitud del barco de esta tabla. */
+    public int length() {
+        return length;
+    }
+
+    /** @return Lado del tablero de esta tabla. */
+    public int boardSize() {
+        return boardSize;
+    }
+
+    /**
+     * @param p Índice de la colocación.
+     * @return Índice lineal de la celda de origen.
+     */
+    public int start(int p) {
+        if (p < horizontalCount) {
+            return (p / perLine) * boardSize + (p % perLine);
+        }
+        // Las verticales se enumeran fila a fila: perLine filas de origen por boardSize columnas
+        return p - horizontalCount;
+    }
+
+    /**
+     * @param p Índice de la colocación.
+     * @return true si la colocación es horizontal.
+     */
+    public boolean isHorizontal(int p) {
+        return p < horizontalCount;
+    }
+
+    /**
+     * Comprueba si la colocación toca alguna celda marcada en la máscara.
+     * @param mask Máscara de {@link #wordsFor(int)} palabras.
+     * @param p Índice de la colocación.
+     * @return true si hay intersección.
+     */
+    public boolean intersects(long[] mask, int p) {
+        if (masks != null) {
+            int base = p * words;
+            for (int w = firstWord[p]; w <= lastWord[p]; w++) {
+                if ((mask[w] & masks[base + w]) != 0) return true;
+            }
+            return false;
+        }
+        int step = p < horizontalCount ? 1 : boardSize;
+        for (int i = 0, idx = start(p); i < length; i++, idx += step) {
+            if ((mask[idx >>> 6] & (1L << idx)) != 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Marca en la máscara las celdas de la colocación.
+     * @param mask Máscara a modificar.
+     * @param p Índice de la colocación.
+     */
+    public void set(long[] mask, int p) {
+        if (masks != null) {
+            int base = p * words;
+            for (int w = firstWord[p]; w <= lastWord[p]; w++) mask[w] |= masks[base + w];
+            return;
+        }
+        int step = p < horizontalCount ? 1 : boardSize;
+        for (int i = 0, idx = start(p); i < length; i++, idx += step) mask[idx >>> 6] |= 1L << idx;
+    }
+
+    /**
+     * Desmarca en la máscara las celdas de la colocación.
+     * @param mask Máscara a modificar.
+     * @param p Índice de la colocación.
+     */
+    public void clear(long[] mask, int p) {
+        if (masks != null) {
+            int base = p * words;
+            for (int w = firstWord[p]; w <= lastWord[p]; w++) mask[w] &= ~masks[base + w];
+            return;
+        }
+        int step = p < horizontalCount ? 1 : boardSize;
+        for (int i = 0, idx = start(p); i < length; i++, idx += step) mask[idx >>> 6] &= ~(1L << idx);
+    }
+
+    /**
+     * Indica si la colocación cubre la celda dada.
+     * @param p Índice de la colocación.
+     * @param cell Índice lineal de la celda.
+     * @return true si la celda forma parte del barco.
+     */
+    public boolean covers(int p, int cell) {
+        int start = start(p);
+        if (p < horizontalCount) {
+            return cell >= start && cell < start + length && cell / boardSize == start / boardSize;
+        }
+        int delta = cell - start;
+        return delta >= 0 && delta % boardSize == 0 && delta / boardSize < length;
+    }
+}
@@ -9,10 +9,16 @@ import java.io.Serializable;
 public class  Ship implements Serializable {
 
     // Identificador de versión para la serialización.
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
     private final int length;
     private int hits = 0;
     private boolean placed = false;
+    /** Fila de la celda de origen (proa) del barco en el tablero; -1 si no está colocado. */
+    private int row = -1;
+    /** Columna de la celda de origen (proa) del barco en el tablero; -1 si no está colocado. */
+    private int col = -1;
+    /** Orientación con la que se colocó el barco. */
+    private boolean horizontal = true;
 
     /**
      * Constructor para un nuevo barco.
@@ -45,6 +51,13 @@ public class  Ship implements Serializable {
         hits++;
     }
 
+    /**
+     * Deshace el último impacto registrado, al deshacer un disparo.
+     */
+    public void unregisterHit() {
+        if (hits > 0) hits--;
+    }
+
     /**
      * Determina si el barco ha sido hundido (el número de hits iguala o supera su longitud).
      * @return true si el barco está hundido, false en caso contrario.
@@ -72,4 +85,54 @@ public class  Ship implements Serializable {
     public int getRemainingLife() {
         return Math.max(0, length - hits);
     }
+
+    /**
+     * Registra la posición y orientación del barco. Lo invoca {@link Board#placeShip}.
+     * @param row Fila de la celda de origen.
+     * @param col Columna de la celda de origen.
+     * @param horizontal true si el barco se extiende hacia la derecha, false si hacia abajo.
+     */
+    public void setPosition(int row, int col, boolean horizontal) {
+        this.row = row;
+        this.col = col;
+        this.horizontal = horizontal;
+    }
+
+    /**
+     * Obtiene la fila de la celda de origen del barco.
+     * @return La fila de origen, o -1 si el barco no ha sido colocado.
+     */
+    public int getRow() {
+        return row;
+    }
+
+    /**
+     * Obtiene la columna de la celda de origen del barco.
+     * @return La columna de origen, o -1 si el barco no ha sido colocado.
+     */
+    public int getCol() {
+        return col;
+    }
+
+    /**
+     * Indica la orientación con la que se colocó el barco.
+     * @return true si es horizontal, false si es vertical.
+     */
+    public boolean isHorizontal() {
+        return horizontal;
+    }
+
+    /**
+     * Devuelve las coordenadas de las celdas que ocupa el barco, desde el origen.
+     * Se calcula en O(longitud) a partir de la posición registrada, sin recorrer el tablero.
+     * @return Array de {fila, columna} por cada celda; vacío si el barco no está colocado.
+     */
+    public int[][] getCells() {
+        if (row < 0) return new int[0][];
+        int[][] cells = new int[length][];
+        for (int i = 0; i < length; i++) {
+            cells[i] = horizontal ? new int[]{row, col + i} : new int[]{row + i, col};
+        }
+        return cells;
+    }
 }
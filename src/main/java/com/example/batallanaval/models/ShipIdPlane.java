@@ -0,0 +1,53 @@
+package com.example.batallanaval.models;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Plano de un byte por celda con el identificador del barco que la ocupa (0 = agua).
+ * En modo denso es un único {@code byte[]}; en modo disperso se divide en bloques de
+ * 4096 celdas que solo se reservan cuando se coloca un barco dentro.
+ */
+final class ShipIdPlane implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+
+    /** Bloques; en modo denso hay uno solo que cubre todo el tablero. */
+    private final byte[][] chunks;
+    private final int shift;
+    private final int mask;
+
+    ShipIdPlane(int cells, boolean sparse) {
+        if (sparse) {
+            shift = CHUNK_SHIFT;
+            mask = CHUNK_MASK;
+            chunks = new byte[(cells + CHUNK_MASK) >>> CHUNK_SHIFT][];
+        } else {
+            shift = 31;
+            mask = -1 >>> 1;
+            chunks = new byte[][]{new byte[cells]};
+        }
+    }
+
+    int get(int idx) {
+        byte[] chunk = chunks[idx >>> shift];
+        return chunk == null ? 0 : chunk[idx & mask];
+    }
+
+    void set(int idx, int id) {
+        byte[] chunk = chunks[idx >>> shift];
+        if (chunk == null) {
+            if (id == 0) return;
+            chunk = chunks[idx >>> shift] = new byte[1 << shift];
+        }
+        chunk[idx & mask] = (byte) id;
+    }
+
+    void reset() {
+        if (shift == 31) Arrays.fill(chunks[0], (byte) 0);
+        else Arrays.fill(chunks, null);
+    }
+}
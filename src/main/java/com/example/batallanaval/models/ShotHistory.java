@@ -0,0 +1,117 @@
+package com.example.batallanaval.models;
+
+import java.util.Arrays;
+
+/**
+ * Orden de los disparos de una partida, de ambos bandos.
+ * <p>
+ * Cada disparo se guarda empaquetado en un int como {@code casilla << 1 | bando}, con
+ * bando 1 para los disparos sobre el tablero del jugador (los de la máquina).
+ */
+public final class ShotHistory {
+
+    private int[] shots;
+    private int count;
+
+    /**
+     * Crea un historial vacío.
+     */
+    public ShotHistory() {
+        this(new int[64], 0);
+    }
+
+    private ShotHistory(int[] shots, int count) {
+        this.shots = shots;
+        this.count = count;
+    }
+
+    /**
+     * Crea un historial a partir de disparos ya empaquetados.
+     * @param packed Disparos como {@code casilla << 1 | bando}.
+     * @param count Número de disparos válidos.
+     * @return El historial.
+     */
+    public static ShotHistory of(int[] packed, int count) {
+        return new ShotHistory(Arrays.copyOf(packed, Math.max(count, 16)), count);
+    }
+
+    /**
+     * Reconstruye un historial a partir de los disparos de los tableros, para partidas
+     * guardadas sin él. El orden real se desconoce: primero van los disparos del jugador
+     * y después los de la máquina, cada grupo por casilla.
+     * @param player Tablero del jugador.
+     * @param machine Tablero de la máquina.
+     * @return El historial aproximado.
+     */
+    public static ShotHistory fromBoards(Board player, Board machine) {
+        ShotHistory history = new ShotHistory();
+        history.appendAll(machine, false);
+        history.appendAll(player, true);
+        return history;
+    }
+
+    private void appendAll(Board board, boolean onPlayerBoard) {
+        long[] mask = board.getShotMask();
+        for (int w = 0; w < mask.length; w++) {
+            for (long bits = mask[w]; bits != 0; bits &= bits - 1) {
+                add(onPlayerBoard, (w << 6) + Long.numberOfTrailingZeros(bits));
+            }
+        }
+    }
+
+    /**
+     * Añade un disparo.
+     * @param onPlayerBoard true si fue sobre el tablero del jugador.
+     * @param cell Casilla empaquetada como {@code fila * tamaño + columna}.
+     */
+    public void add(boolean onPlayerBoard, int cell) {
+        addPacked(cell << 1 | (onPlayerBoard ? 1 : 0));
+    }
+
+    /**
+     * Añade un disparo ya empaquetado.
+     * @param packed Disparo como {@code casilla << 1 | bando}.
+     */
+    public void addPacked(int packed) {
+        if (count == shots.length) shots = Arrays.copyOf(shots, count * 2);
+        shots[count++] = packed;
+    }
+
+    /** @return Número de disparos. */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @param index Posición del disparo.
+     * @return El disparo empaquetado.
+     */
+    public int packed(int index) {
+        if (index < 0 || index >= count) throw new IndexOutOfBoundsException(index);
+        return shots[index];
+    }
+
+    /**
+     * @param index Posición del disparo.
+     * @return true si fue sobre el tablero del jugador.
+     */
+    public boolean isOnPlayerBoard(int index) {
+        return (packed(index) & 1) != 0;
+    }
+
+    /**
+     * @param index Posición del disparo.
+     * @return La casilla disparada.
+     */
+    public int cell(int index) {
+        return packed(index) >>> 1;
+    }
+
+    /**
+     * Crea una copia independiente, para entregarla a otro hilo.
+     * @return La copia.
+     */
+    public ShotHistory copy() {
+        return of(shots, count);
+    }
+}
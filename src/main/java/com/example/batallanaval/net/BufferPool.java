@@ -0,0 +1,62 @@
+package com.example.batallanaval.net;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Reserva de buffers directos del mismo tamaño para el bucle del servidor.
+ * <p>
+ * Los buffers se cortan de bloques grandes ({@link ByteBuffer#slice}), así que miles de
+ * conexiones no pagan una reserva directa (ni su limpieza) cada una. Una conexión solo
+ * tiene un buffer mientras le quedan bytes por leer o por enviar: las conexiones ociosas
+ * no ocupan ninguno.
+ * <p>
+ * No es segura entre hilos; la usa solo el hilo del selector.
+ */
+final class BufferPool {
+
+    private final int bufferSize;
+    private final int buffersPerSlab;
+    private final ArrayDeque<ByteBuffer> free = new ArrayDeque<>();
+    private int allocated;
+
+    /**
+     * @param bufferSize Capacidad de cada buffer, en bytes.
+     * @param buffersPerSlab Buffers que se cortan de cada bloque directo.
+     */
+    BufferPool(int bufferSize, int buffersPerSlab) {
+        this.bufferSize = bufferSize;
+        this.buffersPerSlab = buffersPerSlab;
+    }
+
+    /**
+     * Toma un buffer vacío, en modo escritura.
+     * @return El buffer.
+     */
+    ByteBuffer acquire() {
+        if (free.isEmpty()) {
+            ByteBuffer slab = ByteBuffer.allocateDirect(bufferSize * buffersPerSlab);
+            for (int i = 0; i < buffersPerSlab; i++) {
+                free.push(slab.slice(i * bufferSize, bufferSize));
+            }
+            allocated += buffersPerSlab;
+        }
+        return free.pop();
+    }
+
+    /**
+     * Devuelve un buffer a la reserva.
+     * @param buffer Un buffer obtenido con {@link #acquire()}.
+     */
+    void release(ByteBuffer buffer) {
+        buffer.clear();
+        free.push(buffer);
+    }
+
+    /**
+     * @return Buffers cortados hasta ahora (en uso o libres).
+     */
+    int getAllocated() {
+        return allocated;
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.batallanaval.net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Protocolo binario de las partidas en red: todos los mensajes son tramas de tamaño fijo
+ * ({@value #SIZE} bytes, big-endian), así que no hay que buscar separadores ni reservar
+ * memoria para decodificarlas.
+ * <pre>
+ *   byte 0     tipo
+ *   byte 1     fila (sin signo)
+ *   byte 2     columna (sin signo)
+ *   byte 3     argumento (sin signo; depende del tipo)
+ *   bytes 4-7  valor entero (depende del tipo)
+ * </pre>
+ * Del cliente al servidor:
+ * <ul>
+ *   <li>{@link #JOIN}: argumento = lado del tablero. Entra en la sala de espera.</li>
+ *   <li>{@link #PLACE}: fila, columna y argumento = {@link #ship(int, boolean)}.</li>
+ *   <li>{@link #READY}: la flota está completa.</li>
+ *   <li>{@link #SHOT}: fila y columna del disparo.</li>
+ * </ul>
+ * Del servidor al cliente:
+ * <ul>
+ *   <li>{@link #MATCHED}: argumento = asiento del jugador (0 o 1).</li>
+ *   <li>{@link #START}: argumento = asiento que dispara primero.</li>
+ *   <li>{@link #RESULT}: fila, columna, argumento = ordinal de {@code ShotResult} y
+ *       valor = asiento que disparó. Se envía a los dos jugadores.</li>
+ *   <li>{@link #SUNK}: origen del barco hundido, argumento = {@link #ship(int, boolean)} y
+ *       valor = asiento del dueño. Se envía a los dos jugadores.</li>
+ *   <li>{@link #GAME_OVER}: argumento = asiento ganador.</li>
+ *   <li>{@link #ERROR}: argumento = código de error.</li>
+ * </ul>
+ */
+public final class Frame {
+
+    /** Tamaño de todas las tramas, en bytes. */
+    public static final int SIZE = 8;
+
+    public static final byte JOIN = 1;
+    public static final byte PLACE = 2;
+    public static final byte READY = 3;
+    public static final byte SHOT = 4;
+
+    public static final byte MATCHED = 16;
+    public static final byte START = 17;
+    public static final byte RESULT = 18;
+    public static final byte SUNK = 19;
+    public static final byte GAME_OVER = 20;
+    public static final byte ERROR = 21;
+
+    /** Trama desconocida o con campos fuera de rango. */
+    public static final int ERR_BAD_FRAME = 1;
+    /** Trama válida, pero no en este momento de la partida. */
+    public static final int ERR_BAD_STATE = 2;
+    /** El barco no cabe ahí o no queda ninguno de esa longitud en la flota. */
+    public static final int ERR_ILLEGAL_PLACEMENT = 3;
+    /** Disparo fuera de turno. */
+    public static final int ERR_NOT_YOUR_TURN = 4;
+    /** La casilla ya había sido disparada. */
+    public static final int ERR_ALREADY_SHOT = 5;
+    /** El rival se desconectó; la partida termina sin ganador. */
+    public static final int ERR_OPPONENT_LEFT = 6;
+
+    /** Lado máximo de tablero: filas, columnas y lado viajan en un byte. */
+    public static final int MAX_BOARD_SIZE = 255;
+
+    private static final int HORIZONTAL = 0x80;
+
+    private Frame() {
+    }
+
+    /**
+     * Escribe una trama en la posición actual del buffer.
+     * @param buffer Buffer en modo escritura con al menos {@value #SIZE} bytes libres.
+     * @param type Tipo de trama.
+     * @param row Fila (0-255).
+     * @param col Columna (0-255).
+     * @param arg Argumento (0-255).
+     * @param value Valor entero.
+     */
+    public static void put(ByteBuffer buffer, byte type, int row, int col, int arg, int value) {
+        buffer.put(type).put((byte) row).put((byte) col).put((byte) arg).putInt(value);
+    }
+
+    /**
+     * @param buffer Buffer con la trama.
+     * @param at Posición absoluta de la trama.
+     * @return Su tipo.
+     */
+    public static byte type(ByteBuffer buffer, int at) {
+        return buffer.get(at);
+    }
+
+    /**
+     * @param buffer Buffer con la trama.
+     * @param at Posición absoluta de la trama.
+     * @return Su fila.
+     */
+    public static int row(ByteBuffer buffer, int at) {
+        return buffer.get(at + 1) & 0xFF;
+    }
+
+    /**
+     * @param buffer Buffer con la trama.
+     * @param at Posición absoluta de la trama.
+     * @return Su columna.
+     */
+    public static int col(ByteBuffer buffer, int at) {
+        return buffer.get(at + 2) & 0xFF;
+    }
+
+    /**
+     * @param buffer Buffer con la trama.
+     * @param at Posición absoluta de la trama.
+     * @return Su argumento.
+     */
+    public static int arg(ByteBuffer buffer, int at) {
+        return buffer.get(at + 3) & 0xFF;
+    }
+
+    /**
+     * @param buffer Buffer con la trama.
+     * @param at Posición absoluta de la trama.
+     * @return Su valor entero.
+     */
+    public static int value(ByteBuffer buffer, int at) {
+        return buffer.getInt(at + 4);
+    }
+
+    /**
+     * Codifica la longitud y la orientación de un barco en el argumento de una trama.
+     * @param length Longitud (1-127).
+     * @param horizontal Orientación.
+     * @return El argumento.
+     */
+    public static int ship(int length, boolean horizontal) {
+        return length | (horizontal ? HORIZONTAL : 0);
+    }
+
+    /**
+     * @param arg Argumento de una trama de barco.
+     * @return La longitud del barco.
+     */
+    public static int shipLength(int arg) {
+        return arg & ~HORIZONTAL;
+    }
+
+    /**
+     * @param arg Argumento de una trama de barco.
+     * @return true si el barco es horizontal.
+     */
+    public static boolean isHorizontal(int arg) {
+        return (arg & HORIZONTAL) != 0;
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.batallanaval.net;
+
+import com.example.batallanaval.models.Board;
+import com.example.batallanaval.models.Ship;
+import com.example.batallanaval.models.ShotResult;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Cliente ligero de {@link MatchServer}: envía la flota y los disparos del jugador y
+ * avisa de lo que responde el servidor, que es quien decide los resultados.
+ * <p>
+ * Las tramas se reciben en un hilo propio ({@code batallanaval-net}) y se entregan al
+ * {@link Listener} en ese hilo; la interfaz gráfica debe pasarlas a su propio hilo. Los
+ * métodos de envío se pueden llamar desde cualquier hilo.
+ */
+public final class MatchClient implements Closeable {
+
+    private static final ShotResult[] RESULTS = ShotResult.values();
+
+    /**
+     * Recibe los mensajes del servidor, en el hilo del cliente.
+     */
+    public interface Listener {
+
+        /**
+         * Se encontró rival.
+         * @param seat Asiento propio (0 o 1).
+         */
+        void matched(int seat);
+
+        /**
+         * Las dos flotas están listas y empieza la batalla.
+         * @param firstSeat Asiento que dispara primero.
+         */
+        void started(int firstSeat);
+
+        /**
+         * Resultado de un disparo de cualquiera de los dos jugadores.
+         * @param shooterSeat Asiento que disparó.
+         * @param row Fila.
+         * @param col Columna.
+         * @param result Resultado.
+         */
+        void shotResolved(int shooterSeat, int row, int col, ShotResult result);
+
+        /**
+         * Se hundió un barco; llega justo después del disparo que lo hundió.
+         * @param ownerSeat Asiento del dueño del barco.
+         * @param ship El barco, con su posición y sin tablero.
+         */
+        void shipSunk(int ownerSeat, Ship ship);
+
+        /**
+         * La partida terminó.
+         * @param winnerSeat Asiento ganador.
+         */
+        void gameOver(int winnerSeat);
+
+        /**
+         * El servidor rechazó una trama o el rival se fue.
+         * @param code Uno de los códigos {@code Frame.ERR_*}.
+         */
+        void error(int code);
+
+        /**
+         * Se cortó la conexión.
+         * @param cause El error, o null si se cerró con {@link #close()}.
+         */
+        void disconnected(IOException cause);
+    }
+
+    private final SocketChannel channel;
+    private final Listener listener;
+    private final ByteBuffer out = ByteBuffer.allocateDirect(16 * Frame.SIZE);
+    private volatile boolean closed;
+
+    private MatchClient(SocketChannel channel, Listener listener) {
+        this.channel = channel;
+        this.listener = listener;
+    }
+
+    /**
+     * Se conecta a un servidor y empieza a recibir sus mensajes.
+     * @param address Dirección del servidor.
+     * @param listener Destino de los mensajes.
+     * @return El cliente conectado.
+     * @throws IOException si no se puede conectar.
+     */
+    public static MatchClient connect(InetSocketAddress address, Listener listener) throws IOException {
+        SocketChannel channel = SocketChannel.open(address);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        MatchClient client = new MatchClient(channel, listener);
+        Thread reader = new Thread(client::readLoop, "batallanaval-net");
+        reader.setDaemon(true);
+        reader.start();
+        return client;
+    }
+
+    /**
+     * Convierte "host:puerto" (o solo "host") en una dirección.
+     * @param spec La dirección en texto.
+     * @return La dirección; sin puerto se usa {@link MatchServer#DEFAULT_PORT}.
+     * @throws IllegalArgumentException si el puerto no es un número.
+     */
+    public static InetSocketAddress parseAddress(String spec) {
+        int colon = spec.lastIndexOf(':');
+        if (colon < 0) return new InetSocketAddress(spec, MatchServer.DEFAULT_PORT);
+        try {
+            return new InetSocketAddress(spec.substring(0, colon), Integer.parseInt(spec.substring(colon + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Dirección de servidor no válida: " + spec, e);
+        }
+    }
+
+    /**
+     * Pide rival para un tablero del lado indicado.
+     * @param boardSize Lado del tablero, como mucho {@value Frame#MAX_BOARD_SIZE}.
+     * @throws IOException si falla el envío.
+     * @throws IllegalArgumentException si el lado no cabe en una trama.
+     */
+    public synchronized void join(int boardSize) throws IOException {
+        if (boardSize < 1 || boardSize > Frame.MAX_BOARD_SIZE) {
+            throw new IllegalArgumentException("Lado no admitido en red: " + boardSize + " (máximo "
+                    + Frame.MAX_BOARD_SIZE + ")");
+        }
+        Frame.put(out, Frame.JOIN, 0, 0, boardSize, 0);
+        flush();
+    }
+
+    /**
+     * Envía la flota colocada y la marca como lista, en una sola escritura.
+     * @param board Tablero con la flota completa del jugador.
+     * @throws IOException si falla el envío.
+     */
+    public synchronized void sendFleet(Board board) throws IOException {
+        for (Ship ship : board.getFleet()) {
+            if (out.remaining() < Frame.SIZE) flush();
+            Frame.put(out, Frame.PLACE, ship.getRow(), ship.getCol(),
+                    Frame.ship(ship.getLength(), ship.isHorizontal()), 0);
+        }
+        if (out.remaining() < Frame.SIZE) flush();
+        Frame.put(out, Frame.READY, 0, 0, 0, 0);
+        flush();
+    }
+
+    /**
+     * Dispara a una casilla del rival; el resultado llega en {@link Listener#shotResolved}.
+     * @param row Fila.
+     * @param col Columna.
+     * @throws IOException si falla el envío.
+     */
+    public synchronized void shoot(int row, int col) throws IOException {
+        Frame.put(out, Frame.SHOT, row, col, 0, 0);
+        flush();
+    }
+
+    /**
+     * Cierra la conexión; el servidor da la partida por abandonada.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Ya estaba cerrada
+        }
+    }
+
+    private void flush() throws IOException {
+        out.flip();
+        try {
+            while (out.hasRemaining()) channel.write(out);
+        } finally {
+            out.clear();
+        }
+    }
+
+    private void readLoop() {
+        ByteBuffer in = ByteBuffer.allocateDirect(64 * Frame.SIZE);
+        IOException cause = null;
+        try {
+            while (channel.read(in) >= 0) {
+                in.flip();
+                while (in.remaining() >= Frame.SIZE) {
+                    int at = in.position();
+                    in.position(at + Frame.SIZE);
+                    dispatch(in, at);
+                }
+                in.compact();
+            }
+        } catch (AsynchronousCloseException e) {
+            // Cerrado con close()
+        } catch (IOException e) {
+            if (!closed) cause = e;
+        } finally {
+            closed = true;
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Ya estaba cerrada
+            }
+            listener.disconnected(cause);
+        }
+    }
+
+    private void dispatch(ByteBuffer in, int at) {
+        int arg = Frame.arg(in, at);
+        switch (Frame.type(in, at)) {
+            case Frame.MATCHED -> listener.matched(arg);
+            case Frame.START -> listener.started(arg);
+            case Frame.RESULT -> listener.shotResolved(Frame.value(in, at), Frame.row(in, at), Frame.col(in, at),
+                    RESULTS[arg]);
+            case Frame.SUNK -> {
+                Ship ship = new Ship(Frame.shipLength(arg));
+                ship.setPosition(Frame.row(in, at), Frame.col(in, at), Frame.isHorizontal(arg));
+                listener.shipSunk(Frame.value(in, at), ship);
+            }
+            case Frame.GAME_OVER -> listener.gameOver(arg);
+            case Frame.ERROR -> listener.error(arg);
+            default -> System.err.println("Trama desconocida del servidor: " + Frame.type(in, at));
+        }
+    }
+}
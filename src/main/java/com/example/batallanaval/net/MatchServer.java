@@ -0,0 +1,488 @@
+package com.example.batallanaval.net;
+
+import com.example.batallanaval.models.Board;
+import com.example.batallanaval.models.FleetSampler;
+import com.example.batallanaval.models.Ship;
+import com.example.batallanaval.models.ShotResult;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Servidor de partidas entre dos personas, no bloqueante, sobre un único {@link Selector}.
+ * <p>
+ * Los clientes hablan el protocolo de {@link Frame}. Cada {@code JOIN} entra en la sala
+ * de espera y se empareja con el siguiente; el servidor guarda los dos {@link Board} de
+ * cada partida, valida colocaciones, turnos y disparos, y envía los resultados a ambos.
+ * Al terminar una partida los dos clientes pueden volver a enviar {@code JOIN}.
+ * <p>
+ * Todo ocurre en el hilo del selector, sin bloqueos: leer una trama, aplicarla y
+ * encolar las respuestas son operaciones O(1) sin reservas de memoria. Las respuestas de
+ * una vuelta del selector se envían juntas al final de la vuelta (una escritura por
+ * conexión). Los buffers salen de un {@link BufferPool} y solo se retienen mientras hay
+ * bytes pendientes, así que decenas de miles de partidas abiertas caben en un proceso; el
+ * límite práctico suele ser el de descriptores de archivo (dos por partida).
+ * <p>
+ * Un cliente que no lee sus respuestas hasta llenar su buffer de salida se desconecta.
+ * <p>
+ * Uso: {@code MatchServer [port=7777] [size=10]}
+ */
+public final class MatchServer implements Runnable, Closeable {
+
+    /** Puerto por defecto. */
+    public static final int DEFAULT_PORT = 7777;
+
+    /** Tramas que se leen como mucho de una conexión por vuelta. */
+    private static final int IN_FRAMES = 32;
+    /** Tramas que caben pendientes de envío en una conexión. */
+    private static final int OUT_FRAMES = 128;
+    private static final int BUFFERS_PER_SLAB = 256;
+    /** Barcos de cada longitud en la flota estándar. */
+    private static final int[] FLEET_COUNTS = fleetCounts();
+
+    private final int boardSize;
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final BufferPool inPool = new BufferPool(IN_FRAMES * Frame.SIZE, BUFFERS_PER_SLAB);
+    private final BufferPool outPool = new BufferPool(OUT_FRAMES * Frame.SIZE, BUFFERS_PER_SLAB);
+    /** Conexiones con respuestas encoladas en esta vuelta. */
+    private final ArrayDeque<Connection> dirty = new ArrayDeque<>();
+    private Connection waiting;
+    private volatile boolean running = true;
+    private volatile int connections;
+    private volatile int activeMatches;
+    private volatile long finishedMatches;
+
+    /**
+     * Abre el servidor; empieza a atender al llamar a {@link #run()}.
+     * @param address Dirección de escucha (puerto 0 para uno libre).
+     * @param boardSize Lado de los tableros de todas las partidas.
+     * @throws IOException si no se puede abrir el puerto.
+     * @throws IllegalArgumentException si el tablero no cabe en una trama o no admite la
+     *         flota estándar.
+     */
+    public MatchServer(InetSocketAddress address, int boardSize) throws IOException {
+        if (boardSize < 4 || boardSize > Frame.MAX_BOARD_SIZE || boardSize > Board.MAX_SIZE) {
+            throw new IllegalArgumentException("Tamaño de tablero no admitido en red: " + boardSize);
+        }
+        this.boardSize = boardSize;
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        server.bind(address, 1024);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * @return El puerto en el que escucha.
+     * @throws IOException si el canal ya se cerró.
+     */
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    /**
+     * @return Conexiones abiertas.
+     */
+    public int getConnections() {
+        return connections;
+    }
+
+    /**
+     * @return Partidas en curso (en colocación o en batalla).
+     */
+    public int getActiveMatches() {
+        return activeMatches;
+    }
+
+    /**
+     * @return Partidas terminadas con ganador desde que arrancó el servidor.
+     */
+    public long getFinishedMatches() {
+        return finishedMatches;
+    }
+
+    /**
+     * Bucle del selector; vuelve cuando se llama a {@link #close()}.
+     */
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select(this::handle);
+                flushDirty();
+            }
+        } catch (IOException e) {
+            System.err.println("Error en el servidor de partidas: " + e.getMessage());
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                try {
+                    key.channel().close();
+                } catch (IOException ignored) {
+                    // Se está cerrando todo
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+                // Se está cerrando todo
+            }
+        }
+    }
+
+    /**
+     * Detiene el bucle y cierra todas las conexiones. Se puede llamar desde cualquier hilo.
+     */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+    }
+
+    // ========= E/S =========
+
+    private void handle(SelectionKey key) {
+        if (!key.isValid()) return;
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+        Connection connection = (Connection) key.attachment();
+        if (key.isWritable()) flush(connection);
+        if (key.isValid() && key.isReadable()) read(connection);
+    }
+
+    private void accept() {
+        try {
+            SocketChannel channel;
+            while ((channel = server.accept()) != null) {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                Connection connection = new Connection(channel);
+                connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+                connections++;
+            }
+        } catch (IOException e) {
+            // Una conexión que falla al aceptarse no afecta a las demás
+            System.err.println("No se pudo aceptar una conexión: " + e.getMessage());
+        }
+    }
+
+    private void read(Connection connection) {
+        if (connection.in == null) connection.in = inPool.acquire();
+        ByteBuffer in = connection.in;
+        try {
+            if (connection.channel.read(in) < 0) {
+                disconnect(connection);
+                return;
+            }
+        } catch (IOException e) {
+            disconnect(connection);
+            return;
+        }
+        in.flip();
+        while (in.remaining() >= Frame.SIZE) {
+            int at = in.position();
+            in.position(at + Frame.SIZE);
+            apply(connection, in, at);
+            // El buffer ya volvió a la reserva
+            if (connection.closed) return;
+        }
+        in.compact();
+        if (in.position() == 0) {
+            inPool.release(in);
+            connection.in = null;
+        }
+    }
+
+    private void send(Connection connection, byte type, int row, int col, int arg, int value) {
+        if (connection.closed) return;
+        if (connection.out == null) connection.out = outPool.acquire();
+        if (connection.out.remaining() < Frame.SIZE) {
+            flush(connection);
+            if (connection.closed) return;
+            if (connection.out == null) connection.out = outPool.acquire();
+            if (connection.out.remaining() < Frame.SIZE) {
+                // No lee sus respuestas
+                disconnect(connection);
+                return;
+            }
+        }
+        Frame.put(connection.out, type, row, col, arg, value);
+        if (!connection.dirty) {
+            connection.dirty = true;
+            dirty.add(connection);
+        }
+    }
+
+    private void flushDirty() {
+        Connection connection;
+        while ((connection = dirty.poll()) != null) {
+            connection.dirty = false;
+            flush(connection);
+        }
+    }
+
+    private void flush(Connection connection) {
+        ByteBuffer out = connection.out;
+        if (connection.closed || out == null) return;
+        out.flip();
+        try {
+            connection.channel.write(out);
+        } catch (IOException e) {
+            out.compact();
+            disconnect(connection);
+            return;
+        }
+        out.compact();
+        boolean pending = out.position() > 0;
+        if (!pending) {
+            outPool.release(out);
+            connection.out = null;
+        }
+        // Solo se pide OP_WRITE mientras el socket no admite todo lo pendiente
+        if (pending != connection.waitingWrite) {
+            connection.waitingWrite = pending;
+            connection.key.interestOps(pending ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+    }
+
+    private void disconnect(Connection connection) {
+        if (connection.closed) return;
+        connection.closed = true;
+        connections--;
+        connection.key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException ignored) {
+            // Ya no hay nada que hacer con ella
+        }
+        if (connection.in != null) inPool.release(connection.in);
+        if (connection.out != null) outPool.release(connection.out);
+        connection.in = null;
+        connection.out = null;
+        if (waiting == connection) waiting = null;
+        Match match = connection.match;
+        if (match != null) {
+            Connection opponent = match.players[1 - connection.seat];
+            end(match);
+            send(opponent, Frame.ERROR, 0, 0, Frame.ERR_OPPONENT_LEFT, 0);
+        }
+    }
+
+    // ========= PARTIDAS =========
+
+    private void apply(Connection connection, ByteBuffer in, int at) {
+        byte type = Frame.type(in, at);
+        switch (type) {
+            case Frame.JOIN -> join(connection, Frame.arg(in, at));
+            case Frame.PLACE -> place(connection, Frame.row(in, at), Frame.col(in, at), Frame.arg(in, at));
+            case Frame.READY -> ready(connection);
+            case Frame.SHOT -> shot(connection, Frame.row(in, at), Frame.col(in, at));
+            default -> error(connection, Frame.ERR_BAD_FRAME);
+        }
+    }
+
+    private void join(Connection connection, int size) {
+        if (connection.match != null || waiting == connection) {
+            error(connection, Frame.ERR_BAD_STATE);
+            return;
+        }
+        if (size != boardSize) {
+            error(connection, Frame.ERR_BAD_FRAME);
+            return;
+        }
+        if (waiting == null) {
+            waiting = connection;
+            return;
+        }
+        Match match = new Match(waiting, connection, boardSize);
+        waiting = null;
+        activeMatches++;
+        for (int seat = 0; seat < 2; seat++) {
+            Connection player = match.players[seat];
+            player.match = match;
+            player.seat = seat;
+            send(player, Frame.MATCHED, 0, 0, seat, 0);
+        }
+    }
+
+    private void place(Connection connection, int row, int col, int arg) {
+        Match match = connection.match;
+        if (match == null || match.ready[connection.seat]) {
+            error(connection, Frame.ERR_BAD_STATE);
+            return;
+        }
+        int length = Frame.shipLength(arg);
+        int[] left = match.shipsLeft[connection.seat];
+        Board board = match.boards[connection.seat];
+        Ship ship = length > 0 && length < left.length ? new Ship(length) : null;
+        if (ship == null || left[length] == 0 || !board.canPlaceShip(ship, row, col, Frame.isHorizontal(arg))) {
+            error(connection, Frame.ERR_ILLEGAL_PLACEMENT);
+            return;
+        }
+        board.placeShip(ship, row, col, Frame.isHorizontal(arg));
+        left[length]--;
+    }
+
+    private void ready(Connection connection) {
+        Match match = connection.match;
+        if (match == null || match.ready[connection.seat]) {
+            error(connection, Frame.ERR_BAD_STATE);
+            return;
+        }
+        if (!match.boards[connection.seat].isFleetComplete()) {
+            error(connection, Frame.ERR_ILLEGAL_PLACEMENT);
+            return;
+        }
+        match.ready[connection.seat] = true;
+        if (match.ready[0] && match.ready[1]) {
+            match.turn = 0;
+            send(match.players[0], Frame.START, 0, 0, 0, 0);
+            send(match.players[1], Frame.START, 0, 0, 0, 0);
+        }
+    }
+
+    private void shot(Connection connection, int row, int col) {
+        Match match = connection.match;
+        if (match == null || match.turn < 0) {
+            error(connection, Frame.ERR_BAD_STATE);
+            return;
+        }
+        int seat = connection.seat;
+        if (match.turn != seat) {
+            error(connection, Frame.ERR_NOT_YOUR_TURN);
+            return;
+        }
+        if (row >= boardSize || col >= boardSize) {
+            error(connection, Frame.ERR_BAD_FRAME);
+            return;
+        }
+        Board target = match.boards[1 - seat];
+        ShotResult result = target.shoot(row, col);
+        if (result == null) {
+            error(connection, Frame.ERR_ALREADY_SHOT);
+            return;
+        }
+        boolean over = target.isGameOver();
+        if (over) {
+            end(match);
+            finishedMatches++;
+        } else if (result == ShotResult.MISS) {
+            match.turn = 1 - seat;
+        }
+        Connection opponent = match.players[1 - seat];
+        send(connection, Frame.RESULT, row, col, result.ordinal(), seat);
+        send(opponent, Frame.RESULT, row, col, result.ordinal(), seat);
+        if (result == ShotResult.SUNK) {
+            Ship ship = target.getShipAt(row, col);
+            int arg = Frame.ship(ship.getLength(), ship.isHorizontal());
+            send(connection, Frame.SUNK, ship.getRow(), ship.getCol(), arg, 1 - seat);
+            send(opponent, Frame.SUNK, ship.getRow(), ship.getCol(), arg, 1 - seat);
+        }
+        if (over) {
+            send(connection, Frame.GAME_OVER, 0, 0, seat, 0);
+            send(opponent, Frame.GAME_OVER, 0, 0, seat, 0);
+        }
+    }
+
+    private void error(Connection connection, int code) {
+        send(connection, Frame.ERROR, 0, 0, code, 0);
+    }
+
+    /**
+     * Cierra una partida y deja a los dos jugadores libres para volver a la sala.
+     */
+    private void end(Match match) {
+        if (match.over) return;
+        match.over = true;
+        match.players[0].match = null;
+        match.players[1].match = null;
+        activeMatches--;
+    }
+
+    /**
+     * Estado de una conexión; solo lo toca el hilo del selector.
+     */
+    private static final class Connection {
+        final SocketChannel channel;
+        SelectionKey key;
+        /** Bytes recibidos sin procesar; null si no hay. */
+        ByteBuffer in;
+        /** Tramas pendientes de envío; null si no hay. */
+        ByteBuffer out;
+        Match match;
+        int seat;
+        boolean dirty;
+        boolean waitingWrite;
+        boolean closed;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * Una partida entre dos conexiones. El asiento 0 dispara primero.
+     */
+    private static final class Match {
+        final Connection[] players;
+        /** Tablero con la flota de cada asiento. */
+        final Board[] boards;
+        /** Barcos por colocar de cada longitud, por asiento. */
+        final int[][] shipsLeft = new int[2][];
+        final boolean[] ready = new boolean[2];
+        /** Asiento al que le toca disparar; -1 durante la colocación. */
+        int turn = -1;
+        boolean over;
+
+        Match(Connection first, Connection second, int boardSize) {
+            players = new Connection[]{first, second};
+            boards = new Board[]{new Board(boardSize), new Board(boardSize)};
+            shipsLeft[0] = FLEET_COUNTS.clone();
+            shipsLeft[1] = FLEET_COUNTS.clone();
+        }
+    }
+
+    private static int[] fleetCounts() {
+        int[] fleet = FleetSampler.standardFleet();
+        int max = 0;
+        for (int length : fleet) max = Math.max(max, length);
+        int[] counts = new int[max + 1];
+        for (int length : fleet) counts[length]++;
+        return counts;
+    }
+
+    /**
+     * Arranca el servidor en primer plano.
+     * @param args {@code port=<n> size=<n>}
+     * @throws IOException si no se puede abrir el puerto.
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                System.err.println("Argumento no válido: " + arg);
+                System.err.println("Uso: port=<n> size=<n>");
+                System.exit(2);
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        int port = Integer.parseInt(options.getOrDefault("port", String.valueOf(DEFAULT_PORT)));
+        int size = Integer.parseInt(options.getOrDefault("size", String.valueOf(Board.DEFAULT_SIZE)));
+        MatchServer server = new MatchServer(new InetSocketAddress(port), size);
+        System.out.println("Servidor de partidas escuchando en el puerto " + server.getPort());
+        server.run();
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.batallanaval.persistence;
+
+import com.example.batallanaval.models.Board;
+import com.example.batallanaval.models.Ship;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.BufferUnderflowException;
+
+/**
+ * Formato binario compacto y versionado para {@link Board}, sin reflexión.
+ * <p>
+ * Estructura (versión {@value #VERSION}; los enteros son varint sin signo):
+ * <pre>
+ *   byte   MAGIC
+ *   byte   versión
+ *   varint lado del tablero
+ *   varint número de barcos
+ *   por barco: varint (origen &lt;&lt; 1 | horizontal), varint longitud, varint impactos
+ *   byte   codificación de disparos: 0 = máscara de bits, 1 = lista de deltas
+ *   máscara: ⌈lado² / 8⌉ bytes, bit i = casilla i
+ *   lista:   varint número de disparos y después las distancias entre casillas consecutivas
+ * </pre>
+ * La ocupación no se guarda porque se deduce de los barcos. Se elige la codificación de
+ * disparos más corta: la máscara en tableros pequeños o muy disparados y la lista en
+ * tableros grandes. Un tablero estándar de 10x10 ocupa unos 60 bytes.
+ * <p>
+ * Al decodificar se valida todo: lado, solapes, casillas fuera del tablero y que los
+ * impactos de cada barco coincidan con los disparos. Las versiones antiguas se decodifican
+ * por su propia rama de {@link #decode(byte[])}.
+ */
+public final class BoardCodec {
+
+    static final byte MAGIC = (byte) 0xB4;
+    /** Versión que se escribe. */
+    public static final int VERSION = 1;
+
+    private static final int SHOTS_MASK = 0;
+    private static final int SHOTS_LIST = 1;
+
+    private BoardCodec() {
+    }
+
+    /**
+     * Codifica un tablero.
+     * @param board Tablero a guardar.
+     * @return Los bytes del formato actual.
+     */
+    public static byte[] encode(Board board) {
+        int size = board.getSize();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        out.write(MAGIC);
+        out.write(VERSION);
+        writeVarint(out, size);
+        writeVarint(out, board.getFleet().size());
+        for (Ship ship : board.getFleet()) {
+            int origin = ship.getRow() * size + ship.getCol();
+            writeVarint(out, ((long) origin << 1) | (ship.isHorizontal() ? 1 : 0));
+            writeVarint(out, ship.getLength());
+            writeVarint(out, ship.getLength() - ship.getRemainingLife());
+        }
+
+        long[] shots = board.getShotMask();
+        int cells = size * size;
+        int maskBytes = (cells + 7) >>> 3;
+        // Estimación del tamaño de la lista: como mucho un varint por disparo
+        if ((long) board.getShotsFired() * varintLength(Math.max(1, cells / Math.max(1, board.getShotsFired())))
+                < maskBytes) {
+            out.write(SHOTS_LIST);
+            writeVarint(out, board.getShotsFired());
+            int previous = -1;
+            for (int w = 0; w < shots.length; w++) {
+                for (long bits = shots[w]; bits != 0; bits &= bits - 1) {
+                    int cell = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    writeVarint(out, cell - previous - 1);
+                    previous = cell;
+                }
+            }
+        } else {
+            out.write(SHOTS_MASK);
+            for (int i = 0; i < maskBytes; i++) {
+                out.write((int) (shots[i >>> 3] >>> ((i & 7) << 3)));
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodifica un tablero en cualquiera de las versiones conocidas.
+     * @param data Bytes guardados.
+     * @return El tablero reconstruido.
+     * @throws IOException si los datos están dañados o son de una versión futura.
+     */
+    public static Board decode(byte[] data) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(data);
+        try {
+            if (in.get() != MAGIC) throw corrupt("firma desconocida");
+            int version = in.get() & 0xFF;
+            switch (version) {
+                case 1:
+                    return decodeV1(in);
+                default:
+                    throw new IOException("Versión de guardado no soportada: " + version);
+            }
+        } catch (BufferUnderflowException e) {
+            throw corrupt("datos truncados");
+        } catch (IllegalArgumentException | IllegalStateException | IndexOutOfBoundsException e) {
+            throw corrupt(e.getMessage());
+        }
+    }
+
+    private static Board decodeV1(ByteBuffer in) throws IOException {
+        int size = readInt(in);
+        if (size < 1 || size > Board.MAX_SIZE) throw corrupt("lado inválido " + size);
+        Board board = new Board(size);
+        int shipCount = readInt(in);
+        if (shipCount > size * size) throw corrupt("demasiados barcos");
+        int[] expectedHits = new int[shipCount];
+        Ship[] ships = new Ship[shipCount];
+        for (int i = 0; i < shipCount; i++) {
+            long packed = readVarint(in);
+            int length = readInt(in);
+            expectedHits[i] = readInt(in);
+            long origin = packed >>> 1;
+            boolean horizontal = (packed & 1) != 0;
+            if (origin >= (long) size * size || length < 1 || length > size) {
+                throw corrupt("barco fuera del tablero");
+            }
+            Ship ship = new Ship(length);
+            int row = (int) (origin / size);
+            int col = (int) (origin % size);
+            if (!board.canPlaceShip(ship, row, col, horizontal)) throw corrupt("barcos solapados");
+            board.placeShip(ship, row, col, horizontal);
+            ships[i] = ship;
+        }
+
+        int encoding = in.get();
+        int cells = size * size;
+        if (encoding == SHOTS_MASK) {
+            int maskBytes = (cells + 7) >>> 3;
+            for (int i = 0; i < maskBytes; i++) {
+                int bits = in.get() & 0xFF;
+                while (bits != 0) {
+                    int cell = (i << 3) + Integer.numberOfTrailingZeros(bits);
+                    if (cell >= cells) throw corrupt("disparo fuera del tablero");
+                    board.shoot(cell / size, cell % size);
+                    bits &= bits - 1;
+                }
+            }
+        } else if (encoding == SHOTS_LIST) {
+            int count = readInt(in);
+            long cell = -1;
+            for (int i = 0; i < count; i++) {
+                cell += readVarint(in) + 1;
+                if (cell >= cells) throw corrupt("disparo fuera del tablero");
+                board.shoot((int) (cell / size), (int) (cell % size));
+            }
+        } else {
+            throw corrupt("codificación de disparos desconocida " + encoding);
+        }
+
+        for (int i = 0; i < shipCount; i++) {
+            if (ships[i].getLength() - ships[i].getRemainingLife() != expectedHits[i]) {
+                throw corrupt("impactos incoherentes con los disparos");
+            }
+        }
+        return board;
+    }
+
+    // ========= VARINT =========
+
+    static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long readVarint(ByteBuffer in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw corrupt("varint demasiado largo");
+    }
+
+    static int readInt(ByteBuffer in) throws IOException {
+        long value = readVarint(in);
+        if (value > Integer.MAX_VALUE) throw corrupt("entero fuera de rango");
+        return (int) value;
+    }
+
+    private static int varintLength(long value) {
+        int n = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            n++;
+        }
+        return n;
+    }
+
+    private static IOException corrupt(String reason) {
+        return new IOException("Guardado corrupto: " + reason);
+    }
+}
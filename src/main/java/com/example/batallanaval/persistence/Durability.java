@@ -0,0 +1,16 @@
+package com.example.batallanaval.persistence;
+
+/**
+ * Nivel de durabilidad de los guardados: cuánto se fuerza a disco (fsync) y cuándo.
+ */
+public enum Durability {
+    /** Nunca se fuerza; el sistema operativo decide. Lo más rápido, puede perder lo último ante un corte de luz. */
+    NONE,
+    /**
+     * Se fuerzan las instantáneas (antes de vaciar el diario) y el diario en cada barrera
+     * de {@link SaveService#flush()}; los disparos sueltos no pagan un fsync cada uno.
+     */
+    SNAPSHOT,
+    /** Además se fuerza el diario tras cada escritura: ningún disparo confirmado se pierde. */
+    ALWAYS
+}
@@ -0,0 +1,409 @@
+package com.example.batallanaval.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.zip.CRC32C;
+
+/**
+ * Historial de partidas terminadas con estadísticas por jugador, en dos archivos y sin
+ * base de datos externa.
+ * <p>
+ * {@code games.dat} guarda una fila fija de {@value #ROW_BYTES} bytes por partida, solo
+ * por anexado. {@code players.dat} guarda un registro fijo de {@value #PLAYER_BYTES} bytes
+ * por jugador con sus agregados (partidas, victorias, disparos, impactos, rachas), que se
+ * actualizan en su sitio al registrar cada partida. Así ninguna consulta recorre las
+ * filas: el resumen de un jugador sale de un mapa en memoria y la clasificación de un
+ * árbol ordenado del que solo se leen las primeras entradas.
+ * <p>
+ * Cada registro de jugador guarda la última fila que ya contiene y la cabecera de
+ * {@code players.dat} cuántas filas se han aplicado; al abrir se aplican las filas que
+ * faltaran por un cierre a medias, sin contarlas dos veces. Todas las operaciones están
+ * sincronizadas.
+ */
+public final class HistoryStore implements AutoCloseable {
+
+    static final int MAGIC_GAMES = 0x424E4847;   // "BNHG"
+    static final int MAGIC_PLAYERS = 0x424E4850; // "BNHP"
+    static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    static final int ROW_BYTES = 32;
+    static final int PLAYER_BYTES = 128;
+    private static final int NICK_BYTES = SaveHeader.MAX_NICKNAME_BYTES;
+    /** Bytes del nombre (longitud, apodo y CRC) al principio de un registro de jugador. */
+    private static final int NAME_BYTES = 2 + NICK_BYTES + 4;
+
+    /**
+     * Orden de la clasificación: más victorias, mejor porcentaje, menos partidas y apodo.
+     */
+    private static final Comparator<Entry> RANKING = Comparator
+            .comparingInt((Entry e) -> -e.wins)
+            .thenComparingDouble(e -> -(double) e.wins / Math.max(1, e.games))
+            .thenComparingInt(e -> e.games)
+            .thenComparing(e -> e.nickname);
+
+    private final FileChannel games;
+    private final FileChannel players;
+    private final ByteBuffer row = ByteBuffer.allocate(ROW_BYTES);
+    private final ByteBuffer record = ByteBuffer.allocate(PLAYER_BYTES);
+    private final CRC32C crc = new CRC32C();
+
+    private long rowCount;
+    private final List<Entry> byId = new ArrayList<>();
+    private final Map<String, Entry> byName = new HashMap<>();
+    private final TreeSet<Entry> ranking = new TreeSet<>(RANKING);
+
+    private HistoryStore(FileChannel games, FileChannel players) {
+        this.games = games;
+        this.players = players;
+    }
+
+    /**
+     * Abre el historial de un directorio, creándolo si no existe.
+     * @param dir Directorio de los archivos.
+     * @return El historial abierto, con las filas pendientes ya aplicadas.
+     * @throws IOException si no se puede abrir o las cabeceras no son válidas.
+     */
+    public static HistoryStore open(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        FileChannel games = FileChannel.open(dir.resolve("games.dat"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileChannel players = null;
+        try {
+            players = FileChannel.open(dir.resolve("players.dat"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            HistoryStore store = new HistoryStore(games, players);
+            store.load();
+            return store;
+        } catch (IOException | RuntimeException e) {
+            games.close();
+            if (players != null) players.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Registra una partida terminada y actualiza los agregados de su jugador.
+     * @param nickname El apodo del jugador.
+     * @param won true si ganó el jugador.
+     * @param shots Disparos del jugador.
+     * @param hits Impactos del jugador.
+     * @param machineShots Disparos de la máquina.
+     * @param playedAt Momento de la partida, en milisegundos desde la época.
+     * @param sync true para forzar a disco antes de volver.
+     * @return Las estadísticas del jugador tras la partida.
+     * @throws IOException si falla la escritura.
+     * @throws IllegalArgumentException si el resultado no es coherente o el apodo ocupa más
+     *         de {@value SaveHeader#MAX_NICKNAME_BYTES} bytes UTF-8; el historial no cambia.
+     */
+    public synchronized PlayerStats record(String nickname, boolean won, int shots, int hits, int machineShots,
+                                           long playedAt, boolean sync) throws IOException {
+        if (shots < 0 || hits < 0 || hits > shots || machineShots < 0) {
+            throw new IllegalArgumentException("Resultado inválido: " + shots + " disparos, " + hits + " impactos");
+        }
+        if (nickname.getBytes(StandardCharsets.UTF_8).length > NICK_BYTES) {
+            throw new IllegalArgumentException("Apodo demasiado largo: " + nickname);
+        }
+        // Primero los archivos: si una escritura falla, la memoria no ha cambiado. Un nombre
+        // escrito sin su fila se reutiliza con el siguiente jugador nuevo
+        Entry entry = byName.get(nickname);
+        boolean added = entry == null;
+        if (added) {
+            entry = new Entry(byId.size(), nickname);
+            writeName(entry);
+        }
+
+        long index = rowCount;
+        row.clear();
+        row.putLong(playedAt).putInt(entry.id).put((byte) (won ? 1 : 0)).put((byte) 0).putShort((short) 0);
+        row.putInt(shots).putInt(hits).putInt(machineShots);
+        row.putInt(checksum(row.array(), 0, ROW_BYTES - 4));
+        row.flip();
+        writeFully(games, row, HEADER_BYTES + index * ROW_BYTES);
+        if (sync) games.force(false);
+
+        // La fila ya está en disco: si lo que sigue falla, la carga la vuelve a aplicar
+        rowCount++;
+        if (added) {
+            byId.add(entry);
+            byName.put(nickname, entry);
+        }
+        ranking.remove(entry);
+        entry.apply(index, won, shots, hits, playedAt);
+        ranking.add(entry);
+        writeStats(entry);
+        writeAppliedRows(rowCount);
+        if (sync) players.force(false);
+        return entry.toStats();
+    }
+
+    /**
+     * Devuelve las estadísticas de un jugador sin recorrer el historial.
+     * @param nickname El apodo del jugador.
+     * @return Sus estadísticas, o null si no tiene partidas.
+     */
+    public synchronized PlayerStats summary(String nickname) {
+        Entry entry = byName.get(nickname);
+        return entry == null || entry.games == 0 ? null : entry.toStats();
+    }
+
+    /**
+     * Devuelve los mejores jugadores: más victorias, después mejor porcentaje.
+     * Cuesta O(limit), independientemente del número de partidas.
+     * @param limit Número máximo de jugadores.
+     * @return Los jugadores en orden de clasificación.
+     */
+    public synchronized List<PlayerStats> leaderboard(int limit) {
+        List<PlayerStats> top = new ArrayList<>(Math.min(limit, ranking.size()));
+        for (Entry entry : ranking) {
+            if (top.size() == limit) break;
+            top.add(entry.toStats());
+        }
+        return top;
+    }
+
+    /** @return Número de partidas registradas. */
+    public synchronized long gameCount() {
+        return rowCount;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            games.force(false);
+            players.force(false);
+        } finally {
+            games.close();
+            players.close();
+        }
+    }
+
+    // ========= CARGA =========
+
+    private void load() throws IOException {
+        long applied = loadPlayers();
+        loadGames();
+        if (applied > rowCount) applied = rowCount;
+        // Filas escritas sin llegar a aplicarse a los agregados
+        for (long index = applied; index < rowCount; index++) {
+            readRow(index);
+            int id = row.getInt(8);
+            if (id < 0 || id >= byId.size()) continue;
+            Entry entry = byId.get(id);
+            if (index <= entry.lastRow) continue;
+            ranking.remove(entry);
+            entry.apply(index, row.get(12) != 0, row.getInt(16), row.getInt(20), row.getLong(0));
+            ranking.add(entry);
+            writeStats(entry);
+        }
+        writeAppliedRows(rowCount);
+    }
+
+    /** Lee los registros de jugadores; devuelve cuántas filas decía tener aplicadas. */
+    private long loadPlayers() throws IOException {
+        long size = players.size();
+        if (size < HEADER_BYTES) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC_PLAYERS).putInt(VERSION).putLong(0).flip();
+            writeFully(players, header, 0);
+            return 0;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(players, header, 0);
+        if (header.getInt(0) != MAGIC_PLAYERS) throw new IOException("No es un archivo de jugadores");
+        if (header.getInt(4) != VERSION) throw new IOException("Versión de historial no soportada: " + header.getInt(4));
+        long applied = header.getLong(8);
+
+        List<Entry> damaged = new ArrayList<>();
+        int count = (int) ((size - HEADER_BYTES) / PLAYER_BYTES);
+        for (int id = 0; id < count; id++) {
+            record.clear();
+            readFully(players, record, HEADER_BYTES + (long) id * PLAYER_BYTES);
+            byte[] bytes = record.array();
+            int nickLength = Math.min(NICK_BYTES, Math.max(0, record.getShort(0)));
+            String nickname = record.getInt(2 + NICK_BYTES) == checksum(bytes, 0, 2 + NICK_BYTES)
+                    ? new String(bytes, 2, nickLength, StandardCharsets.UTF_8)
+                    : "?" + id;
+            Entry entry = new Entry(id, nickname);
+            if (record.getInt(PLAYER_BYTES - 4) == checksum(bytes, NAME_BYTES, PLAYER_BYTES - 4 - NAME_BYTES)) {
+                entry.read(record);
+            } else {
+                damaged.add(entry);
+            }
+            byId.add(entry);
+            byName.putIfAbsent(nickname, entry);
+        }
+        if (!damaged.isEmpty()) {
+            rebuild(damaged);
+        }
+        // Un nombre sin partidas es de un registro que falló a medias
+        for (Entry entry : byId) {
+            if (entry.games > 0) ranking.add(entry);
+        }
+        return applied;
+    }
+
+    /** Cuenta las filas válidas y recorta una cola incompleta o dañada. */
+    private void loadGames() throws IOException {
+        long size = games.size();
+        if (size < HEADER_BYTES) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC_GAMES).putInt(VERSION).putLong(0).flip();
+            writeFully(games, header, 0);
+            games.truncate(HEADER_BYTES);
+            rowCount = 0;
+            return;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(games, header, 0);
+        if (header.getInt(0) != MAGIC_GAMES) throw new IOException("No es un archivo de partidas");
+        rowCount = (size - HEADER_BYTES) / ROW_BYTES;
+        // Solo la última fila puede estar a medias
+        while (rowCount > 0 && !readRow(rowCount - 1)) rowCount--;
+        if (HEADER_BYTES + rowCount * ROW_BYTES < size) {
+            games.truncate(HEADER_BYTES + rowCount * ROW_BYTES);
+        }
+    }
+
+    /**
+     * Recalcula desde las filas los agregados de jugadores con el registro dañado.
+     * Es el único caso que recorre el historial completo.
+     */
+    private void rebuild(List<Entry> damaged) throws IOException {
+        System.err.println("⚠️ Estadísticas dañadas de " + damaged.size() + " jugador(es), se recalculan");
+        loadGames();
+        for (long index = 0; index < rowCount; index++) {
+            readRow(index);
+            int id = row.getInt(8);
+            for (Entry entry : damaged) {
+                if (entry.id == id) entry.apply(index, row.get(12) != 0, row.getInt(16), row.getInt(20), row.getLong(0));
+            }
+        }
+        for (Entry entry : damaged) writeStats(entry);
+    }
+
+    // ========= ESCRITURA =========
+
+    private void writeName(Entry entry) throws IOException {
+        byte[] nick = entry.nickname.getBytes(StandardCharsets.UTF_8);
+        record.clear();
+        record.putShort((short) nick.length).put(nick).put(new byte[NICK_BYTES - nick.length]);
+        record.putInt(checksum(record.array(), 0, 2 + NICK_BYTES));
+        record.flip();
+        writeFully(players, record, HEADER_BYTES + (long) entry.id * PLAYER_BYTES);
+    }
+
+    private void writeStats(Entry entry) throws IOException {
+        record.clear();
+        record.position(NAME_BYTES);
+        entry.write(record);
+        while (record.position() < PLAYER_BYTES - 4) record.put((byte) 0);
+        record.putInt(checksum(record.array(), NAME_BYTES, PLAYER_BYTES - 4 - NAME_BYTES));
+        record.flip().position(NAME_BYTES);
+        writeFully(players, record, HEADER_BYTES + (long) entry.id * PLAYER_BYTES + NAME_BYTES);
+    }
+
+    private void writeAppliedRows(long applied) throws IOException {
+        ByteBuffer value = ByteBuffer.allocate(8).putLong(applied).flip();
+        writeFully(players, value, 8);
+    }
+
+    private boolean readRow(long index) throws IOException {
+        row.clear();
+        readFully(games, row, HEADER_BYTES + index * ROW_BYTES);
+        return row.getInt(ROW_BYTES - 4) == checksum(row.array(), 0, ROW_BYTES - 4);
+    }
+
+    private int checksum(byte[] bytes, int offset, int length) {
+        crc.reset();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) throw new IOException("Historial truncado");
+            position += read;
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Agregados de un jugador en memoria.
+     */
+    private static final class Entry {
+        final int id;
+        final String nickname;
+        int games;
+        int wins;
+        long shots;
+        long hits;
+        int streak;
+        int bestStreak;
+        int bestWinShots;
+        long lastPlayedAt;
+        /** Última fila incluida en los agregados (-1 = ninguna). */
+        long lastRow = -1;
+
+        Entry(int id, String nickname) {
+            this.id = id;
+            this.nickname = nickname;
+        }
+
+        void apply(long index, boolean won, int shots, int hits, long playedAt) {
+            games++;
+            this.shots += shots;
+            this.hits += hits;
+            if (won) {
+                wins++;
+                streak = streak > 0 ? streak + 1 : 1;
+                bestStreak = Math.max(bestStreak, streak);
+                if (bestWinShots == 0 || shots < bestWinShots) bestWinShots = shots;
+            } else {
+                streak = streak < 0 ? streak - 1 : -1;
+            }
+            lastPlayedAt = Math.max(lastPlayedAt, playedAt);
+            lastRow = index;
+        }
+
+        void write(ByteBuffer out) {
+            out.putInt(games).putInt(wins).putLong(shots).putLong(hits);
+            out.putInt(streak).putInt(bestStreak).putInt(bestWinShots);
+            out.putLong(lastPlayedAt).putLong(lastRow);
+        }
+
+        void read(ByteBuffer in) {
+            in.position(NAME_BYTES);
+            games = in.getInt();
+            wins = in.getInt();
+            shots = in.getLong();
+            hits = in.getLong();
+            streak = in.getInt();
+            bestStreak = in.getInt();
+            bestWinShots = in.getInt();
+            lastPlayedAt = in.getLong();
+            lastRow = in.getLong();
+        }
+
+        PlayerStats toStats() {
+            return new PlayerStats(nickname, games, wins, shots, hits, streak, bestStreak, bestWinShots, lastPlayedAt);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.batallanaval.persistence;
+
+import com.example.batallanaval.models.Board;
+import com.example.batallanaval.models.Ship;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lector de los tableros que las primeras versiones guardaban con serialización Java
+ * ({@code player_board.ser} y {@code machine_board.ser}).
+ * <p>
+ * Aquel {@code Board} era una cuadrícula de 10x10 {@code Cell} con referencias a sus
+ * {@code Ship}, y ninguna de las tres clases conserva hoy esa forma. Al leer, los
+ * descriptores de esas clases se cambian en {@link #readClassDescriptor()} por los de unas
+ * copias con los mismos campos, y con ellas se reconstruye un {@link Board} actual: la
+ * posición y la orientación de cada barco se deducen de las celdas que lo referencian.
+ * El filtro solo admite esas copias y {@link java.util.ArrayList} (con su array interno).
+ */
+final class LegacyBoardReader extends ObjectInputStream {
+
+    private static final String MODELS = "com.example.batallanaval.models.";
+
+    /** Único serialVersionUID que usaron las clases antiguas. */
+    private static final long LEGACY_UID = 1L;
+
+    private static final Map<String, Class<?>> REPLACEMENTS = Map.of(
+            MODELS + "Board", OldBoard.class,
+            MODELS + "Cell", OldCell.class,
+            MODELS + "Ship", OldShip.class,
+            "[L" + MODELS + "Cell;", OldCell[].class,
+            "[[L" + MODELS + "Cell;", OldCell[][].class);
+
+    private static final ObjectInputFilter FILTER = ObjectInputFilter.Config.createFilter(
+            "maxdepth=20;maxrefs=100000;maxbytes=16777216;"
+                    + LegacyBoardReader.class.getName() + "$*;java.util.ArrayList;java.lang.Object;!*");
+
+    private LegacyBoardReader(InputStream in) throws IOException {
+        super(in);
+        setObjectInputFilter(FILTER);
+    }
+
+    /**
+     * Lee un tablero serializado por una versión antigua.
+     * @param file El archivo {@code .ser}.
+     * @return El tablero reconstruido.
+     * @throws IOException si no se puede leer o no tiene la forma esperada.
+     */
+    static Board read(Path file) throws IOException {
+        Object root;
+        try (LegacyBoardReader in = new LegacyBoardReader(new BufferedInputStream(Files.newInputStream(file)))) {
+            root = in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new InvalidClassException(e.getMessage());
+        }
+        if (!(root instanceof OldBoard)) throw corrupt("no es un tablero");
+        try {
+            return rebuild((OldBoard) root);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            throw corrupt(e.getMessage());
+        }
+    }
+
+    @Override
+    protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+        ObjectStreamClass stream = super.readClassDescriptor();
+        Class<?> replacement = REPLACEMENTS.get(stream.getName());
+        if (replacement == null) return stream;
+        if (!replacement.isArray() && stream.getSerialVersionUID() != LEGACY_UID) {
+            throw new InvalidClassException(stream.getName(),
+                    "versión antigua desconocida " + stream.getSerialVersionUID());
+        }
+        return ObjectStreamClass.lookup(replacement);
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+        Class<?> local = desc.forClass();
+        return local != null ? local : super.resolveClass(desc);
+    }
+
+    /**
+     * Recoloca los barcos y repite los disparos sobre un tablero nuevo, comprobando que
+     * los impactos de cada barco coinciden con los guardados.
+     */
+    private static Board rebuild(OldBoard old) throws IOException {
+        OldCell[][] grid = old.grid;
+        int size = grid == null ? 0 : grid.length;
+        if (size < 1 || size > Board.MAX_SIZE) throw corrupt("cuadrícula inválida");
+        for (OldCell[] row : grid) {
+            if (row == null || row.length != size) throw corrupt("cuadrícula inválida");
+        }
+        Board board = new Board(size);
+        List<OldShip> fleet = old.fleet == null ? List.of() : old.fleet;
+        Ship[] ships = new Ship[fleet.size()];
+        for (int i = 0; i < ships.length; i++) {
+            OldShip ship = fleet.get(i);
+            if (ship == null) throw corrupt("barco nulo");
+            ships[i] = placeShip(board, grid, ship);
+        }
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                OldCell cell = grid[r][c];
+                if (cell == null) throw corrupt("celda nula");
+                if (cell.hasShip && board.getShipAt(r, c) == null) throw corrupt("celda de un barco fuera de la flota");
+                if (cell.shot) board.shoot(r, c);
+            }
+        }
+        for (int i = 0; i < ships.length; i++) {
+            if (ships[i].getLength() - ships[i].getRemainingLife() != fleet.get(i).hits) {
+                throw corrupt("impactos incoherentes con los disparos");
+            }
+        }
+        return board;
+    }
+
+    /** Coloca un barco en las celdas que lo referenciaban, que deben formar una línea. */
+    private static Ship placeShip(Board board, OldCell[][] grid, OldShip old) throws IOException {
+        int size = grid.length;
+        int first = -1;
+        int last = -1;
+        int count = 0;
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                if (grid[r][c] != null && grid[r][c].ship == old) {
+                    if (first < 0) first = r * size + c;
+                    last = r * size + c;
+                    count++;
+                }
+            }
+        }
+        if (count == 0 || count != old.length) throw corrupt("barco sin sus celdas");
+        int row = first / size;
+        int col = first % size;
+        boolean horizontal = last / size == row;
+        for (int i = 0; i < count; i++) {
+            int r = row + (horizontal ? 0 : i);
+            int c = col + (horizontal ? i : 0);
+            if (r >= size || c >= size || grid[r][c] == null || grid[r][c].ship != old) throw corrupt("barco partido");
+        }
+        Ship ship = new Ship(old.length);
+        if (!board.canPlaceShip(ship, row, col, horizontal)) throw corrupt("barcos solapados");
+        board.placeShip(ship, row, col, horizontal);
+        return ship;
+    }
+
+    private static IOException corrupt(String reason) {
+        return new IOException("Guardado antiguo corrupto: " + reason);
+    }
+
+    // ========= FORMA ANTIGUA =========
+    // Mismos nombres y tipos de campo que las clases del modelo serializadas entonces.
+
+    private static final class OldBoard implements Serializable {
+        private static final long serialVersionUID = LEGACY_UID;
+        private List<OldShip> fleet;
+        private OldCell[][] grid;
+    }
+
+    private static final class OldCell implements Serializable {
+        private static final long serialVersionUID = LEGACY_UID;
+        private boolean hasShip;
+        private OldShip ship;
+        private boolean shot;
+    }
+
+    private static final class OldShip implements Serializable {
+        private static final long serialVersionUID = LEGACY_UID;
+        private int hits;
+        private int length;
+        private boolean placed;
+    }
+}
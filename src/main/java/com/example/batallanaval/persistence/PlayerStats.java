@@ -0,0 +1,88 @@
+package com.example.batallanaval.persistence;
+
+/**
+ * Estadísticas acumuladas de un jugador, tal como las mantiene {@link HistoryStore}.
+ * Es una foto inmutable: no cambia aunque se registren más partidas.
+ */
+public final class PlayerStats {
+
+    private final String nickname;
+    private final int games;
+    private final int wins;
+    private final long shots;
+    private final long hits;
+    private final int streak;
+    private final int bestStreak;
+    private final int bestWinShots;
+    private final long lastPlayedAt;
+
+    PlayerStats(String nickname, int games, int wins, long shots, long hits,
+                int streak, int bestStreak, int bestWinShots, long lastPlayedAt) {
+        this.nickname = nickname;
+        this.games = games;
+        this.wins = wins;
+        this.shots = shots;
+        this.hits = hits;
+        this.streak = streak;
+        this.bestStreak = bestStreak;
+        this.bestWinShots = bestWinShots;
+        this.lastPlayedAt = lastPlayedAt;
+    }
+
+    /** @return El apodo del jugador. */
+    public String getNickname() {
+        return nickname;
+    }
+
+    /** @return Partidas terminadas. */
+    public int getGames() {
+        return games;
+    }
+
+    /** @return Partidas ganadas. */
+    public int getWins() {
+        return wins;
+    }
+
+    /** @return Partidas perdidas. */
+    public int getLosses() {
+        return games - wins;
+    }
+
+    /** @return Fracción de partidas ganadas, entre 0 y 1. */
+    public double getWinRate() {
+        return games == 0 ? 0 : (double) wins / games;
+    }
+
+    /** @return Disparos medios del jugador por partida. */
+    public double getAverageShots() {
+        return games == 0 ? 0 : (double) shots / games;
+    }
+
+    /** @return Fracción de disparos del jugador que fueron impacto, entre 0 y 1. */
+    public double getAccuracy() {
+        return shots == 0 ? 0 : (double) hits / shots;
+    }
+
+    /**
+     * @return Racha actual: positiva si son victorias seguidas, negativa si son derrotas.
+     */
+    public int getStreak() {
+        return streak;
+    }
+
+    /** @return La racha de victorias más larga. */
+    public int getBestStreak() {
+        return bestStreak;
+    }
+
+    /** @return Menos disparos con los que ganó una partida, o 0 si aún no ha ganado. */
+    public int getBestWinShots() {
+        return bestWinShots;
+    }
+
+    /** @return Momento de la última partida, en milisegundos desde la época. */
+    public long getLastPlayedAt() {
+        return lastPlayedAt;
+    }
+}
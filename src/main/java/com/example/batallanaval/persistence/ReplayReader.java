@@ -0,0 +1,345 @@
+package com.example.batallanaval.persistence;
+
+import com.example.batallanaval.models.Board;
+import com.example.batallanaval.models.ShotResult;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lector en streaming de repeticiones escritas con {@link ReplayWriter}.
+ * <p>
+ * Lee el archivo a través de un búfer fijo, así que recorrer miles de repeticiones no
+ * depende de su tamaño. Al abrir solo se leen la cabecera y el pie; los disparos se
+ * decodifican de uno en uno con {@link #next()} sin crear objetos, y los fotogramas
+ * clave que aparecen por el camino se saltan sin decodificarlos.
+ * {@link #seek(int)} y {@link #boardsAt(int)} saltan al fotograma clave anterior al
+ * turno pedido y avanzan desde ahí, como mucho un intervalo de disparos.
+ * <p>
+ * No es seguro entre hilos.
+ */
+public final class ReplayReader implements AutoCloseable {
+
+    private static final int TRAILER_BYTES = 8 + 4;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+    /** Posición en el archivo del primer byte del búfer. */
+    private long bufferStart;
+
+    private final int keyframeInterval;
+    private final long playedAt;
+    private final String nickname;
+    private final byte[] playerFleet;
+    private final byte[] machineFleet;
+    private final int boardSize;
+    private final long bodyStart;
+    private final int eventCount;
+    private final boolean playerWon;
+    private final long[] keyframeOffsets;
+
+    /** Índice del próximo disparo que devolverá {@link #next()}. */
+    private int nextTurn;
+    private final int[] previous = new int[2];
+    private boolean onPlayerBoard;
+    private int cell;
+    private ShotResult result;
+
+    private ReplayReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        long size = channel.size();
+        this.fileSize = size;
+        buffer.limit(0);
+        if (size < TRAILER_BYTES) throw corrupt("archivo demasiado corto");
+        moveTo(size - TRAILER_BYTES);
+        long footer = readLong();
+        if (readInt() != ReplayWriter.MAGIC || footer < 0 || footer > size - TRAILER_BYTES) {
+            throw corrupt("pie no encontrado");
+        }
+
+        moveTo(0);
+        if (readInt() != ReplayWriter.MAGIC) throw corrupt("firma desconocida");
+        int version = readByte() & 0xFF;
+        if (version != ReplayWriter.VERSION) throw new IOException("Versión de repetición no soportada: " + version);
+        keyframeInterval = readCount();
+        if (keyframeInterval < 1) throw corrupt("intervalo de fotogramas inválido");
+        playedAt = readLong();
+        nickname = new String(readBytes(readCount()), StandardCharsets.UTF_8);
+        playerFleet = readBytes(readCount());
+        machineFleet = readBytes(readCount());
+        boardSize = BoardCodec.decode(playerFleet).getSize();
+        bodyStart = position();
+
+        moveTo(footer);
+        eventCount = readCount();
+        int winner = readByte();
+        if (winner != ReplayWriter.WINNER_PLAYER && winner != ReplayWriter.WINNER_MACHINE) {
+            throw corrupt("ganador desconocido");
+        }
+        playerWon = winner == ReplayWriter.WINNER_PLAYER;
+        int keyframes = readCount();
+        if (keyframes > eventCount / keyframeInterval) throw corrupt("demasiados fotogramas clave");
+        keyframeOffsets = new long[keyframes];
+        long offset = 0;
+        for (int i = 0; i < keyframes; i++) {
+            offset += readVarint();
+            if (offset < bodyStart || offset >= footer) throw corrupt("fotograma clave fuera del archivo");
+            keyframeOffsets[i] = offset;
+        }
+        moveTo(bodyStart);
+    }
+
+    /**
+     * Abre una repetición leyendo solo su cabecera y su pie.
+     * @param file Archivo de repetición.
+     * @return El lector, situado antes del primer disparo.
+     * @throws IOException si no se puede leer o está dañado.
+     */
+    public static ReplayReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new ReplayReader(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** @return El apodo del jugador. */
+    public String getNickname() {
+        return nickname;
+    }
+
+    /** @return Momento de la partida, en milisegundos desde la época. */
+    public long getPlayedAt() {
+        return playedAt;
+    }
+
+    /** @return Lado de los tableros. */
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    /** @return Número total de disparos. */
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    /** @return true si ganó el jugador. */
+    public boolean isPlayerWinner() {
+        return playerWon;
+    }
+
+    /** @return Disparos entre fotogramas clave. */
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    /**
+     * @return Tablero nuevo con la flota inicial del jugador, sin disparos.
+     * @throws IOException si la flota guardada está dañada.
+     */
+    public Board initialPlayerBoard() throws IOException {
+        return BoardCodec.decode(playerFleet);
+    }
+
+    /**
+     * @return Tablero nuevo con la flota inicial de la máquina, sin disparos.
+     * @throws IOException si la flota guardada está dañada.
+     */
+    public Board initialMachineBoard() throws IOException {
+        return BoardCodec.decode(machineFleet);
+    }
+
+    /**
+     * Avanza al siguiente disparo; sus datos quedan en {@link #turn()},
+     * {@link #isOnPlayerBoard()}, {@link #getCell()} y {@link #getResult()}.
+     * @return false si ya no quedan disparos.
+     * @throws IOException si falla la lectura o el archivo está dañado.
+     */
+    public boolean next() throws IOException {
+        if (nextTurn >= eventCount) return false;
+        long value = readVarint();
+        while ((value & 1) != 0) {
+            if (value != ReplayWriter.TAG_KEYFRAME) throw corrupt("registro desconocido");
+            skip(readCount());
+            skip(readCount());
+            previous[0] = 0;
+            previous[1] = 0;
+            value = readVarint();
+        }
+        value >>>= 1;
+        int side = (int) (value >>> 2) & 1;
+        long zigzag = value >>> 3;
+        long delta = (zigzag >>> 1) ^ -(zigzag & 1);
+        long target = previous[side] + delta;
+        if (target < 0 || target >= (long) boardSize * boardSize) throw corrupt("disparo fuera del tablero");
+        cell = (int) target;
+        previous[side] = cell;
+        onPlayerBoard = side == 1;
+        result = switch ((int) (value & 3)) {
+            case ReplayWriter.RESULT_MISS -> ShotResult.MISS;
+            case ReplayWriter.RESULT_HIT -> ShotResult.HIT;
+            case ReplayWriter.RESULT_SUNK -> ShotResult.SUNK;
+            default -> throw corrupt("resultado desconocido");
+        };
+        nextTurn++;
+        return true;
+    }
+
+    /** @return Índice del disparo actual (el último devuelto por {@link #next()}). */
+    public int turn() {
+        return nextTurn - 1;
+    }
+
+    /** @return true si el disparo actual fue sobre el tablero del jugador. */
+    public boolean isOnPlayerBoard() {
+        return onPlayerBoard;
+    }
+
+    /** @return Casilla del disparo actual, como {@code fila * tamaño + columna}. */
+    public int getCell() {
+        return cell;
+    }
+
+    /** @return Resultado del disparo actual. */
+    public ShotResult getResult() {
+        return result;
+    }
+
+    /**
+     * Sitúa el lector para que el siguiente {@link #next()} devuelva el disparo {@code turn}.
+     * @param turn Índice del disparo, entre 0 y {@link #getEventCount()}.
+     * @throws IOException si falla la lectura.
+     */
+    public void seek(int turn) throws IOException {
+        int keyframe = startKeyframe(turn);
+        moveToKeyframe(keyframe);
+        while (nextTurn < turn) next();
+    }
+
+    /**
+     * Reconstruye los dos tableros justo antes del disparo {@code turn} y deja el lector
+     * situado en ese disparo.
+     * @param turn Índice del disparo, entre 0 y {@link #getEventCount()}.
+     * @return {tablero del jugador, tablero de la máquina}.
+     * @throws IOException si falla la lectura o el archivo está dañado.
+     */
+    public Board[] boardsAt(int turn) throws IOException {
+        int keyframe = startKeyframe(turn);
+        Board player;
+        Board machine;
+        if (keyframe == 0) {
+            moveToKeyframe(0);
+            player = initialPlayerBoard();
+            machine = initialMachineBoard();
+        } else {
+            moveTo(keyframeOffsets[keyframe - 1]);
+            if (readVarint() != ReplayWriter.TAG_KEYFRAME) throw corrupt("fotograma clave no encontrado");
+            player = BoardCodec.decode(readBytes(readCount()));
+            machine = BoardCodec.decode(readBytes(readCount()));
+            nextTurn = keyframe * keyframeInterval;
+            previous[0] = 0;
+            previous[1] = 0;
+        }
+        while (nextTurn < turn && next()) {
+            Board target = onPlayerBoard ? player : machine;
+            target.shoot(cell / boardSize, cell % boardSize);
+        }
+        return new Board[] { player, machine };
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // ========= INTERNOS =========
+
+    private int startKeyframe(int turn) {
+        if (turn < 0 || turn > eventCount) {
+            throw new IllegalArgumentException("Turno fuera de la repetición: " + turn);
+        }
+        return Math.min(turn / keyframeInterval, keyframeOffsets.length);
+    }
+
+    private void moveToKeyframe(int keyframe) {
+        moveTo(keyframe == 0 ? bodyStart : keyframeOffsets[keyframe - 1]);
+        nextTurn = keyframe * keyframeInterval;
+        previous[0] = 0;
+        previous[1] = 0;
+    }
+
+    private long position() {
+        return bufferStart + buffer.position();
+    }
+
+    private void moveTo(long position) {
+        if (position >= bufferStart && position <= bufferStart + buffer.limit()) {
+            buffer.position((int) (position - bufferStart));
+        } else {
+            bufferStart = position;
+            buffer.clear().limit(0);
+        }
+    }
+
+    private byte readByte() throws IOException {
+        if (!buffer.hasRemaining()) {
+            bufferStart += buffer.limit();
+            buffer.clear();
+            int read = channel.read(buffer, bufferStart);
+            buffer.flip();
+            if (read <= 0) throw new EOFException("Repetición truncada");
+        }
+        return buffer.get();
+    }
+
+    private byte[] readBytes(int length) throws IOException {
+        if (length > fileSize - position()) throw corrupt("longitud inválida");
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) bytes[i] = readByte();
+        return bytes;
+    }
+
+    private void skip(int length) {
+        moveTo(position() + length);
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw corrupt("varint demasiado largo");
+    }
+
+    private int readCount() throws IOException {
+        long value = readVarint();
+        if (value > Integer.MAX_VALUE) throw corrupt("entero fuera de rango");
+        return (int) value;
+    }
+
+    private int readInt() throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) value = (value << 8) | (readByte() & 0xFF);
+        return value;
+    }
+
+    private long readLong() throws IOException {
+        long value = 0;
+        for (int i = 0; i < 8; i++) value = (value << 8) | (readByte() & 0xFF);
+        return value;
+    }
+
+    private static IOException corrupt(String reason) {
+        return new IOException("Repetición dañada: " + reason);
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.batallanaval.persistence;
+
+import com.example.batallanaval.models.Board;
+import com.example.batallanaval.models.Ship;
+import com.example.batallanaval.models.ShotResult;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Escribe una repetición de partida ({@value #EXTENSION}) en streaming.
+ * <p>
+ * Estructura (versión {@value #VERSION}; los enteros son varint salvo que se diga):
+ * <pre>
+ *   int    MAGIC, byte versión
+ *   varint intervalo entre fotogramas clave (en disparos)
+ *   long   momento de la partida (milisegundos desde la época)
+ *   varint longitud + apodo UTF-8
+ *   varint longitud + flota inicial del jugador ({@link BoardCodec}, sin disparos)
+ *   varint longitud + flota inicial de la máquina
+ *   registros:
+ *     disparo:          varint (zigzag(delta) &lt;&lt; 3 | bando &lt;&lt; 2 | resultado) &lt;&lt; 1
+ *     fotograma clave:  varint 1, y los dos tableros completos con varint de longitud
+ *   pie: varint disparos, byte ganador (1 jugador, 2 máquina), varint fotogramas y sus
+ *        posiciones como diferencias con la anterior
+ *   cola: long posición del pie, int MAGIC
+ * </pre>
+ * El delta de un disparo es la distancia a la casilla del disparo anterior del mismo bando,
+ * así que las rachas de la máquina alrededor de un impacto ocupan un byte. Cada
+ * {@code intervalo} disparos se escribe un fotograma clave con los dos tableros, que
+ * además reinicia los deltas: {@link ReplayReader} puede saltar a cualquier turno
+ * decodificando como mucho un intervalo de disparos.
+ * <p>
+ * Se escribe en un archivo temporal que solo se renombra al llamar a {@link #finish}.
+ */
+public final class ReplayWriter implements AutoCloseable {
+
+    /** Extensión de los archivos de repetición. */
+    public static final String EXTENSION = ".bnr";
+
+    static final int MAGIC = 0x424E5250; // "BNRP"
+    static final int VERSION = 1;
+    /** Disparos entre fotogramas clave por defecto. */
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 32;
+
+    static final int TAG_KEYFRAME = 1;
+    static final int RESULT_MISS = 0;
+    static final int RESULT_HIT = 1;
+    static final int RESULT_SUNK = 2;
+    static final int WINNER_PLAYER = 1;
+    static final int WINNER_MACHINE = 2;
+
+    private final Path file;
+    private final Path temp;
+    private final OutputStream out;
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream(64);
+    private final ByteArrayOutputStream keyframes = new ByteArrayOutputStream();
+    private final int keyframeInterval;
+    private final Board player;
+    private final Board machine;
+    private long position;
+    private long lastKeyframe;
+    private int keyframeCount;
+    private int events;
+    private final int[] previous = new int[2];
+    private boolean finished;
+
+    /**
+     * Abre una repetición nueva con las flotas iniciales de la partida.
+     * @param file Archivo de destino.
+     * @param nickname El apodo del jugador.
+     * @param playedAt Momento de la partida, en milisegundos desde la época.
+     * @param playerFleet Tablero con la flota del jugador (sus disparos se ignoran).
+     * @param machineFleet Tablero con la flota de la máquina (sus disparos se ignoran).
+     * @param keyframeInterval Disparos entre fotogramas clave.
+     * @throws IOException si no se puede crear el archivo.
+     */
+    public ReplayWriter(Path file, String nickname, long playedAt, Board playerFleet, Board machineFleet,
+                        int keyframeInterval) throws IOException {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("Intervalo de fotogramas inválido: " + keyframeInterval);
+        }
+        this.file = file;
+        this.temp = file.resolveSibling(file.getFileName() + ".tmp");
+        this.keyframeInterval = keyframeInterval;
+        this.player = fleetOf(playerFleet);
+        this.machine = fleetOf(machineFleet);
+        this.out = new BufferedOutputStream(Files.newOutputStream(temp), 1 << 14);
+
+        record.reset();
+        writeInt(record, MAGIC);
+        record.write(VERSION);
+        BoardCodec.writeVarint(record, keyframeInterval);
+        for (int shift = 56; shift >= 0; shift -= 8) record.write((int) (playedAt >>> shift));
+        writeBytes(record, nickname.getBytes(StandardCharsets.UTF_8));
+        writeBytes(record, BoardCodec.encode(player));
+        writeBytes(record, BoardCodec.encode(machine));
+        flushRecord();
+    }
+
+    /**
+     * Registra el siguiente disparo, calculando su resultado sobre las flotas.
+     * @param onPlayerBoard true si fue sobre el tablero del jugador.
+     * @param cell Casilla empaquetada como {@code fila * tamaño + columna}.
+     * @return El resultado del disparo.
+     * @throws IOException si falla la escritura.
+     * @throws IllegalArgumentException si la casilla ya estaba disparada.
+     */
+    public ShotResult record(boolean onPlayerBoard, int cell) throws IOException {
+        if (events > 0 && events % keyframeInterval == 0) writeKeyframe();
+
+        Board target = onPlayerBoard ? player : machine;
+        int size = target.getSize();
+        ShotResult result = target.shoot(cell / size, cell % size);
+        if (result == null) {
+            throw new IllegalArgumentException("Disparo repetido en la repetición: " + cell);
+        }
+        int side = onPlayerBoard ? 1 : 0;
+        long delta = cell - previous[side];
+        previous[side] = cell;
+        long zigzag = (delta << 1) ^ (delta >> 63);
+        record.reset();
+        BoardCodec.writeVarint(record, ((zigzag << 3 | side << 2 | resultCode(result)) << 1));
+        flushRecord();
+        events++;
+        return result;
+    }
+
+    /**
+     * Escribe el pie y publica el archivo con un renombrado atómico.
+     * @param playerWon true si ganó el jugador.
+     * @throws IOException si falla la escritura.
+     */
+    public void finish(boolean playerWon) throws IOException {
+        long footer = position;
+        record.reset();
+        BoardCodec.writeVarint(record, events);
+        record.write(playerWon ? WINNER_PLAYER : WINNER_MACHINE);
+        BoardCodec.writeVarint(record, keyframeCount);
+        keyframes.writeTo(record);
+        for (int shift = 56; shift >= 0; shift -= 8) record.write((int) (footer >>> shift));
+        writeInt(record, MAGIC);
+        flushRecord();
+        out.close();
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        finished = true;
+    }
+
+    /**
+     * Cierra el archivo; si no se llamó a {@link #finish}, descarta la repetición.
+     * @throws IOException si falla el cierre.
+     */
+    @Override
+    public void close() throws IOException {
+        if (finished) return;
+        out.close();
+        Files.deleteIfExists(temp);
+    }
+
+    private void writeKeyframe() throws IOException {
+        BoardCodec.writeVarint(keyframes, position - lastKeyframe);
+        lastKeyframe = position;
+        keyframeCount++;
+        record.reset();
+        BoardCodec.writeVarint(record, TAG_KEYFRAME);
+        writeBytes(record, BoardCodec.encode(player));
+        writeBytes(record, BoardCodec.encode(machine));
+        flushRecord();
+        previous[0] = 0;
+        previous[1] = 0;
+    }
+
+    private void flushRecord() throws IOException {
+        record.writeTo(out);
+        position += record.size();
+    }
+
+    static int resultCode(ShotResult result) {
+        return switch (result) {
+            case MISS -> RESULT_MISS;
+            case HIT -> RESULT_HIT;
+            case SUNK -> RESULT_SUNK;
+        };
+    }
+
+    /**
+     * Copia solo los barcos de un tablero, sin disparos.
+     */
+    static Board fleetOf(Board board) {
+        Board fleet = new Board(board.getSize());
+        for (Ship ship : board.getFleet()) {
+            fleet.placeShip(new Ship(ship.getLength()), ship.getRow(), ship.getCol(), ship.isHorizontal());
+        }
+        return fleet;
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private static void writeBytes(ByteArrayOutputStream out, byte[] bytes) {
+        BoardCodec.writeVarint(out, bytes.length);
+        out.writeBytes(bytes);
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.batallanaval.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Archivo de guardado a prueba de cortes.
+ * <p>
+ * Cada archivo es un registro con cabecera:
+ * <pre>
+ *   int  MAGIC
+ *   long generación (crece en cada escritura)
+ *   int  longitud del contenido
+ *   int  CRC32C de generación, longitud y contenido
+ *   byte[] contenido
+ * </pre>
+ * Se escribe primero en {@code nombre.tmp}, se fuerza a disco si la durabilidad lo pide,
+ * la versión actual pasa a {@code nombre.prev} y el temporal se renombra de forma atómica
+ * sobre {@code nombre}. Al leer se valida el CRC y, si la versión actual falta o está
+ * dañada, se recurre a la generación anterior.
+ */
+final class SaveFile {
+
+    static final int MAGIC = 0x424E5356; // "BNSV"
+    private static final int HEADER_BYTES = 4 + 8 + 4 + 4;
+
+    private SaveFile() {
+    }
+
+    /**
+     * Escribe el contenido de forma atómica conservando la generación anterior.
+     * @param file Archivo destino.
+     * @param payload Contenido.
+     * @param sync true para forzar a disco el archivo y el directorio.
+     * @throws IOException si falla la escritura.
+     */
+    static void write(Path file, byte[] payload, boolean sync) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        long generation = latestGeneration(file) + 1;
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        buffer.putInt(MAGIC).putLong(generation).putInt(payload.length).putInt(checksum(generation, payload));
+        buffer.put(payload).flip();
+
+        Path tmp = sibling(file, ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) ch.write(buffer);
+            if (sync) ch.force(true);
+        }
+        if (Files.exists(file)) {
+            move(file, sibling(file, ".prev"));
+        }
+        move(tmp, file);
+        if (sync) syncDirectory(dir);
+    }
+
+    /**
+     * Lee la generación válida más reciente.
+     * @param file Archivo.
+     * @return El contenido, o null si no hay ninguna generación válida.
+     */
+    static byte[] readLatest(Path file) {
+        byte[] current = read(file);
+        if (current != null) return current;
+        byte[] previous = read(sibling(file, ".prev"));
+        if (previous != null && Files.exists(file)) {
+            System.err.println("⚠️ Guardado dañado, se recupera la generación anterior: " + file);
+        }
+        return previous;
+    }
+
+    /**
+     * Borra todas las generaciones del archivo.
+     * @param file Archivo.
+     * @throws IOException si no se pueden borrar.
+     */
+    static void delete(Path file) throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(sibling(file, ".prev"));
+        Files.deleteIfExists(sibling(file, ".tmp"));
+    }
+
+    /**
+     * Indica si los bytes empiezan con la firma de este formato.
+     * @param data Bytes leídos.
+     * @return true si es un registro de SaveFile (válido o no).
+     */
+    static boolean hasMagic(byte[] data) {
+        return data.length >= 4 && ByteBuffer.wrap(data).getInt() == MAGIC;
+    }
+
+    private static byte[] read(Path file) {
+        try {
+            if (!Files.exists(file)) return null;
+            ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (in.remaining() < HEADER_BYTES || in.getInt() != MAGIC) return null;
+            long generation = in.getLong();
+            int length = in.getInt();
+            int crc = in.getInt();
+            if (length < 0 || length != in.remaining()) return null;
+            byte[] payload = new byte[length];
+            in.get(payload);
+            return checksum(generation, payload) == crc ? payload : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static long latestGeneration(Path file) {
+        long latest = 0;
+        for (Path candidate : new Path[] { file, sibling(file, ".prev") }) {
+            try {
+                if (!Files.exists(candidate)) continue;
+                try (FileChannel ch = FileChannel.open(candidate, StandardOpenOption.READ)) {
+                    ByteBuffer header = ByteBuffer.allocate(12);
+                    while (header.hasRemaining() && ch.read(header) >= 0) { }
+                    header.flip();
+                    if (header.remaining() == 12 && header.getInt() == MAGIC) {
+                        latest = Math.max(latest, header.getLong());
+                    }
+                }
+            } catch (IOException ignored) {
+                // Una generación ilegible no impide escribir la siguiente
+            }
+        }
+        return latest;
+    }
+
+    static int checksum(long generation, byte[] payload) {
+        CRC32C crc = new CRC32C();
+        ByteBuffer header = ByteBuffer.allocate(12).putLong(generation).putInt(payload.length);
+        crc.update(header.array());
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static void move(Path from, Path to) throws IOException {
+        try {
+            Files.move(from, to, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Fuerza a disco la entrada del directorio para que el renombrado sobreviva a un corte.
+     * Algunos sistemas (Windows) no permiten abrir directorios; ahí basta con el rename.
+     */
+    private static void syncDirectory(Path dir) {
+        try (FileChannel ch = FileChannel.open(dir, StandardOpenOption.READ)) {
+            ch.force(true);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static Path sibling(Path file, String suffix) {
+        return file.resolveSibling(file.getFileName() + suffix);
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.batallanaval.persistence;
+
+import com.example.batallanaval.models.Board;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Cabecera de una partida guardada: lo que la pantalla de bienvenida necesita mostrar
+ * sin decodificar los tableros.
+ * <p>
+ * Se guarda en la entrada del índice de {@link SlotStore}, así que leerla solo toca la
+ * primera página del archivo de ranuras.
+ */
+public final class SaveHeader {
+
+    /** Bytes UTF-8 que caben de un apodo en las ranuras y en el historial. */
+    public static final int MAX_NICKNAME_BYTES = 64;
+
+    private final String nickname;
+    private final boolean placementPhase;
+    private final int turns;
+    private final int playerShipsLeft;
+    private final int machineShipsLeft;
+
+    /**
+     * @param nickname El apodo del jugador; se recorta con {@link #fitNickname}.
+     * @param placementPhase Si el juego está en fase de colocación.
+     * @param turns Disparos hechos por el jugador.
+     * @param playerShipsLeft Barcos a flote del jugador.
+     * @param machineShipsLeft Barcos a flote de la máquina.
+     */
+    public SaveHeader(String nickname, boolean placementPhase, int turns, int playerShipsLeft, int machineShipsLeft) {
+        this.nickname = fitNickname(nickname);
+        this.placementPhase = placementPhase;
+        this.turns = turns;
+        this.playerShipsLeft = playerShipsLeft;
+        this.machineShipsLeft = machineShipsLeft;
+    }
+
+    /**
+     * Construye la cabecera a partir del estado de la partida.
+     * @param nickname El apodo del jugador.
+     * @param placementPhase Si el juego está en fase de colocación.
+     * @param player Tablero del jugador.
+     * @param machine Tablero de la máquina.
+     * @return La cabecera.
+     */
+    public static SaveHeader of(String nickname, boolean placementPhase, Board player, Board machine) {
+        return new SaveHeader(nickname, placementPhase, machine.getShotsFired(),
+                player.getShipsRemaining(), machine.getShipsRemaining());
+    }
+
+    /**
+     * Recorta un apodo a {@value #MAX_NICKNAME_BYTES} bytes UTF-8 sin partir ningún carácter,
+     * que es como queda guardado.
+     * @param nickname El apodo.
+     * @return El apodo tal cual si cabe, o su prefijo más largo que cabe.
+     */
+    public static String fitNickname(String nickname) {
+        if (nickname.length() * 3 <= MAX_NICKNAME_BYTES
+                || nickname.getBytes(StandardCharsets.UTF_8).length <= MAX_NICKNAME_BYTES) {
+            return nickname;
+        }
+        int bytes = 0;
+        int end = 0;
+        while (end < nickname.length()) {
+            int cp = nickname.codePointAt(end);
+            int length = cp < 0x80 ? 1 : cp < 0x800 ? 2 : cp < 0x10000 ? 3 : 4;
+            if (bytes + length > MAX_NICKNAME_BYTES) break;
+            bytes += length;
+            end += Character.charCount(cp);
+        }
+        return nickname.substring(0, end);
+    }
+
+    /**
+     * Cabecera de una ranura cuyo índice se perdió; no se sabe nada de la partida hasta
+     * decodificar su instantánea.
+     * @return Una cabecera con el apodo vacío.
+     */
+    static SaveHeader unknown() {
+        return new SaveHeader("", false, 0, 0, 0);
+    }
+
+    /** @return true si la cabecera es la de {@link #unknown()} y hay que rehacerla. */
+    public boolean isUnknown() {
+        return nickname.isEmpty();
+    }
+
+    /** @return El apodo del jugador. */
+    public String getNickname() {
+        return nickname;
+    }
+
+    /** @return Si el juego está en fase de colocación. */
+    public boolean isPlacementPhase() {
+        return placementPhase;
+    }
+
+    /** @return Disparos hechos por el jugador. */
+    public int getTurns() {
+        return turns;
+    }
+
+    /** @return Barcos a flote del jugador. */
+    public int getPlayerShipsLeft() {
+        return playerShipsLeft;
+    }
+
+    /** @return Barcos a flote de la máquina. */
+    public int getMachineShipsLeft() {
+        return machineShipsLeft;
+    }
+}
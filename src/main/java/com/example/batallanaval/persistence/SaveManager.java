@@ -2,118 +2,579 @@ package com.example.batallanaval.persistence;
 
 import com.example.batallanaval.models.Board;
 import com.example.batallanaval.models.PlayerData;
+import com.example.batallanaval.models.ShotHistory;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Clase estática para gestionar la persistencia de datos del juego.
- * Maneja la serialización de los objetos Board y el guardado/carga
- * de información del jugador en archivos planos.
+ * Las partidas se guardan en un {@link SlotStore} con {@value SlotStore#DEFAULT_SLOTS}
+ * ranuras ({@code save/slots.dat}): cada ranura guarda una instantánea codificada con
+ * {@link SavedGame} y el diario de disparos posteriores. Todas las operaciones actúan
+ * sobre la ranura activa, que se elige con {@link #selectSlotFor(String)} o
+ * {@link #selectMostRecentSlot()}. La {@link SaveHeader} de cada ranura va en el índice
+ * del almacén, de modo que {@link #latestSave()} no lee ningún tablero.
+ * Cuánto se fuerza a disco lo decide la {@link Durability}, configurable con la
+ * propiedad {@code batallanaval.durability}.
+ * <p>
+ * Los guardados de versiones anteriores (un archivo por tablero, la información del
+ * jugador en texto y {@code shots.journal}) se migran a la ranura 0 la primera vez que
+ * se abre el almacén.
  */
 public class SaveManager {
 
     private static final String SAVE_DIR = "save";
 
+    private static final String SLOTS_FILE = "slots.dat";
+
+    private static final String REPLAY_DIR = "replays";
+
+    private static final String HISTORY_DIR = "history";
+
+    /** Archivos de versiones anteriores, solo para migrarlos. */
+    private static final String PLAYER_BOARD_FILE = "player_board.bin";
+    private static final String MACHINE_BOARD_FILE = "machine_board.bin";
+    private static final String PLAYER_INFO_FILE = "player.txt";
+    private static final String JOURNAL_FILE = "shots.journal";
+
+    private static final String DURABILITY_PROPERTY = "batallanaval.durability";
+
+    private static volatile Durability durability = durabilityFromProperty();
+
+    /** Registros del diario a partir de los cuales conviene compactar en una instantánea. */
+    private static final int JOURNAL_COMPACT_RECORDS = 512;
+
+    private static volatile int activeSlot;
+
+    /** Almacén de ranuras; se abre (y migra lo antiguo) en el primer uso. */
+    private static SlotStore store;
+
+    /** Historial de partidas terminadas; se abre en el primer uso. */
+    private static HistoryStore history;
+
+    /** Recibe el mensaje cuando un guardado falla; null para solo registrarlo. */
+    private static volatile Consumer<String> failureListener;
+    /** true desde un fallo hasta la siguiente instantánea correcta, para avisar una sola vez. */
+    private static volatile boolean failing;
+
     /**
-     * Serializa y guarda un objeto Board en un archivo.
-     * @param board El objeto Board a guardar.
-     * @param filename El nombre del archivo para la serialización (ej: "player_board.ser").
+     * Guarda una instantánea completa de la partida (ambos tableros, los datos del
+     * jugador, el estado de la máquina y el historial) en la ranura activa y vacía su
+     * diario de disparos, que a partir de aquí se cuenta desde cero.
+     * @param game La partida.
      */
-    public static void saveBoard(Board board, String filename) {
+    public static void saveSnapshot(SavedGame game) {
+        SlotStore slots = store();
+        if (slots == null) return;
+        PlayerData data = game.getData();
+        SaveHeader header = SaveHeader.of(data.getNickname(), data.isPlacementPhase(), game.getPlayer(),
+                game.getMachine());
         try {
-            // Asegura que el directorio save exista.
-            File dir = new File(SAVE_DIR);
-            if (!dir.exists()) dir.mkdirs();
-            ObjectOutputStream out =
-                    new ObjectOutputStream(new FileOutputStream(SAVE_DIR + "/" + filename));
-            System.out.println("📁 Guardando en: " + new File(filename).getAbsolutePath());
-            out.writeObject(board);
-            out.close();
+            slots.writeSnapshot(activeSlot, header, game.encode(), durability != Durability.NONE);
+            failing = false;
+        } catch (IOException e) {
+            reportFailure(e);
+        }
+    }
+
+    /**
+     * Añade un disparo al diario en lugar de reescribir los tableros.
+     * @param onPlayerBoard true si el disparo fue sobre el tablero del jugador.
+     * @param row Fila disparada.
+     * @param col Columna disparada.
+     * @param boardSize Lado del tablero.
+     * @return true si el diario ya es largo y conviene guardar una instantánea con {@link #saveSnapshot}.
+     */
+    public static boolean appendShot(boolean onPlayerBoard, int row, int col, int boardSize) {
+        return appendShots(new boolean[] { onPlayerBoard }, new int[] { row * boardSize + col }, 1);
+    }
+
+    /**
+     * Añade varios disparos al diario de la ranura activa con una sola escritura.
+     * @param onPlayerBoard Por cada disparo, true si fue sobre el tablero del jugador.
+     * @param cells Casillas empaquetadas como {@code fila * tamaño + columna}.
+     * @param count Número de disparos a escribir.
+     * @return true si el diario ya es largo y conviene guardar una instantánea con {@link #saveSnapshot}.
+     */
+    public static boolean appendShots(boolean[] onPlayerBoard, int[] cells, int count) {
+        SlotStore slots = store();
+        if (slots == null) return true;
+        try {
+            int records = slots.appendShots(activeSlot, onPlayerBoard, cells, count, durability == Durability.ALWAYS);
+            return records >= Math.min(JOURNAL_COMPACT_RECORDS, slots.journalCapacity() / 2);
+        } catch (IOException e) {
+            reportFailure(e);
+            // Sin diario, la única forma de no perder el disparo es una instantánea
+            return true;
+        }
+    }
+
+    /**
+     * Registra quién avisa al usuario de que la partida no se está guardando. Se llama
+     * desde el hilo de guardado, una vez por racha de fallos.
+     * @param listener Recibe el mensaje para el usuario, o null para no avisar.
+     */
+    public static void setFailureListener(Consumer<String> listener) {
+        failureListener = listener;
+    }
+
+    private static void reportFailure(IOException e) {
+        e.printStackTrace();
+        if (failing) return;
+        failing = true;
+        Consumer<String> listener = failureListener;
+        if (listener != null) listener.accept("No se pudo guardar la partida: " + e.getMessage());
+    }
+
+    /**
+     * Actualiza la cabecera de la ranura activa tras escribir disparos en el diario.
+     * @param header Cabecera con el estado actual.
+     */
+    public static void updateHeader(SaveHeader header) {
+        SlotStore slots = store();
+        if (slots != null) slots.writeHeader(activeSlot, header, durability == Durability.ALWAYS);
+    }
+
+    /**
+     * Carga la partida de la ranura activa con los disparos del diario ya reaplicados y
+     * añadidos al historial. Si hubo disparos posteriores a la instantánea, los barcos
+     * hundidos se recalculan a partir del tablero del jugador.
+     * @return La partida, o null si la ranura está vacía o dañada.
+     */
+    public static SavedGame loadGame() {
+        SlotStore slots = store();
+        if (slots == null) return null;
+        try {
+            byte[] payload = slots.readSnapshot(activeSlot);
+            if (payload == null) return null;
+            SavedGame game = SavedGame.decode(payload);
+            if (slots.replay(activeSlot, game.getPlayer(), game.getMachine(), game.getHistory()) == 0) return game;
+            PlayerData data = game.getData();
+            return game.withData(new PlayerData(data.getNickname(), game.getPlayer().getShipsSunk(),
+                    data.isPlacementPhase()));
         } catch (IOException e) {
             e.printStackTrace();
+            return null;
         }
     }
 
+    // ========= REPETICIONES =========
+
     /**
-     * Carga un objeto Board serializado desde un archivo.
-     * @param filename El nombre del archivo serializado.
-     * @return El objeto Board cargado o null si hay un error o el archivo no existe.
+     * Archiva una partida terminada como repetición en {@code save/replays}.
+     * @param game La partida terminada, con su historial completo.
+     * @param playerWon true si ganó el jugador.
+     * @return El archivo creado, o null si no se pudo escribir.
      */
-    public static Board loadBoard(String filename) {
+    public static Path archiveReplay(SavedGame game, boolean playerWon) {
+        ShotHistory history = game.getHistory() != null
+                ? game.getHistory()
+                : ShotHistory.fromBoards(game.getPlayer(), game.getMachine());
+        String nickname = game.getData().getNickname();
+        long now = System.currentTimeMillis();
+        // El apodo solo se usa en el nombre si es seguro como nombre de archivo
+        String safe = nickname.replaceAll("[^\\p{L}\\p{N}_-]", "_");
+        Path file = Path.of(SAVE_DIR, REPLAY_DIR, now + "-" + safe + ReplayWriter.EXTENSION);
         try {
-            ObjectInputStream in =
-                    new ObjectInputStream(new FileInputStream(SAVE_DIR + "/" + filename));
-            System.out.println("📁 Leyendo en: " + new File(filename).getAbsolutePath());
-            Board board = (Board) in.readObject();
-            System.out.println("board: "+board );
-            in.close();
-            return board;
+            Files.createDirectories(file.getParent());
+            try (ReplayWriter writer = new ReplayWriter(file, nickname, now, game.getPlayer(), game.getMachine(),
+                    ReplayWriter.DEFAULT_KEYFRAME_INTERVAL)) {
+                for (int i = 0; i < history.size(); i++) {
+                    writer.record(history.isOnPlayerBoard(i), history.cell(i));
+                }
+                writer.finish(playerWon);
+            }
+            System.out.println("🎞️ Repetición archivada: " + file.toAbsolutePath());
+            return file;
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
 
-        } catch (Exception e) {
+    /**
+     * Lista las repeticiones archivadas, de la más antigua a la más reciente.
+     * @return Archivos de repetición.
+     */
+    public static List<Path> listReplays() {
+        Path dir = Path.of(SAVE_DIR, REPLAY_DIR);
+        if (!Files.isDirectory(dir)) return List.of();
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(ReplayWriter.EXTENSION))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            e.printStackTrace();
+            return List.of();
+        }
+    }
+
+    // ========= HISTORIAL =========
+
+    /**
+     * Registra una partida terminada en el historial.
+     * @param nickname El apodo del jugador; se recorta como en la cabecera de la ranura.
+     * @param playerWon true si ganó el jugador.
+     * @param shots Disparos del jugador.
+     * @param hits Impactos del jugador.
+     * @param machineShots Disparos de la máquina.
+     * @return Las estadísticas del jugador tras la partida, o null si no se pudo guardar.
+     */
+    public static PlayerStats recordResult(String nickname, boolean playerWon, int shots, int hits,
+                                           int machineShots) {
+        HistoryStore games = history();
+        if (games == null) return null;
+        try {
+            return games.record(SaveHeader.fitNickname(nickname), playerWon, shots, hits, machineShots, System.currentTimeMillis(),
+                    durability != Durability.NONE);
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
             return null;
         }
     }
 
     /**
-     * Guarda la información esencial del jugador en un archivo de texto plano.
+     * Devuelve las estadísticas acumuladas de un jugador.
      * @param nickname El apodo del jugador.
-     * @param sunkShips El número de barcos hundidos.
-     * @param placementPhase Si el juego está en fase de colocación.
+     * @return Sus estadísticas, o null si no tiene partidas terminadas.
      */
-    public static void savePlayerInfo(String nickname,
-                                      int sunkShips,
-                                      boolean placementPhase) {
+    public static PlayerStats playerSummary(String nickname) {
+        HistoryStore games = history();
+        return games == null ? null : games.summary(SaveHeader.fitNickname(nickname));
+    }
 
-        File file = new File(SAVE_DIR, "player.txt");
+    /**
+     * Devuelve la clasificación de jugadores.
+     * @param limit Número máximo de jugadores.
+     * @return Los mejores jugadores, en orden.
+     */
+    public static List<PlayerStats> leaderboard(int limit) {
+        HistoryStore games = history();
+        return games == null ? List.of() : games.leaderboard(limit);
+    }
 
-        try (PrintWriter pw = new PrintWriter(file)) {
-            pw.println(nickname);
-            pw.println(sunkShips);
-            pw.println(placementPhase);
-        } catch (IOException e) {
-            e.printStackTrace();
+    private static synchronized HistoryStore history() {
+        if (history == null) {
+            try {
+                history = HistoryStore.open(Path.of(SAVE_DIR, HISTORY_DIR));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
         }
+        return history;
     }
 
+    // ========= RANURAS =========
+
     /**
-     * Carga la información del jugador desde un archivo de texto plano.
-     * @return Un objeto PlayerData con la información cargada o null sí falla.
+     * Cambia la ranura sobre la que actúan los guardados y las cargas.
+     * @param slot Ranura, entre 0 y el número de ranuras menos uno.
      */
-    public static PlayerData loadPlayerInfo() {
+    public static void setActiveSlot(int slot) {
+        SlotStore slots = store();
+        if (slots != null && (slot < 0 || slot >= slots.slotCount())) {
+            throw new IllegalArgumentException("Ranura inválida: " + slot);
+        }
+        activeSlot = slot;
+    }
 
-        File file = new File(SAVE_DIR, "player.txt");
-        if (!file.exists()) return null;
+    /** @return Ranura activa. */
+    public static int getActiveSlot() {
+        return activeSlot;
+    }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+    /**
+     * Elige y activa la ranura para una partida nueva: la del mismo apodo si ya tiene
+     * una, si no la primera libre y, con todas ocupadas, la guardada hace más tiempo.
+     * @param nickname El apodo del jugador.
+     * @return La ranura elegida.
+     */
+    public static int selectSlotFor(String nickname) {
+        SlotStore slots = store();
+        if (slots == null) return activeSlot;
+        // La cabecera guarda el apodo recortado
+        String stored = SaveHeader.fitNickname(nickname);
+        SlotStore.SlotInfo[] used = new SlotStore.SlotInfo[slots.slotCount()];
+        for (SlotStore.SlotInfo info : slots.list()) used[info.getSlot()] = info;
+        int free = -1;
+        int oldest = 0;
+        for (int slot = 0; slot < used.length; slot++) {
+            if (used[slot] == null) {
+                if (free < 0) free = slot;
+            } else if (used[slot].getHeader().getNickname().equals(stored)) {
+                activeSlot = slot;
+                return slot;
+            } else if (used[oldest] != null && used[slot].getSavedAt() < used[oldest].getSavedAt()) {
+                oldest = slot;
+            }
+        }
+        activeSlot = free >= 0 ? free : oldest;
+        return activeSlot;
+    }
 
-            String nickname = br.readLine();
-            int sunkShips = Integer.parseInt(br.readLine());
-            boolean placementPhase = Boolean.parseBoolean(br.readLine());
+    /**
+     * Activa la ranura guardada más recientemente.
+     * @return La ranura, o -1 si no hay ninguna partida guardada.
+     */
+    public static int selectMostRecentSlot() {
+        SlotStore.SlotInfo latest = latestSave();
+        if (latest == null) return -1;
+        activeSlot = latest.getSlot();
+        return activeSlot;
+    }
 
-            return new PlayerData(nickname, sunkShips, placementPhase);
+    /**
+     * Lista las ranuras con partida leyendo solo el índice del almacén.
+     * @return Ranuras ocupadas, en orden de número.
+     */
+    public static List<SlotStore.SlotInfo> listSlots() {
+        SlotStore slots = store();
+        return slots == null ? List.of() : slots.list();
+    }
 
-        } catch (Exception e) {
+    /**
+     * Busca la ranura guardada más recientemente sin activarla ni leer sus tableros.
+     * @return Su descripción, o null si no hay ninguna partida guardada.
+     */
+    public static SlotStore.SlotInfo latestSave() {
+        SlotStore.SlotInfo latest = null;
+        for (SlotStore.SlotInfo info : listSlots()) {
+            if (latest == null || info.getSavedAt() > latest.getSavedAt()) latest = info;
+        }
+        return latest;
+    }
+
+    /** @return true si hay alguna partida guardada. */
+    public static boolean hasAnySave() {
+        return !listSlots().isEmpty();
+    }
+
+    /**
+     * Cambia el nivel de durabilidad de los guardados.
+     * @param level Nuevo nivel.
+     */
+    public static void setDurability(Durability level) {
+        durability = level;
+    }
+
+    /** @return Nivel de durabilidad actual. */
+    public static Durability getDurability() {
+        return durability;
+    }
+
+    /**
+     * Lee el nivel de {@value #DURABILITY_PROPERTY}, sin distinguir mayúsculas. Un valor
+     * desconocido no debe impedir guardar, así que se avisa y se usa {@link Durability#SNAPSHOT}.
+     */
+    private static Durability durabilityFromProperty() {
+        String value = System.getProperty(DURABILITY_PROPERTY);
+        if (value == null) return Durability.SNAPSHOT;
+        try {
+            return Durability.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("⚠️ " + DURABILITY_PROPERTY + "=" + value + " no es un nivel válido "
+                    + Arrays.toString(Durability.values()) + "; se usa " + Durability.SNAPSHOT + ".");
+            return Durability.SNAPSHOT;
+        }
+    }
+
+    /**
+     * Fuerza a disco el diario de la ranura activa, salvo con {@link Durability#NONE}.
+     * Lo usa la barrera de {@link SaveService#flush()}.
+     */
+    public static void sync() {
+        if (durability == Durability.NONE) return;
+        SlotStore slots = store();
+        if (slots != null) slots.force(activeSlot);
+    }
+
+    /**
+     * Vacía la ranura activa al finalizar una partida.
+     */
+    public static void deleteSaves() {
+        SlotStore slots = store();
+        if (slots == null) return;
+        slots.clear(activeSlot);
+        System.out.println("🗑️ Ranura " + activeSlot + " vaciada tras finalizar la partida.");
+    }
+
+    /**
+     * Abre el almacén de ranuras la primera vez que se necesita.
+     * @return El almacén, o null si no se puede abrir.
+     */
+    private static synchronized SlotStore store() {
+        if (store == null) {
+            try {
+                store = SlotStore.open(Path.of(SAVE_DIR, SLOTS_FILE));
+                repairHeaders(store);
+                migrateLegacy(store);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Rehace las cabeceras que {@link SlotStore} tuvo que reconstruir sin conocer la
+     * partida, decodificando la instantánea y su diario. Si no se puede decodificar, la
+     * ranura sigue ocupada con la cabecera desconocida y no se sobrescribe.
+     */
+    private static void repairHeaders(SlotStore slots) {
+        for (SlotStore.SlotInfo info : slots.list()) {
+            if (!info.getHeader().isUnknown()) continue;
+            int slot = info.getSlot();
+            try {
+                byte[] payload = slots.readSnapshot(slot);
+                if (payload == null) continue;
+                SavedGame game = SavedGame.decode(payload);
+                slots.replay(slot, game.getPlayer(), game.getMachine(), null);
+                PlayerData data = game.getData();
+                slots.writeHeader(slot, SaveHeader.of(data.getNickname(), data.isPlacementPhase(), game.getPlayer(),
+                        game.getMachine()), true);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("⚠️ No se pudo rehacer la cabecera de la ranura " + slot + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // ========= MIGRACIÓN =========
+
+    /**
+     * Pasa a la primera ranura libre la partida guardada con el formato de un archivo por
+     * tablero, si la hay. Los archivos antiguos solo se borran cuando la instantánea ya
+     * está escrita; si no se pueden leer o no queda ninguna ranura libre se conservan
+     * intactos y se vuelve a intentar en el siguiente arranque.
+     */
+    private static void migrateLegacy(SlotStore slots) {
+        Path dir = Path.of(SAVE_DIR);
+        Path info = dir.resolve(PLAYER_INFO_FILE);
+        if (!Files.exists(info) && !Files.exists(dir.resolve(PLAYER_INFO_FILE + ".prev"))) return;
+
+        Board player = loadLegacyBoard(PLAYER_BOARD_FILE);
+        Board machine = loadLegacyBoard(MACHINE_BOARD_FILE);
+        PlayerData data = loadLegacyPlayerInfo(info);
+        if (player == null || machine == null || data == null) {
+            System.err.println("⚠️ No se pudo leer la partida antigua de " + dir.toAbsolutePath()
+                    + "; se conservan sus archivos sin migrar.");
+            return;
+        }
+        int slot = firstFreeSlot(slots);
+        if (slot < 0) {
+            System.err.println("⚠️ No hay ranuras libres para migrar la partida antigua; se conservan sus archivos.");
+            return;
+        }
+        try {
+            try (ShotJournal journal = new ShotJournal(dir.resolve(JOURNAL_FILE))) {
+                if (journal.replay(player, machine) > 0) {
+                    data = new PlayerData(data.getNickname(), player.getShipsSunk(), data.isPlacementPhase());
+                }
+            }
+            SaveHeader header = SaveHeader.of(data.getNickname(), data.isPlacementPhase(), player, machine);
+            slots.writeSnapshot(slot, header, new SavedGame(player, machine, data).encode(), true);
+        } catch (IOException e) {
+            System.err.println("⚠️ No se pudo migrar la partida antigua; se conservan sus archivos.");
+            e.printStackTrace();
+            return;
+        }
+        System.out.println("📁 Partida antigua migrada a la ranura " + slot);
+
+        try {
+            // player.txt primero: sin él no se vuelve a migrar aunque queden otros restos
+            for (String name : new String[] { PLAYER_INFO_FILE, PLAYER_BOARD_FILE, MACHINE_BOARD_FILE }) {
+                SaveFile.delete(dir.resolve(name));
+                Files.deleteIfExists(dir.resolve(legacyName(name)));
+            }
+            Files.deleteIfExists(dir.resolve(JOURNAL_FILE));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static int firstFreeSlot(SlotStore slots) {
+        for (int slot = 0; slot < slots.slotCount(); slot++) {
+            if (slots.info(slot) == null) return slot;
+        }
+        return -1;
+    }
+
+    /**
+     * Carga un tablero de un guardado antiguo, recurriendo a la generación anterior si la
+     * actual está dañada. Acepta el {@link SaveFile}, el binario sin cabecera y la
+     * serialización Java ({@code .ser}) de las primeras versiones, que lee
+     * {@link LegacyBoardReader}.
+     * @param filename El nombre del archivo (ej: {@link #PLAYER_BOARD_FILE}).
+     * @return El objeto Board cargado o null si hay un error o el archivo no existe.
+     */
+    private static Board loadLegacyBoard(String filename) {
+        Path file = Path.of(SAVE_DIR, filename);
+        try {
+            byte[] payload = SaveFile.readLatest(file);
+            if (payload != null) {
+                return BoardCodec.decode(payload);
+            }
+            if (Files.exists(file)) {
+                byte[] raw = Files.readAllBytes(file);
+                // Sin cabecera de SaveFile: binario de la versión anterior
+                return SaveFile.hasMagic(raw) ? null : BoardCodec.decode(raw);
+            }
+            return loadSerializedBoard(Path.of(SAVE_DIR, legacyName(filename)));
+        } catch (IOException e) {
             e.printStackTrace();
             return null;
         }
     }
 
     /**
-     * Elimina todos los archivos de guardado al finalizar una partida.
+     * Lee un tablero de un guardado con serialización Java de versiones anteriores.
      */
-    public static void deleteSaves() {
+    private static Board loadSerializedBoard(Path file) {
+        if (!Files.exists(file)) return null;
+        try {
+            System.out.println("📁 Migrando guardado antiguo: " + file.toAbsolutePath());
+            return LegacyBoardReader.read(file);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static String legacyName(String filename) {
+        return filename.endsWith(".bin") ? filename.substring(0, filename.length() - 4) + ".ser" : filename;
+    }
+
+    /**
+     * Carga la información del jugador de un guardado antiguo, en {@link SaveFile} o en
+     * texto plano.
+     * @return Un objeto PlayerData con la información cargada o null sí falla.
+     */
+    private static PlayerData loadLegacyPlayerInfo(Path file) {
         try {
-            File pBoard = new File(SAVE_DIR + "/player_board.ser");
-            File mBoard = new File(SAVE_DIR + "/machine_board.ser");
-            File pInfo = new File(SAVE_DIR + "/player.txt");
+            byte[] payload = SaveFile.readLatest(file);
+            if (payload == null) {
+                if (!Files.exists(file)) return null;
+                payload = Files.readAllBytes(file);
+                if (SaveFile.hasMagic(payload)) return null;
+            }
+            String[] lines = new String(payload, StandardCharsets.UTF_8).split("\\R");
+            String nickname = lines[0];
+            int sunkShips = Integer.parseInt(lines[1].trim());
+            boolean placementPhase = Boolean.parseBoolean(lines[2].trim());
 
-            if (pBoard.exists()) pBoard.delete();
-            if (mBoard.exists()) mBoard.delete();
-            if (pInfo.exists()) pInfo.delete();
+            return new PlayerData(nickname, sunkShips, placementPhase);
 
-            System.out.println("🗑️ Archivos de guardado eliminados tras finalizar la partida.");
         } catch (Exception e) {
             e.printStackTrace();
+            return null;
         }
     }
 }
@@ -0,0 +1,212 @@
+package com.example.batallanaval.persistence;
+
+import com.example.batallanaval.models.Board;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Servicio de guardado asíncrono con un único hilo escritor.
+ * <p>
+ * Los controladores encolan operaciones y vuelven enseguida; el disco solo se toca
+ * desde el hilo "batallanaval-save", así que su latencia no bloquea la interfaz.
+ * Las operaciones se agrupan:
+ * <ul>
+ *   <li>Una instantánea nueva sustituye a la pendiente y descarta los disparos
+ *   pendientes, porque ya los contiene.</li>
+ *   <li>Los disparos de una racha se escriben en el diario con una sola escritura.</li>
+ *   <li>De la cabecera de la ranura solo se escribe la última.</li>
+ * </ul>
+ * Los tableros se copian en el hilo que llama ({@link Board#copy()}), de modo que el
+ * escritor nunca lee objetos que la interfaz sigue modificando.
+ * {@link #flush()} es una barrera: vuelve cuando todo lo encolado antes está escrito y,
+ * salvo con {@link Durability#NONE}, forzado a disco.
+ */
+public final class SaveService {
+
+    private static final SaveService SHARED = new SaveService();
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "batallanaval-save");
+        // No impide cerrar la aplicación; los cierres ordenados pasan por flush()
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Object lock = new Object();
+
+    /** Instantánea o borrado pendiente; solo cuenta la última. */
+    private Runnable pendingWrite;
+    /** Disparos pendientes (doble búfer con los del escritor). */
+    private boolean[] pendingSides = new boolean[16];
+    private int[] pendingCells = new int[16];
+    private int pendingCount;
+    private boolean[] writingSides = new boolean[16];
+    private int[] writingCells = new int[16];
+    /** Cabecera posterior a los disparos pendientes. */
+    private SaveHeader pendingHeader;
+    /** Hay una tarea de vaciado en la cola del escritor que aún no ha tomado lo pendiente. */
+    private boolean scheduled;
+
+    /** El diario pidió compactar; lo consulta el hilo de la interfaz. */
+    private final AtomicBoolean compactionDue = new AtomicBoolean();
+
+    private SaveService() {
+    }
+
+    /** @return El servicio compartido por toda la aplicación. */
+    public static SaveService shared() {
+        return SHARED;
+    }
+
+    /**
+     * Encola una instantánea completa. Los tableros y el historial se copian antes de
+     * volver; el estado de la máquina ya viene exportado en la partida.
+     * @param game La partida.
+     */
+    public void snapshot(SavedGame game) {
+        SavedGame copy = game.copy();
+        synchronized (lock) {
+            pendingWrite = () -> SaveManager.saveSnapshot(copy);
+            pendingCount = 0;
+            pendingHeader = null;
+            compactionDue.set(false);
+            scheduleLocked();
+        }
+    }
+
+    /**
+     * Encola un disparo para el diario.
+     * @param onPlayerBoard true si el disparo fue sobre el tablero del jugador.
+     * @param cell Casilla empaquetada como {@code fila * tamaño + columna}.
+     * @param header Cabecera de la partida tras el disparo.
+     * @return true si el diario pidió compactar y conviene encolar una instantánea.
+     */
+    public boolean shot(boolean onPlayerBoard, int cell, SaveHeader header) {
+        synchronized (lock) {
+            if (pendingCount == pendingCells.length) {
+                pendingSides = Arrays.copyOf(pendingSides, pendingCount * 2);
+                pendingCells = Arrays.copyOf(pendingCells, pendingCount * 2);
+            }
+            pendingSides[pendingCount] = onPlayerBoard;
+            pendingCells[pendingCount] = cell;
+            pendingCount++;
+            pendingHeader = header;
+            scheduleLocked();
+        }
+        return compactionDue.get();
+    }
+
+    /**
+     * Encola el borrado de los archivos de guardado; descarta lo pendiente.
+     */
+    public void deleteSaves() {
+        synchronized (lock) {
+            pendingWrite = SaveManager::deleteSaves;
+            pendingCount = 0;
+            pendingHeader = null;
+            compactionDue.set(false);
+            scheduleLocked();
+        }
+    }
+
+    /**
+     * Encola el archivo de una partida terminada como repetición. Va aparte de la
+     * instantánea pendiente, así que un borrado posterior de la ranura no lo descarta.
+     * @param game La partida terminada.
+     * @param playerWon true si ganó el jugador.
+     */
+    public void archiveReplay(SavedGame game, boolean playerWon) {
+        SavedGame copy = game.copy();
+        synchronized (lock) {
+            writer.execute(() -> SaveManager.archiveReplay(copy, playerWon));
+        }
+    }
+
+    /**
+     * Registra en el historial una partida terminada.
+     * @param nickname El apodo del jugador.
+     * @param playerWon true si ganó el jugador.
+     * @param shots Disparos del jugador.
+     * @param hits Impactos del jugador.
+     * @param machineShots Disparos de la máquina.
+     * @return Las estadísticas del jugador tras la partida, o null si no se pudieron guardar.
+     */
+    public CompletableFuture<PlayerStats> recordResult(String nickname, boolean playerWon, int shots, int hits,
+                                                       int machineShots) {
+        synchronized (lock) {
+            return CompletableFuture.supplyAsync(
+                    () -> SaveManager.recordResult(nickname, playerWon, shots, hits, machineShots), writer);
+        }
+    }
+
+    /**
+     * Espera a que todo lo encolado hasta ahora se haya escrito.
+     */
+    public void flush() {
+        Future<?> barrier;
+        synchronized (lock) {
+            // El escritor es FIFO: la barrera corre después de cualquier vaciado ya encolado
+            barrier = writer.submit(SaveManager::sync);
+        }
+        try {
+            barrier.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Carga en el hilo escritor la partida de la ranura activa, después de todo lo
+     * encolado hasta ahora, para no bloquear la interfaz mientras se decodifica.
+     * @return La partida cargada, o null si la ranura está vacía o dañada.
+     */
+    public CompletableFuture<SavedGame> load() {
+        synchronized (lock) {
+            return CompletableFuture.supplyAsync(SaveManager::loadGame, writer);
+        }
+    }
+
+    private void scheduleLocked() {
+        if (scheduled) return;
+        scheduled = true;
+        writer.execute(this::drain);
+    }
+
+    /**
+     * Toma todo lo pendiente y lo escribe: primero la instantánea o el borrado y después
+     * los disparos posteriores, en una sola escritura del diario, con su cabecera.
+     */
+    private void drain() {
+        Runnable write;
+        int count;
+        SaveHeader header;
+        synchronized (lock) {
+            write = pendingWrite;
+            pendingWrite = null;
+            count = pendingCount;
+            pendingCount = 0;
+            header = pendingHeader;
+            pendingHeader = null;
+            boolean[] sides = writingSides;
+            int[] cells = writingCells;
+            writingSides = pendingSides;
+            writingCells = pendingCells;
+            pendingSides = sides.length >= writingSides.length ? sides : new boolean[writingSides.length];
+            pendingCells = cells.length >= writingCells.length ? cells : new int[writingCells.length];
+            scheduled = false;
+        }
+        if (write != null) write.run();
+        if (count > 0 && SaveManager.appendShots(writingSides, writingCells, count)) {
+            compactionDue.set(true);
+        }
+        if (header != null) SaveManager.updateHeader(header);
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.batallanaval.persistence;
+
+import com.example.batallanaval.ai.ShotStrategy;
+import com.example.batallanaval.models.Board;
+import com.example.batallanaval.models.PlayerData;
+import com.example.batallanaval.models.ShotHistory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Partida guardada completa: los dos tableros, los datos del jugador, el estado de la
+ * estrategia de la máquina y el orden de los disparos.
+ * <p>
+ * Se codifica como un único bloque binario (versión {@value #VERSION}):
+ * <pre>
+ *   byte   versión
+ *   varint longitud del apodo + bytes UTF-8
+ *   varint barcos hundidos
+ *   byte   fase de colocación (0/1)
+ *   varint longitud + tablero del jugador ({@link BoardCodec})
+ *   varint longitud + tablero de la máquina ({@link BoardCodec})
+ *   varint longitud + nombre UTF-8 de la estrategia de la máquina (0 = sin estado)
+ *   varint longitud + estado de la estrategia ({@link ShotStrategy#saveState()})
+ *   varint número de disparos y cada uno como varint {@code casilla << 1 | bando}
+ * </pre>
+ * Los bloques de la versión 1 no tienen las tres últimas partes y se cargan sin estado de
+ * la máquina; los de las versiones 1 y 2 se cargan sin historial.
+ */
+public final class SavedGame {
+
+    static final int VERSION = 3;
+
+    private final Board player;
+    private final Board machine;
+    private final PlayerData data;
+    private final String aiName;
+    private final byte[] aiState;
+    private final ShotHistory history;
+
+    /**
+     * Crea una partida sin estado de la máquina.
+     * @param player Tablero del jugador.
+     * @param machine Tablero de la máquina.
+     * @param data Datos del jugador.
+     */
+    public SavedGame(Board player, Board machine, PlayerData data) {
+        this(player, machine, data, null, null, null);
+    }
+
+    /**
+     * @param player Tablero del jugador.
+     * @param machine Tablero de la máquina.
+     * @param data Datos del jugador.
+     * @param aiName Nombre de la estrategia de la máquina, o null.
+     * @param aiState Estado exportado por la estrategia, o null.
+     * @param history Orden de los disparos, o null si no se conoce.
+     */
+    public SavedGame(Board player, Board machine, PlayerData data, String aiName, byte[] aiState,
+                     ShotHistory history) {
+        this.player = player;
+        this.machine = machine;
+        this.data = data;
+        this.aiName = aiName;
+        this.aiState = aiState;
+        this.history = history;
+    }
+
+    /** @return Tablero del jugador. */
+    public Board getPlayer() {
+        return player;
+    }
+
+    /** @return Tablero de la máquina. */
+    public Board getMachine() {
+        return machine;
+    }
+
+    /** @return Datos del jugador. */
+    public PlayerData getData() {
+        return data;
+    }
+
+    /** @return Nombre de la estrategia de la máquina, o null si no se guardó. */
+    public String getAiName() {
+        return aiName;
+    }
+
+    /** @return Estado de la estrategia de la máquina, o null si no se guardó. */
+    public byte[] getAiState() {
+        return aiState;
+    }
+
+    /** @return Orden de los disparos, o null si la partida se guardó sin él. */
+    public ShotHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Crea una copia con otros datos del jugador y el mismo estado de la máquina.
+     * @param data Datos nuevos.
+     * @return La copia.
+     */
+    SavedGame withData(PlayerData data) {
+        return new SavedGame(player, machine, data, aiName, aiState, history);
+    }
+
+    /**
+     * Crea una copia independiente de los tableros y del historial, para entregarla a
+     * otro hilo.
+     * @return La copia.
+     */
+    SavedGame copy() {
+        return new SavedGame(player.copy(), machine.copy(), data, aiName, aiState,
+                history == null ? null : history.copy());
+    }
+
+    /**
+     * Codifica la partida.
+     * @return Bytes del bloque.
+     */
+    byte[] encode() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(160);
+        out.write(VERSION);
+        writeBytes(out, data.getNickname().getBytes(StandardCharsets.UTF_8));
+        BoardCodec.writeVarint(out, data.getSunkShips());
+        out.write(data.isPlacementPhase() ? 1 : 0);
+        writeBytes(out, BoardCodec.encode(player));
+        writeBytes(out, BoardCodec.encode(machine));
+        boolean withAi = aiName != null && aiState != null;
+        writeBytes(out, withAi ? aiName.getBytes(StandardCharsets.UTF_8) : new byte[0]);
+        writeBytes(out, withAi ? aiState : new byte[0]);
+        int shots = history == null ? 0 : history.size();
+        BoardCodec.writeVarint(out, shots);
+        for (int i = 0; i < shots; i++) BoardCodec.writeVarint(out, history.packed(i));
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodifica una partida.
+     * @param payload Bytes del bloque.
+     * @return La partida.
+     * @throws IOException si los datos están dañados o son de una versión futura.
+     */
+    static SavedGame decode(byte[] payload) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(payload);
+        try {
+            int version = in.get() & 0xFF;
+            if (version < 1 || version > VERSION) throw new IOException("Versión de partida no soportada: " + version);
+            String nickname = new String(readBytes(in), StandardCharsets.UTF_8);
+            int sunkShips = BoardCodec.readInt(in);
+            boolean placementPhase = in.get() != 0;
+            Board player = BoardCodec.decode(readBytes(in));
+            Board machine = BoardCodec.decode(readBytes(in));
+            PlayerData data = new PlayerData(nickname, sunkShips, placementPhase);
+            if (version == 1) return new SavedGame(player, machine, data);
+            String aiName = new String(readBytes(in), StandardCharsets.UTF_8);
+            byte[] aiState = readBytes(in);
+            if (aiName.isEmpty()) {
+                aiName = null;
+                aiState = null;
+            }
+            ShotHistory history = null;
+            if (version >= 3) {
+                int shots = BoardCodec.readInt(in);
+                if (shots > in.remaining()) throw new IOException("Guardado corrupto: historial inválido");
+                int[] packed = new int[shots];
+                for (int i = 0; i < shots; i++) packed[i] = BoardCodec.readInt(in);
+                history = ShotHistory.of(packed, shots);
+            }
+            return new SavedGame(player, machine, data, aiName, aiState, history);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Guardado corrupto: partida truncada");
+        }
+    }
+
+    private static void writeBytes(ByteArrayOutputStream out, byte[] bytes) {
+        BoardCodec.writeVarint(out, bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    private static byte[] readBytes(ByteBuffer in) throws IOException {
+        int length = BoardCodec.readInt(in);
+        if (length > in.remaining()) throw new IOException("Guardado corrupto: longitud inválida");
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.batallanaval.persistence;
+
+import com.example.batallanaval.models.Board;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Diario de disparos de solo escritura al final (write-ahead log).
+ * <p>
+ * Cada disparo ocupa un registro fijo de {@value #RECORD_BYTES} bytes: una marca con el
+ * tablero disparado, la casilla empaquetada como {@code fila * tamaño + columna} y el
+ * CRC32C de ambos. La lectura se detiene en el primer registro incompleto o con un CRC
+ * que no cuadra.
+ * El estado completo de la partida es la última instantánea más los registros del diario;
+ * al compactar se escribe una instantánea nueva y el diario se vacía.
+ * <p>
+ * Reaplicar un disparo ya presente en la instantánea no cambia nada ({@link Board#shoot}
+ * devuelve null), así que si el programa se cierra entre la instantánea y el vaciado del
+ * diario la partida se recupera igual. La cola inválida se recorta.
+ * <p>
+ * Las partidas actuales llevan su diario dentro de {@link SlotStore}; este archivo solo
+ * se lee al migrar guardados anteriores.
+ */
+final class ShotJournal implements AutoCloseable {
+
+    static final byte PLAYER_BOARD = 'P';
+    static final byte MACHINE_BOARD = 'M';
+    static final int RECORD_BYTES = 9;
+
+    private final Path file;
+    private ByteBuffer buffer = ByteBuffer.allocate(64 * RECORD_BYTES);
+    private final CRC32C crc = new CRC32C();
+    private FileChannel channel;
+    private int records;
+
+    ShotJournal(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Añade disparos al final del diario con una sola escritura.
+     * @param onPlayerBoard Por cada disparo, true si fue sobre el tablero del jugador.
+     * @param cells Casillas empaquetadas.
+     * @param count Número de disparos.
+     * @return Registros acumulados desde la última compactación.
+     * @throws IOException si falla la escritura.
+     */
+    int append(boolean[] onPlayerBoard, int[] cells, int count) throws IOException {
+        FileChannel ch = channel();
+        if (buffer.capacity() < count * RECORD_BYTES) {
+            buffer = ByteBuffer.allocate(count * RECORD_BYTES);
+        }
+        buffer.clear();
+        for (int i = 0; i < count; i++) {
+            byte tag = onPlayerBoard[i] ? PLAYER_BOARD : MACHINE_BOARD;
+            buffer.put(tag).putInt(cells[i]).putInt(checksum(tag, cells[i]));
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) ch.write(buffer);
+        records += count;
+        return records;
+    }
+
+    /**
+     * Vacía el diario tras escribir una instantánea nueva.
+     * @throws IOException si falla el truncado.
+     */
+    void reset() throws IOException {
+        channel().truncate(0);
+        records = 0;
+    }
+
+    /**
+     * Aplica los disparos del diario sobre los tableros de la instantánea.
+     * @param player Tablero del jugador.
+     * @param machine Tablero de la máquina.
+     * @return Número de registros leídos.
+     * @throws IOException si falla la lectura.
+     */
+    int replay(Board player, Board machine) throws IOException {
+        if (!Files.exists(file)) return 0;
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+        int count = 0;
+        while (in.remaining() >= RECORD_BYTES) {
+            byte tag = in.get();
+            int cell = in.getInt();
+            if (in.getInt() != checksum(tag, cell)) break;
+            Board target = tag == PLAYER_BOARD ? player : tag == MACHINE_BOARD ? machine : null;
+            int size = target == null ? 0 : target.getSize();
+            if (target == null || cell < 0 || cell >= size * size) {
+                // Registro corrupto: lo anterior es válido y lo demás se descarta
+                break;
+            }
+            target.shoot(cell / size, cell % size);
+            count++;
+        }
+        long valid = (long) count * RECORD_BYTES;
+        if (valid < in.capacity()) {
+            // Quita la cola inválida para que los registros nuevos queden alineados
+            channel().truncate(valid);
+        }
+        records = count;
+        return count;
+    }
+
+    /**
+     * Cierra el fichero y borra el diario.
+     * @throws IOException si no se puede borrar.
+     */
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(file);
+        records = 0;
+    }
+
+    /**
+     * Fuerza a disco lo escrito en el diario.
+     * @throws IOException si falla el fsync.
+     */
+    void force() throws IOException {
+        if (channel != null) channel.force(false);
+    }
+
+    private int checksum(byte tag, int cell) {
+        crc.reset();
+        crc.update(tag);
+        crc.update(cell >>> 24);
+        crc.update(cell >>> 16);
+        crc.update(cell >>> 8);
+        crc.update(cell);
+        return (int) crc.getValue();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            Files.createDirectories(file.getParent());
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+}
@@ -0,0 +1,572 @@
+package com.example.batallanaval.persistence;
+
+import com.example.batallanaval.models.Board;
+import com.example.batallanaval.models.ShotHistory;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Almacén de ranuras de guardado en un único archivo proyectado en memoria.
+ * <p>
+ * Estructura:
+ * <pre>
+ *   página 0: cabecera (firma, versión, geometría) e índice de ranuras, una entrada de
+ *             {@value #ENTRY_BYTES} bytes por ranura con la {@link SaveHeader}, la
+ *             generación, la fecha y su propio CRC32C
+ *   ranura i: dos mitades de tamaño fijo para la instantánea y un diario de disparos
+ * </pre>
+ * Una instantánea que no cabe en su mitad (partidas largas en tableros grandes) se escribe
+ * en un archivo aparte, uno por ranura y mitad ({@code slots.dat.<ranura>.<mitad>}), y la
+ * mitad guarda solo su cabecera con la generación, la longitud y el CRC. Así cada mitad
+ * sigue siendo independiente de la otra y el archivo proyectado no cambia de tamaño.
+ * Listar ranuras con su cabecera o saber si hay partida solo lee la página 0. Cada
+ * instantánea se escribe en la mitad inactiva y después se actualiza la entrada del
+ * índice, así que un corte a medias deja intacta la anterior; si el índice está dañado se
+ * elige la mitad válida con la generación más alta y la entrada se rehace desde ella, sin
+ * que la ranura llegue a parecer libre. Los registros del diario incluyen en su CRC la generación de
+ * la instantánea a la que pertenecen, de modo que los de una instantánea anterior dejan
+ * de ser válidos sin tener que borrarlos. Solo al vaciar la ranura se borra el diario,
+ * porque entonces las generaciones vuelven a empezar.
+ * <p>
+ * Las operaciones están sincronizadas; en la aplicación solo escribe el hilo de
+ * {@link SaveService}.
+ */
+public final class SlotStore implements AutoCloseable {
+
+    static final int MAGIC = 0x424E534C; // "BNSL"
+    /** Firma de una mitad cuya instantánea está en su archivo aparte. */
+    static final int SPILLED = 0x424E5350; // "BNSP"
+    static final int VERSION = 1;
+    static final int PAGE = 4096;
+
+    /** Ranuras de un archivo nuevo. */
+    public static final int DEFAULT_SLOTS = 16;
+    /** Bytes máximos de una instantánea dentro del archivo; las mayores van aparte. */
+    static final int DEFAULT_HALF_CAPACITY = 256 * 1024;
+    /** Registros del diario por ranura. */
+    static final int DEFAULT_JOURNAL_RECORDS = 1024;
+
+    static final int ENTRIES_OFFSET = 64;
+    static final int ENTRY_BYTES = 128;
+    private static final int NICK_BYTES = SaveHeader.MAX_NICKNAME_BYTES;
+    /** Desplazamientos dentro de una entrada del índice. */
+    private static final int E_GENERATION = 8;
+    private static final int E_SAVED_AT = 16;
+    private static final int E_NICK_LENGTH = 24;
+    private static final int E_NICK = 26;
+    private static final int E_PHASE = E_NICK + NICK_BYTES;
+    private static final int E_TURNS = 92;
+    private static final int E_PLAYER_LEFT = 96;
+    private static final int E_MACHINE_LEFT = 100;
+    private static final int HALF_HEADER = 4 + 8 + 4 + 4;
+    private static final int RECORD_BYTES = 9;
+
+    private final Path file;
+    private final RandomAccessFile raf;
+    private final MappedByteBuffer map;
+    private final int slotCount;
+    private final int halfCapacity;
+    private final int journalRecords;
+    private final int slotBytes;
+    /** Siguiente registro libre del diario por ranura (-1 = sin calcular). */
+    private final int[] journalCursor;
+    /**
+     * Generación validada de cada mitad ({@code ranura * 2 + mitad}; 0 = inválida, -1 = sin
+     * calcular), para no releer la instantánea en cada escritura del diario.
+     */
+    private final long[] halfGenerations;
+    private final CRC32C crc = new CRC32C();
+
+    private SlotStore(Path file, RandomAccessFile raf, MappedByteBuffer map, int slotCount, int halfCapacity,
+                      int journalRecords) {
+        this.file = file;
+        this.raf = raf;
+        this.map = map;
+        this.slotCount = slotCount;
+        this.halfCapacity = halfCapacity;
+        this.journalRecords = journalRecords;
+        this.slotBytes = slotBytes(halfCapacity, journalRecords);
+        this.journalCursor = new int[slotCount];
+        Arrays.fill(journalCursor, -1);
+        this.halfGenerations = new long[2 * slotCount];
+        Arrays.fill(halfGenerations, -1);
+    }
+
+    /**
+     * Abre el almacén, creándolo si no existe.
+     * @param file Archivo de ranuras.
+     * @return El almacén abierto.
+     * @throws IOException si no se puede abrir o la cabecera no es válida.
+     */
+    public static SlotStore open(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw");
+        try {
+            int slots = DEFAULT_SLOTS;
+            int half = DEFAULT_HALF_CAPACITY;
+            int records = DEFAULT_JOURNAL_RECORDS;
+            boolean fresh = raf.length() < PAGE;
+            if (!fresh) {
+                // La geometría la manda la cabecera del archivo existente
+                raf.seek(0);
+                if (raf.readInt() != MAGIC) throw new IOException("No es un archivo de ranuras: " + file);
+                int version = raf.readInt();
+                if (version != VERSION) throw new IOException("Versión de ranuras no soportada: " + version);
+                slots = raf.readInt();
+                half = raf.readInt();
+                records = raf.readInt();
+                if (slots < 1 || ENTRIES_OFFSET + slots * ENTRY_BYTES > PAGE || half < 1 || records < 1) {
+                    throw new IOException("Cabecera de ranuras dañada: " + file);
+                }
+            }
+            long length = PAGE + (long) slots * slotBytes(half, records);
+            if (raf.length() < length) raf.setLength(length);
+            MappedByteBuffer map = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, length);
+            if (fresh) {
+                map.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, slots).putInt(12, half).putInt(16, records);
+                map.force(0, PAGE);
+            }
+            return new SlotStore(file, raf, map, slots, half, records);
+        } catch (IOException | RuntimeException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    /** @return Número de ranuras. */
+    public int slotCount() {
+        return slotCount;
+    }
+
+    /** @return Registros que caben en el diario de cada ranura. */
+    public int journalCapacity() {
+        return journalRecords;
+    }
+
+    /**
+     * Lee la entrada del índice de una ranura (solo la página 0). Si la entrada está
+     * dañada pero queda alguna mitad válida, la ranura sigue ocupada: la entrada se
+     * reescribe apuntando a la mitad más reciente, con una cabecera
+     * {@linkplain SaveHeader#isUnknown() desconocida} que debe rehacer quien sepa
+     * decodificar la instantánea.
+     * @param slot Ranura.
+     * @return Su descripción, o null si está vacía.
+     */
+    public synchronized SlotInfo info(int slot) {
+        checkSlot(slot);
+        int e = entryOffset(slot);
+        if (!entryValid(slot)) repairEntry(slot);
+        if (map.get(e) == 0) return null;
+        int nickLength = Math.min(NICK_BYTES, map.getShort(e + E_NICK_LENGTH));
+        byte[] nick = new byte[nickLength];
+        map.get(e + E_NICK, nick);
+        SaveHeader header = new SaveHeader(new String(nick, StandardCharsets.UTF_8), map.get(e + E_PHASE) != 0,
+                map.getInt(e + E_TURNS), map.getInt(e + E_PLAYER_LEFT), map.getInt(e + E_MACHINE_LEFT));
+        return new SlotInfo(slot, header, map.getLong(e + E_GENERATION), map.getLong(e + E_SAVED_AT));
+    }
+
+    /**
+     * Lista las ranuras ocupadas leyendo solo el índice.
+     * @return Ranuras con partida.
+     */
+    public synchronized List<SlotInfo> list() {
+        List<SlotInfo> used = new ArrayList<>();
+        for (int slot = 0; slot < slotCount; slot++) {
+            SlotInfo info = info(slot);
+            if (info != null) used.add(info);
+        }
+        return used;
+    }
+
+    /**
+     * Guarda una instantánea en la mitad inactiva de la ranura y vacía su diario. Si no
+     * cabe en la mitad se escribe en el archivo aparte de esa mitad.
+     * @param slot Ranura.
+     * @param header Cabecera que se guarda en el índice.
+     * @param payload Contenido de la instantánea.
+     * @param sync true para forzar a disco antes de volver.
+     * @throws IOException si no se puede escribir el archivo aparte.
+     */
+    public synchronized void writeSnapshot(int slot, SaveHeader header, byte[] payload, boolean sync) throws IOException {
+        checkSlot(slot);
+        int e = entryOffset(slot);
+        boolean indexed = entryValid(slot) && map.get(e) != 0;
+        int active = indexed ? map.get(e + 1) : newestHalf(slot);
+        long generation = Math.max(indexed ? map.getLong(e + E_GENERATION) : 0, Math.max(halfGeneration(slot, 0), halfGeneration(slot, 1))) + 1;
+        int target = active == 0 ? 1 : 0;
+
+        int h = halfOffset(slot, target);
+        Path spill = spillFile(slot, target);
+        // Mientras la cabecera no cambie, un archivo aparte a medias no cuadra con su CRC
+        halfGenerations[2 * slot + target] = -1;
+        boolean spilled = payload.length > halfCapacity;
+        if (spilled) {
+            writeSpill(spill, payload, sync);
+        }
+        map.putInt(h, spilled ? SPILLED : MAGIC).putLong(h + 4, generation).putInt(h + 12, payload.length);
+        map.putInt(h + 16, checksum(generation, payload));
+        if (!spilled) map.put(h + HALF_HEADER, payload);
+        if (sync) map.force(h, HALF_HEADER + (spilled ? 0 : payload.length));
+        halfGenerations[2 * slot + target] = generation;
+        if (!spilled) Files.deleteIfExists(spill);
+
+        // El índice se actualiza después: hasta aquí sigue valiendo la instantánea anterior
+        map.put(e, (byte) 1).put(e + 1, (byte) target).putLong(e + E_GENERATION, generation);
+        putHeader(e, header);
+        if (sync) map.force(e, ENTRY_BYTES);
+        journalCursor[slot] = 0;
+    }
+
+    /**
+     * Actualiza la cabecera de una ranura ocupada sin tocar su instantánea, para que el
+     * índice refleje los disparos del diario.
+     * @param slot Ranura.
+     * @param header Cabecera nueva.
+     * @param sync true para forzar a disco la entrada.
+     */
+    public synchronized void writeHeader(int slot, SaveHeader header, boolean sync) {
+        checkSlot(slot);
+        int e = entryOffset(slot);
+        if (!entryValid(slot) || map.get(e) == 0) return;
+        putHeader(e, header);
+        if (sync) map.force(e, ENTRY_BYTES);
+    }
+
+    /**
+     * Lee la instantánea vigente de una ranura, con recuperación si la activa está dañada.
+     * @param slot Ranura.
+     * @return El contenido, o null si la ranura está vacía o no hay ninguna mitad válida.
+     */
+    public synchronized byte[] readSnapshot(int slot) {
+        checkSlot(slot);
+        int half = activeHalf(slot);
+        if (half < 0) return null;
+        byte[] payload = readHalf(slot, half);
+        if (payload == null) {
+            payload = readHalf(slot, 1 - half);
+            if (payload != null) System.err.println("⚠️ Ranura " + slot + " dañada, se recupera la instantánea anterior");
+        }
+        return payload;
+    }
+
+    /**
+     * Añade disparos al diario de la ranura.
+     * @param slot Ranura.
+     * @param onPlayerBoard Por cada disparo, true si fue sobre el tablero del jugador.
+     * @param cells Casillas empaquetadas.
+     * @param count Número de disparos.
+     * @param sync true para forzar a disco los registros escritos.
+     * @return Registros del diario tras la escritura.
+     * @throws IOException si el diario está lleno o la ranura no tiene instantánea.
+     */
+    public synchronized int appendShots(int slot, boolean[] onPlayerBoard, int[] cells, int count, boolean sync)
+            throws IOException {
+        checkSlot(slot);
+        long generation = activeGeneration(slot);
+        if (generation < 0) throw new IOException("La ranura " + slot + " no tiene instantánea");
+        int cursor = cursor(slot, generation);
+        if (cursor + count > journalRecords) throw new IOException("Diario de la ranura " + slot + " lleno");
+        int base = journalOffset(slot);
+        for (int i = 0; i < count; i++) {
+            int r = base + (cursor + i) * RECORD_BYTES;
+            byte tag = onPlayerBoard[i] ? ShotJournal.PLAYER_BOARD : ShotJournal.MACHINE_BOARD;
+            map.put(r, tag).putInt(r + 1, cells[i]).putInt(r + 5, recordChecksum(generation, tag, cells[i]));
+        }
+        if (sync) map.force(base + cursor * RECORD_BYTES, count * RECORD_BYTES);
+        journalCursor[slot] = cursor + count;
+        return cursor + count;
+    }
+
+    /**
+     * Aplica los disparos del diario vigente sobre los tableros de la instantánea.
+     * @param slot Ranura.
+     * @param player Tablero del jugador.
+     * @param machine Tablero de la máquina.
+     * @param history Historial al que se añaden los disparos nuevos, o null.
+     * @return Disparos reaplicados.
+     */
+    public synchronized int replay(int slot, Board player, Board machine, ShotHistory history) {
+        checkSlot(slot);
+        long generation = activeGeneration(slot);
+        if (generation < 0) return 0;
+        int base = journalOffset(slot);
+        int count = 0;
+        for (; count < journalRecords; count++) {
+            int r = base + count * RECORD_BYTES;
+            byte tag = map.get(r);
+            int cell = map.getInt(r + 1);
+            if (map.getInt(r + 5) != recordChecksum(generation, tag, cell)) break;
+            Board target = tag == ShotJournal.PLAYER_BOARD ? player : machine;
+            int size = target.getSize();
+            if (cell < 0 || cell >= size * size) break;
+            if (target.shoot(cell / size, cell % size) != null && history != null) {
+                history.add(target == player, cell);
+            }
+        }
+        journalCursor[slot] = count;
+        return count;
+    }
+
+    /**
+     * Fuerza a disco el diario de una ranura.
+     * @param slot Ranura.
+     */
+    public synchronized void force(int slot) {
+        checkSlot(slot);
+        map.force(journalOffset(slot), journalRecords * RECORD_BYTES);
+    }
+
+    /**
+     * Vacía una ranura: borra su diario, la quita del índice e invalida sus dos mitades.
+     * @param slot Ranura.
+     */
+    public synchronized void clear(int slot) {
+        checkSlot(slot);
+        // La próxima instantánea vuelve a la generación 1: con el diario sin borrar, los
+        // registros de la partida anterior serían válidos para la nueva
+        int base = journalOffset(slot);
+        int journalBytes = journalRecords * RECORD_BYTES;
+        for (int i = 0; i < journalBytes; i++) map.put(base + i, (byte) 0);
+        map.force(base, journalBytes);
+        int e = entryOffset(slot);
+        for (int i = 0; i < ENTRY_BYTES; i++) map.put(e + i, (byte) 0);
+        map.putInt(halfOffset(slot, 0), 0);
+        map.putInt(halfOffset(slot, 1), 0);
+        map.force(e, ENTRY_BYTES);
+        map.force(halfOffset(slot, 0), 4);
+        map.force(halfOffset(slot, 1), 4);
+        journalCursor[slot] = 0;
+        halfGenerations[2 * slot] = 0;
+        halfGenerations[2 * slot + 1] = 0;
+        for (int half = 0; half < 2; half++) {
+            try {
+                Files.deleteIfExists(spillFile(slot, half));
+            } catch (IOException ex) {
+                // La mitad ya no es válida; el archivo sobrante se reescribe o se borra más adelante
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        map.force();
+        raf.close();
+    }
+
+    // ========= INTERNOS =========
+
+    private int activeHalf(int slot) {
+        int e = entryOffset(slot);
+        if (entryValid(slot)) {
+            return map.get(e) == 0 ? -1 : map.get(e + 1);
+        }
+        return newestHalf(slot);
+    }
+
+    private long activeGeneration(int slot) {
+        int half = activeHalf(slot);
+        if (half < 0) return -1;
+        long generation = halfGeneration(slot, half);
+        return generation > 0 ? generation : halfGeneration(slot, 1 - half) > 0 ? halfGeneration(slot, 1 - half) : -1;
+    }
+
+    /** Mitad válida con la generación más alta, o -1 si ninguna lo es. */
+    private int newestHalf(int slot) {
+        long g0 = halfGeneration(slot, 0);
+        long g1 = halfGeneration(slot, 1);
+        if (g0 <= 0 && g1 <= 0) return -1;
+        return g0 >= g1 ? 0 : 1;
+    }
+
+    /** Generación de una mitad si su CRC es correcto, o 0. */
+    private long halfGeneration(int slot, int half) {
+        if (halfGenerations[2 * slot + half] < 0) readHalf(slot, half);
+        return halfGenerations[2 * slot + half];
+    }
+
+    /** Lee y valida una mitad, y anota su generación para {@link #halfGeneration}. */
+    private byte[] readHalf(int slot, int half) {
+        int h = halfOffset(slot, half);
+        int magic = map.getInt(h);
+        long generation = map.getLong(h + 4);
+        int length = map.getInt(h + 12);
+        byte[] payload = null;
+        if (magic == MAGIC && length >= 0 && length <= halfCapacity) {
+            payload = new byte[length];
+            map.get(h + HALF_HEADER, payload);
+        } else if (magic == SPILLED && length > halfCapacity) {
+            payload = readSpill(spillFile(slot, half), length);
+        }
+        if (payload != null && checksum(generation, payload) != map.getInt(h + 16)) payload = null;
+        halfGenerations[2 * slot + half] = payload != null && generation > 0 ? generation : 0;
+        return payload;
+    }
+
+    private Path spillFile(int slot, int half) {
+        return file.resolveSibling(file.getFileName() + "." + slot + "." + half);
+    }
+
+    private static void writeSpill(Path spill, byte[] payload, boolean sync) throws IOException {
+        try (FileChannel ch = FileChannel.open(spill, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(payload);
+            while (buffer.hasRemaining()) ch.write(buffer);
+            if (sync) ch.force(true);
+        }
+    }
+
+    /** @return El contenido del archivo aparte, o null si falta o no tiene la longitud esperada. */
+    private static byte[] readSpill(Path spill, int length) {
+        try {
+            if (!Files.exists(spill) || Files.size(spill) != length) return null;
+            return Files.readAllBytes(spill);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private int cursor(int slot, long generation) {
+        if (journalCursor[slot] >= 0) return journalCursor[slot];
+        int base = journalOffset(slot);
+        int count = 0;
+        while (count < journalRecords) {
+            int r = base + count * RECORD_BYTES;
+            if (map.getInt(r + 5) != recordChecksum(generation, map.get(r), map.getInt(r + 1))) break;
+            count++;
+        }
+        journalCursor[slot] = count;
+        return count;
+    }
+
+    /** Escribe la cabecera y la fecha en una entrada y recalcula su CRC. */
+    private void putHeader(int e, SaveHeader header) {
+        byte[] nick = header.getNickname().getBytes(StandardCharsets.UTF_8);
+        int nickLength = Math.min(NICK_BYTES, nick.length);
+        map.putLong(e + E_SAVED_AT, System.currentTimeMillis());
+        map.putShort(e + E_NICK_LENGTH, (short) nickLength);
+        map.put(e + E_NICK, nick, 0, nickLength);
+        for (int i = E_NICK + nickLength; i < E_NICK + NICK_BYTES; i++) map.put(e + i, (byte) 0);
+        map.put(e + E_PHASE, (byte) (header.isPlacementPhase() ? 1 : 0));
+        map.putInt(e + E_TURNS, header.getTurns());
+        map.putInt(e + E_PLAYER_LEFT, header.getPlayerShipsLeft());
+        map.putInt(e + E_MACHINE_LEFT, header.getMachineShipsLeft());
+        map.putInt(e + ENTRY_BYTES - 4, entryChecksum((e - ENTRIES_OFFSET) / ENTRY_BYTES));
+    }
+
+    /**
+     * Rehace una entrada dañada (por ejemplo, una cabecera escrita a medias) a partir de
+     * las mitades, o la deja vacía si ninguna es válida.
+     */
+    private void repairEntry(int slot) {
+        int e = entryOffset(slot);
+        int half = newestHalf(slot);
+        if (half < 0) {
+            for (int i = 0; i < ENTRY_BYTES; i++) map.put(e + i, (byte) 0);
+        } else {
+            System.err.println("⚠️ Índice de la ranura " + slot + " dañado, se rehace desde su instantánea");
+            map.put(e, (byte) 1).put(e + 1, (byte) half).putLong(e + E_GENERATION, halfGeneration(slot, half));
+            putHeader(e, SaveHeader.unknown());
+        }
+        map.force(e, ENTRY_BYTES);
+    }
+
+    private boolean entryValid(int slot) {
+        int e = entryOffset(slot);
+        if (map.get(e) == 0 && map.getInt(e + ENTRY_BYTES - 4) == 0) return true; // entrada vacía
+        return map.getInt(e + ENTRY_BYTES - 4) == entryChecksum(slot);
+    }
+
+    private int entryChecksum(int slot) {
+        crc.reset();
+        crc.update(map.slice(entryOffset(slot), ENTRY_BYTES - 4));
+        return (int) crc.getValue();
+    }
+
+    private int checksum(long generation, byte[] payload) {
+        crc.reset();
+        for (int shift = 56; shift >= 0; shift -= 8) crc.update((int) (generation >>> shift));
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private int recordChecksum(long generation, byte tag, int cell) {
+        crc.reset();
+        for (int shift = 56; shift >= 0; shift -= 8) crc.update((int) (generation >>> shift));
+        crc.update(tag);
+        for (int shift = 24; shift >= 0; shift -= 8) crc.update(cell >>> shift);
+        return (int) crc.getValue();
+    }
+
+    private int entryOffset(int slot) {
+        return ENTRIES_OFFSET + slot * ENTRY_BYTES;
+    }
+
+    private int halfOffset(int slot, int half) {
+        return PAGE + slot * slotBytes + half * (HALF_HEADER + halfCapacity);
+    }
+
+    private int journalOffset(int slot) {
+        return PAGE + slot * slotBytes + 2 * (HALF_HEADER + halfCapacity);
+    }
+
+    private static int slotBytes(int halfCapacity, int journalRecords) {
+        int raw = 2 * (HALF_HEADER + halfCapacity) + journalRecords * RECORD_BYTES;
+        return (raw + PAGE - 1) / PAGE * PAGE;
+    }
+
+    private void checkSlot(int slot) {
+        if (slot < 0 || slot >= slotCount) {
+            throw new IllegalArgumentException("Ranura inválida: " + slot);
+        }
+    }
+
+    /**
+     * Descripción de una ranura ocupada, tal como figura en el índice.
+     */
+    public static final class SlotInfo {
+        private final int slot;
+        private final SaveHeader header;
+        private final long generation;
+        private final long savedAt;
+
+        SlotInfo(int slot, SaveHeader header, long generation, long savedAt) {
+            this.slot = slot;
+            this.header = header;
+            this.generation = generation;
+            this.savedAt = savedAt;
+        }
+
+        /** @return Número de ranura. */
+        public int getSlot() {
+            return slot;
+        }
+
+        /** @return Cabecera de la partida guardada. */
+        public SaveHeader getHeader() {
+            return header;
+        }
+
+        /** @return Generación de la instantánea vigente. */
+        public long getGeneration() {
+            return generation;
+        }
+
+        /** @return Momento del último guardado, en milisegundos desde la época. */
+        public long getSavedAt() {
+            return savedAt;
+        }
+    }
+}
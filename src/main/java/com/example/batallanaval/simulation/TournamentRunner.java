@@ -0,0 +1,312 @@
+package com.example.batallanaval.simulation;
+
+import com.example.batallanaval.ai.FleetPlacer;
+import com.example.batallanaval.ai.ShotStrategy;
+import com.example.batallanaval.ai.ShotStrategyProvider;
+import com.example.batallanaval.ai.Strategies;
+import com.example.batallanaval.models.Board;
+import com.example.batallanaval.models.ShotResult;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Enfrenta dos estrategias de disparo sin interfaz gráfica, sobre {@link Board}, en
+ * millones de partidas repartidas entre varios hilos.
+ * <p>
+ * Cada partida se deriva de la semilla del torneo y de su número, así que el resultado
+ * no depende del número de hilos. Las reglas son las del juego: quien acierta sigue
+ * disparando, quien falla cede el turno, y empieza A en las partidas pares y B en las
+ * impares. Cada hilo acumula sus propios contadores y se suman al final.
+ * <p>
+ * Uso: {@code TournamentRunner [a=heat-map] [b=hunt-target] [placer=uniform]
+ * [games=1000000] [threads=N] [size=10] [seed=1]}
+ */
+public final class TournamentRunner {
+
+    /** Partidas que un hilo reserva de una vez. */
+    private static final int BATCH = 1024;
+
+    private final String shooterA;
+    private final String shooterB;
+    private final String placer;
+    private final int boardSize;
+    private final long seed;
+
+    /**
+     * Prepara un torneo.
+     * @param shooterA Nombre de la estrategia A.
+     * @param shooterB Nombre de la estrategia B.
+     * @param placer Nombre de la estrategia de colocación de ambas flotas.
+     * @param boardSize Lado del tablero.
+     * @param seed Semilla del torneo.
+     * @throws IllegalArgumentException si alguna estrategia no existe.
+     */
+    public TournamentRunner(String shooterA, String shooterB, String placer, int boardSize, long seed) {
+        // Falla pronto si algún nombre no existe
+        Strategies.shooterProvider(shooterA);
+        Strategies.shooterProvider(shooterB);
+        Strategies.fleetPlacer(placer);
+        this.shooterA = shooterA;
+        this.shooterB = shooterB;
+        this.placer = placer;
+        this.boardSize = boardSize;
+        this.seed = seed;
+    }
+
+    /**
+     * Juega el torneo.
+     * @param games Número de partidas.
+     * @param threads Hilos a usar.
+     * @return El informe agregado.
+     */
+    public Report run(long games, int threads) {
+        AtomicLong next = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            List<Future<Tally>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> playBatches(next, games)));
+            }
+            Tally total = new Tally(boardSize);
+            for (Future<Tally> f : futures) total.add(f.get());
+            return new Report(shooterA, shooterB, total, System.nanoTime() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Torneo interrumpido", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Fallo en una partida del torneo", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Tally playBatches(AtomicLong next, long games) {
+        ShotStrategyProvider providerA = Strategies.shooterProvider(shooterA);
+        ShotStrategyProvider providerB = Strategies.shooterProvider(shooterB);
+        FleetPlacer fleetPlacer = Strategies.fleetPlacer(placer);
+        Board fleetA = new Board(boardSize);
+        Board fleetB = new Board(boardSize);
+        Tally tally = new Tally(boardSize);
+
+        long from;
+        while ((from = next.getAndAdd(BATCH)) < games) {
+            long to = Math.min(games, from + BATCH);
+            for (long game = from; game < to; game++) {
+                long gameSeed = mix(seed + game * 0x9E3779B97F4A7C15L);
+                Random random = new Random(gameSeed);
+                fleetA.clear();
+                fleetB.clear();
+                fleetPlacer.place(fleetA, random);
+                fleetPlacer.place(fleetB, random);
+                ShotStrategy a = providerA.create(mix(gameSeed ^ 1));
+                ShotStrategy b = providerB.create(mix(gameSeed ^ 2));
+                playGame(a, b, fleetA, fleetB, (game & 1) == 0, tally);
+                a.gameOver();
+                b.gameOver();
+            }
+        }
+        return tally;
+    }
+
+    /**
+     * Juega una partida. A dispara sobre la flota de B y viceversa.
+     */
+    private static void playGame(ShotStrategy a, ShotStrategy b, Board fleetA, Board fleetB,
+                                 boolean aStarts, Tally tally) {
+        int shotsA = 0;
+        int shotsB = 0;
+        boolean turnA = aStarts;
+        while (true) {
+            ShotStrategy shooter = turnA ? a : b;
+            Board target = turnA ? fleetB : fleetA;
+            ShotResult result = fire(shooter, target);
+            if (turnA) shotsA++; else shotsB++;
+            if (target.isGameOver()) {
+                tally.record(turnA, turnA ? shotsA : shotsB);
+                return;
+            }
+            if (result == ShotResult.MISS) turnA = !turnA;
+        }
+    }
+
+    private static ShotResult fire(ShotStrategy shooter, Board target) {
+        int size = target.getSize();
+        int cell = shooter.nextShot(target);
+        int row = cell / size;
+        int col = cell % size;
+        ShotResult result = target.shoot(row, col);
+        if (result == null) {
+            throw new IllegalStateException("La estrategia repitió el disparo (" + row + ", " + col + ")");
+        }
+        shooter.onShotResult(row, col, result, result == ShotResult.SUNK ? target.getShipAt(row, col) : null);
+        return result;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Contadores de un hilo: victorias, disparos del ganador y su distribución.
+     */
+    static final class Tally {
+        long winsA;
+        long winsB;
+        long shotsA;
+        long shotsB;
+        /** Partidas ganadas con exactamente {@code i} disparos del ganador. */
+        final long[] histogram;
+
+        Tally(int boardSize) {
+            histogram = new long[boardSize * boardSize + 1];
+        }
+
+        void record(boolean aWon, int shots) {
+            if (aWon) {
+                winsA++;
+                shotsA += shots;
+            } else {
+                winsB++;
+                shotsB += shots;
+            }
+            histogram[shots]++;
+        }
+
+        void add(Tally other) {
+            winsA += other.winsA;
+            winsB += other.winsB;
+            shotsA += other.shotsA;
+            shotsB += other.shotsB;
+            for (int i = 0; i < histogram.length; i++) histogram[i] += other.histogram[i];
+        }
+    }
+
+    /**
+     * Resultado de un torneo.
+     */
+    public static final class Report {
+        private final String shooterA;
+        private final String shooterB;
+        private final Tally tally;
+        private final long elapsedNanos;
+
+        Report(String shooterA, String shooterB, Tally tally, long elapsedNanos) {
+            this.shooterA = shooterA;
+            this.shooterB = shooterB;
+            this.tally = tally;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /** @return Partidas jugadas. */
+        public long games() {
+            return tally.winsA + tally.winsB;
+        }
+
+        /** @return Victorias de A. */
+        public long winsA() {
+            return tally.winsA;
+        }
+
+        /** @return Victorias de B. */
+        public long winsB() {
+            return tally.winsB;
+        }
+
+        /** @return Media de disparos de A en las partidas que gana. */
+        public double averageShotsToWinA() {
+            return tally.winsA == 0 ? 0 : (double) tally.shotsA / tally.winsA;
+        }
+
+        /** @return Media de disparos de B en las partidas que gana. */
+        public double averageShotsToWinB() {
+            return tally.winsB == 0 ? 0 : (double) tally.shotsB / tally.winsB;
+        }
+
+        /** @return Copia de la distribución: partidas ganadas con {@code i} disparos. */
+        public long[] histogram() {
+            return tally.histogram.clone();
+        }
+
+        /**
+         * Percentil de disparos del ganador.
+         * @param p Fracción entre 0 y 1.
+         * @return El menor número de disparos que alcanza esa fracción de partidas.
+         */
+        public int percentile(double p) {
+            long target = (long) Math.ceil(p * games());
+            long seen = 0;
+            for (int i = 0; i < tally.histogram.length; i++) {
+                seen += tally.histogram[i];
+                if (seen >= target && seen > 0) return i;
+            }
+            return tally.histogram.length - 1;
+        }
+
+        /** @return Partidas por segundo. */
+        public double gamesPerSecond() {
+            return games() * 1e9 / Math.max(1, elapsedNanos);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("Partidas: %d en %.2f s (%.0f partidas/s)%n",
+                    games(), elapsedNanos / 1e9, gamesPerSecond()));
+            sb.append(String.format("A %-12s victorias %d (%.1f%%), disparos medios para ganar %.2f%n",
+                    shooterA, winsA(), 100.0 * winsA() / Math.max(1, games()), averageShotsToWinA()));
+            sb.append(String.format("B %-12s victorias %d (%.1f%%), disparos medios para ganar %.2f%n",
+                    shooterB, winsB(), 100.0 * winsB() / Math.max(1, games()), averageShotsToWinB()));
+            sb.append(String.format("Disparos del ganador: p10=%d p50=%d p90=%d p99=%d%n",
+                    percentile(0.10), percentile(0.50), percentile(0.90), percentile(0.99)));
+            long max = 0;
+            for (long count : tally.histogram) max = Math.max(max, count);
+            for (int i = 0; i < tally.histogram.length; i++) {
+                long count = tally.histogram[i];
+                if (count == 0) continue;
+                int bar = (int) (50 * count / max);
+                sb.append(String.format("%4d | %-50s %d%n", i, "#".repeat(bar), count));
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Punto de entrada por consola. Los argumentos son pares {@code clave=valor}.
+     * @param args Argumentos.
+     */
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                System.err.println("Argumento no válido: " + arg);
+                System.err.println("Uso: a=<estrategia> b=<estrategia> placer=<colocación> games=<n> threads=<n> size=<n> seed=<n>");
+                System.err.println("Estrategias: " + Strategies.shooterNames() + ", colocación: " + Strategies.placerNames());
+                System.exit(2);
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        TournamentRunner runner = new TournamentRunner(
+                options.getOrDefault("a", "heat-map"),
+                options.getOrDefault("b", Strategies.DEFAULT_SHOOTER),
+                options.getOrDefault("placer", Strategies.DEFAULT_PLACER),
+                Integer.parseInt(options.getOrDefault("size", String.valueOf(Board.DEFAULT_SIZE))),
+                Long.parseLong(options.getOrDefault("seed", "1")));
+        long games = Long.parseLong(options.getOrDefault("games", "1000000"));
+        int threads = Integer.parseInt(options.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        System.out.print(runner.run(games, threads));
+    }
+}
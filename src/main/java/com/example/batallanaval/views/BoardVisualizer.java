@@ -11,8 +11,12 @@ import javafx.scene.shape.Rectangle;
  * incluyendo la cuadrícula, los highlights de selección y de objetivo.
  */
 public class BoardVisualizer {
+    /** Lado mínimo en píxeles de una celda para que merezca la pena dibujar sus líneas. */
+    private static final double MIN_GRID_CELL = 4;
     private Pane shipsPane;
     private double cellSize;
+    /** Lado del tablero en celdas. */
+    private final int boardSize;
     // Highlight del Jugador (Verde/Rojo)
     private final Rectangle selectionHighlight = new Rectangle();
     // Highlight del Enemigo (Mira Amarilla/Naranja)
@@ -22,10 +26,12 @@ public class BoardVisualizer {
      * Constructor para el visualizador del tablero.
      * @param shipsPane El panel donde se dibujarán los elementos del tablero del jugador.
      * @param cellSize El tamaño en píxeles de una sola celda del tablero.
+     * @param boardSize El lado del tablero en celdas.
      */
-    public BoardVisualizer(Pane shipsPane, double cellSize) {
+    public BoardVisualizer(Pane shipsPane, double cellSize, int boardSize) {
         this.shipsPane = shipsPane;
         this.cellSize = cellSize;
+        this.boardSize = boardSize;
         initializePlayerHighlight();
     }
 
@@ -48,11 +54,12 @@ public class BoardVisualizer {
     }
 
     /**
-     * Dibuja las líneas de la cuadrícula de 10x10 en un panel objetivo.
+     * Dibuja las líneas de la cuadrícula en un panel objetivo. Si las celdas son
+     * demasiado pequeñas (tableros muy grandes) solo se dibuja el borde exterior.
      * @param targetPane El panel donde se dibujará la cuadrícula.
      */
     public void drawGrid(Pane targetPane) {
-        double size = cellSize * 10;
+        double size = cellSize * boardSize;
         Canvas grid = new Canvas(size, size);
         GraphicsContext gc = grid.getGraphicsContext2D();
 
@@ -60,9 +67,13 @@ public class BoardVisualizer {
         gc.setStroke(Color.web("#FFFFFF", 0.2));
         gc.setLineWidth(1);
 
-        for (int i = 0; i <= 10; i++) {
-            gc.strokeLine(i * cellSize, 0, i * cellSize, size);
-            gc.strokeLine(0, i * cellSize, size, i * cellSize);
+        if (cellSize >= MIN_GRID_CELL) {
+            for (int i = 0; i <= boardSize; i++) {
+                gc.strokeLine(i * cellSize, 0, i * cellSize, size);
+                gc.strokeLine(0, i * cellSize, size, i * cellSize);
+            }
+        } else {
+            gc.strokeRect(0, 0, size, size);
         }
 
         // Agregar al fondo del panel objetivo
@@ -91,12 +102,12 @@ public class BoardVisualizer {
 
     /**
      * Actualiza la posición del highlight de objetivo (mira) en el tablero enemigo.
-     * @param col Columna (0-9) donde se moverá la mira.
-     * @param row Fila (0-9) donde se moverá la mira.
+     * @param col Columna donde se moverá la mira.
+     * @param row Fila donde se moverá la mira.
      */
     public void updateTargetHighlight(int col, int row) {
-        // Validar que esté dentro del tablero (0-9)
-        if (col < 0 || row < 0 || col >= 10 || row >= 10) {
+        // Validar que esté dentro del tablero
+        if (col < 0 || row < 0 || col >= boardSize || row >= boardSize) {
             targetHighlight.setVisible(false);
             return;
         }
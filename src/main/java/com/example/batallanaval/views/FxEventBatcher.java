@@ -0,0 +1,163 @@
+package com.example.batallanaval.views;
+
+import com.example.batallanaval.engine.GamePhase;
+import com.example.batallanaval.engine.GameSession;
+import com.example.batallanaval.engine.SessionListener;
+import com.example.batallanaval.models.Board;
+import com.example.batallanaval.models.Ship;
+import com.example.batallanaval.models.ShotResult;
+import javafx.application.Platform;
+
+import java.util.Arrays;
+
+/**
+ * Agrupa los eventos de una sesión y los entrega a la vista en el hilo de JavaFX, en una
+ * sola actualización por pulso.
+ * <p>
+ * Los eventos pueden llegar desde cualquier hilo. El primero de un lote programa un único
+ * {@link Platform#runLater}; los que llegan antes de que se ejecute se añaden al mismo
+ * lote, y los cambios de flota o de fase seguidos de la misma fuente se funden en uno.
+ * Al vaciar el lote se reenvían los eventos al destino en orden y después se llama una
+ * vez a {@code afterBatch} (por ejemplo, para refrescar las etiquetas).
+ * <p>
+ * Los lotes se guardan en arreglos paralelos que se reutilizan: en régimen estable
+ * encolar un evento no reserva memoria.
+ */
+public final class FxEventBatcher implements SessionListener {
+
+    private static final byte SHOT = 0;
+    private static final byte SUNK = 1;
+    private static final byte FLEET = 2;
+    private static final byte PHASE = 3;
+    private static final byte UNDONE = 4;
+
+    private final SessionListener target;
+    private final Runnable afterBatch;
+    /** Lote que se está llenando y lote que se está entregando; se intercambian. */
+    private Batch filling = new Batch();
+    private Batch draining = new Batch();
+    private boolean scheduled;
+    private boolean closed;
+
+    /**
+     * @param target Destino de los eventos, invocado en el hilo de JavaFX.
+     * @param afterBatch Se llama una vez al final de cada lote, en el hilo de JavaFX.
+     */
+    public FxEventBatcher(SessionListener target, Runnable afterBatch) {
+        this.target = target;
+        this.afterBatch = afterBatch;
+    }
+
+    @Override
+    public void shotFired(Board board, int row, int col, ShotResult result) {
+        enqueue(SHOT, board, row, col, result, null);
+    }
+
+    @Override
+    public void shipSunk(Board board, Ship ship) {
+        enqueue(SUNK, board, 0, 0, null, ship);
+    }
+
+    @Override
+    public void shotUndone(Board board, int row, int col, ShotResult result, Ship ship) {
+        enqueue(UNDONE, board, row, col, result, ship);
+    }
+
+    @Override
+    public void fleetChanged(Board board) {
+        enqueue(FLEET, board, 0, 0, null, null);
+    }
+
+    @Override
+    public void phaseChanged(GameSession session, GamePhase phase) {
+        enqueue(PHASE, session, 0, 0, null, phase);
+    }
+
+    /**
+     * Descarta lo pendiente y deja de entregar eventos, para cuando la vista cambia de
+     * sesión. El batcher debe darse de baja de la sesión por separado.
+     */
+    public synchronized void close() {
+        closed = true;
+        filling.clear();
+    }
+
+    private synchronized void enqueue(byte kind, Object source, int row, int col, ShotResult result, Object value) {
+        if (closed) return;
+        Batch batch = filling;
+        int last = batch.count - 1;
+        if ((kind == FLEET || kind == PHASE) && last >= 0
+                && batch.kinds[last] == kind && batch.sources[last] == source) {
+            batch.values[last] = value;
+            return;
+        }
+        batch.add(kind, source, row, col, result, value);
+        if (!scheduled) {
+            scheduled = true;
+            Platform.runLater(this::drain);
+        }
+    }
+
+    private void drain() {
+        Batch batch;
+        synchronized (this) {
+            scheduled = false;
+            if (closed) return;
+            batch = filling;
+            filling = draining;
+            draining = batch;
+        }
+        for (int i = 0; i < batch.count; i++) {
+            switch (batch.kinds[i]) {
+                case SHOT -> target.shotFired((Board) batch.sources[i], batch.rows[i], batch.cols[i],
+                        batch.results[i]);
+                case SUNK -> target.shipSunk((Board) batch.sources[i], (Ship) batch.values[i]);
+                case UNDONE -> target.shotUndone((Board) batch.sources[i], batch.rows[i], batch.cols[i],
+                        batch.results[i], (Ship) batch.values[i]);
+                case FLEET -> target.fleetChanged((Board) batch.sources[i]);
+                case PHASE -> target.phaseChanged((GameSession) batch.sources[i], (GamePhase) batch.values[i]);
+                default -> throw new IllegalStateException("Evento desconocido: " + batch.kinds[i]);
+            }
+        }
+        batch.clear();
+        afterBatch.run();
+    }
+
+    /**
+     * Eventos de un lote en arreglos paralelos.
+     */
+    private static final class Batch {
+        int count;
+        byte[] kinds = new byte[32];
+        int[] rows = new int[32];
+        int[] cols = new int[32];
+        Object[] sources = new Object[32];
+        ShotResult[] results = new ShotResult[32];
+        Object[] values = new Object[32];
+
+        void add(byte kind, Object source, int row, int col, ShotResult result, Object value) {
+            if (count == kinds.length) {
+                int capacity = count * 2;
+                kinds = Arrays.copyOf(kinds, capacity);
+                rows = Arrays.copyOf(rows, capacity);
+                cols = Arrays.copyOf(cols, capacity);
+                sources = Arrays.copyOf(sources, capacity);
+                results = Arrays.copyOf(results, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            kinds[count] = kind;
+            rows[count] = row;
+            cols[count] = col;
+            sources[count] = source;
+            results[count] = result;
+            values[count] = value;
+            count++;
+        }
+
+        void clear() {
+            Arrays.fill(sources, 0, count, null);
+            Arrays.fill(values, 0, count, null);
+            count = 0;
+        }
+    }
+}
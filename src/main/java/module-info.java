@@ -5,10 +5,26 @@ module com.example.batallanaval {
     requires javafx.base;
     requires javafx.graphics;
 
+    uses com.example.batallanaval.ai.ShotStrategyProvider;
+    uses com.example.batallanaval.ai.FleetPlacerProvider;
 
+    provides com.example.batallanaval.ai.ShotStrategyProvider with
+            com.example.batallanaval.ai.HuntTargetProvider,
+            com.example.batallanaval.ai.HeatMapProvider,
+            com.example.batallanaval.ai.MonteCarloProvider,
+            com.example.batallanaval.ai.ExternalBotProvider;
+    provides com.example.batallanaval.ai.FleetPlacerProvider with
+            com.example.batallanaval.ai.UniformPlacerProvider,
+            com.example.batallanaval.ai.FastPlacerProvider;
 
     opens com.example.batallanaval.controllers to javafx.fxml;
     opens com.example.batallanaval to javafx.graphics;
     exports com.example.batallanaval;
     exports com.example.batallanaval.controllers;
-}
\ No newline at end of file
+    exports com.example.batallanaval.models;
+    exports com.example.batallanaval.ai;
+    exports com.example.batallanaval.simulation;
+    exports com.example.batallanaval.engine;
+    exports com.example.batallanaval.net;
+    exports com.example.batallanaval.persistence;
+}
@@ -0,0 +1,351 @@
+package com.example.batallanaval.simulation;
+
+import com.example.batallanaval.ai.FleetPlacer;
+import com.example.batallanaval.ai.ShotStrategy;
+import com.example.batallanaval.ai.Strategies;
+import com.example.batallanaval.engine.GamePhase;
+import com.example.batallanaval.engine.GameSession;
+import com.example.batallanaval.engine.SessionHooks;
+import com.example.batallanaval.engine.Shot;
+import com.example.batallanaval.models.Board;
+import com.example.batallanaval.models.ShotResult;
+import com.example.batallanaval.persistence.ReplayReader;
+import com.example.batallanaval.persistence.ReplayWriter;
+import com.example.batallanaval.persistence.SaveManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Ejecuta sesiones de juego sin interfaz, cada una en su propio hilo virtual (Java 21).
+ * <p>
+ * A diferencia de {@link TournamentRunner}, que reparte lotes de partidas entre pocos
+ * hilos, aquí cada sesión es código secuencial normal que puede bloquearse cuando lo
+ * necesite (una estrategia que espera a otro proceso, la lectura de una repetición): el
+ * hilo virtual se desmonta de su portador mientras espera. Un semáforo limita las
+ * sesiones en vuelo para que un millón de sesiones no reserve un millón de tableros a
+ * la vez.
+ * <p>
+ * Para que un hilo virtual no quede fijado a su portador, las sesiones no deben
+ * bloquearse dentro de {@code synchronized}: cada sesión tiene sus propios tableros y
+ * estrategias (que no son seguras entre hilos ni comparten candados), usa
+ * {@link SessionHooks#NONE} en lugar del servicio de guardado, y lo compartido
+ * ({@link Strategies}, las tablas de colocación) es inmutable o se publica sin monitores.
+ * Se puede comprobar con {@code -Djdk.tracePinnedThreads=full}.
+ * <p>
+ * Se compila solo con el perfil {@code java21} de Maven, que se activa al construir con
+ * un JDK 21 o posterior.
+ * <p>
+ * Uso: {@code VirtualSessionHost [mode=bots|replays] [sessions=1000,10000,100000,1000000]
+ * [inflight=10000] [a=hunt-target] [b=hunt-target] [placer=uniform] [size=10] [seed=1]
+ * [dir=<carpeta de repeticiones>]}
+ */
+public final class VirtualSessionHost {
+
+    /**
+     * Una sesión a ejecutar en su propio hilo virtual.
+     */
+    @FunctionalInterface
+    public interface Session {
+
+        /**
+         * Juega la sesión de principio a fin; puede bloquearse.
+         * @param id Número de la sesión dentro de la ejecución.
+         * @throws Exception si la sesión falla; se cuenta y la ejecución sigue.
+         */
+        void play(long id) throws Exception;
+    }
+
+    private final int maxInFlight;
+
+    /**
+     * @param maxInFlight Sesiones que pueden estar en curso a la vez.
+     */
+    public VirtualSessionHost(int maxInFlight) {
+        if (maxInFlight < 1) throw new IllegalArgumentException("Sesiones en vuelo inválidas: " + maxInFlight);
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Ejecuta las sesiones y espera a que terminen todas.
+     * @param sessions Número de sesiones.
+     * @param session La sesión, que recibe su número.
+     * @return El informe de la ejecución.
+     */
+    public Report run(long sessions, Session session) {
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder failures = new LongAdder();
+        AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long id = 0; id < sessions; id++) {
+                inFlight.acquireUninterruptibly();
+                long sessionId = id;
+                executor.execute(() -> {
+                    long begin = System.nanoTime();
+                    try {
+                        session.play(sessionId);
+                    } catch (Throwable e) {
+                        failures.increment();
+                        firstFailure.compareAndSet(null, e);
+                    } finally {
+                        latency.record(System.nanoTime() - begin);
+                        inFlight.release();
+                    }
+                });
+            }
+        } // close() espera a que terminen todas
+        return new Report(sessions, failures.sum(), firstFailure.get(), latency, System.nanoTime() - start);
+    }
+
+    // ========= SESIONES =========
+
+    /**
+     * Partidas completas entre dos estrategias a través de {@link GameSession}: una hace
+     * de jugador y la otra de máquina. Cada partida se deriva de la semilla y de su número.
+     * @param playerAi Estrategia que juega como jugador.
+     * @param machineAi Estrategia de la máquina.
+     * @param placer Colocación de ambas flotas.
+     * @param boardSize Lado del tablero.
+     * @param seed Semilla de la ejecución.
+     * @return La sesión.
+     * @throws IllegalArgumentException si alguna estrategia no existe.
+     */
+    public static Session botMatches(String playerAi, String machineAi, String placer, int boardSize, long seed) {
+        // Falla pronto si algún nombre no existe
+        Strategies.shooterProvider(playerAi);
+        Strategies.shooterProvider(machineAi);
+        Strategies.fleetPlacer(placer);
+        return id -> {
+            long gameSeed = seed + id * 0x9E3779B97F4A7C15L;
+            Random random = new Random(gameSeed);
+            FleetPlacer fleetPlacer = Strategies.fleetPlacer(placer);
+            Board player = new Board(boardSize);
+            Board machine = new Board(boardSize);
+            fleetPlacer.place(player, random);
+            fleetPlacer.place(machine, random);
+            GameSession game = new GameSession("bot-" + id, player, machine, machineAi, gameSeed ^ 2, SessionHooks.NONE);
+            ShotStrategy shooter = Strategies.shotStrategy(playerAi, gameSeed ^ 1);
+            game.startBattle();
+            while (!game.isFinished()) {
+                if (game.getPhase() == GamePhase.MACHINE_TURN) {
+                    game.playMachineTurn();
+                    continue;
+                }
+                int cell = shooter.nextShot(machine);
+                Shot shot = game.playerShot(cell / boardSize, cell % boardSize);
+                if (shot == null) {
+                    throw new IllegalStateException("La estrategia repitió el disparo " + cell);
+                }
+                shooter.onShotResult(shot.getRow(), shot.getCol(), shot.getResult(), shot.getSunkShip());
+            }
+            shooter.gameOver();
+        };
+    }
+
+    /**
+     * Verifica repeticiones archivadas: vuelve a aplicar cada disparo sobre las flotas
+     * iniciales y comprueba que el resultado y el ganador coinciden con lo grabado. La
+     * sesión {@code id} verifica el archivo {@code id % replays.size()}.
+     * @param replays Archivos de repetición.
+     * @return La sesión.
+     * @throws IllegalArgumentException si la lista está vacía.
+     */
+    public static Session replayVerification(List<Path> replays) {
+        if (replays.isEmpty()) throw new IllegalArgumentException("No hay repeticiones que verificar");
+        List<Path> files = List.copyOf(replays);
+        return id -> {
+            Path file = files.get((int) (id % files.size()));
+            try (ReplayReader reader = ReplayReader.open(file)) {
+                Board player = reader.initialPlayerBoard();
+                Board machine = reader.initialMachineBoard();
+                int size = reader.getBoardSize();
+                while (reader.next()) {
+                    Board target = reader.isOnPlayerBoard() ? player : machine;
+                    ShotResult result = target.shoot(reader.getCell() / size, reader.getCell() % size);
+                    if (result != reader.getResult()) {
+                        throw new IllegalStateException(file + ": el turno " + reader.turn() + " dio " + result
+                                + " y se grabó " + reader.getResult());
+                    }
+                }
+                Board loser = reader.isPlayerWinner() ? machine : player;
+                if (!loser.isGameOver()) {
+                    throw new IllegalStateException(file + ": el ganador grabado no hundió la flota rival");
+                }
+            }
+        };
+    }
+
+    // ========= INFORME =========
+
+    /**
+     * Histograma de latencias sin candados, con cubos logarítmicos de 16 subdivisiones
+     * (error relativo menor del 7 %). Se registra desde muchos hilos a la vez.
+     */
+    static final class LatencyHistogram {
+        private static final int SUB_BITS = 4;
+        private static final int SUB = 1 << SUB_BITS;
+        private final AtomicLongArray counts = new AtomicLongArray((64 - SUB_BITS) * SUB);
+        private final LongAdder total = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+        void record(long nanos) {
+            counts.incrementAndGet(bucket(Math.max(0, nanos)));
+            total.add(nanos);
+            max.accumulate(nanos);
+        }
+
+        long percentile(double p, long samples) {
+            long target = Math.max(1, (long) Math.ceil(p * samples));
+            long seen = 0;
+            for (int i = 0; i < counts.length(); i++) {
+                seen += counts.get(i);
+                if (seen >= target) return lowerBound(i);
+            }
+            return max.get();
+        }
+
+        private static int bucket(long value) {
+            if (value < SUB) return (int) value;
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB - 1);
+            return (exponent - SUB_BITS + 1) * SUB + sub;
+        }
+
+        private static long lowerBound(int bucket) {
+            if (bucket < SUB) return bucket;
+            int exponent = bucket / SUB + SUB_BITS - 1;
+            return (long) (SUB + bucket % SUB) << (exponent - SUB_BITS);
+        }
+    }
+
+    /**
+     * Resultado de una ejecución.
+     */
+    public static final class Report {
+        private final long sessions;
+        private final long failures;
+        private final Throwable firstFailure;
+        private final LatencyHistogram latency;
+        private final long elapsedNanos;
+
+        Report(long sessions, long failures, Throwable firstFailure, LatencyHistogram latency, long elapsedNanos) {
+            this.sessions = sessions;
+            this.failures = failures;
+            this.firstFailure = firstFailure;
+            this.latency = latency;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /** @return Sesiones ejecutadas. */
+        public long sessions() {
+            return sessions;
+        }
+
+        /** @return Sesiones que terminaron con una excepción. */
+        public long failures() {
+            return failures;
+        }
+
+        /** @return La primera excepción de una sesión, o null si no falló ninguna. */
+        public Throwable firstFailure() {
+            return firstFailure;
+        }
+
+        /** @return Sesiones por segundo. */
+        public double sessionsPerSecond() {
+            return sessions * 1e9 / Math.max(1, elapsedNanos);
+        }
+
+        /**
+         * Percentil de la duración de una sesión, desde que empieza en su hilo hasta que
+         * termina (incluye sus esperas).
+         * @param p Fracción entre 0 y 1.
+         * @return Nanosegundos (cota inferior del cubo).
+         */
+        public long latencyPercentile(double p) {
+            return latency.percentile(p, sessions);
+        }
+
+        /** @return Duración media de una sesión, en nanosegundos. */
+        public double meanLatency() {
+            return (double) latency.total.sum() / Math.max(1, sessions);
+        }
+
+        /** @return Duración de la sesión más lenta, en nanosegundos. */
+        public long maxLatency() {
+            return latency.max.get();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("Sesiones: %d en %.2f s (%.0f sesiones/s), fallidas %d%n",
+                    sessions, elapsedNanos / 1e9, sessionsPerSecond(), failures));
+            sb.append(String.format("Latencia por sesión (µs): media=%.1f p50=%.1f p90=%.1f p99=%.1f máx=%.1f%n",
+                    meanLatency() / 1e3, latencyPercentile(0.50) / 1e3, latencyPercentile(0.90) / 1e3,
+                    latencyPercentile(0.99) / 1e3, maxLatency() / 1e3));
+            if (firstFailure != null) sb.append("Primer fallo: ").append(firstFailure).append('\n');
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Punto de entrada por consola. Los argumentos son pares {@code clave=valor}; con
+     * varias cantidades de sesiones separadas por comas se ejecuta una tras otra, para ver
+     * cómo escala.
+     * @param args Argumentos.
+     * @throws IOException si no se puede listar la carpeta de repeticiones.
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                System.err.println("Argumento no válido: " + arg);
+                System.err.println("Uso: mode=bots|replays sessions=<n,n,...> inflight=<n> a=<estrategia> b=<estrategia> "
+                        + "placer=<colocación> size=<n> seed=<n> dir=<carpeta>");
+                System.err.println("Estrategias: " + Strategies.shooterNames() + ", colocación: " + Strategies.placerNames());
+                System.exit(2);
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        Session session;
+        if ("replays".equals(options.getOrDefault("mode", "bots"))) {
+            List<Path> replays;
+            if (options.containsKey("dir")) {
+                try (Stream<Path> files = Files.list(Path.of(options.get("dir")))) {
+                    replays = files.filter(f -> f.toString().endsWith(ReplayWriter.EXTENSION)).sorted().toList();
+                }
+            } else {
+                replays = SaveManager.listReplays();
+            }
+            session = replayVerification(replays);
+        } else {
+            session = botMatches(
+                    options.getOrDefault("a", Strategies.DEFAULT_SHOOTER),
+                    options.getOrDefault("b", Strategies.DEFAULT_SHOOTER),
+                    options.getOrDefault("placer", Strategies.DEFAULT_PLACER),
+                    Integer.parseInt(options.getOrDefault("size", String.valueOf(Board.DEFAULT_SIZE))),
+                    Long.parseLong(options.getOrDefault("seed", "1")));
+        }
+        VirtualSessionHost host = new VirtualSessionHost(Integer.parseInt(options.getOrDefault("inflight", "10000")));
+        for (String count : options.getOrDefault("sessions", "1000,10000,100000,1000000").split(",")) {
+            System.out.print(host.run(Long.parseLong(count.trim()), session));
+        }
+    }
+}
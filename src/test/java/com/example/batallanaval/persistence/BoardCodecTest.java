@@ -0,0 +1,139 @@
+package com.example.batallanaval.persistence;
+
+import com.example.batallanaval.models.Board;
+import com.example.batallanaval.models.FleetSampler;
+import com.example.batallanaval.models.Ship;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardCodecTest {
+
+    @Test
+    void roundTripsStandardBoard() throws IOException {
+        Board board = randomBoard(10, 1, 37);
+        assertSameBoard(board, BoardCodec.decode(BoardCodec.encode(board)));
+    }
+
+    @Test
+    void roundTripsEmptyAndFullyShotBoards() throws IOException {
+        Board empty = new Board(7);
+        assertSameBoard(empty, BoardCodec.decode(BoardCodec.encode(empty)));
+
+        Board full = randomBoard(10, 2, 0);
+        for (int r = 0; r < 10; r++) for (int c = 0; c < 10; c++) full.shoot(r, c);
+        assertSameBoard(full, BoardCodec.decode(BoardCodec.encode(full)));
+    }
+
+    @Test
+    void largeSparseBoardStaysSmall() throws IOException {
+        Board board = randomBoard(1000, 3, 500);
+        byte[] data = BoardCodec.encode(board);
+        // La lista de deltas ocupa unos pocos bytes por disparo, no lado² / 8
+        assertTrue(data.length < 2_000, "ocupa " + data.length + " bytes");
+        assertSameBoard(board, BoardCodec.decode(data));
+    }
+
+    @Test
+    void rejectsUnknownMagicAndFutureVersion() {
+        byte[] data = BoardCodec.encode(randomBoard(10, 4, 10));
+        byte[] badMagic = data.clone();
+        badMagic[0] ^= 0x55;
+        assertThrows(IOException.class, () -> BoardCodec.decode(badMagic));
+
+        byte[] future = data.clone();
+        future[1] = (byte) (BoardCodec.VERSION + 1);
+        IOException e = assertThrows(IOException.class, () -> BoardCodec.decode(future));
+        assertTrue(e.getMessage().contains("no soportada"), e.getMessage());
+    }
+
+    @Test
+    void rejectsEveryTruncation() {
+        byte[] data = BoardCodec.encode(randomBoard(10, 5, 25));
+        for (int length = 0; length < data.length; length++) {
+            byte[] prefix = Arrays.copyOf(data, length);
+            assertThrows(IOException.class, () -> BoardCodec.decode(prefix), "prefijo de " + length + " bytes");
+        }
+    }
+
+    @Test
+    void rejectsOverlappingShipsAndInconsistentHits() {
+        // Dos barcos de 2 en (0,0) horizontales sobre un tablero de 4x4, sin disparos
+        byte[] overlap = { BoardCodec.MAGIC, 1, 4, 2, 1, 2, 0, 1, 2, 0, 0, 0, 0 };
+        assertThrows(IOException.class, () -> BoardCodec.decode(overlap));
+
+        // Un barco que dice tener un impacto sin ningún disparo en el tablero
+        byte[] hits = { BoardCodec.MAGIC, 1, 4, 1, 1, 2, 1, 0, 0, 0 };
+        assertThrows(IOException.class, () -> BoardCodec.decode(hits));
+
+        // Lado fuera de rango
+        byte[] size = { BoardCodec.MAGIC, 1, 0, 0, 0 };
+        assertThrows(IOException.class, () -> BoardCodec.decode(size));
+    }
+
+    @Test
+    void readsBaselineSerializedBoards() throws Exception {
+        for (String name : new String[] { "player_board.ser", "machine_board.ser" }) {
+            Board board = LegacyBoardReader.read(legacy(name));
+            assertEquals(10, board.getSize());
+            assertEquals(10, board.getFleetSize(), name);
+            assertTrue(board.isFleetComplete(), name);
+            // Lo leído se puede volver a guardar con el formato actual
+            assertSameBoard(board, BoardCodec.decode(BoardCodec.encode(board)));
+        }
+    }
+
+    @Test
+    void legacyReaderRejectsOtherStreams(@TempDir Path dir) throws IOException {
+        Path other = dir.resolve("other.ser");
+        try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(other))) {
+            out.writeObject(new java.util.Date());
+        }
+        assertThrows(IOException.class, () -> LegacyBoardReader.read(other));
+
+        Path garbage = dir.resolve("garbage.ser");
+        Files.write(garbage, new byte[] { 1, 2, 3, 4 });
+        assertThrows(IOException.class, () -> LegacyBoardReader.read(garbage));
+    }
+
+    // ========= AYUDANTES =========
+
+    private static Board randomBoard(int size, long seed, int shots) {
+        Random random = new Random(seed);
+        Board board = new Board(size);
+        board.randomizeShips(random, FleetSampler.Mode.UNIFORM);
+        while (board.getShotsFired() < shots) board.shoot(random.nextInt(size), random.nextInt(size));
+        return board;
+    }
+
+    private static void assertSameBoard(Board expected, Board actual) {
+        assertEquals(expected.getSize(), actual.getSize());
+        assertEquals(expected.getFleetSize(), actual.getFleetSize());
+        for (int i = 0; i < expected.getFleetSize(); i++) {
+            Ship a = expected.getFleet().get(i);
+            Ship b = actual.getFleet().get(i);
+            assertEquals(a.getRow(), b.getRow());
+            assertEquals(a.getCol(), b.getCol());
+            assertEquals(a.isHorizontal(), b.isHorizontal());
+            assertEquals(a.getLength(), b.getLength());
+            assertEquals(a.getRemainingLife(), b.getRemainingLife());
+        }
+        assertArrayEquals(expected.getShotMask(), actual.getShotMask());
+        assertEquals(expected.getShotsFired(), actual.getShotsFired());
+        assertEquals(expected.getHitCount(), actual.getHitCount());
+        assertEquals(expected.getShipsSunk(), actual.getShipsSunk());
+    }
+
+    private static Path legacy(String name) throws URISyntaxException {
+        return Path.of(BoardCodecTest.class.getResource("legacy/" + name).toURI());
+    }
+}
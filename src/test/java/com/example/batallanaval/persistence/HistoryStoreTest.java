@@ -0,0 +1,146 @@
+package com.example.batallanaval.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoryStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void statsSurviveReopen() throws IOException {
+        try (HistoryStore history = HistoryStore.open(dir)) {
+            history.record("ana", true, 40, 17, 45, 1_000L, true);
+            history.record("ana", true, 30, 17, 35, 2_000L, true);
+            history.record("ana", false, 50, 15, 48, 3_000L, true);
+        }
+        try (HistoryStore history = HistoryStore.open(dir)) {
+            assertEquals(3, history.gameCount());
+            PlayerStats ana = history.summary("ana");
+            assertEquals(3, ana.getGames());
+            assertEquals(2, ana.getWins());
+            assertEquals(-1, ana.getStreak());
+            assertEquals(2, ana.getBestStreak());
+            assertEquals(30, ana.getBestWinShots());
+            assertEquals(3_000L, ana.getLastPlayedAt());
+            assertEquals(49.0 / 120, ana.getAccuracy(), 1e-9);
+
+            // Lo registrado tras reabrir se suma a lo anterior
+            assertEquals(4, history.record("ana", true, 20, 17, 30, 4_000L, false).getGames());
+        }
+        try (HistoryStore history = HistoryStore.open(dir)) {
+            assertEquals(4, history.summary("ana").getGames());
+            assertNull(history.summary("nadie"));
+        }
+    }
+
+    @Test
+    void leaderboardOrdersByWinsThenRate() throws IOException {
+        try (HistoryStore history = HistoryStore.open(dir)) {
+            record(history, "ana", true, true, false);
+            record(history, "bea", true, true);
+            record(history, "carla", true, false, false, false);
+            record(history, "dani", false);
+
+            assertEquals(List.of("bea", "ana", "carla", "dani"), names(history.leaderboard(10)));
+            assertEquals(List.of("bea", "ana"), names(history.leaderboard(2)));
+
+            // Una victoria más cambia el orden sin reconstruir nada
+            record(history, "carla", true, true);
+            assertEquals(List.of("carla", "bea", "ana"), names(history.leaderboard(3)));
+        }
+        try (HistoryStore history = HistoryStore.open(dir)) {
+            assertEquals(List.of("carla", "bea", "ana", "dani"), names(history.leaderboard(10)));
+        }
+    }
+
+    @Test
+    void tooLongNicknameChangesNothing() throws IOException {
+        String longName = "x".repeat(SaveHeader.MAX_NICKNAME_BYTES + 6);
+        try (HistoryStore history = HistoryStore.open(dir)) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> history.record(longName, true, 10, 5, 10, 1L, true));
+            assertEquals(0, history.gameCount());
+            assertNull(history.summary(longName));
+            assertTrue(history.leaderboard(10).isEmpty());
+
+            history.record("ana", true, 10, 5, 10, 2L, true);
+        }
+        try (HistoryStore history = HistoryStore.open(dir)) {
+            assertEquals(List.of("ana"), names(history.leaderboard(10)));
+        }
+    }
+
+    @Test
+    void failedWriteLeavesTheStoreUnchanged() throws Exception {
+        HistoryStore history = HistoryStore.open(dir);
+        history.record("ana", true, 20, 10, 20, 1L, true);
+        // Sin el archivo de partidas, la fila de la siguiente partida no se puede escribir
+        gamesChannel(history).close();
+
+        assertThrows(IOException.class, () -> history.record("ana", true, 20, 10, 20, 2L, true));
+        assertThrows(IOException.class, () -> history.record("bea", true, 20, 10, 20, 3L, true));
+        assertEquals(1, history.gameCount());
+        assertEquals(1, history.summary("ana").getGames());
+        assertNull(history.summary("bea"));
+        assertEquals(List.of("ana"), names(history.leaderboard(10)));
+        assertThrows(IOException.class, history::close);
+
+        // El nombre de "bea" quedó escrito sin partidas: no cuenta hasta su primera partida
+        try (HistoryStore reopened = HistoryStore.open(dir)) {
+            assertEquals(List.of("ana"), names(reopened.leaderboard(10)));
+            assertNull(reopened.summary("bea"));
+            reopened.record("bea", false, 30, 12, 25, 4L, true);
+            reopened.record("carla", false, 30, 12, 25, 5L, true);
+            assertEquals(List.of("ana", "bea", "carla"), names(reopened.leaderboard(10)));
+        }
+        try (HistoryStore reopened = HistoryStore.open(dir)) {
+            assertEquals(3, reopened.gameCount());
+            assertEquals(1, reopened.summary("bea").getGames());
+            assertEquals(1, reopened.summary("carla").getGames());
+        }
+    }
+
+    @Test
+    void fitNicknameCutsOnCharacterBoundaries() {
+        assertEquals("ana", SaveHeader.fitNickname("ana"));
+        String exact = "a".repeat(SaveHeader.MAX_NICKNAME_BYTES);
+        assertEquals(exact, SaveHeader.fitNickname(exact));
+
+        // "ñ" ocupa dos bytes: 63 de "a" más una "ñ" no caben, y no se deja media "ñ"
+        String accented = "a".repeat(SaveHeader.MAX_NICKNAME_BYTES - 1) + "ñ";
+        assertEquals("a".repeat(SaveHeader.MAX_NICKNAME_BYTES - 1), SaveHeader.fitNickname(accented));
+
+        String emoji = "🚢".repeat(20);
+        String fitted = SaveHeader.fitNickname(emoji);
+        assertEquals("🚢".repeat(SaveHeader.MAX_NICKNAME_BYTES / 4), fitted);
+        assertTrue(fitted.getBytes(StandardCharsets.UTF_8).length <= SaveHeader.MAX_NICKNAME_BYTES);
+        assertEquals(fitted, new SaveHeader(emoji, false, 0, 0, 0).getNickname());
+    }
+
+    // ========= AYUDANTES =========
+
+    private static void record(HistoryStore history, String nickname, boolean... results) throws IOException {
+        for (boolean won : results) history.record(nickname, won, 20, 10, 20, 1L, false);
+    }
+
+    private static FileChannel gamesChannel(HistoryStore history) throws ReflectiveOperationException {
+        Field games = HistoryStore.class.getDeclaredField("games");
+        games.setAccessible(true);
+        return (FileChannel) games.get(history);
+    }
+
+    private static List<String> names(List<PlayerStats> stats) {
+        return stats.stream().map(PlayerStats::getNickname).toList();
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.batallanaval.persistence;
+
+import com.example.batallanaval.models.Board;
+import com.example.batallanaval.models.FleetSampler;
+import com.example.batallanaval.models.ShotResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayTest {
+
+    private static final int SIZE = 10;
+    private static final int INTERVAL = 8;
+
+    @TempDir
+    Path dir;
+
+    private Board playerFleet;
+    private Board machineFleet;
+    /** Disparos de la partida: bando (1 jugador) y casilla. */
+    private final List<int[]> shots = new ArrayList<>();
+    private final List<ShotResult> results = new ArrayList<>();
+
+    @BeforeEach
+    void recordGame() throws IOException {
+        Random random = new Random(17);
+        playerFleet = new Board(SIZE);
+        playerFleet.randomizeShips(random, FleetSampler.Mode.UNIFORM);
+        machineFleet = new Board(SIZE);
+        machineFleet.randomizeShips(random, FleetSampler.Mode.UNIFORM);
+
+        // Los dos bandos disparan a todas las casillas en orden aleatorio, intercalados
+        List<Integer> order = new ArrayList<>();
+        for (int cell = 0; cell < SIZE * SIZE; cell++) order.add(cell);
+        List<Integer> other = new ArrayList<>(order);
+        Collections.shuffle(order, random);
+        Collections.shuffle(other, random);
+        for (int i = 0; i < order.size(); i++) {
+            shots.add(new int[] { 0, order.get(i) });
+            shots.add(new int[] { 1, other.get(i) });
+        }
+        try (ReplayWriter writer = new ReplayWriter(file(), "tester", 1234L, playerFleet, machineFleet, INTERVAL)) {
+            for (int[] shot : shots) results.add(writer.record(shot[0] == 1, shot[1]));
+            writer.finish(false);
+        }
+    }
+
+    @Test
+    void readsHeaderAndEveryShot() throws IOException {
+        try (ReplayReader reader = ReplayReader.open(file())) {
+            assertEquals("tester", reader.getNickname());
+            assertEquals(1234L, reader.getPlayedAt());
+            assertEquals(SIZE, reader.getBoardSize());
+            assertEquals(shots.size(), reader.getEventCount());
+            assertEquals(INTERVAL, reader.getKeyframeInterval());
+            assertFalse(reader.isPlayerWinner());
+            for (int i = 0; i < shots.size(); i++) {
+                assertTrue(reader.next());
+                assertShot(reader, i);
+            }
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void seekLandsOnEveryTurn() throws IOException {
+        try (ReplayReader reader = ReplayReader.open(file())) {
+            // Hacia delante, hacia atrás y en los bordes de los fotogramas clave
+            for (int turn : new int[] { 0, INTERVAL, INTERVAL - 1, 150, 3, shots.size() - 1, 2 * INTERVAL + 1 }) {
+                reader.seek(turn);
+                assertTrue(reader.next());
+                assertShot(reader, turn);
+            }
+            reader.seek(shots.size());
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void boardsAtMatchesAFullReplay() throws IOException {
+        Board player = BoardCodec.decode(BoardCodec.encode(playerFleet));
+        Board machine = BoardCodec.decode(BoardCodec.encode(machineFleet));
+        try (ReplayReader reader = ReplayReader.open(file())) {
+            for (int turn = 0; turn <= shots.size(); turn++) {
+                Board[] boards = reader.boardsAt(turn);
+                assertArrayEquals(player.getShotMask(), boards[0].getShotMask(), "turno " + turn);
+                assertArrayEquals(machine.getShotMask(), boards[1].getShotMask(), "turno " + turn);
+                assertEquals(player.getShipsSunk(), boards[0].getShipsSunk());
+                assertEquals(machine.getShipsSunk(), boards[1].getShipsSunk());
+                if (turn < shots.size()) {
+                    // El lector queda situado en el disparo pedido
+                    assertTrue(reader.next());
+                    assertShot(reader, turn);
+                    int[] shot = shots.get(turn);
+                    (shot[0] == 1 ? player : machine).shoot(shot[1] / SIZE, shot[1] % SIZE);
+                }
+            }
+        }
+    }
+
+    @Test
+    void unfinishedReplayLeavesNoFile() throws IOException {
+        Path unfinished = dir.resolve("unfinished" + ReplayWriter.EXTENSION);
+        try (ReplayWriter writer = new ReplayWriter(unfinished, "tester", 0L, playerFleet, machineFleet, INTERVAL)) {
+            writer.record(false, 0);
+        }
+        try (var files = Files.list(dir)) {
+            assertEquals(List.of(file()), files.toList());
+        }
+    }
+
+    @Test
+    void rejectsTruncatedFiles() throws IOException {
+        byte[] data = Files.readAllBytes(file());
+        Path truncated = dir.resolve("truncated" + ReplayWriter.EXTENSION);
+        Files.write(truncated, Arrays.copyOf(data, data.length - 3));
+        assertThrows(IOException.class, () -> ReplayReader.open(truncated).close());
+    }
+
+    // ========= AYUDANTES =========
+
+    private Path file() {
+        return dir.resolve("game" + ReplayWriter.EXTENSION);
+    }
+
+    private void assertShot(ReplayReader reader, int turn) {
+        int[] shot = shots.get(turn);
+        assertEquals(turn, reader.turn());
+        assertEquals(shot[0] == 1, reader.isOnPlayerBoard(), "turno " + turn);
+        assertEquals(shot[1], reader.getCell(), "turno " + turn);
+        assertEquals(results.get(turn), reader.getResult(), "turno " + turn);
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.batallanaval.persistence;
+
+import com.example.batallanaval.models.Board;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotStoreTest {
+
+    private static final SaveHeader HEADER = new SaveHeader("tester", false, 0, 10, 10);
+
+    @Test
+    void snapshotSurvivesReopen(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("slots.dat");
+        byte[] payload = bytes(1, 1000);
+        try (SlotStore store = SlotStore.open(file)) {
+            store.writeSnapshot(0, HEADER, payload, true);
+            assertArrayEquals(payload, store.readSnapshot(0));
+        }
+        try (SlotStore store = SlotStore.open(file)) {
+            assertArrayEquals(payload, store.readSnapshot(0));
+            assertEquals("tester", store.info(0).getHeader().getNickname());
+            assertNull(store.readSnapshot(1));
+        }
+    }
+
+    @Test
+    void clearForgetsTheOldJournal(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("slots.dat");
+        try (SlotStore store = SlotStore.open(file)) {
+            store.writeSnapshot(0, HEADER, bytes(2, 100), true);
+            append(store, 0, 1, 2, 3, 4, 5);
+            store.clear(0);
+            assertNull(store.readSnapshot(0));
+
+            // La ranura reutilizada empieza de nuevo en la generación 1
+            store.writeSnapshot(0, HEADER, bytes(3, 100), true);
+            append(store, 0, 6);
+            assertEquals(1, store.replay(0, new Board(10), new Board(10), null));
+        }
+        try (SlotStore store = SlotStore.open(file)) {
+            Board machine = new Board(10);
+            assertEquals(1, store.replay(0, new Board(10), machine, null));
+            assertEquals(1, machine.getShotsFired());
+        }
+    }
+
+    @Test
+    void tornSnapshotFallsBackToThePreviousHalf(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("slots.dat");
+        byte[] first = bytes(4, 1000);
+        byte[] second = bytes(5, 1000);
+        try (SlotStore store = SlotStore.open(file)) {
+            store.writeSnapshot(0, HEADER, first, true);
+            store.writeSnapshot(0, HEADER, second, true);
+        }
+        // Una escritura cortada deja la mitad activa con un contenido que no cuadra con su CRC
+        corrupt(file, second);
+        try (SlotStore store = SlotStore.open(file)) {
+            assertArrayEquals(first, store.readSnapshot(0));
+        }
+    }
+
+    @Test
+    void damagedIndexEntryKeepsTheSlotOccupied(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("slots.dat");
+        byte[] first = bytes(11, 500);
+        byte[] second = bytes(12, 500);
+        try (SlotStore store = SlotStore.open(file)) {
+            store.writeSnapshot(2, HEADER, first, true);
+            store.writeSnapshot(2, HEADER, second, true);
+            append(store, 2, 4, 5, 6);
+        }
+        // Una cabecera escrita a medias deja la entrada con un CRC que no cuadra
+        corrupt(file, "tester".getBytes(StandardCharsets.UTF_8));
+        try (SlotStore store = SlotStore.open(file)) {
+            List<SlotStore.SlotInfo> used = store.list();
+            assertEquals(1, used.size());
+            assertEquals(2, used.get(0).getSlot());
+            assertTrue(used.get(0).getHeader().isUnknown());
+            assertArrayEquals(second, store.readSnapshot(2));
+            assertEquals(3, store.replay(2, new Board(10), new Board(10), null));
+
+            store.writeHeader(2, HEADER, true);
+        }
+        try (SlotStore store = SlotStore.open(file)) {
+            assertEquals("tester", store.info(2).getHeader().getNickname());
+            assertArrayEquals(second, store.readSnapshot(2));
+        }
+    }
+
+    @Test
+    void damagedEntryWithoutSnapshotIsFree(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("slots.dat");
+        try (SlotStore store = SlotStore.open(file)) {
+            store.writeSnapshot(0, HEADER, bytes(13, 200), true);
+            store.clear(0);
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            // Basura en la entrada de una ranura sin ninguna mitad válida
+            raf.seek(SlotStore.ENTRIES_OFFSET);
+            raf.write(new byte[] { 1, 0, 7, 7, 7 });
+        }
+        try (SlotStore store = SlotStore.open(file)) {
+            assertTrue(store.list().isEmpty());
+            // La entrada queda vacía y la ranura se puede volver a usar
+            store.writeSnapshot(0, HEADER, bytes(14, 200), true);
+            assertEquals("tester", store.info(0).getHeader().getNickname());
+        }
+    }
+
+    @Test
+    void oversizedSnapshotGoesToASideFile(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("slots.dat");
+        byte[] large = bytes(6, SlotStore.DEFAULT_HALF_CAPACITY + 300_000);
+        try (SlotStore store = SlotStore.open(file)) {
+            long mapped = Files.size(file);
+            store.writeSnapshot(0, HEADER, large, true);
+            assertEquals(mapped, Files.size(file));
+            assertArrayEquals(large, store.readSnapshot(0));
+            append(store, 0, 7, 8);
+        }
+        try (SlotStore store = SlotStore.open(file)) {
+            assertArrayEquals(large, store.readSnapshot(0));
+            assertEquals(2, store.replay(0, new Board(10), new Board(10), null));
+
+            // Dos instantáneas pequeñas ocupan las dos mitades y ya no queda nada aparte
+            store.writeSnapshot(0, HEADER, bytes(7, 100), true);
+            store.writeSnapshot(0, HEADER, bytes(8, 100), true);
+            assertEquals(0, sideFiles(dir));
+
+            store.writeSnapshot(0, HEADER, large, true);
+            assertEquals(1, sideFiles(dir));
+            store.clear(0);
+            assertEquals(0, sideFiles(dir));
+        }
+    }
+
+    @Test
+    void missingSideFileFallsBackToThePreviousHalf(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("slots.dat");
+        byte[] small = bytes(9, 100);
+        try (SlotStore store = SlotStore.open(file)) {
+            store.writeSnapshot(0, HEADER, small, true);
+            store.writeSnapshot(0, HEADER, bytes(10, SlotStore.DEFAULT_HALF_CAPACITY + 1), true);
+        }
+        try (var files = Files.list(dir)) {
+            for (Path side : files.filter(p -> !p.equals(file)).toList()) Files.write(side, new byte[10]);
+        }
+        try (SlotStore store = SlotStore.open(file)) {
+            assertArrayEquals(small, store.readSnapshot(0));
+        }
+    }
+
+    // ========= AYUDANTES =========
+
+    private static byte[] bytes(long seed, int length) {
+        byte[] data = new byte[length];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+
+    private static void append(SlotStore store, int slot, int... cells) throws IOException {
+        store.appendShots(slot, new boolean[cells.length], cells, cells.length, true);
+    }
+
+    /** Cambia un byte en mitad del primer lugar del archivo donde aparece el contenido. */
+    private static void corrupt(Path file, byte[] payload) throws IOException {
+        byte[] data = Files.readAllBytes(file);
+        outer:
+        for (int i = 0; i + payload.length <= data.length; i++) {
+            for (int j = 0; j < payload.length; j++) {
+                if (data[i + j] != payload[j]) continue outer;
+            }
+            try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+                raf.seek(i + payload.length / 2);
+                raf.write(data[i + payload.length / 2] ^ 0x01);
+            }
+            return;
+        }
+        fail("contenido no encontrado");
+    }
+
+    private static long sideFiles(Path dir) throws IOException {
+        try (var files = Files.list(dir)) {
+            return files.filter(p -> !p.getFileName().toString().equals("slots.dat")).count();
+        }
+    }
+}